@@ -9,6 +9,9 @@
 plugins {
     // Apply the application plugin to add support for building a CLI application in Java.
     application
+
+    // JMH micro-benchmarks under src/jmh, run with `gradle :app:jmh`
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 repositories {
@@ -67,6 +70,7 @@ dependencies {
     // Kafka
     implementation(libs.kafka.clients)
     implementation(libs.kafka.streams)
+    testImplementation(libs.kafka.streams.test.utils)
     
     // Hive dependencies (newer version for JDK 17 compatibility)
     implementation(libs.hive.jdbc)
@@ -84,6 +88,12 @@ dependencies {
     implementation(libs.parquet.common)
     implementation(libs.parquet.column)
     
+    // Sketches for approximate analytics
+    implementation(libs.datasketches.java)
+    
+    // Compressed bitmaps for per-file bitmap indexes
+    implementation(libs.roaringbitmap)
+    
     // JSON processing
     implementation(libs.jackson.core)
     implementation(libs.jackson.databind)
@@ -116,6 +126,16 @@ java {
     }
 }
 
+jmh {
+    // Benchmark class name regex, e.g. -PjmhIncludes=JsonCodecBenchmark
+    includes = listOf(providers.gradleProperty("jmhIncludes").getOrElse(".*"))
+    warmupIterations = 3
+    iterations = 5
+    fork = 1
+    // The benchmark jar bundles the Hadoop, Hive and Spark classpath
+    zip64 = true
+}
+
 application {
     // Define the main class for the application.
     mainClass = "org.example.App"
@@ -133,12 +153,19 @@ tasks.named<Test>("test") {
         "--add-opens=java.base/java.lang=ALL-UNNAMED",
         "--add-opens=java.base/java.lang.invoke=ALL-UNNAMED", 
         "--add-opens=java.base/java.lang.reflect=ALL-UNNAMED",
+        "--add-opens=java.base/java.net=ALL-UNNAMED",
         "--add-opens=java.base/java.nio=ALL-UNNAMED",
         "--add-opens=java.base/java.util=ALL-UNNAMED",
         "--add-opens=java.base/sun.nio.ch=ALL-UNNAMED",
         "--add-opens=java.base/sun.security.action=ALL-UNNAMED",
         "--add-opens=java.base/sun.util.calendar=ALL-UNNAMED"
     )
+
+    // Embedded Derby (Calcite tests) would otherwise write derby.log into the working directory
+    systemProperty("derby.stream.error.file", layout.buildDirectory.file("derby.log").get().asFile.absolutePath)
+
+    // hive-exec is an uber jar with protobuf 2.5 inside; Calcite's Avatica needs protobuf 3 to load first
+    classpath = classpath.filter { it.name.startsWith("protobuf-java-") } + classpath.filter { !it.name.startsWith("protobuf-java-") }
 }
 
 // Manual Docker service control tasks (optional - extension handles auto-setup)
@@ -184,6 +211,7 @@ tasks.register<Test>("testDocker") {
         "--add-opens=java.base/java.lang=ALL-UNNAMED",
         "--add-opens=java.base/java.lang.invoke=ALL-UNNAMED", 
         "--add-opens=java.base/java.lang.reflect=ALL-UNNAMED",
+        "--add-opens=java.base/java.net=ALL-UNNAMED",
         "--add-opens=java.base/java.nio=ALL-UNNAMED",
         "--add-opens=java.base/java.util=ALL-UNNAMED",
         "--add-opens=java.base/sun.nio.ch=ALL-UNNAMED",
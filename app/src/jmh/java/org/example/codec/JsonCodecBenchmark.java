@@ -0,0 +1,98 @@
+package org.example.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.model.Event;
+import org.example.model.Tweet;
+import org.example.model.User;
+import org.example.service.DataGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming {@link JsonCodec}s versus databind on the same tweets and events.
+ * Run with {@code gradle :app:jmh -PjmhIncludes=JsonCodecBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonCodecBenchmark {
+    private static final int RECORDS = 1_024;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Tweet[] tweets;
+    private Event[] events;
+    private byte[][] tweetJson;
+    private byte[][] eventJson;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        tweets = new Tweet[RECORDS];
+        events = new Event[RECORDS];
+        tweetJson = new byte[RECORDS][];
+        eventJson = new byte[RECORDS][];
+        for (int i = 0; i < RECORDS; i++) {
+            User user = i % 10 == 0 ? DataGenerator.generateCelebrity(random) : DataGenerator.generateRegularUser(random);
+            tweets[i] = DataGenerator.generateTweet(user, random, 1_722_470_400L + i);
+            events[i] = DataGenerator.generateEvent(user.getUserId(), tweets[i].getTweetId(), user.isCelebrity(),
+                user.isCelebrity() ? user.getUserId() : null);
+            tweetJson[i] = objectMapper.writeValueAsBytes(tweets[i]);
+            eventJson[i] = objectMapper.writeValueAsBytes(events[i]);
+        }
+    }
+
+    private int nextIndex() {
+        next = (next + 1) & (RECORDS - 1);
+        return next;
+    }
+
+    @Benchmark
+    public byte[] writeTweetDatabind() throws IOException {
+        return objectMapper.writeValueAsBytes(tweets[nextIndex()]);
+    }
+
+    @Benchmark
+    public byte[] writeTweetStreaming() throws IOException {
+        return JsonCodecs.toBytes(JsonCodecs.TWEET, tweets[nextIndex()]);
+    }
+
+    @Benchmark
+    public Tweet readTweetDatabind() throws IOException {
+        return objectMapper.readValue(tweetJson[nextIndex()], Tweet.class);
+    }
+
+    @Benchmark
+    public Tweet readTweetStreaming() throws IOException {
+        return JsonCodecs.fromBytes(JsonCodecs.TWEET, tweetJson[nextIndex()]);
+    }
+
+    @Benchmark
+    public byte[] writeEventDatabind() throws IOException {
+        return objectMapper.writeValueAsBytes(events[nextIndex()]);
+    }
+
+    @Benchmark
+    public byte[] writeEventStreaming() throws IOException {
+        return JsonCodecs.toBytes(JsonCodecs.EVENT, events[nextIndex()]);
+    }
+
+    @Benchmark
+    public Event readEventDatabind() throws IOException {
+        return objectMapper.readValue(eventJson[nextIndex()], Event.class);
+    }
+
+    @Benchmark
+    public Event readEventStreaming() throws IOException {
+        return JsonCodecs.fromBytes(JsonCodecs.EVENT, eventJson[nextIndex()]);
+    }
+}
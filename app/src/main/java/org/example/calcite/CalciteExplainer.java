@@ -0,0 +1,46 @@
+package org.example.calcite;
+
+import org.apache.calcite.adapter.enumerable.EnumerableConvention;
+import org.apache.calcite.config.Lex;
+import org.apache.calcite.plan.RelOptUtil;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.schema.SchemaPlus;
+import org.apache.calcite.sql.SqlNode;
+import org.apache.calcite.sql.parser.SqlParser;
+import org.apache.calcite.sql.validate.SqlConformanceEnum;
+import org.apache.calcite.tools.FrameworkConfig;
+import org.apache.calcite.tools.Frameworks;
+import org.apache.calcite.tools.Planner;
+import org.apache.calcite.tools.Programs;
+
+/**
+ * Produces Calcite's physical plan for a query with the same parser settings as our
+ * Calcite connections ({@code lex=JAVA}, {@code conformance=LENIENT}).
+ */
+public final class CalciteExplainer {
+
+    private CalciteExplainer() {
+    }
+
+    /**
+     * Optimized plan of a query over the given root schema, one operator per line
+     */
+    public static String explain(SchemaPlus rootSchema, String sql) {
+        FrameworkConfig config = Frameworks.newConfigBuilder()
+            .defaultSchema(rootSchema)
+            .parserConfig(SqlParser.config().withLex(Lex.JAVA).withConformance(SqlConformanceEnum.LENIENT))
+            .programs(Programs.standard())
+            .build();
+        Planner planner = Frameworks.getPlanner(config);
+        try {
+            SqlNode validated = planner.validate(planner.parse(sql));
+            RelNode logical = planner.rel(validated).project();
+            RelNode physical = planner.transform(0, logical.getTraitSet().replace(EnumerableConvention.INSTANCE), logical);
+            return RelOptUtil.toString(physical);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Cannot plan query: " + e.getMessage(), e);
+        } finally {
+            planner.close();
+        }
+    }
+}
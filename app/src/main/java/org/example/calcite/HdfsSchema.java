@@ -0,0 +1,26 @@
+package org.example.calcite;
+
+import org.apache.calcite.schema.Table;
+import org.apache.calcite.schema.impl.AbstractSchema;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tweet tables over directories in the {@link org.example.hadoop.HDFSWriter} layout
+ * ({@code <dir>/year=/month=/day=/hour=/<files>}); see {@link HdfsTweetTable}.
+ */
+public class HdfsSchema extends AbstractSchema {
+    private final Map<String, Table> tables = new LinkedHashMap<>();
+
+    public HdfsSchema(FileSystem fileSystem, Map<String, String> tableDirectories) {
+        tableDirectories.forEach((name, directory) -> tables.put(name, new HdfsTweetTable(fileSystem, new Path(directory))));
+    }
+
+    @Override
+    protected Map<String, Table> getTableMap() {
+        return tables;
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.calcite;
+
+import org.apache.calcite.schema.Schema;
+import org.apache.calcite.schema.SchemaFactory;
+import org.apache.calcite.schema.SchemaPlus;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Schema factory for tweet datasets read straight from HDFS (or any Hadoop file system),
+ * without going through HiveServer2.
+ *
+ * Operands:
+ * <ul>
+ *   <li>{@code fsUri}: file system URI, e.g. {@code hdfs://localhost:9000}; defaults to {@code file:///}</li>
+ *   <li>{@code tables}: table name to directory, e.g. {@code {"tweets": "/data/tweets"}}</li>
+ * </ul>
+ */
+public class HdfsSchemaFactory implements SchemaFactory {
+    public static final HdfsSchemaFactory INSTANCE = new HdfsSchemaFactory();
+
+    @Override
+    public Schema create(SchemaPlus parentSchema, String name, Map<String, Object> operand) {
+        String fsUri = (String) operand.getOrDefault("fsUri", "file:///");
+        Map<String, String> tables = new LinkedHashMap<>();
+        Object tablesOperand = operand.get("tables");
+        if (tablesOperand instanceof Map<?, ?> map) {
+            map.forEach((table, path) -> tables.put(String.valueOf(table), String.valueOf(path)));
+        }
+        try {
+            return new HdfsSchema(FileSystem.get(URI.create(fsUri), new Configuration()), tables);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open file system " + fsUri + " for schema " + name, e);
+        }
+    }
+}
@@ -0,0 +1,360 @@
+package org.example.calcite;
+
+import org.apache.calcite.DataContext;
+import org.apache.calcite.linq4j.AbstractEnumerable;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.rel.type.RelDataTypeFactory;
+import org.apache.calcite.rex.RexCall;
+import org.apache.calcite.rex.RexInputRef;
+import org.apache.calcite.rex.RexLiteral;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.schema.ProjectableFilterableTable;
+import org.apache.calcite.schema.impl.AbstractTable;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.sql.type.SqlTypeName;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetReader;
+import org.apache.parquet.hadoop.api.ReadSupport;
+import org.apache.parquet.hadoop.example.GroupReadSupport;
+import org.apache.parquet.hadoop.util.HadoopInputFile;
+import org.apache.parquet.schema.MessageType;
+import org.example.hadoop.HDFSReader;
+import org.example.hadoop.JsonLineScanner;
+import org.example.hadoop.Sidecars;
+import org.example.hadoop.TweetParquetWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Tweets read directly from the files under one directory, with the columns of the Hive
+ * {@code tweets_partitioned} table. JSON lines files ({@code *.json}, as written by
+ * {@link org.example.hadoop.HDFSWriter}) and Parquet files ({@link TweetParquetWriter} layout)
+ * may be mixed; hidden, in-progress and other files (binary records, markers) are ignored.
+ *
+ * Comparisons of the partition columns with literals are evaluated on the
+ * {@code year=/month=/day=/hour=} directory names, so pruned partitions are never listed or
+ * opened. Only the projected columns are decoded: JSON lines are scanned for just their keys
+ * with a {@link JsonLineScanner}, Parquet reads just their column chunks, and if no data column
+ * is needed at all Parquet rows are counted from the footer.
+ */
+public class HdfsTweetTable extends AbstractTable implements ProjectableFilterableTable {
+    static final List<String> DATA_COLUMNS = List.of(
+        "tweet_id", "user_id", "username", "content", "tweet_timestamp", "like_count",
+        "retweet_count", "reply_count", "is_celebrity", "celebrity_category", "hashtags", "mentions");
+    static final List<String> PARTITION_COLUMNS = List.of("year", "month", "day", "hour");
+
+    private final FileSystem fileSystem;
+    private final Path directory;
+
+    private record DataFile(Path path, Integer[] partition) {
+    }
+
+    public HdfsTweetTable(FileSystem fileSystem, Path directory) {
+        this.fileSystem = fileSystem;
+        this.directory = directory;
+    }
+
+    @Override
+    public RelDataType getRowType(RelDataTypeFactory typeFactory) {
+        RelDataTypeFactory.Builder builder = typeFactory.builder();
+        for (String column : DATA_COLUMNS) {
+            builder.add(column, columnType(typeFactory, column)).nullable(true);
+        }
+        for (String column : PARTITION_COLUMNS) {
+            builder.add(column, SqlTypeName.INTEGER).nullable(true);
+        }
+        return builder.build();
+    }
+
+    private static RelDataType columnType(RelDataTypeFactory typeFactory, String column) {
+        return switch (column) {
+            case "tweet_timestamp" -> typeFactory.createSqlType(SqlTypeName.BIGINT);
+            case "like_count", "retweet_count", "reply_count" -> typeFactory.createSqlType(SqlTypeName.INTEGER);
+            case "is_celebrity" -> typeFactory.createSqlType(SqlTypeName.BOOLEAN);
+            case "hashtags", "mentions" -> typeFactory.createArrayType(
+                typeFactory.createTypeWithNullability(typeFactory.createSqlType(SqlTypeName.VARCHAR), true), -1);
+            default -> typeFactory.createSqlType(SqlTypeName.VARCHAR);
+        };
+    }
+
+    /**
+     * Partition filters are removed from {@code filters} and applied to the directory layout;
+     * anything else is left for Calcite to evaluate on the returned rows
+     */
+    @Override
+    public Enumerable<Object[]> scan(DataContext root, List<RexNode> filters, int[] projects) {
+        int[] fields = projects != null ? projects
+            : IntStream.range(0, DATA_COLUMNS.size() + PARTITION_COLUMNS.size()).toArray();
+
+        List<PartitionFilter> partitionFilters = new ArrayList<>();
+        for (Iterator<RexNode> iterator = filters.iterator(); iterator.hasNext(); ) {
+            PartitionFilter filter = PartitionFilter.of(iterator.next());
+            if (filter != null) {
+                partitionFilters.add(filter);
+                iterator.remove();
+            }
+        }
+
+        List<DataFile> files = new ArrayList<>();
+        try {
+            if (fileSystem.exists(directory)) {
+                collectFiles(directory, new Integer[PARTITION_COLUMNS.size()], partitionFilters, files);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list " + directory, e);
+        }
+        return new AbstractEnumerable<>() {
+            @Override
+            public Enumerator<Object[]> enumerator() {
+                return new FileEnumerator(files, fields);
+            }
+        };
+    }
+
+    private void collectFiles(Path dir, Integer[] partition, List<PartitionFilter> filters, List<DataFile> files) throws IOException {
+        for (FileStatus status : fileSystem.listStatus(dir)) {
+            String name = status.getPath().getName();
+            if (name.startsWith(".") || name.startsWith("_")) {
+                continue;
+            }
+            if (!status.isDirectory()) {
+                if (!Sidecars.isJsonLinesFile(name) && !Sidecars.isParquetFile(name)) {
+                    continue;
+                }
+                if (filters.stream().allMatch(filter -> partition[filter.column()] != null)) {
+                    files.add(new DataFile(status.getPath(), partition));
+                }
+                continue;
+            }
+
+            Integer[] values = partition;
+            int separator = name.indexOf('=');
+            int column = separator < 0 ? -1 : PARTITION_COLUMNS.indexOf(name.substring(0, separator));
+            if (column >= 0) {
+                int value = Integer.parseInt(name.substring(separator + 1));
+                if (!filters.stream().allMatch(filter -> filter.column() != column || filter.test(value))) {
+                    continue;
+                }
+                values = partition.clone();
+                values[column] = value;
+            }
+            collectFiles(status.getPath(), values, filters, files);
+        }
+    }
+
+    private List<Object[]> read(DataFile file, int[] fields) {
+        try {
+            return Sidecars.isJsonLinesFile(file.path().getName()) ? readJsonLines(file, fields) : readParquet(file, fields);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read " + file.path(), e);
+        }
+    }
+
+    private List<Object[]> readJsonLines(DataFile file, int[] fields) throws IOException {
+        // Scan each line for the projected columns only; the model serializes the event time as "timestamp"
+        List<String> columns = Arrays.stream(fields)
+            .filter(field -> field < DATA_COLUMNS.size())
+            .distinct()
+            .mapToObj(DATA_COLUMNS::get)
+            .toList();
+        JsonLineScanner scanner = new JsonLineScanner(columns.stream()
+            .map(column -> "tweet_timestamp".equals(column) ? "timestamp" : column)
+            .toList());
+        List<Object[]> rows = new ArrayList<>();
+        new HDFSReader(fileSystem).scanJsonLines(file.path().toString(), scanner, line -> {
+            Object[] row = new Object[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                row[i] = fields[i] < DATA_COLUMNS.size()
+                    ? jsonValue(line, columns.indexOf(DATA_COLUMNS.get(fields[i])), DATA_COLUMNS.get(fields[i]))
+                    : file.partition()[fields[i] - DATA_COLUMNS.size()];
+            }
+            rows.add(row);
+        });
+        return rows;
+    }
+
+    private static Object jsonValue(JsonLineScanner line, int field, String column) {
+        if (!line.isPresent(field)) {
+            return null;
+        }
+        return switch (column) {
+            case "tweet_timestamp" -> line.getLong(field, 0);
+            case "like_count", "retweet_count", "reply_count" -> line.getInt(field, 0);
+            case "is_celebrity" -> line.getBoolean(field);
+            case "hashtags", "mentions" -> line.getStrings(field);
+            default -> line.getString(field);
+        };
+    }
+
+    private List<Object[]> readParquet(DataFile file, int[] fields) throws IOException {
+        List<String> columns = Arrays.stream(fields)
+            .filter(field -> field < DATA_COLUMNS.size())
+            .distinct()
+            .mapToObj(DATA_COLUMNS::get)
+            .toList();
+        List<Object[]> rows = new ArrayList<>();
+
+        if (columns.isEmpty()) {
+            long rowCount;
+            try (ParquetFileReader reader = ParquetFileReader.open(HadoopInputFile.fromPath(file.path(), fileSystem.getConf()))) {
+                rowCount = reader.getRecordCount();
+            }
+            for (long r = 0; r < rowCount; r++) {
+                Object[] row = new Object[fields.length];
+                for (int i = 0; i < fields.length; i++) {
+                    row[i] = file.partition()[fields[i] - DATA_COLUMNS.size()];
+                }
+                rows.add(row);
+            }
+            return rows;
+        }
+
+        MessageType projection = new MessageType(TweetParquetWriter.SCHEMA.getName(),
+            columns.stream().map(TweetParquetWriter.SCHEMA::getType).toList());
+        Configuration conf = new Configuration(fileSystem.getConf());
+        conf.set(ReadSupport.PARQUET_READ_SCHEMA, projection.toString());
+        try (ParquetReader<Group> reader = ParquetReader.builder(new GroupReadSupport(), file.path()).withConf(conf).build()) {
+            Group group;
+            while ((group = reader.read()) != null) {
+                Object[] row = new Object[fields.length];
+                for (int i = 0; i < fields.length; i++) {
+                    row[i] = fields[i] < DATA_COLUMNS.size()
+                        ? parquetValue(group, DATA_COLUMNS.get(fields[i]))
+                        : file.partition()[fields[i] - DATA_COLUMNS.size()];
+                }
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private static Object parquetValue(Group group, String column) {
+        if (group.getFieldRepetitionCount(column) == 0) {
+            return null;
+        }
+        return switch (column) {
+            case "tweet_timestamp" -> group.getLong(column, 0);
+            case "like_count", "retweet_count", "reply_count" -> group.getInteger(column, 0);
+            case "is_celebrity" -> group.getBoolean(column, 0);
+            case "hashtags", "mentions" -> {
+                Group list = group.getGroup(column, 0);
+                List<String> elements = new ArrayList<>();
+                for (int i = 0; i < list.getFieldRepetitionCount("list"); i++) {
+                    Group element = list.getGroup("list", i);
+                    elements.add(element.getFieldRepetitionCount("element") == 0 ? null : element.getString("element", 0));
+                }
+                yield elements;
+            }
+            default -> group.getString(column, 0);
+        };
+    }
+
+    /**
+     * {@code <partition column> <op> <literal>} with a comparison operator, in either operand order
+     */
+    record PartitionFilter(int column, SqlKind kind, BigDecimal value) {
+
+        static PartitionFilter of(RexNode node) {
+            if (!(node instanceof RexCall call) || call.getOperands().size() != 2) {
+                return null;
+            }
+            RexNode left = call.getOperands().get(0);
+            RexNode right = call.getOperands().get(1);
+            SqlKind kind = call.getKind();
+            if (left instanceof RexLiteral && right instanceof RexInputRef) {
+                RexNode swap = left;
+                left = right;
+                right = swap;
+                kind = kind.reverse();
+            }
+            if (!(left instanceof RexInputRef ref) || !(right instanceof RexLiteral literal)) {
+                return null;
+            }
+            int column = ref.getIndex() - DATA_COLUMNS.size();
+            BigDecimal value = literal.getValueAs(BigDecimal.class);
+            if (column < 0 || value == null) {
+                return null;
+            }
+            return switch (kind) {
+                case EQUALS, NOT_EQUALS, LESS_THAN, LESS_THAN_OR_EQUAL, GREATER_THAN, GREATER_THAN_OR_EQUAL ->
+                    new PartitionFilter(column, kind, value);
+                default -> null;
+            };
+        }
+
+        boolean test(int partitionValue) {
+            int comparison = BigDecimal.valueOf(partitionValue).compareTo(value);
+            return switch (kind) {
+                case EQUALS -> comparison == 0;
+                case NOT_EQUALS -> comparison != 0;
+                case LESS_THAN -> comparison < 0;
+                case LESS_THAN_OR_EQUAL -> comparison <= 0;
+                case GREATER_THAN -> comparison > 0;
+                case GREATER_THAN_OR_EQUAL -> comparison >= 0;
+                default -> throw new IllegalStateException("Unsupported partition filter " + kind);
+            };
+        }
+    }
+
+    /**
+     * Reads one file at a time, so partitions are only opened as the query consumes rows.
+     * {@link #reset()} starts over from the first file, e.g. for the inner side of a nested-loop join.
+     */
+    private class FileEnumerator implements Enumerator<Object[]> {
+        private final List<DataFile> dataFiles;
+        private final int[] fields;
+        private Iterator<DataFile> files;
+        private Iterator<Object[]> rows = Collections.emptyIterator();
+        private Object[] current;
+
+        FileEnumerator(List<DataFile> dataFiles, int[] fields) {
+            this.dataFiles = dataFiles;
+            this.fields = fields;
+            this.files = dataFiles.iterator();
+        }
+
+        @Override
+        public Object[] current() {
+            return current;
+        }
+
+        @Override
+        public boolean moveNext() {
+            while (!rows.hasNext()) {
+                if (!files.hasNext()) {
+                    return false;
+                }
+                rows = read(files.next(), fields).iterator();
+            }
+            current = rows.next();
+            return true;
+        }
+
+        @Override
+        public void reset() {
+            close();
+            files = dataFiles.iterator();
+        }
+
+        @Override
+        public void close() {
+            rows = Collections.emptyIterator();
+            current = null;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.calcite;
+
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.sql.dialect.HiveSqlDialect;
+
+/**
+ * Hive dialect that also declares the aggregate functions HiveQL evaluates natively.
+ *
+ * Calcite's stock dialect only allows COUNT, SUM, MIN and MAX to be pushed through
+ * JDBC; anything else (AVG, STDDEV_POP, ...) makes the whole aggregate run in the
+ * enumerable layer after pulling every row into the JVM. HiveQL has no aggregate
+ * FILTER clause, so filtered aggregates are unparsed as CASE expressions.
+ */
+public class HiveDialect extends HiveSqlDialect {
+    public static final HiveDialect DEFAULT = new HiveDialect(HiveSqlDialect.DEFAULT_CONTEXT);
+
+    public HiveDialect(Context context) {
+        super(context);
+    }
+
+    @Override
+    public boolean supportsAggregateFunction(SqlKind kind) {
+        return switch (kind) {
+            case COUNT, SUM, SUM0, MIN, MAX, AVG, STDDEV_POP, STDDEV_SAMP, VAR_POP, VAR_SAMP -> true;
+            default -> false;
+        };
+    }
+
+    @Override
+    public boolean supportsAggregateFunctionFilter() {
+        return false;
+    }
+}
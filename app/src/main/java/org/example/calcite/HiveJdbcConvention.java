@@ -0,0 +1,59 @@
+package org.example.calcite;
+
+import org.apache.calcite.adapter.jdbc.JdbcConvention;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.plan.RelOptPlanner;
+import org.apache.calcite.plan.RelOptRule;
+import org.apache.calcite.rel.rules.CoreRules;
+import org.apache.calcite.sql.SqlDialect;
+
+import java.util.List;
+
+/**
+ * JDBC convention for Hive that registers extra transpose and merge rules, so filters,
+ * projections, aggregates, sorts and limits end up next to the table scan and are all
+ * converted into a single HiveQL statement. When enabled, aggregates that the hourly rollups
+ * can answer are also offered in a rewritten form by {@link HourlyRollupRule}; only enable it
+ * while every load of the base table also refreshes the rollups of the hours it touched.
+ *
+ * HiveQL has no aggregate FILTER clause, so the rule that turns SUM(CASE ...) into a
+ * filtered aggregate is removed; it would keep such aggregates out of Hive.
+ */
+public class HiveJdbcConvention extends JdbcConvention {
+
+    static final List<RelOptRule> PUSH_DOWN_RULES = List.of(
+        CoreRules.FILTER_PROJECT_TRANSPOSE,
+        CoreRules.FILTER_AGGREGATE_TRANSPOSE,
+        CoreRules.FILTER_MERGE,
+        CoreRules.PROJECT_MERGE,
+        CoreRules.PROJECT_REMOVE,
+        CoreRules.AGGREGATE_PROJECT_MERGE,
+        CoreRules.SORT_PROJECT_TRANSPOSE,
+        CoreRules.SORT_REMOVE_CONSTANT_KEYS
+    );
+
+    private final boolean useHourlyRollups;
+
+    public HiveJdbcConvention(SqlDialect dialect, Expression expression, String name) {
+        this(dialect, expression, name, false);
+    }
+
+    public HiveJdbcConvention(SqlDialect dialect, Expression expression, String name, boolean useHourlyRollups) {
+        super(dialect, expression, name);
+        this.useHourlyRollups = useHourlyRollups;
+    }
+
+    @Override
+    public void register(RelOptPlanner planner) {
+        super.register(planner);
+        planner.removeRule(CoreRules.AGGREGATE_CASE_TO_FILTER);
+        for (RelOptRule rule : PUSH_DOWN_RULES) {
+            planner.addRule(rule);
+        }
+        if (useHourlyRollups) {
+            for (RelOptRule rule : HourlyRollupRule.RULES) {
+                planner.addRule(rule);
+            }
+        }
+    }
+}
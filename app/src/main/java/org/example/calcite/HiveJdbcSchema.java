@@ -0,0 +1,72 @@
+package org.example.calcite;
+
+import org.apache.calcite.adapter.jdbc.JdbcConvention;
+import org.apache.calcite.adapter.jdbc.JdbcSchema;
+import org.apache.calcite.plan.RelOptTable;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.rel.type.RelDataTypeFactory;
+import org.apache.calcite.schema.Statistic;
+import org.apache.calcite.schema.Statistics;
+import org.apache.calcite.schema.Table;
+import org.apache.calcite.schema.TranslatableTable;
+import org.apache.calcite.schema.impl.AbstractTable;
+import org.apache.calcite.sql.SqlDialect;
+
+import javax.sql.DataSource;
+
+/**
+ * Hive JDBC schema that marks {@link HourlyRollups#ROLLUP_TABLE} as far smaller than the raw
+ * tables, so plans rewritten onto the rollup by {@link HourlyRollupRule} win on cost.
+ */
+public class HiveJdbcSchema extends JdbcSchema {
+    /** Calcite's row count guess for tables without statistics */
+    private static final double DEFAULT_ROW_COUNT = 100;
+
+    public HiveJdbcSchema(DataSource dataSource, SqlDialect dialect, JdbcConvention convention, String catalog, String schema) {
+        super(dataSource, dialect, convention, catalog, schema);
+    }
+
+    @Override
+    public Table getTable(String name) {
+        Table table = super.getTable(name);
+        if (HourlyRollups.ROLLUP_TABLE.equals(name) && table instanceof TranslatableTable translatable) {
+            return new RollupTable(translatable);
+        }
+        return table;
+    }
+
+    /**
+     * The JDBC table with a row count estimate; scans still become JdbcTableScans
+     */
+    private static class RollupTable extends AbstractTable implements TranslatableTable {
+        private final TranslatableTable table;
+
+        RollupTable(TranslatableTable table) {
+            this.table = table;
+        }
+
+        @Override
+        public RelDataType getRowType(RelDataTypeFactory typeFactory) {
+            return table.getRowType(typeFactory);
+        }
+
+        @Override
+        public RelNode toRel(RelOptTable.ToRelContext context, RelOptTable relOptTable) {
+            return table.toRel(context, relOptTable);
+        }
+
+        @Override
+        public Statistic getStatistic() {
+            return Statistics.of(DEFAULT_ROW_COUNT / HourlyRollups.ROLLUP_REDUCTION_FACTOR, null);
+        }
+
+        @Override
+        public <C> C unwrap(Class<C> type) {
+            if (type.isInstance(table)) {
+                return type.cast(table);
+            }
+            return super.unwrap(type);
+        }
+    }
+}
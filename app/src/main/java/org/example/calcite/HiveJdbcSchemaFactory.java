@@ -0,0 +1,55 @@
+package org.example.calcite;
+
+import org.apache.calcite.adapter.jdbc.JdbcSchema;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.schema.Schema;
+import org.apache.calcite.schema.SchemaFactory;
+import org.apache.calcite.schema.SchemaPlus;
+import org.apache.calcite.schema.Schemas;
+import org.apache.calcite.sql.SqlDialect;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Schema factory for Hive over JDBC that plans with {@link HiveDialect} and
+ * {@link HiveJdbcConvention}, so whole queries are pushed down into HiveQL.
+ *
+ * Takes the same operands as Calcite's {@code JdbcSchema$Factory}:
+ * {@code jdbcUrl}, {@code jdbcDriver}, {@code jdbcUser}, {@code jdbcPassword},
+ * {@code jdbcCatalog} and {@code jdbcSchema}, plus {@code useHourlyRollups} (default false)
+ * to answer matching aggregates from the hourly rollups.
+ */
+public class HiveJdbcSchemaFactory implements SchemaFactory {
+    public static final HiveJdbcSchemaFactory INSTANCE = new HiveJdbcSchemaFactory();
+
+    @Override
+    public Schema create(SchemaPlus parentSchema, String name, Map<String, Object> operand) {
+        DataSource dataSource = JdbcSchema.dataSource(
+            (String) operand.get("jdbcUrl"),
+            (String) operand.get("jdbcDriver"),
+            (String) operand.get("jdbcUser"),
+            (String) operand.get("jdbcPassword"));
+        return create(parentSchema, name, dataSource, HiveDialect.DEFAULT, (String) operand.get("jdbcCatalog"),
+            (String) operand.get("jdbcSchema"), Boolean.TRUE.equals(operand.get("useHourlyRollups")));
+    }
+
+    public static JdbcSchema create(SchemaPlus parentSchema, String name, DataSource dataSource, String catalog, String schema) {
+        return create(parentSchema, name, dataSource, HiveDialect.DEFAULT, catalog, schema, false);
+    }
+
+    /**
+     * Same planning rules with another dialect, for databases standing in for Hive
+     */
+    public static JdbcSchema create(SchemaPlus parentSchema, String name, DataSource dataSource, SqlDialect dialect,
+                                    String catalog, String schema) {
+        return create(parentSchema, name, dataSource, dialect, catalog, schema, false);
+    }
+
+    public static JdbcSchema create(SchemaPlus parentSchema, String name, DataSource dataSource, SqlDialect dialect,
+                                    String catalog, String schema, boolean useHourlyRollups) {
+        Expression expression = Schemas.subSchemaExpression(parentSchema, name, JdbcSchema.class);
+        HiveJdbcConvention convention = new HiveJdbcConvention(dialect, expression, name, useHourlyRollups);
+        return new HiveJdbcSchema(dataSource, dialect, convention, catalog, schema);
+    }
+}
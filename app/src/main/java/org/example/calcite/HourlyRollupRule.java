@@ -0,0 +1,256 @@
+package org.example.calcite;
+
+import org.apache.calcite.plan.RelOptRule;
+import org.apache.calcite.plan.RelOptRuleCall;
+import org.apache.calcite.plan.RelOptRuleOperand;
+import org.apache.calcite.plan.RelOptTable;
+import org.apache.calcite.plan.RelOptUtil;
+import org.apache.calcite.plan.ViewExpanders;
+import org.apache.calcite.rel.core.Aggregate;
+import org.apache.calcite.rel.core.AggregateCall;
+import org.apache.calcite.rel.core.TableScan;
+import org.apache.calcite.rel.logical.LogicalAggregate;
+import org.apache.calcite.rel.logical.LogicalFilter;
+import org.apache.calcite.rel.logical.LogicalProject;
+import org.apache.calcite.rex.RexInputRef;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.rex.RexShuttle;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.sql.fun.SqlStdOperatorTable;
+import org.apache.calcite.sql.type.SqlTypeName;
+import org.apache.calcite.tools.RelBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Answers aggregates over {@link HourlyRollups#BASE_TABLE} from {@link HourlyRollups#ROLLUP_TABLE}
+ * when they only group and filter by rollup dimensions and aggregate the rollup measures:
+ * COUNT(*) becomes the sum of tweet counts, AVG is sum over count, and VAR_POP/STDDEV_POP
+ * come from the sums of squares. SUM, MIN and MAX of expressions over dimensions alone, such
+ * as SUM(CASE WHEN is_celebrity THEN 1 ELSE 0 END), are weighted by the tweet count, and
+ * aggregate FILTERs on dimensions become CASE expressions.
+ *
+ * Matches Aggregate over an optional Project and Filter on the base table scan. Does nothing
+ * if the schema has no rollup table. The rollups are trusted to be current, so the rule is only
+ * registered when {@link HiveJdbcConvention} is created with rollups enabled. Assumes measures are never null, as the writers produce
+ * them, so AVG may divide by the row count.
+ */
+public class HourlyRollupRule extends RelOptRule {
+
+    public static final List<HourlyRollupRule> RULES = List.of(
+        new HourlyRollupRule(operand(LogicalAggregate.class, scan()), "HourlyRollupRule:Scan"),
+        new HourlyRollupRule(operand(LogicalAggregate.class, operand(LogicalFilter.class, scan())), "HourlyRollupRule:Filter"),
+        new HourlyRollupRule(operand(LogicalAggregate.class, operand(LogicalProject.class, scan())), "HourlyRollupRule:Project"),
+        new HourlyRollupRule(operand(LogicalAggregate.class,
+            operand(LogicalProject.class, operand(LogicalFilter.class, scan()))), "HourlyRollupRule:ProjectFilter")
+    );
+
+    private static RelOptRuleOperand scan() {
+        return operand(TableScan.class, null,
+            scan -> HourlyRollups.BASE_TABLE.equals(last(scan.getTable().getQualifiedName())), none());
+    }
+
+    private HourlyRollupRule(RelOptRuleOperand operand, String description) {
+        super(operand, description);
+    }
+
+    @Override
+    public void onMatch(RelOptRuleCall call) {
+        Aggregate aggregate = call.rel(0);
+        TableScan scan = call.rel(call.rels.length - 1);
+        if (aggregate.getGroupType() != Aggregate.Group.SIMPLE) {
+            return;
+        }
+        List<String> rollupName = new ArrayList<>(scan.getTable().getQualifiedName());
+        rollupName.set(rollupName.size() - 1, HourlyRollups.ROLLUP_TABLE);
+        RelOptTable rollupTable = scan.getTable().getRelOptSchema().getTableForMember(rollupName);
+        if (rollupTable == null) {
+            return;
+        }
+
+        // Express the aggregate's input and all filters in terms of base table columns
+        List<String> baseColumns = scan.getRowType().getFieldNames();
+        List<RexNode> inputs = new ArrayList<>(aggregate.getCluster().getRexBuilder().identityProjects(scan.getRowType()));
+        List<RexNode> conditions = new ArrayList<>();
+        for (int i = call.rels.length - 2; i >= 1; i--) {
+            if (call.rel(i) instanceof LogicalFilter filter) {
+                conditions.add(inline(filter.getCondition(), inputs));
+            } else if (call.rel(i) instanceof LogicalProject project) {
+                List<RexNode> projected = new ArrayList<>();
+                for (RexNode expression : project.getProjects()) {
+                    projected.add(inline(expression, inputs));
+                }
+                inputs = projected;
+            }
+        }
+        if (!conditions.stream().allMatch(condition -> onlyDimensions(condition, baseColumns))) {
+            return;
+        }
+
+        // Pruning the aggregate's input when calls take expressions trips an assertion in RelBuilder
+        RelBuilder builder = call.builder().transform(config -> config.withPruneInputOfAggregate(false));
+        builder.push(rollupTable.toRel(ViewExpanders.simpleContext(aggregate.getCluster())));
+        RexShuttle toRollup = toRollup(builder, baseColumns);
+        List<RexNode> rollupConditions = new ArrayList<>();
+        conditions.forEach(condition -> rollupConditions.add(condition.accept(toRollup)));
+        builder.filter(rollupConditions);
+
+        List<RexNode> groupKeys = new ArrayList<>();
+        for (int key : aggregate.getGroupSet()) {
+            RexNode input = inputs.get(key);
+            if (!(input instanceof RexInputRef) || !onlyDimensions(input, baseColumns)) {
+                return;
+            }
+            groupKeys.add(input.accept(toRollup));
+        }
+
+        List<RelBuilder.AggCall> rollupCalls = new ArrayList<>();
+        List<Function<Function<String, RexNode>, RexNode>> results = new ArrayList<>();
+        for (int i = 0; i < aggregate.getAggCallList().size(); i++) {
+            AggregateCall aggCall = aggregate.getAggCallList().get(i);
+            if (aggCall.isDistinct() || aggCall.isApproximate() || !aggCall.getCollation().getFieldCollations().isEmpty()) {
+                return;
+            }
+            RexNode filter = null;
+            if (aggCall.filterArg >= 0) {
+                RexNode condition = inputs.get(aggCall.filterArg);
+                if (!onlyDimensions(condition, baseColumns)) {
+                    return;
+                }
+                filter = condition.accept(toRollup);
+            }
+            Function<Function<String, RexNode>, RexNode> result =
+                rewrite(builder, aggCall, inputs, baseColumns, filter, "$rollup" + i + "_", rollupCalls);
+            if (result == null) {
+                return;
+            }
+            results.add(result);
+        }
+
+        builder.aggregate(builder.groupKey(groupKeys), rollupCalls);
+        List<RexNode> outputs = new ArrayList<>();
+        for (int i = 0; i < groupKeys.size(); i++) {
+            outputs.add(builder.field(i));
+        }
+        for (var result : results) {
+            outputs.add(result.apply(builder::field));
+        }
+        builder.project(outputs, aggregate.getRowType().getFieldNames(), true);
+        builder.convert(aggregate.getRowType(), false);
+        call.transformTo(builder.build());
+    }
+
+    /**
+     * Add the rollup aggregates one call needs, named with the given prefix, and return how
+     * to compute the call's value from them; null if the call cannot be answered from rollups
+     */
+    private static Function<Function<String, RexNode>, RexNode> rewrite(RelBuilder builder, AggregateCall aggCall,
+            List<RexNode> inputs, List<String> baseColumns, RexNode filter, String prefix, List<RelBuilder.AggCall> rollupCalls) {
+        String count = prefix + "count";
+        String sum = prefix + "sum";
+        String squares = prefix + "squares";
+        String value = prefix + "value";
+        RexNode tweetCount = builder.field(HourlyRollups.COUNT_COLUMN);
+        SqlKind kind = aggCall.getAggregation().getKind();
+        if (kind == SqlKind.COUNT && aggCall.getArgList().isEmpty()) {
+            rollupCalls.add(builder.aggregateCall(SqlStdOperatorTable.SUM0, when(builder, filter, tweetCount)).as(count));
+            return field -> field.apply(count);
+        }
+        if (aggCall.getArgList().size() != 1) {
+            return null;
+        }
+        RexNode argument = inputs.get(aggCall.getArgList().get(0));
+        if (onlyDimensions(argument, baseColumns)) {
+            // Constant within a rollup row: sums are weighted by the row's tweet count
+            RexNode rollupArgument = argument.accept(toRollup(builder, baseColumns));
+            RexNode operand = switch (kind) {
+                case SUM, SUM0 -> builder.call(SqlStdOperatorTable.MULTIPLY, rollupArgument, tweetCount);
+                case MIN, MAX -> rollupArgument;
+                default -> null;
+            };
+            if (operand == null) {
+                return null;
+            }
+            rollupCalls.add(builder.aggregateCall(aggCall.getAggregation(), when(builder, filter, operand)).as(value));
+            return field -> field.apply(value);
+        }
+        if (!(argument instanceof RexInputRef ref) || !HourlyRollups.MEASURES.contains(baseColumns.get(ref.getIndex()))) {
+            return null;
+        }
+        String measure = baseColumns.get(ref.getIndex());
+        switch (kind) {
+            case SUM, SUM0 -> {
+                rollupCalls.add(builder.aggregateCall(aggCall.getAggregation(),
+                    when(builder, filter, builder.field(HourlyRollups.column(measure, HourlyRollups.SUM)))).as(value));
+                return field -> field.apply(value);
+            }
+            case MIN, MAX -> {
+                String column = HourlyRollups.column(measure, kind == SqlKind.MIN ? HourlyRollups.MIN : HourlyRollups.MAX);
+                rollupCalls.add(builder.aggregateCall(aggCall.getAggregation(), when(builder, filter, builder.field(column))).as(value));
+                return field -> field.apply(value);
+            }
+            case AVG, VAR_POP, STDDEV_POP -> {
+                rollupCalls.add(builder.aggregateCall(SqlStdOperatorTable.SUM0, when(builder, filter, tweetCount)).as(count));
+                rollupCalls.add(builder.sum(when(builder, filter, builder.field(HourlyRollups.column(measure, HourlyRollups.SUM)))).as(sum));
+                if (kind == SqlKind.AVG) {
+                    return field -> divide(builder, field.apply(sum), field.apply(count));
+                }
+                rollupCalls.add(builder.sum(when(builder, filter,
+                    builder.field(HourlyRollups.column(measure, HourlyRollups.SUM_SQUARES)))).as(squares));
+                return field -> {
+                    // VAR_POP = (sum(x^2) - sum(x)^2 / n) / n
+                    RexNode sumValue = builder.cast(field.apply(sum), SqlTypeName.DOUBLE);
+                    RexNode squaredSum = builder.call(SqlStdOperatorTable.MULTIPLY, sumValue, sumValue);
+                    RexNode variance = divide(builder, builder.call(SqlStdOperatorTable.MINUS,
+                        builder.cast(field.apply(squares), SqlTypeName.DOUBLE),
+                        divide(builder, squaredSum, field.apply(count))), field.apply(count));
+                    return kind == SqlKind.VAR_POP ? variance : builder.call(SqlStdOperatorTable.SQRT, variance);
+                };
+            }
+            default -> {
+                return null;
+            }
+        }
+    }
+
+    /** The value where an aggregate FILTER holds and null elsewhere, as HiveQL has no FILTER clause */
+    private static RexNode when(RelBuilder builder, RexNode filter, RexNode value) {
+        return filter == null ? value
+            : builder.call(SqlStdOperatorTable.CASE, filter, value, builder.getRexBuilder().makeNullLiteral(value.getType()));
+    }
+
+    private static RexNode divide(RelBuilder builder, RexNode dividend, RexNode divisor) {
+        return builder.call(SqlStdOperatorTable.DIVIDE,
+            builder.cast(dividend, SqlTypeName.DOUBLE), builder.cast(divisor, SqlTypeName.DOUBLE));
+    }
+
+    /** Maps base table column references to the same-named columns of the relation on top of the builder */
+    private static RexShuttle toRollup(RelBuilder builder, List<String> baseColumns) {
+        return new RexShuttle() {
+            @Override
+            public RexNode visitInputRef(RexInputRef ref) {
+                return builder.field(baseColumns.get(ref.getIndex()));
+            }
+        };
+    }
+
+    private static RexNode inline(RexNode expression, List<RexNode> inputs) {
+        return expression.accept(new RexShuttle() {
+            @Override
+            public RexNode visitInputRef(RexInputRef ref) {
+                return inputs.get(ref.getIndex());
+            }
+        });
+    }
+
+    private static boolean onlyDimensions(RexNode expression, List<String> baseColumns) {
+        return RelOptUtil.InputFinder.bits(expression).asList().stream()
+            .allMatch(index -> HourlyRollups.DIMENSIONS.contains(baseColumns.get(index)));
+    }
+
+    private static String last(List<String> names) {
+        return names.get(names.size() - 1);
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.calcite;
+
+import java.util.List;
+
+/**
+ * Layout of the {@code tweet_hourly_rollups} table: per {@code is_celebrity}, category and
+ * hour of {@code tweets_partitioned}, the tweet count plus sum, min, max and sum of squares
+ * of every measure. Those combine into COUNT, SUM, MIN, MAX, AVG, VAR_POP and STDDEV_POP
+ * over any coarser grouping, which is what {@link HourlyRollupRule} rewrites queries into.
+ */
+public final class HourlyRollups {
+    public static final String BASE_TABLE = "tweets_partitioned";
+    public static final String ROLLUP_TABLE = "tweet_hourly_rollups";
+    public static final String COUNT_COLUMN = "tweet_count";
+
+    /** Grouping columns; year/month/day/hour are also the partition columns of both tables */
+    public static final List<String> DIMENSIONS = List.of("is_celebrity", "celebrity_category", "year", "month", "day", "hour");
+    public static final List<String> MEASURES = List.of("like_count", "retweet_count");
+
+    public static final String SUM = "sum";
+    public static final String MIN = "min";
+    public static final String MAX = "max";
+    public static final String SUM_SQUARES = "sum_squares";
+    public static final List<String> AGGREGATES = List.of(SUM, MIN, MAX, SUM_SQUARES);
+
+    /**
+     * Rollups hold one row per category and hour instead of one per tweet. JDBC tables carry
+     * no statistics, so the planner is told the rollup is this many times smaller.
+     */
+    static final double ROLLUP_REDUCTION_FACTOR = 1000;
+
+    private HourlyRollups() {
+    }
+
+    /**
+     * Rollup column of a measure aggregate, e.g. {@code like_sum_squares} for like_count
+     */
+    public static String column(String measure, String aggregate) {
+        return measure.substring(0, measure.indexOf("_count")) + "_" + aggregate;
+    }
+}
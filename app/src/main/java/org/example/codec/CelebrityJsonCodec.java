@@ -0,0 +1,70 @@
+package org.example.codec;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.io.SerializedString;
+import org.example.columnar.GlobalDictionary;
+import org.example.model.Celebrity;
+
+import java.io.IOException;
+
+import static org.example.codec.JsonCodecs.*;
+
+/**
+ * Streaming JSON mapping of {@link Celebrity}
+ */
+public class CelebrityJsonCodec implements JsonCodec<Celebrity> {
+    private static final SerializedString CELEBRITY_ID = new SerializedString("celebrity_id");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString USERNAME = new SerializedString("username");
+    private static final SerializedString CATEGORY = new SerializedString("category");
+    private static final SerializedString FOLLOWER_COUNT = new SerializedString("follower_count");
+    private static final SerializedString FOLLOWING_COUNT = new SerializedString("following_count");
+    private static final SerializedString TWEET_COUNT = new SerializedString("tweet_count");
+    private static final SerializedString VERIFIED = new SerializedString("verified");
+    private static final SerializedString BIO = new SerializedString("bio");
+
+    @Override
+    public Class<Celebrity> type() {
+        return Celebrity.class;
+    }
+
+    @Override
+    public void write(Celebrity celebrity, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        writeString(generator, CELEBRITY_ID, celebrity.getCelebrityId());
+        writeString(generator, NAME, celebrity.getName());
+        writeString(generator, USERNAME, celebrity.getUsername());
+        writeString(generator, CATEGORY, celebrity.getCategory());
+        writeLong(generator, FOLLOWER_COUNT, celebrity.getFollowerCount());
+        writeLong(generator, FOLLOWING_COUNT, celebrity.getFollowingCount());
+        generator.writeFieldName(TWEET_COUNT);
+        generator.writeNumber(celebrity.getTweetCount());
+        generator.writeFieldName(VERIFIED);
+        generator.writeBoolean(celebrity.isVerified());
+        writeString(generator, BIO, celebrity.getBio());
+        generator.writeEndObject();
+    }
+
+    @Override
+    public Celebrity read(JsonParser parser) throws IOException {
+        startObject(parser);
+        Celebrity celebrity = new Celebrity();
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            switch (field) {
+                case "celebrity_id" -> ifPresent(nextString(parser), celebrity::setCelebrityId);
+                case "name" -> ifPresent(nextString(parser), celebrity::setName);
+                case "username" -> ifPresent(GlobalDictionary.intern(nextString(parser)), celebrity::setUsername);
+                case "category" -> ifPresent(GlobalDictionary.intern(nextString(parser)), celebrity::setCategory);
+                case "follower_count" -> ifPresent(nextLong(parser), celebrity::setFollowerCount);
+                case "following_count" -> ifPresent(nextLong(parser), celebrity::setFollowingCount);
+                case "tweet_count" -> celebrity.setTweetCount(nextInt(parser));
+                case "verified" -> celebrity.setVerified(nextBoolean(parser));
+                case "bio" -> celebrity.setBio(nextString(parser));
+                default -> skipValue(parser);
+            }
+        }
+        return celebrity;
+    }
+}
@@ -0,0 +1,97 @@
+package org.example.codec;
+
+import org.example.model.Event;
+import org.example.model.Tweet;
+import org.example.model.User;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * The binary codecs of the model classes and the headers that identify their layout.
+ *
+ * A standalone record (e.g. a Kafka value) starts with one header byte: the codec's type ID in
+ * the high nibble and its layout version in the low nibble. A binary file starts with
+ * {@link #FILE_MAGIC}, a file format version, the type ID and the layout version, followed by
+ * varint length-prefixed records.
+ */
+public final class Codecs {
+    public static final TweetCodec TWEET = new TweetCodec();
+    public static final EventCodec EVENT = new EventCodec();
+    public static final UserCodec USER = new UserCodec();
+
+    public static final int FILE_MAGIC = 0x54574243; // "TWBC"
+    public static final byte FILE_VERSION = 1;
+
+    private static final List<RecordCodec<?>> ALL = List.of(TWEET, EVENT, USER);
+    private static final ThreadLocal<BinaryWriter> WRITERS = ThreadLocal.withInitial(BinaryWriter::new);
+
+    private Codecs() {
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> RecordCodec<T> forType(Class<T> type) {
+        for (RecordCodec<?> codec : ALL) {
+            if (codec.type() == type) {
+                return (RecordCodec<T>) codec;
+            }
+        }
+        throw new IllegalArgumentException("No binary codec for " + type.getName());
+    }
+
+    /**
+     * Encode a record behind its one-byte header
+     */
+    public static <T> byte[] encode(RecordCodec<T> codec, T record) {
+        BinaryWriter writer = WRITERS.get();
+        writer.reset();
+        writer.writeByte(codec.typeId() << 4 | codec.version());
+        codec.encode(record, writer);
+        return writer.toByteArray();
+    }
+
+    /**
+     * Decode a record written by {@link #encode}, in whichever layout version it was written
+     */
+    public static <T> T decode(RecordCodec<T> codec, byte[] bytes) {
+        BinaryReader reader = new BinaryReader(bytes);
+        int header = reader.readByte();
+        checkType(codec, header >>> 4);
+        return codec.decode(reader, header & 0x0F);
+    }
+
+    public static void writeFileHeader(DataOutput out, RecordCodec<?> codec) throws IOException {
+        out.writeInt(FILE_MAGIC);
+        out.writeByte(FILE_VERSION);
+        out.writeByte(codec.typeId());
+        out.writeByte(codec.version());
+    }
+
+    /**
+     * Check a file header against the codec and return the layout version of its records
+     */
+    public static int readFileHeader(DataInput in, RecordCodec<?> codec) throws IOException {
+        if (in.readInt() != FILE_MAGIC) {
+            throw new IOException("Not a binary record file");
+        }
+        byte version = in.readByte();
+        if (version != FILE_VERSION) {
+            throw new IOException("Unsupported binary file version " + version);
+        }
+        try {
+            checkType(codec, in.readByte());
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        return in.readByte();
+    }
+
+    private static void checkType(RecordCodec<?> codec, int typeId) {
+        if (typeId != codec.typeId()) {
+            throw new IllegalArgumentException("Record of type " + typeId + " cannot be read as "
+                + codec.type().getSimpleName());
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.example.codec;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fixed codes for the values of a regex-validated string field, e.g. event_type. Code 0 is
+ * followed by the literal string, so values outside the dictionary still round-trip. Codes
+ * are part of the format: append new values, never reorder or remove them.
+ */
+public final class EnumDictionary {
+    public static final EnumDictionary CATEGORIES =
+        new EnumDictionary(List.of("sports", "entertainment", "politics", "tech", "business", "other"));
+    public static final EnumDictionary EVENT_TYPES =
+        new EnumDictionary(List.of("like", "retweet", "reply", "mention", "follow", "unfollow", "tweet"));
+
+    private final List<String> values;
+    private final Map<String, Integer> codes = new HashMap<>();
+
+    public EnumDictionary(List<String> values) {
+        this.values = List.copyOf(values);
+        for (int i = 0; i < values.size(); i++) {
+            codes.put(values.get(i), i + 1);
+        }
+    }
+
+    public void write(BinaryWriter writer, String value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            writer.writeVarLong(0);
+            writer.writeString(value);
+        } else {
+            writer.writeVarLong(code);
+        }
+    }
+
+    public String read(BinaryReader reader) {
+        int code = reader.readVarInt();
+        if (code == 0) {
+            return reader.readString();
+        }
+        if (code > values.size()) {
+            throw new IllegalArgumentException("Unknown dictionary code " + code);
+        }
+        return values.get(code - 1);
+    }
+}
@@ -0,0 +1,99 @@
+package org.example.codec;
+
+import org.example.model.Event;
+
+/**
+ * Binary layout of {@link Event}, version 1: presence bitmap, event_id, event_type, user_id,
+ * target_id, timestamp, metadata and celebrity_id
+ */
+public class EventCodec implements RecordCodec<Event> {
+    private static final int EVENT_ID = 1;
+    private static final int EVENT_TYPE = 1 << 1;
+    private static final int USER_ID = 1 << 2;
+    private static final int TARGET_ID = 1 << 3;
+    private static final int TIMESTAMP = 1 << 4;
+    private static final int METADATA = 1 << 5;
+    private static final int CELEBRITY_ID = 1 << 6;
+    private static final int CELEBRITY_INVOLVED = 1 << 7;
+
+    @Override
+    public int typeId() {
+        return 2;
+    }
+
+    @Override
+    public int version() {
+        return 1;
+    }
+
+    @Override
+    public Class<Event> type() {
+        return Event.class;
+    }
+
+    @Override
+    public void encode(Event event, BinaryWriter writer) {
+        int presence = (event.getEventId() != null ? EVENT_ID : 0)
+            | (event.getEventType() != null ? EVENT_TYPE : 0)
+            | (event.getUserId() != null ? USER_ID : 0)
+            | (event.getTargetId() != null ? TARGET_ID : 0)
+            | (event.getTimestamp() != null ? TIMESTAMP : 0)
+            | (event.getMetadata() != null ? METADATA : 0)
+            | (event.getCelebrityId() != null ? CELEBRITY_ID : 0)
+            | (event.isCelebrityInvolved() ? CELEBRITY_INVOLVED : 0);
+        writer.writeVarLong(presence);
+        if (event.getEventId() != null) {
+            writer.writeString(event.getEventId());
+        }
+        if (event.getEventType() != null) {
+            EnumDictionary.EVENT_TYPES.write(writer, event.getEventType());
+        }
+        if (event.getUserId() != null) {
+            writer.writeString(event.getUserId());
+        }
+        if (event.getTargetId() != null) {
+            writer.writeString(event.getTargetId());
+        }
+        if (event.getTimestamp() != null) {
+            writer.writeZigZag(event.getTimestamp());
+        }
+        if (event.getMetadata() != null) {
+            writer.writeString(event.getMetadata());
+        }
+        if (event.getCelebrityId() != null) {
+            writer.writeString(event.getCelebrityId());
+        }
+    }
+
+    @Override
+    public Event decode(BinaryReader reader, int version) {
+        if (version != 1) {
+            throw new IllegalArgumentException("Unsupported event layout version " + version);
+        }
+        int presence = reader.readVarInt();
+        Event event = new Event();
+        if ((presence & EVENT_ID) != 0) {
+            event.setEventId(reader.readString());
+        }
+        if ((presence & EVENT_TYPE) != 0) {
+            event.setEventType(EnumDictionary.EVENT_TYPES.read(reader));
+        }
+        if ((presence & USER_ID) != 0) {
+            event.setUserId(reader.readString());
+        }
+        if ((presence & TARGET_ID) != 0) {
+            event.setTargetId(reader.readString());
+        }
+        if ((presence & TIMESTAMP) != 0) {
+            event.setTimestamp(reader.readZigZag());
+        }
+        if ((presence & METADATA) != 0) {
+            event.setMetadata(reader.readString());
+        }
+        if ((presence & CELEBRITY_ID) != 0) {
+            event.setCelebrityId(reader.readString());
+        }
+        event.setCelebrityInvolved((presence & CELEBRITY_INVOLVED) != 0);
+        return event;
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.codec;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.io.SerializedString;
+import org.example.model.Event;
+
+import java.io.IOException;
+
+import static org.example.codec.JsonCodecs.*;
+
+/**
+ * Streaming JSON mapping of {@link Event}
+ */
+public class EventJsonCodec implements JsonCodec<Event> {
+    private static final SerializedString EVENT_ID = new SerializedString("event_id");
+    private static final SerializedString EVENT_TYPE = new SerializedString("event_type");
+    private static final SerializedString USER_ID = new SerializedString("user_id");
+    private static final SerializedString TARGET_ID = new SerializedString("target_id");
+    private static final SerializedString TIMESTAMP = new SerializedString("timestamp");
+    private static final SerializedString METADATA = new SerializedString("metadata");
+    private static final SerializedString IS_CELEBRITY_INVOLVED = new SerializedString("is_celebrity_involved");
+    private static final SerializedString CELEBRITY_ID = new SerializedString("celebrity_id");
+
+    @Override
+    public Class<Event> type() {
+        return Event.class;
+    }
+
+    @Override
+    public void write(Event event, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        writeString(generator, EVENT_ID, event.getEventId());
+        writeString(generator, EVENT_TYPE, event.getEventType());
+        writeString(generator, USER_ID, event.getUserId());
+        writeString(generator, TARGET_ID, event.getTargetId());
+        writeLong(generator, TIMESTAMP, event.getTimestamp());
+        writeString(generator, METADATA, event.getMetadata());
+        generator.writeFieldName(IS_CELEBRITY_INVOLVED);
+        generator.writeBoolean(event.isCelebrityInvolved());
+        writeString(generator, CELEBRITY_ID, event.getCelebrityId());
+        generator.writeEndObject();
+    }
+
+    @Override
+    public Event read(JsonParser parser) throws IOException {
+        startObject(parser);
+        Event event = new Event();
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            switch (field) {
+                case "event_id" -> ifPresent(nextString(parser), event::setEventId);
+                case "event_type" -> ifPresent(nextString(parser), event::setEventType);
+                case "user_id" -> ifPresent(nextString(parser), event::setUserId);
+                case "target_id" -> ifPresent(nextString(parser), event::setTargetId);
+                case "timestamp" -> ifPresent(nextLong(parser), event::setTimestamp);
+                case "metadata" -> event.setMetadata(nextString(parser));
+                case "is_celebrity_involved" -> event.setCelebrityInvolved(nextBoolean(parser));
+                case "celebrity_id" -> event.setCelebrityId(nextString(parser));
+                default -> skipValue(parser);
+            }
+        }
+        return event;
+    }
+}
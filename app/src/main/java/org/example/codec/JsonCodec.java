@@ -0,0 +1,23 @@
+package org.example.codec;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+
+import java.io.IOException;
+
+/**
+ * Hand-written JSON mapping of one model class on Jackson's streaming API, without databind
+ * reflection. Writes the same field names, order and nulls as the {@code @JsonProperty}
+ * annotations do through {@code ObjectMapper}; reads fields in any order and skips unknown ones.
+ */
+public interface JsonCodec<T> {
+
+    Class<T> type();
+
+    void write(T value, JsonGenerator generator) throws IOException;
+
+    /**
+     * Read one object; the parser is positioned on its START_OBJECT token or just before it
+     */
+    T read(JsonParser parser) throws IOException;
+}
@@ -0,0 +1,199 @@
+package org.example.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.model.Celebrity;
+import org.example.model.Event;
+import org.example.model.Tweet;
+import org.example.model.User;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Streaming {@link JsonCodec}s of the model classes and helpers to use them in place of
+ * {@code ObjectMapper}. Each thread keeps one generator over a reusable byte buffer; parsers
+ * are created per value from the shared factory, which recycles their buffers per thread.
+ * Classes without a codec fall back to the given {@code ObjectMapper}.
+ */
+public final class JsonCodecs {
+    public static final TweetJsonCodec TWEET = new TweetJsonCodec();
+    public static final UserJsonCodec USER = new UserJsonCodec();
+    public static final EventJsonCodec EVENT = new EventJsonCodec();
+    public static final CelebrityJsonCodec CELEBRITY = new CelebrityJsonCodec();
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+    private static final Map<Class<?>, JsonCodec<?>> CODECS = Map.of(
+        Tweet.class, TWEET, User.class, USER, Event.class, EVENT, Celebrity.class, CELEBRITY);
+    private static final ThreadLocal<Output> OUTPUTS = ThreadLocal.withInitial(Output::new);
+
+    private static final class Output {
+        private final ByteArrayBuilder bytes = new ByteArrayBuilder(512);
+        private final JsonGenerator generator;
+
+        private Output() {
+            try {
+                generator = FACTORY.createGenerator(bytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            // Values are written back to back into the same buffer
+            generator.setRootValueSeparator(null);
+        }
+    }
+
+    private JsonCodecs() {
+    }
+
+    /**
+     * The codec of a class, or null if it has none
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> JsonCodec<T> find(Class<T> type) {
+        return (JsonCodec<T>) CODECS.get(type);
+    }
+
+    public static <T> byte[] toBytes(JsonCodec<T> codec, T value) throws IOException {
+        Output output = OUTPUTS.get();
+        output.bytes.reset();
+        codec.write(value, output.generator);
+        output.generator.flush();
+        return output.bytes.toByteArray();
+    }
+
+    public static <T> T fromBytes(JsonCodec<T> codec, byte[] bytes) throws IOException {
+        return fromBytes(codec, bytes, 0, bytes.length);
+    }
+
+    public static <T> T fromBytes(JsonCodec<T> codec, byte[] bytes, int offset, int length) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(bytes, offset, length)) {
+            return codec.read(parser);
+        }
+    }
+
+    public static <T> T fromString(JsonCodec<T> codec, String json) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(json)) {
+            return codec.read(parser);
+        }
+    }
+
+    /**
+     * JSON of any value: through its codec if it has one, else through databind
+     */
+    @SuppressWarnings("unchecked")
+    public static byte[] toBytes(Object value, ObjectMapper fallback) throws IOException {
+        JsonCodec<Object> codec = (JsonCodec<Object>) CODECS.get(value.getClass());
+        return codec != null ? toBytes(codec, value) : fallback.writeValueAsBytes(value);
+    }
+
+    public static <T> T fromBytes(byte[] bytes, Class<T> type, ObjectMapper fallback) throws IOException {
+        JsonCodec<T> codec = find(type);
+        return codec != null ? fromBytes(codec, bytes) : fallback.readValue(bytes, type);
+    }
+
+    public static <T> T fromString(String json, Class<T> type, ObjectMapper fallback) throws IOException {
+        JsonCodec<T> codec = find(type);
+        return codec != null ? fromString(codec, json) : fallback.readValue(json, type);
+    }
+
+    // Helpers shared by the codecs
+
+    static void startObject(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == null || token == JsonToken.FIELD_NAME) {
+            token = parser.nextToken();
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new IOException("Expected a JSON object but found " + token + " at " + parser.currentLocation());
+        }
+    }
+
+    static String nextString(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        return token == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+    }
+
+    static Long nextLong(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        return token == JsonToken.VALUE_NULL ? null : parser.getValueAsLong();
+    }
+
+    static int nextInt(JsonParser parser) throws IOException {
+        parser.nextToken();
+        return parser.getValueAsInt();
+    }
+
+    static boolean nextBoolean(JsonParser parser) throws IOException {
+        parser.nextToken();
+        return parser.getValueAsBoolean();
+    }
+
+    static List<String> nextStrings(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token != JsonToken.START_ARRAY) {
+            throw new IOException("Expected a JSON array but found " + token + " at " + parser.currentLocation());
+        }
+        List<String> values = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            values.add(parser.getValueAsString());
+        }
+        return values;
+    }
+
+    static void skipValue(JsonParser parser) throws IOException {
+        parser.nextToken();
+        parser.skipChildren();
+    }
+
+    /**
+     * Set a field that Lombok guards with @NonNull only when the JSON value is not null
+     */
+    static <V> void ifPresent(V value, Consumer<V> setter) {
+        if (value != null) {
+            setter.accept(value);
+        }
+    }
+
+    static void writeString(JsonGenerator generator, SerializableString name, String value) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(value);
+        }
+    }
+
+    static void writeLong(JsonGenerator generator, SerializableString name, Long value) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value);
+        }
+    }
+
+    static void writeStrings(JsonGenerator generator, SerializableString name, List<String> values) throws IOException {
+        generator.writeFieldName(name);
+        if (values == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartArray();
+        for (String value : values) {
+            generator.writeString(value);
+        }
+        generator.writeEndArray();
+    }
+}
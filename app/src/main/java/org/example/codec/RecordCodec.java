@@ -0,0 +1,38 @@
+package org.example.codec;
+
+/**
+ * Compact binary encoding of one model class.
+ *
+ * A record starts with a presence bitmap of its nullable fields and boolean flags, followed by
+ * the present fields in declaration order: numbers as varints, dictionary fields as codes and
+ * strings as length-prefixed UTF-8. Field names are never written. The layout is identified by
+ * {@link #typeId()} and {@link #version()}, stored in the Kafka record or file header; a new
+ * version may only append fields, and decoders must still read every older version.
+ */
+public interface RecordCodec<T> {
+
+    /**
+     * Identifies the model class in headers; 0-15
+     */
+    int typeId();
+
+    /**
+     * Layout written by {@link #encode}; 1-15
+     */
+    int version();
+
+    Class<T> type();
+
+    void encode(T record, BinaryWriter writer);
+
+    /**
+     * Decode a record written with the given layout version
+     */
+    T decode(BinaryReader reader, int version);
+
+    default byte[] encode(T record) {
+        BinaryWriter writer = new BinaryWriter();
+        encode(record, writer);
+        return writer.toByteArray();
+    }
+}
@@ -0,0 +1,134 @@
+package org.example.codec;
+
+import org.example.columnar.GlobalDictionary;
+import org.example.model.Tweet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary layout of {@link Tweet}, version 1: presence bitmap, tweet_id, user_id, username,
+ * content, timestamp, hashtags, mentions, the three counts and celebrity_category
+ */
+public class TweetCodec implements RecordCodec<Tweet> {
+    private static final int TWEET_ID = 1;
+    private static final int USER_ID = 1 << 1;
+    private static final int USERNAME = 1 << 2;
+    private static final int CONTENT = 1 << 3;
+    private static final int TIMESTAMP = 1 << 4;
+    private static final int HASHTAGS = 1 << 5;
+    private static final int MENTIONS = 1 << 6;
+    private static final int CATEGORY = 1 << 7;
+    private static final int IS_CELEBRITY = 1 << 8;
+
+    @Override
+    public int typeId() {
+        return 1;
+    }
+
+    @Override
+    public int version() {
+        return 1;
+    }
+
+    @Override
+    public Class<Tweet> type() {
+        return Tweet.class;
+    }
+
+    @Override
+    public void encode(Tweet tweet, BinaryWriter writer) {
+        int presence = (tweet.getTweetId() != null ? TWEET_ID : 0)
+            | (tweet.getUserId() != null ? USER_ID : 0)
+            | (tweet.getUsername() != null ? USERNAME : 0)
+            | (tweet.getContent() != null ? CONTENT : 0)
+            | (tweet.getTimestamp() != null ? TIMESTAMP : 0)
+            | (tweet.getHashtags() != null ? HASHTAGS : 0)
+            | (tweet.getMentions() != null ? MENTIONS : 0)
+            | (tweet.getCelebrityCategory() != null ? CATEGORY : 0)
+            | (tweet.isCelebrity() ? IS_CELEBRITY : 0);
+        writer.writeVarLong(presence);
+        if (tweet.getTweetId() != null) {
+            writer.writeString(tweet.getTweetId());
+        }
+        if (tweet.getUserId() != null) {
+            writer.writeString(tweet.getUserId());
+        }
+        if (tweet.getUsername() != null) {
+            writer.writeString(tweet.getUsername());
+        }
+        if (tweet.getContent() != null) {
+            writer.writeString(tweet.getContent());
+        }
+        if (tweet.getTimestamp() != null) {
+            writer.writeZigZag(tweet.getTimestamp());
+        }
+        if (tweet.getHashtags() != null) {
+            writeStrings(writer, tweet.getHashtags());
+        }
+        if (tweet.getMentions() != null) {
+            writeStrings(writer, tweet.getMentions());
+        }
+        writer.writeZigZag(tweet.getRetweetCount());
+        writer.writeZigZag(tweet.getLikeCount());
+        writer.writeZigZag(tweet.getReplyCount());
+        if (tweet.getCelebrityCategory() != null) {
+            EnumDictionary.CATEGORIES.write(writer, tweet.getCelebrityCategory());
+        }
+    }
+
+    @Override
+    public Tweet decode(BinaryReader reader, int version) {
+        if (version != 1) {
+            throw new IllegalArgumentException("Unsupported tweet layout version " + version);
+        }
+        int presence = reader.readVarInt();
+        Tweet tweet = new Tweet();
+        if ((presence & TWEET_ID) != 0) {
+            tweet.setTweetId(reader.readString());
+        }
+        if ((presence & USER_ID) != 0) {
+            tweet.setUserId(reader.readString());
+        }
+        if ((presence & USERNAME) != 0) {
+            tweet.setUsername(GlobalDictionary.intern(reader.readString()));
+        }
+        if ((presence & CONTENT) != 0) {
+            tweet.setContent(reader.readString());
+        }
+        if ((presence & TIMESTAMP) != 0) {
+            tweet.setTimestamp(reader.readZigZag());
+        }
+        if ((presence & HASHTAGS) != 0) {
+            tweet.setHashtags(GlobalDictionary.intern(readStrings(reader)));
+        }
+        if ((presence & MENTIONS) != 0) {
+            tweet.setMentions(GlobalDictionary.intern(readStrings(reader)));
+        }
+        tweet.setRetweetCount((int) reader.readZigZag());
+        tweet.setLikeCount((int) reader.readZigZag());
+        tweet.setReplyCount((int) reader.readZigZag());
+        if ((presence & CATEGORY) != 0) {
+            tweet.setCelebrityCategory(GlobalDictionary.intern(EnumDictionary.CATEGORIES.read(reader)));
+        }
+        tweet.setCelebrity((presence & IS_CELEBRITY) != 0);
+        return tweet;
+    }
+
+    static void writeStrings(BinaryWriter writer, List<String> values) {
+        writer.writeVarLong(values.size());
+        for (String value : values) {
+            writer.writeString(value);
+        }
+    }
+
+    static List<String> readStrings(BinaryReader reader) {
+        int size = reader.readVarInt();
+        // Every value takes at least one byte, so a corrupt count can't allocate more than the record holds
+        List<String> values = new ArrayList<>(Math.min(size, reader.remaining()));
+        for (int i = 0; i < size; i++) {
+            values.add(reader.readString());
+        }
+        return values;
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.codec;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.io.SerializedString;
+import org.example.columnar.GlobalDictionary;
+import org.example.model.Tweet;
+
+import java.io.IOException;
+
+import static org.example.codec.JsonCodecs.*;
+
+/**
+ * Streaming JSON mapping of {@link Tweet}; usernames, categories, hashtags and mentions are
+ * interned through the {@link GlobalDictionary} as they are read
+ */
+public class TweetJsonCodec implements JsonCodec<Tweet> {
+    private static final SerializedString TWEET_ID = new SerializedString("tweet_id");
+    private static final SerializedString USER_ID = new SerializedString("user_id");
+    private static final SerializedString USERNAME = new SerializedString("username");
+    private static final SerializedString CONTENT = new SerializedString("content");
+    private static final SerializedString TIMESTAMP = new SerializedString("timestamp");
+    private static final SerializedString HASHTAGS = new SerializedString("hashtags");
+    private static final SerializedString MENTIONS = new SerializedString("mentions");
+    private static final SerializedString RETWEET_COUNT = new SerializedString("retweet_count");
+    private static final SerializedString LIKE_COUNT = new SerializedString("like_count");
+    private static final SerializedString REPLY_COUNT = new SerializedString("reply_count");
+    private static final SerializedString IS_CELEBRITY = new SerializedString("is_celebrity");
+    private static final SerializedString CELEBRITY_CATEGORY = new SerializedString("celebrity_category");
+
+    @Override
+    public Class<Tweet> type() {
+        return Tweet.class;
+    }
+
+    @Override
+    public void write(Tweet tweet, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        writeString(generator, TWEET_ID, tweet.getTweetId());
+        writeString(generator, USER_ID, tweet.getUserId());
+        writeString(generator, USERNAME, tweet.getUsername());
+        writeString(generator, CONTENT, tweet.getContent());
+        writeLong(generator, TIMESTAMP, tweet.getTimestamp());
+        writeStrings(generator, HASHTAGS, tweet.getHashtags());
+        writeStrings(generator, MENTIONS, tweet.getMentions());
+        generator.writeFieldName(RETWEET_COUNT);
+        generator.writeNumber(tweet.getRetweetCount());
+        generator.writeFieldName(LIKE_COUNT);
+        generator.writeNumber(tweet.getLikeCount());
+        generator.writeFieldName(REPLY_COUNT);
+        generator.writeNumber(tweet.getReplyCount());
+        generator.writeFieldName(IS_CELEBRITY);
+        generator.writeBoolean(tweet.isCelebrity());
+        writeString(generator, CELEBRITY_CATEGORY, tweet.getCelebrityCategory());
+        generator.writeEndObject();
+    }
+
+    @Override
+    public Tweet read(JsonParser parser) throws IOException {
+        startObject(parser);
+        Tweet tweet = new Tweet();
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            switch (field) {
+                case "tweet_id" -> ifPresent(nextString(parser), tweet::setTweetId);
+                case "user_id" -> ifPresent(nextString(parser), tweet::setUserId);
+                case "username" -> ifPresent(GlobalDictionary.intern(nextString(parser)), tweet::setUsername);
+                case "content" -> ifPresent(nextString(parser), tweet::setContent);
+                case "timestamp" -> ifPresent(nextLong(parser), tweet::setTimestamp);
+                case "hashtags" -> ifPresent(GlobalDictionary.intern(nextStrings(parser)), tweet::setHashtags);
+                case "mentions" -> ifPresent(GlobalDictionary.intern(nextStrings(parser)), tweet::setMentions);
+                case "retweet_count" -> tweet.setRetweetCount(nextInt(parser));
+                case "like_count" -> tweet.setLikeCount(nextInt(parser));
+                case "reply_count" -> tweet.setReplyCount(nextInt(parser));
+                case "is_celebrity" -> tweet.setCelebrity(nextBoolean(parser));
+                case "celebrity_category" -> ifPresent(GlobalDictionary.intern(nextString(parser)), tweet::setCelebrityCategory);
+                default -> skipValue(parser);
+            }
+        }
+        return tweet;
+    }
+}
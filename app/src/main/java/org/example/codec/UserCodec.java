@@ -0,0 +1,103 @@
+package org.example.codec;
+
+import org.example.columnar.GlobalDictionary;
+import org.example.model.User;
+
+/**
+ * Binary layout of {@link User}, version 1: presence bitmap, user_id, username, display_name,
+ * follower_count, following_count, tweet_count, bio and category. is_celebrity is derived
+ * from follower_count and not stored.
+ */
+public class UserCodec implements RecordCodec<User> {
+    private static final int USER_ID = 1;
+    private static final int USERNAME = 1 << 1;
+    private static final int DISPLAY_NAME = 1 << 2;
+    private static final int FOLLOWERS = 1 << 3;
+    private static final int FOLLOWING = 1 << 4;
+    private static final int BIO = 1 << 5;
+    private static final int CATEGORY = 1 << 6;
+    private static final int VERIFIED = 1 << 7;
+
+    @Override
+    public int typeId() {
+        return 3;
+    }
+
+    @Override
+    public int version() {
+        return 1;
+    }
+
+    @Override
+    public Class<User> type() {
+        return User.class;
+    }
+
+    @Override
+    public void encode(User user, BinaryWriter writer) {
+        int presence = (user.getUserId() != null ? USER_ID : 0)
+            | (user.getUsername() != null ? USERNAME : 0)
+            | (user.getDisplayName() != null ? DISPLAY_NAME : 0)
+            | (user.getFollowerCount() != null ? FOLLOWERS : 0)
+            | (user.getFollowingCount() != null ? FOLLOWING : 0)
+            | (user.getBio() != null ? BIO : 0)
+            | (user.getCategory() != null ? CATEGORY : 0)
+            | (user.isVerified() ? VERIFIED : 0);
+        writer.writeVarLong(presence);
+        if (user.getUserId() != null) {
+            writer.writeString(user.getUserId());
+        }
+        if (user.getUsername() != null) {
+            writer.writeString(user.getUsername());
+        }
+        if (user.getDisplayName() != null) {
+            writer.writeString(user.getDisplayName());
+        }
+        if (user.getFollowerCount() != null) {
+            writer.writeZigZag(user.getFollowerCount());
+        }
+        if (user.getFollowingCount() != null) {
+            writer.writeZigZag(user.getFollowingCount());
+        }
+        writer.writeZigZag(user.getTweetCount());
+        if (user.getBio() != null) {
+            writer.writeString(user.getBio());
+        }
+        if (user.getCategory() != null) {
+            EnumDictionary.CATEGORIES.write(writer, user.getCategory());
+        }
+    }
+
+    @Override
+    public User decode(BinaryReader reader, int version) {
+        if (version != 1) {
+            throw new IllegalArgumentException("Unsupported user layout version " + version);
+        }
+        int presence = reader.readVarInt();
+        User user = new User();
+        if ((presence & USER_ID) != 0) {
+            user.setUserId(reader.readString());
+        }
+        if ((presence & USERNAME) != 0) {
+            user.setUsername(GlobalDictionary.intern(reader.readString()));
+        }
+        if ((presence & DISPLAY_NAME) != 0) {
+            user.setDisplayName(reader.readString());
+        }
+        if ((presence & FOLLOWERS) != 0) {
+            user.setFollowerCount(reader.readZigZag());
+        }
+        if ((presence & FOLLOWING) != 0) {
+            user.setFollowingCount(reader.readZigZag());
+        }
+        user.setTweetCount((int) reader.readZigZag());
+        if ((presence & BIO) != 0) {
+            user.setBio(reader.readString());
+        }
+        if ((presence & CATEGORY) != 0) {
+            user.setCategory(GlobalDictionary.intern(EnumDictionary.CATEGORIES.read(reader)));
+        }
+        user.setVerified((presence & VERIFIED) != 0);
+        return user;
+    }
+}
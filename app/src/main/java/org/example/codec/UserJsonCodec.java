@@ -0,0 +1,74 @@
+package org.example.codec;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.io.SerializedString;
+import org.example.columnar.GlobalDictionary;
+import org.example.model.User;
+
+import java.io.IOException;
+
+import static org.example.codec.JsonCodecs.*;
+
+/**
+ * Streaming JSON mapping of {@link User}. is_celebrity is written from the follower count
+ * and ignored on read, like the databind mapping does.
+ */
+public class UserJsonCodec implements JsonCodec<User> {
+    private static final SerializedString USER_ID = new SerializedString("user_id");
+    private static final SerializedString USERNAME = new SerializedString("username");
+    private static final SerializedString DISPLAY_NAME = new SerializedString("display_name");
+    private static final SerializedString FOLLOWER_COUNT = new SerializedString("follower_count");
+    private static final SerializedString FOLLOWING_COUNT = new SerializedString("following_count");
+    private static final SerializedString TWEET_COUNT = new SerializedString("tweet_count");
+    private static final SerializedString VERIFIED = new SerializedString("verified");
+    private static final SerializedString BIO = new SerializedString("bio");
+    private static final SerializedString CATEGORY = new SerializedString("category");
+    private static final SerializedString IS_CELEBRITY = new SerializedString("is_celebrity");
+
+    @Override
+    public Class<User> type() {
+        return User.class;
+    }
+
+    @Override
+    public void write(User user, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        writeString(generator, USER_ID, user.getUserId());
+        writeString(generator, USERNAME, user.getUsername());
+        writeString(generator, DISPLAY_NAME, user.getDisplayName());
+        writeLong(generator, FOLLOWER_COUNT, user.getFollowerCount());
+        writeLong(generator, FOLLOWING_COUNT, user.getFollowingCount());
+        generator.writeFieldName(TWEET_COUNT);
+        generator.writeNumber(user.getTweetCount());
+        generator.writeFieldName(VERIFIED);
+        generator.writeBoolean(user.isVerified());
+        writeString(generator, BIO, user.getBio());
+        writeString(generator, CATEGORY, user.getCategory());
+        generator.writeFieldName(IS_CELEBRITY);
+        generator.writeBoolean(user.isCelebrity());
+        generator.writeEndObject();
+    }
+
+    @Override
+    public User read(JsonParser parser) throws IOException {
+        startObject(parser);
+        User user = new User();
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            switch (field) {
+                case "user_id" -> ifPresent(nextString(parser), user::setUserId);
+                case "username" -> ifPresent(GlobalDictionary.intern(nextString(parser)), user::setUsername);
+                case "display_name" -> ifPresent(nextString(parser), user::setDisplayName);
+                case "follower_count" -> ifPresent(nextLong(parser), user::setFollowerCount);
+                case "following_count" -> ifPresent(nextLong(parser), user::setFollowingCount);
+                case "tweet_count" -> user.setTweetCount(nextInt(parser));
+                case "verified" -> user.setVerified(nextBoolean(parser));
+                case "bio" -> user.setBio(nextString(parser));
+                case "category" -> user.setCategory(GlobalDictionary.intern(nextString(parser)));
+                default -> skipValue(parser);
+            }
+        }
+        return user;
+    }
+}
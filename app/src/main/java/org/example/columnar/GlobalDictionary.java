@@ -0,0 +1,81 @@
+package org.example.columnar;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * The process-wide {@link StringDictionary} of repeated tweet strings: usernames, celebrity
+ * categories, hashtags and mentions. Decoders intern these strings to one canonical instance,
+ * {@link TweetBatch} stores them as its codes and aggregations group on those codes.
+ *
+ * {@link #open} loads the dictionary persisted at the root of a dataset, so codes stay stable
+ * across runs; open it before anything is encoded and {@link #save} it whenever data files
+ * that depend on new codes are committed. Codes handed out before {@link #open} belong to the
+ * replaced dictionary and must not be mixed with the new ones. One process owns the file of a
+ * dataset; several writers would each hand out their own codes and overwrite each other.
+ */
+public final class GlobalDictionary {
+    /** File name of the dictionary at a dataset root; hidden from Hive like other sidecars */
+    public static final String FILE_NAME = ".dictionary";
+
+    private static volatile StringDictionary dictionary = new StringDictionary();
+    private static FileSystem fileSystem;
+    private static Path path;
+    private static int savedSize;
+
+    private GlobalDictionary() {
+    }
+
+    public static StringDictionary get() {
+        return dictionary;
+    }
+
+    public static String intern(String value) {
+        return dictionary.intern(value);
+    }
+
+    public static List<String> intern(List<String> list) {
+        return dictionary.intern(list);
+    }
+
+    /**
+     * Load the dictionary of the dataset under basePath and make it the global one
+     */
+    public static synchronized StringDictionary open(FileSystem fileSystem, String basePath) throws IOException {
+        Path file = new Path(basePath, FILE_NAME);
+        StringDictionary loaded = StringDictionary.load(fileSystem, file);
+        GlobalDictionary.fileSystem = fileSystem;
+        GlobalDictionary.path = file;
+        GlobalDictionary.savedSize = loaded.size();
+        dictionary = loaded;
+        System.out.printf("📖 Loaded %d dictionary strings from %s%n", loaded.size(), file);
+        return loaded;
+    }
+
+    /**
+     * Persist values added since the last save to the opened dataset; a no-op when nothing
+     * was added or no dataset was opened
+     */
+    public static synchronized void save() throws IOException {
+        StringDictionary current = dictionary;
+        int size = current.size();
+        if (path == null || size == savedSize) {
+            return;
+        }
+        current.save(fileSystem, path);
+        savedSize = size;
+    }
+
+    /**
+     * Start over with an empty, unpersisted dictionary
+     */
+    public static synchronized void reset() {
+        dictionary = new StringDictionary();
+        fileSystem = null;
+        path = null;
+        savedSize = 0;
+    }
+}
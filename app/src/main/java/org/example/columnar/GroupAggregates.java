@@ -0,0 +1,60 @@
+package org.example.columnar;
+
+import java.util.Arrays;
+
+/**
+ * Result of {@link VectorOps#groupBy}: row count and per-measure sum, min and max of every
+ * group code, plus the group of null codes ({@link StringDictionary#NULL_CODE}).
+ * Min and max of an empty group are meaningless; check {@link #count} first.
+ */
+public final class GroupAggregates {
+    final long[] counts;
+    final long[][] sums;
+    final int[][] mins;
+    final int[][] maxes;
+    private final int cardinality;
+
+    GroupAggregates(int cardinality, int measures) {
+        this.cardinality = cardinality;
+        this.counts = new long[cardinality + 1];
+        this.sums = new long[measures][cardinality + 1];
+        this.mins = new int[measures][cardinality + 1];
+        this.maxes = new int[measures][cardinality + 1];
+        for (int m = 0; m < measures; m++) {
+            Arrays.fill(mins[m], Integer.MAX_VALUE);
+            Arrays.fill(maxes[m], Integer.MIN_VALUE);
+        }
+    }
+
+    /**
+     * Number of non-null group codes; codes run from 0 to cardinality - 1
+     */
+    public int cardinality() {
+        return cardinality;
+    }
+
+    public long count(int code) {
+        return counts[slot(code)];
+    }
+
+    public long sum(int measure, int code) {
+        return sums[measure][slot(code)];
+    }
+
+    public int min(int measure, int code) {
+        return mins[measure][slot(code)];
+    }
+
+    public int max(int measure, int code) {
+        return maxes[measure][slot(code)];
+    }
+
+    public double average(int measure, int code) {
+        long count = count(code);
+        return count == 0 ? 0 : (double) sum(measure, code) / count;
+    }
+
+    private int slot(int code) {
+        return code == StringDictionary.NULL_CODE ? cardinality : code;
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.columnar;
+
+/**
+ * Rows of a {@link TweetBatch} that passed the filters so far, in ascending order. The
+ * selection of all rows carries no row array, so operators can take a dense loop over it.
+ */
+public final class Selection {
+    private final int[] rows;
+    private final int size;
+
+    private Selection(int[] rows, int size) {
+        this.rows = rows;
+        this.size = size;
+    }
+
+    public static Selection all(int size) {
+        return new Selection(null, size);
+    }
+
+    /**
+     * The first size entries of rows, which must be ascending and are not copied
+     */
+    public static Selection of(int[] rows, int size) {
+        return new Selection(rows, size);
+    }
+
+    public boolean isAll() {
+        return rows == null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Row number of the i-th selected row
+     */
+    public int row(int i) {
+        return rows == null ? i : rows[i];
+    }
+}
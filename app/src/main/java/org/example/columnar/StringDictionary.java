@@ -0,0 +1,156 @@
+package org.example.columnar;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dense int codes for strings, in first-seen order. Null encodes as {@link #NULL_CODE}.
+ *
+ * Append-only and thread-safe: codes are never reassigned, lookups and decodes take no lock,
+ * and only adding a new value synchronizes. {@link #save} and {@link #load} persist the values
+ * in code order, so a reloaded dictionary hands out the same codes.
+ */
+public class StringDictionary {
+    public static final int NULL_CODE = -1;
+    /** Returned by {@link #lookup} for a value no row holds; matches no code in any column */
+    public static final int UNKNOWN_CODE = -2;
+
+    private static final int FILE_MAGIC = 0x54574443; // "TWDC"
+    private static final byte FILE_VERSION = 1;
+
+    private final ConcurrentHashMap<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[64];
+    private volatile int size;
+
+    /**
+     * Code of a value, adding it if it is new
+     */
+    public int encode(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        Integer code = codes.get(value);
+        return code != null ? code : add(value);
+    }
+
+    /**
+     * Code of a value without adding it, or {@link #UNKNOWN_CODE} if it was never encoded
+     */
+    public int lookup(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        return codes.getOrDefault(value, UNKNOWN_CODE);
+    }
+
+    public String decode(int code) {
+        if (code == NULL_CODE) {
+            return null;
+        }
+        if (code < 0 || code >= size) {
+            throw new IndexOutOfBoundsException("Unknown dictionary code " + code);
+        }
+        return values[code];
+    }
+
+    /**
+     * The canonical instance equal to a value, adding it if it is new
+     */
+    public String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        int code = encode(value);
+        return values[code];
+    }
+
+    /**
+     * Replace every element of a mutable list with its canonical instance
+     */
+    public List<String> intern(List<String> list) {
+        if (list != null) {
+            list.replaceAll(this::intern);
+        }
+        return list;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Write the values in code order, replacing the file through a rename so readers never
+     * see a partial dictionary. Values added while saving are left for the next save.
+     */
+    public void save(FileSystem fileSystem, Path path) throws IOException {
+        int count = size;
+        String[] snapshot = values;
+        Path temporary = new Path(path.getParent(), "_" + path.getName() + ".inprogress");
+        try (FSDataOutputStream out = fileSystem.create(temporary, true)) {
+            out.writeInt(FILE_MAGIC);
+            out.writeByte(FILE_VERSION);
+            out.writeInt(count);
+            for (int code = 0; code < count; code++) {
+                byte[] bytes = snapshot[code].getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+        fileSystem.delete(path, false);
+        if (!fileSystem.rename(temporary, path)) {
+            throw new IOException("Failed to rename " + temporary + " to " + path);
+        }
+    }
+
+    /**
+     * Dictionary written by {@link #save}, or an empty one if the file does not exist
+     */
+    public static StringDictionary load(FileSystem fileSystem, Path path) throws IOException {
+        StringDictionary dictionary = new StringDictionary();
+        if (!fileSystem.exists(path)) {
+            return dictionary;
+        }
+        try (FSDataInputStream in = fileSystem.open(path)) {
+            if (in.readInt() != FILE_MAGIC) {
+                throw new IOException("Not a string dictionary: " + path);
+            }
+            byte version = in.readByte();
+            if (version != FILE_VERSION) {
+                throw new IOException("Unsupported string dictionary version " + version);
+            }
+            int count = in.readInt();
+            for (int code = 0; code < count; code++) {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                if (dictionary.encode(new String(bytes, StandardCharsets.UTF_8)) != code) {
+                    throw new IOException("Duplicate value at code " + code + " in " + path);
+                }
+            }
+        }
+        return dictionary;
+    }
+
+    private synchronized int add(String value) {
+        Integer existing = codes.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        int code = size;
+        if (code == values.length) {
+            values = Arrays.copyOf(values, code * 2);
+        }
+        // Publish the value before its code, so whoever finds the code can decode it
+        values[code] = value;
+        size = code + 1;
+        codes.put(value, code);
+        return code;
+    }
+}
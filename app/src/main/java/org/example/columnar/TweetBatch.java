@@ -0,0 +1,330 @@
+package org.example.columnar;
+
+import org.example.model.Tweet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Tweets stored column by column: primitive arrays for the numbers and flags, dictionary
+ * codes for the strings, and offset-encoded code arrays for the hashtag and mention lists.
+ * Usernames, categories, hashtags and mentions take their codes from a tag dictionary, by
+ * default the {@link GlobalDictionary}, so those codes mean the same in every batch; ids and
+ * content use a dictionary of their own.
+ * Operators in {@link VectorOps} run tight loops over these arrays instead of walking
+ * {@link Tweet} objects with boxed timestamps and string lists.
+ *
+ * A batch is immutable once built. The column getters return the backing arrays, exactly
+ * {@link #size()} long, for operators to read; they must not be modified.
+ */
+public final class TweetBatch {
+    /** Timestamp of a row whose tweet has none */
+    public static final long NULL_TIMESTAMP = Long.MIN_VALUE;
+
+    private final StringDictionary dictionary;
+    private final StringDictionary tags;
+    private final int size;
+    private final int[] tweetIds;
+    private final int[] userIds;
+    private final int[] usernames;
+    private final int[] contents;
+    private final long[] timestamps;
+    private final int[] likeCounts;
+    private final int[] retweetCounts;
+    private final int[] replyCounts;
+    private final boolean[] celebrity;
+    private final int[] categories;
+    private final ListColumn hashtags;
+    private final ListColumn mentions;
+
+    /**
+     * Codes of a list column: the elements of row r are {@code codes[offsets[r]..offsets[r + 1])}.
+     * Rows whose list is null rather than empty are marked in {@code nulls}.
+     */
+    public record ListColumn(int[] offsets, int[] codes, BitSet nulls) {
+        public int length(int row) {
+            return offsets[row + 1] - offsets[row];
+        }
+    }
+
+    private TweetBatch(Builder builder) {
+        this.dictionary = builder.dictionary;
+        this.tags = builder.tags;
+        this.size = builder.size;
+        this.tweetIds = Arrays.copyOf(builder.tweetIds, size);
+        this.userIds = Arrays.copyOf(builder.userIds, size);
+        this.usernames = Arrays.copyOf(builder.usernames, size);
+        this.contents = Arrays.copyOf(builder.contents, size);
+        this.timestamps = Arrays.copyOf(builder.timestamps, size);
+        this.likeCounts = Arrays.copyOf(builder.likeCounts, size);
+        this.retweetCounts = Arrays.copyOf(builder.retweetCounts, size);
+        this.replyCounts = Arrays.copyOf(builder.replyCounts, size);
+        this.celebrity = Arrays.copyOf(builder.celebrity, size);
+        this.categories = Arrays.copyOf(builder.categories, size);
+        this.hashtags = builder.hashtags.build(size);
+        this.mentions = builder.mentions.build(size);
+    }
+
+    public static TweetBatch fromTweets(List<Tweet> tweets) {
+        return fromTweets(tweets, new StringDictionary(), GlobalDictionary.get());
+    }
+
+    /**
+     * Encode tweets with dictionaries that may be shared with other batches
+     */
+    public static TweetBatch fromTweets(List<Tweet> tweets, StringDictionary dictionary, StringDictionary tags) {
+        Builder builder = new Builder(dictionary, tags, tweets.size());
+        for (Tweet tweet : tweets) {
+            builder.add(tweet);
+        }
+        return builder.build();
+    }
+
+    public static Builder builder() {
+        return new Builder(new StringDictionary(), GlobalDictionary.get(), 1024);
+    }
+
+    public List<Tweet> toTweets() {
+        List<Tweet> tweets = new ArrayList<>(size);
+        for (int row = 0; row < size; row++) {
+            tweets.add(get(row));
+        }
+        return tweets;
+    }
+
+    /**
+     * The tweet of one row, rebuilt from the columns
+     */
+    public Tweet get(int row) {
+        Tweet tweet = new Tweet();
+        setIfPresent(dictionary.decode(tweetIds[row]), tweet::setTweetId);
+        setIfPresent(dictionary.decode(userIds[row]), tweet::setUserId);
+        setIfPresent(tags.decode(usernames[row]), tweet::setUsername);
+        setIfPresent(dictionary.decode(contents[row]), tweet::setContent);
+        if (timestamps[row] != NULL_TIMESTAMP) {
+            tweet.setTimestamp(timestamps[row]);
+        }
+        tweet.setLikeCount(likeCounts[row]);
+        tweet.setRetweetCount(retweetCounts[row]);
+        tweet.setReplyCount(replyCounts[row]);
+        tweet.setCelebrity(celebrity[row]);
+        setIfPresent(tags.decode(categories[row]), tweet::setCelebrityCategory);
+        setIfPresent(decodeList(hashtags, row), tweet::setHashtags);
+        setIfPresent(decodeList(mentions, row), tweet::setMentions);
+        return tweet;
+    }
+
+    /**
+     * Decoded elements of one row of a list column, or null
+     */
+    public List<String> decodeList(ListColumn column, int row) {
+        if (column.nulls().get(row)) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(column.length(row));
+        for (int i = column.offsets()[row]; i < column.offsets()[row + 1]; i++) {
+            values.add(tags.decode(column.codes()[i]));
+        }
+        return values;
+    }
+
+    private static <V> void setIfPresent(V value, Consumer<V> setter) {
+        if (value != null) {
+            setter.accept(value);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Dictionary of the tweet_id, user_id and content codes
+     */
+    public StringDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Dictionary of the username, category, hashtag and mention codes
+     */
+    public StringDictionary getTags() {
+        return tags;
+    }
+
+    public int[] tweetIds() {
+        return tweetIds;
+    }
+
+    public int[] userIds() {
+        return userIds;
+    }
+
+    public int[] usernames() {
+        return usernames;
+    }
+
+    public int[] contents() {
+        return contents;
+    }
+
+    public long[] timestamps() {
+        return timestamps;
+    }
+
+    public int[] likeCounts() {
+        return likeCounts;
+    }
+
+    public int[] retweetCounts() {
+        return retweetCounts;
+    }
+
+    public int[] replyCounts() {
+        return replyCounts;
+    }
+
+    public boolean[] celebrity() {
+        return celebrity;
+    }
+
+    public int[] categories() {
+        return categories;
+    }
+
+    public ListColumn hashtags() {
+        return hashtags;
+    }
+
+    public ListColumn mentions() {
+        return mentions;
+    }
+
+    /**
+     * Appends rows to growable columns; {@link #build} trims them into a batch
+     */
+    public static final class Builder {
+        private final StringDictionary dictionary;
+        private final StringDictionary tags;
+        private int size;
+        private int[] tweetIds;
+        private int[] userIds;
+        private int[] usernames;
+        private int[] contents;
+        private long[] timestamps;
+        private int[] likeCounts;
+        private int[] retweetCounts;
+        private int[] replyCounts;
+        private boolean[] celebrity;
+        private int[] categories;
+        private final ListBuilder hashtags;
+        private final ListBuilder mentions;
+
+        public Builder(StringDictionary dictionary, StringDictionary tags, int capacity) {
+            this.dictionary = dictionary;
+            this.tags = tags;
+            capacity = Math.max(capacity, 16);
+            tweetIds = new int[capacity];
+            userIds = new int[capacity];
+            usernames = new int[capacity];
+            contents = new int[capacity];
+            timestamps = new long[capacity];
+            likeCounts = new int[capacity];
+            retweetCounts = new int[capacity];
+            replyCounts = new int[capacity];
+            celebrity = new boolean[capacity];
+            categories = new int[capacity];
+            hashtags = new ListBuilder(capacity);
+            mentions = new ListBuilder(capacity);
+        }
+
+        public Builder add(Tweet tweet) {
+            return add(tweet.getTweetId(), tweet.getUserId(), tweet.getUsername(), tweet.getContent(),
+                tweet.getTimestamp(), tweet.getLikeCount(), tweet.getRetweetCount(), tweet.getReplyCount(),
+                tweet.isCelebrity(), tweet.getCelebrityCategory(), tweet.getHashtags(), tweet.getMentions());
+        }
+
+        /**
+         * Append one row from its column values, e.g. as read from Parquet
+         */
+        public Builder add(String tweetId, String userId, String username, String content, Long timestamp,
+                           int likeCount, int retweetCount, int replyCount, boolean isCelebrity,
+                           String category, List<String> hashtagValues, List<String> mentionValues) {
+            if (size == tweetIds.length) {
+                grow();
+            }
+            tweetIds[size] = dictionary.encode(tweetId);
+            userIds[size] = dictionary.encode(userId);
+            usernames[size] = tags.encode(username);
+            contents[size] = dictionary.encode(content);
+            timestamps[size] = timestamp == null ? NULL_TIMESTAMP : timestamp;
+            likeCounts[size] = likeCount;
+            retweetCounts[size] = retweetCount;
+            replyCounts[size] = replyCount;
+            celebrity[size] = isCelebrity;
+            categories[size] = tags.encode(category);
+            hashtags.add(size, hashtagValues, tags);
+            mentions.add(size, mentionValues, tags);
+            size++;
+            return this;
+        }
+
+        private void grow() {
+            int capacity = tweetIds.length * 2;
+            tweetIds = Arrays.copyOf(tweetIds, capacity);
+            userIds = Arrays.copyOf(userIds, capacity);
+            usernames = Arrays.copyOf(usernames, capacity);
+            contents = Arrays.copyOf(contents, capacity);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            likeCounts = Arrays.copyOf(likeCounts, capacity);
+            retweetCounts = Arrays.copyOf(retweetCounts, capacity);
+            replyCounts = Arrays.copyOf(replyCounts, capacity);
+            celebrity = Arrays.copyOf(celebrity, capacity);
+            categories = Arrays.copyOf(categories, capacity);
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public TweetBatch build() {
+            return new TweetBatch(this);
+        }
+    }
+
+    private static final class ListBuilder {
+        private int[] offsets;
+        private int[] codes;
+        private final BitSet nulls = new BitSet();
+
+        ListBuilder(int capacity) {
+            offsets = new int[capacity + 1];
+            codes = new int[capacity * 2];
+        }
+
+        void add(int row, List<String> values, StringDictionary dictionary) {
+            if (row + 2 > offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            int end = offsets[row];
+            if (values == null) {
+                nulls.set(row);
+            } else {
+                if (end + values.size() > codes.length) {
+                    codes = Arrays.copyOf(codes, Math.max(codes.length * 2, end + values.size()));
+                }
+                for (String value : values) {
+                    codes[end++] = dictionary.encode(value);
+                }
+            }
+            offsets[row + 1] = end;
+        }
+
+        ListColumn build(int size) {
+            return new ListColumn(Arrays.copyOf(offsets, size + 1), Arrays.copyOf(codes, offsets[size]), (BitSet) nulls.clone());
+        }
+    }
+}
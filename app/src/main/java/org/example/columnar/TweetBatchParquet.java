@@ -0,0 +1,198 @@
+package org.example.columnar;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.ParquetReader;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.hadoop.example.GroupReadSupport;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.example.hadoop.TweetParquetWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Converts {@link TweetBatch}es to and from Parquet files with the {@link TweetParquetWriter}
+ * layout. Writing pushes column values straight into the record consumer, so dictionary
+ * codes are decoded once per value without rebuilding {@link org.example.model.Tweet}s.
+ */
+public final class TweetBatchParquet {
+
+    private TweetBatchParquet() {
+    }
+
+    public static TweetBatch read(Configuration conf, Path path) throws IOException {
+        return read(conf, path, new StringDictionary(), GlobalDictionary.get());
+    }
+
+    /**
+     * Read a whole file into a batch, encoding its strings with the given dictionaries
+     */
+    public static TweetBatch read(Configuration conf, Path path, StringDictionary dictionary, StringDictionary tags)
+            throws IOException {
+        TweetBatch.Builder builder = new TweetBatch.Builder(dictionary, tags, 1024);
+        try (ParquetReader<Group> reader = ParquetReader.builder(new GroupReadSupport(), path).withConf(conf).build()) {
+            Group group;
+            while ((group = reader.read()) != null) {
+                builder.add(string(group, "tweet_id"), string(group, "user_id"), string(group, "username"),
+                    string(group, "content"),
+                    group.getFieldRepetitionCount("tweet_timestamp") == 0 ? null : group.getLong("tweet_timestamp", 0),
+                    integer(group, "like_count"), integer(group, "retweet_count"), integer(group, "reply_count"),
+                    group.getFieldRepetitionCount("is_celebrity") > 0 && group.getBoolean("is_celebrity", 0),
+                    string(group, "celebrity_category"), strings(group, "hashtags"), strings(group, "mentions"));
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Write a batch as a Snappy-compressed file; an existing file at the path is replaced
+     */
+    public static void write(TweetBatch batch, Configuration conf, Path path) throws IOException {
+        try (ParquetWriter<Integer> writer = new Builder(path, batch)
+                .withConf(conf)
+                .withCompressionCodec(CompressionCodecName.SNAPPY)
+                .withWriteMode(ParquetFileWriter.Mode.OVERWRITE)
+                .build()) {
+            for (int row = 0; row < batch.size(); row++) {
+                writer.write(row);
+            }
+        }
+    }
+
+    private static String string(Group group, String field) {
+        return group.getFieldRepetitionCount(field) == 0 ? null : group.getString(field, 0);
+    }
+
+    private static int integer(Group group, String field) {
+        return group.getFieldRepetitionCount(field) == 0 ? 0 : group.getInteger(field, 0);
+    }
+
+    private static List<String> strings(Group group, String field) {
+        if (group.getFieldRepetitionCount(field) == 0) {
+            return null;
+        }
+        Group list = group.getGroup(field, 0);
+        List<String> elements = new ArrayList<>(list.getFieldRepetitionCount("list"));
+        for (int i = 0; i < list.getFieldRepetitionCount("list"); i++) {
+            Group element = list.getGroup("list", i);
+            elements.add(element.getFieldRepetitionCount("element") == 0 ? null : element.getString("element", 0));
+        }
+        return elements;
+    }
+
+    /**
+     * Writes rows of one batch, identified by row number
+     */
+    private static class Builder extends ParquetWriter.Builder<Integer, Builder> {
+        private final TweetBatch batch;
+
+        Builder(Path path, TweetBatch batch) {
+            super(path);
+            this.batch = batch;
+        }
+
+        @Override
+        protected Builder self() {
+            return this;
+        }
+
+        @Override
+        protected WriteSupport<Integer> getWriteSupport(Configuration conf) {
+            return new BatchWriteSupport(batch);
+        }
+    }
+
+    private static class BatchWriteSupport extends WriteSupport<Integer> {
+        private final TweetBatch batch;
+        private final StringDictionary dictionary;
+        private final StringDictionary tags;
+        private RecordConsumer consumer;
+
+        BatchWriteSupport(TweetBatch batch) {
+            this.batch = batch;
+            this.dictionary = batch.getDictionary();
+            this.tags = batch.getTags();
+        }
+
+        @Override
+        public WriteContext init(Configuration configuration) {
+            return new WriteContext(TweetParquetWriter.SCHEMA, new HashMap<>());
+        }
+
+        @Override
+        public void prepareForWrite(RecordConsumer recordConsumer) {
+            this.consumer = recordConsumer;
+        }
+
+        @Override
+        public void write(Integer rowNumber) {
+            int row = rowNumber;
+            consumer.startMessage();
+            writeString("tweet_id", 0, dictionary, batch.tweetIds()[row]);
+            writeString("user_id", 1, dictionary, batch.userIds()[row]);
+            writeString("username", 2, tags, batch.usernames()[row]);
+            writeString("content", 3, dictionary, batch.contents()[row]);
+            if (batch.timestamps()[row] != TweetBatch.NULL_TIMESTAMP) {
+                consumer.startField("tweet_timestamp", 4);
+                consumer.addLong(batch.timestamps()[row]);
+                consumer.endField("tweet_timestamp", 4);
+            }
+            writeInt("like_count", 5, batch.likeCounts()[row]);
+            writeInt("retweet_count", 6, batch.retweetCounts()[row]);
+            writeInt("reply_count", 7, batch.replyCounts()[row]);
+            consumer.startField("is_celebrity", 8);
+            consumer.addBoolean(batch.celebrity()[row]);
+            consumer.endField("is_celebrity", 8);
+            writeString("celebrity_category", 9, tags, batch.categories()[row]);
+            writeList("hashtags", 10, batch.hashtags(), row);
+            writeList("mentions", 11, batch.mentions(), row);
+            consumer.endMessage();
+        }
+
+        private void writeString(String field, int index, StringDictionary strings, int code) {
+            if (code == StringDictionary.NULL_CODE) {
+                return;
+            }
+            consumer.startField(field, index);
+            consumer.addBinary(Binary.fromString(strings.decode(code)));
+            consumer.endField(field, index);
+        }
+
+        private void writeInt(String field, int index, int value) {
+            consumer.startField(field, index);
+            consumer.addInteger(value);
+            consumer.endField(field, index);
+        }
+
+        private void writeList(String field, int index, TweetBatch.ListColumn column, int row) {
+            if (column.nulls().get(row)) {
+                return;
+            }
+            consumer.startField(field, index);
+            consumer.startGroup();
+            if (column.length(row) > 0) {
+                consumer.startField("list", 0);
+                for (int i = column.offsets()[row]; i < column.offsets()[row + 1]; i++) {
+                    consumer.startGroup();
+                    if (column.codes()[i] != StringDictionary.NULL_CODE) {
+                        consumer.startField("element", 0);
+                        consumer.addBinary(Binary.fromString(tags.decode(column.codes()[i])));
+                        consumer.endField("element", 0);
+                    }
+                    consumer.endGroup();
+                }
+                consumer.endField("list", 0);
+            }
+            consumer.endGroup();
+            consumer.endField(field, index);
+        }
+    }
+}
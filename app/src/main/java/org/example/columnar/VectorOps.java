@@ -0,0 +1,230 @@
+package org.example.columnar;
+
+/**
+ * Filter, group-by and top-K operators over the primitive columns of a {@link TweetBatch}.
+ * Every operator is one sequential pass over its input columns: filters write matching row
+ * numbers without branching on the predicate, and group-by indexes accumulators directly by
+ * dictionary code instead of hashing.
+ */
+public final class VectorOps {
+
+    private VectorOps() {
+    }
+
+    public static Selection filterTrue(boolean[] column, Selection in) {
+        int[] out = new int[in.size()];
+        int matches = 0;
+        if (in.isAll()) {
+            for (int row = 0; row < in.size(); row++) {
+                out[matches] = row;
+                matches += column[row] ? 1 : 0;
+            }
+        } else {
+            for (int i = 0; i < in.size(); i++) {
+                int row = in.row(i);
+                out[matches] = row;
+                matches += column[row] ? 1 : 0;
+            }
+        }
+        return Selection.of(out, matches);
+    }
+
+    /**
+     * Rows whose code equals the given one, e.g. a {@link StringDictionary#lookup} result
+     */
+    public static Selection filterEquals(int[] column, int value, Selection in) {
+        int[] out = new int[in.size()];
+        int matches = 0;
+        if (in.isAll()) {
+            for (int row = 0; row < in.size(); row++) {
+                out[matches] = row;
+                matches += column[row] == value ? 1 : 0;
+            }
+        } else {
+            for (int i = 0; i < in.size(); i++) {
+                int row = in.row(i);
+                out[matches] = row;
+                matches += column[row] == value ? 1 : 0;
+            }
+        }
+        return Selection.of(out, matches);
+    }
+
+    public static Selection filterGreaterThan(int[] column, int threshold, Selection in) {
+        int[] out = new int[in.size()];
+        int matches = 0;
+        if (in.isAll()) {
+            for (int row = 0; row < in.size(); row++) {
+                out[matches] = row;
+                matches += column[row] > threshold ? 1 : 0;
+            }
+        } else {
+            for (int i = 0; i < in.size(); i++) {
+                int row = in.row(i);
+                out[matches] = row;
+                matches += column[row] > threshold ? 1 : 0;
+            }
+        }
+        return Selection.of(out, matches);
+    }
+
+    /**
+     * Rows with from <= value <= to; {@link TweetBatch#NULL_TIMESTAMP} never matches
+     */
+    public static Selection filterBetween(long[] column, long from, long to, Selection in) {
+        from = Math.max(from, TweetBatch.NULL_TIMESTAMP + 1);
+        int[] out = new int[in.size()];
+        int matches = 0;
+        for (int i = 0; i < in.size(); i++) {
+            int row = in.row(i);
+            out[matches] = row;
+            long value = column[row];
+            matches += value >= from && value <= to ? 1 : 0;
+        }
+        return Selection.of(out, matches);
+    }
+
+    /**
+     * One more than the largest code in the column, 0 if it holds none. Sizes per-code arrays
+     * by the codes a batch holds rather than by its dictionary, which may be process-wide.
+     */
+    public static int cardinality(int[] codes) {
+        int max = -1;
+        for (int code : codes) {
+            max = Math.max(max, code);
+        }
+        return max + 1;
+    }
+
+    /**
+     * Count rows and sum, min and max each measure per group code in [0, cardinality);
+     * rows with {@link StringDictionary#NULL_CODE} form one more group
+     */
+    public static GroupAggregates groupBy(int[] keys, int cardinality, Selection in, int[]... measures) {
+        GroupAggregates groups = new GroupAggregates(cardinality, measures.length);
+        int nullSlot = cardinality;
+        long[] counts = groups.counts;
+        for (int i = 0; i < in.size(); i++) {
+            int key = keys[in.row(i)];
+            counts[key < 0 ? nullSlot : key]++;
+        }
+        // One pass per measure keeps each inner loop to two input streams
+        for (int m = 0; m < measures.length; m++) {
+            int[] values = measures[m];
+            long[] sums = groups.sums[m];
+            int[] mins = groups.mins[m];
+            int[] maxes = groups.maxes[m];
+            for (int i = 0; i < in.size(); i++) {
+                int row = in.row(i);
+                int key = keys[row];
+                int slot = key < 0 ? nullSlot : key;
+                int value = values[row];
+                sums[slot] += value;
+                mins[slot] = Math.min(mins[slot], value);
+                maxes[slot] = Math.max(maxes[slot], value);
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * Number of occurrences of each code in [0, cardinality) in the lists of the selected rows;
+     * null elements are not counted
+     */
+    public static int[] countCodes(TweetBatch.ListColumn column, int cardinality, Selection in) {
+        int[] counts = new int[cardinality];
+        int[] offsets = column.offsets();
+        int[] codes = column.codes();
+        for (int i = 0; i < in.size(); i++) {
+            int row = in.row(i);
+            for (int j = offsets[row]; j < offsets[row + 1]; j++) {
+                int code = codes[j];
+                if (code >= 0) {
+                    counts[code]++;
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Rows of the k largest values, largest first; ties keep row order
+     */
+    public static int[] topK(int[] column, Selection in, int k) {
+        k = Math.min(k, in.size());
+        if (k <= 0) {
+            return new int[0];
+        }
+        // Min-heap of row numbers on (value, -row): the root is the current k-th best
+        int[] heap = new int[k];
+        int heapSize = 0;
+        for (int i = 0; i < in.size(); i++) {
+            int row = in.row(i);
+            if (heapSize < k) {
+                heap[heapSize] = row;
+                siftUp(heap, heapSize++, column);
+            } else if (column[row] > column[heap[0]]) {
+                heap[0] = row;
+                siftDown(heap, heapSize, column);
+            }
+        }
+        int[] rows = new int[heapSize];
+        for (int i = heapSize - 1; i >= 0; i--) {
+            rows[i] = heap[0];
+            heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize, column);
+        }
+        return rows;
+    }
+
+    /**
+     * Element-wise sum of two columns, e.g. likes plus retweets as a ranking score
+     */
+    public static int[] add(int[] left, int[] right) {
+        int[] out = new int[left.length];
+        for (int row = 0; row < out.length; row++) {
+            out[row] = left[row] + right[row];
+        }
+        return out;
+    }
+
+    private static boolean worse(int[] column, int a, int b) {
+        return column[a] < column[b] || (column[a] == column[b] && a > b);
+    }
+
+    private static void siftUp(int[] heap, int index, int[] column) {
+        int row = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!worse(column, row, heap[parent])) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = row;
+    }
+
+    private static void siftDown(int[] heap, int size, int[] column) {
+        if (size == 0) {
+            return;
+        }
+        int row = heap[0];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && worse(column, heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!worse(column, heap[child], row)) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = row;
+    }
+}
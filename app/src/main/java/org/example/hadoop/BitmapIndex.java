@@ -0,0 +1,315 @@
+package org.example.hadoop;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.example.model.Event;
+import org.example.model.Tweet;
+import org.example.model.User;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Per-file bitmap indexes, stored in a {@code .<file>.bitmap} sidecar: for every value of a
+ * low-cardinality column, a compressed (Roaring) bitmap of the rows holding it. Rows are
+ * numbered by their position in the data file, from 0.
+ *
+ * Indexed columns: is_celebrity and celebrity_category of tweets and users, verified of
+ * users, event_type and is_celebrity (is_celebrity_involved) of events, and the presence of
+ * each hashtag in a tweet. Flags are indexed under the value "true" only; {@link #not}
+ * gives the rows where they are false.
+ *
+ * {@link Predicate}s combine column values with AND, OR and NOT into the bitmap of matching
+ * rows without reading the data file.
+ */
+public class BitmapIndex {
+    public static final String SIDECAR_SUFFIX = "bitmap";
+
+    public static final String IS_CELEBRITY = "is_celebrity";
+    public static final String CELEBRITY_CATEGORY = "celebrity_category";
+    public static final String VERIFIED = "verified";
+    public static final String EVENT_TYPE = "event_type";
+    public static final String HASHTAG = "hashtag";
+
+    private static final String TRUE = "true";
+    private static final int MAGIC = 0x54424d50; // "TBMP"
+    private static final byte VERSION = 1;
+
+    private final int recordCount;
+    private final Map<String, Map<String, RoaringBitmap>> columns;
+
+    private BitmapIndex(int recordCount, Map<String, Map<String, RoaringBitmap>> columns) {
+        this.recordCount = recordCount;
+        this.columns = columns;
+    }
+
+    /**
+     * Sidecar builder to register with {@link HDFSWriter#addSidecar}
+     */
+    public static SidecarWriter sidecar() {
+        return new Builder();
+    }
+
+    /**
+     * Load the bitmap index of a data file, or null if none was written
+     */
+    public static BitmapIndex readFor(FileSystem fileSystem, Path dataFile) throws IOException {
+        Path sidecar = Sidecars.pathFor(dataFile, SIDECAR_SUFFIX);
+        if (!fileSystem.exists(sidecar)) {
+            return null;
+        }
+        try (FSDataInputStream inputStream = fileSystem.open(sidecar)) {
+            DataInputStream in = new DataInputStream(inputStream);
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a bitmap index sidecar: " + sidecar);
+            }
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported bitmap index version " + version + " in " + sidecar);
+            }
+            int recordCount = in.readInt();
+            Map<String, Map<String, RoaringBitmap>> columns = new HashMap<>();
+            int columnCount = in.readInt();
+            for (int c = 0; c < columnCount; c++) {
+                String column = in.readUTF();
+                int valueCount = in.readInt();
+                Map<String, RoaringBitmap> values = new HashMap<>(valueCount * 2);
+                for (int v = 0; v < valueCount; v++) {
+                    String value = in.readUTF();
+                    RoaringBitmap rows = new RoaringBitmap();
+                    rows.deserialize(in);
+                    values.put(value, rows);
+                }
+                columns.put(column, values);
+            }
+            return new BitmapIndex(recordCount, columns);
+        }
+    }
+
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Rows holding the value; empty if none does. The bitmap is shared and must not be modified.
+     */
+    public RoaringBitmap rows(String column, String value) {
+        RoaringBitmap rows = columns.getOrDefault(column, Map.of()).get(value);
+        return rows != null ? rows : new RoaringBitmap();
+    }
+
+    /**
+     * Distinct values of a column in this file
+     */
+    public Set<String> values(String column) {
+        return Collections.unmodifiableSet(columns.getOrDefault(column, Map.of()).keySet());
+    }
+
+    /**
+     * Rows matching the predicate
+     */
+    public RoaringBitmap select(Predicate predicate) {
+        return predicate.evaluate(this);
+    }
+
+    private RoaringBitmap allRows() {
+        RoaringBitmap rows = new RoaringBitmap();
+        rows.add(0L, recordCount);
+        return rows;
+    }
+
+    /**
+     * Indexed column values of one record, the same ones its sidecar row gets
+     */
+    public static Map<String, Set<String>> termsOf(Object record) {
+        Map<String, Set<String>> terms = new HashMap<>();
+        forEachTerm(record, (column, value) -> terms.computeIfAbsent(column, key -> new HashSet<>()).add(value));
+        return terms;
+    }
+
+    private interface TermConsumer {
+        void accept(String column, String value);
+    }
+
+    private static void forEachTerm(Object record, TermConsumer terms) {
+        if (record instanceof Tweet tweet) {
+            if (tweet.isCelebrity()) {
+                terms.accept(IS_CELEBRITY, TRUE);
+            }
+            if (tweet.getCelebrityCategory() != null) {
+                terms.accept(CELEBRITY_CATEGORY, tweet.getCelebrityCategory());
+            }
+            if (tweet.getHashtags() != null) {
+                for (String hashtag : tweet.getHashtags()) {
+                    if (hashtag != null) {
+                        terms.accept(HASHTAG, hashtag);
+                    }
+                }
+            }
+        } else if (record instanceof User user) {
+            if (user.isCelebrity()) {
+                terms.accept(IS_CELEBRITY, TRUE);
+                terms.accept(CELEBRITY_CATEGORY, user.getCelebrityCategory());
+            }
+            if (user.isVerified()) {
+                terms.accept(VERIFIED, TRUE);
+            }
+        } else if (record instanceof Event event) {
+            if (event.getEventType() != null) {
+                terms.accept(EVENT_TYPE, event.getEventType());
+            }
+            if (event.isCelebrityInvolved()) {
+                terms.accept(IS_CELEBRITY, TRUE);
+            }
+        }
+    }
+
+    /**
+     * Rows with column = value
+     */
+    public static Predicate equalTo(String column, String value) {
+        return new Term(column, value);
+    }
+
+    /**
+     * Rows whose flag column is true
+     */
+    public static Predicate isTrue(String column) {
+        return new Term(column, TRUE);
+    }
+
+    public static Predicate and(Predicate... predicates) {
+        return new And(List.of(predicates));
+    }
+
+    public static Predicate or(Predicate... predicates) {
+        return new Or(List.of(predicates));
+    }
+
+    public static Predicate not(Predicate predicate) {
+        return new Not(predicate);
+    }
+
+    /**
+     * A boolean combination of indexed column values, evaluated over a whole file's bitmaps or
+     * against one record for files without an index
+     */
+    public sealed interface Predicate permits Term, And, Or, Not {
+        RoaringBitmap evaluate(BitmapIndex index);
+
+        /**
+         * Whether a record with these {@link #termsOf terms} matches
+         */
+        boolean test(Map<String, Set<String>> terms);
+    }
+
+    private record Term(String column, String value) implements Predicate {
+        @Override
+        public RoaringBitmap evaluate(BitmapIndex index) {
+            return index.rows(column, value);
+        }
+
+        @Override
+        public boolean test(Map<String, Set<String>> terms) {
+            return terms.getOrDefault(column, Set.of()).contains(value);
+        }
+    }
+
+    private record And(List<Predicate> predicates) implements Predicate {
+        @Override
+        public RoaringBitmap evaluate(BitmapIndex index) {
+            RoaringBitmap rows = null;
+            for (Predicate predicate : predicates) {
+                RoaringBitmap next = predicate.evaluate(index);
+                rows = rows == null ? next : RoaringBitmap.and(rows, next);
+                if (rows.isEmpty()) {
+                    break;
+                }
+            }
+            return rows != null ? rows : index.allRows();
+        }
+
+        @Override
+        public boolean test(Map<String, Set<String>> terms) {
+            return predicates.stream().allMatch(predicate -> predicate.test(terms));
+        }
+    }
+
+    private record Or(List<Predicate> predicates) implements Predicate {
+        @Override
+        public RoaringBitmap evaluate(BitmapIndex index) {
+            List<RoaringBitmap> rows = new ArrayList<>(predicates.size());
+            for (Predicate predicate : predicates) {
+                rows.add(predicate.evaluate(index));
+            }
+            return RoaringBitmap.or(rows.iterator());
+        }
+
+        @Override
+        public boolean test(Map<String, Set<String>> terms) {
+            return predicates.stream().anyMatch(predicate -> predicate.test(terms));
+        }
+    }
+
+    private record Not(Predicate predicate) implements Predicate {
+        @Override
+        public RoaringBitmap evaluate(BitmapIndex index) {
+            return RoaringBitmap.andNot(index.allRows(), predicate.evaluate(index));
+        }
+
+        @Override
+        public boolean test(Map<String, Set<String>> terms) {
+            return !predicate.test(terms);
+        }
+    }
+
+    private static class Builder implements SidecarWriter {
+        private final Map<String, Map<String, RoaringBitmap>> columns = new TreeMap<>();
+        private int recordCount;
+
+        @Override
+        public void add(Object record, long offset, int length) {
+            int row = recordCount++;
+            forEachTerm(record, (column, value) ->
+                columns.computeIfAbsent(column, key -> new TreeMap<>())
+                    .computeIfAbsent(value, key -> new RoaringBitmap())
+                    .add(row));
+        }
+
+        @Override
+        public void commit(FileSystem fileSystem, Path dataFile) throws IOException {
+            if (recordCount == 0) {
+                return;
+            }
+            try (FSDataOutputStream outputStream = fileSystem.create(Sidecars.pathFor(dataFile, SIDECAR_SUFFIX), true)) {
+                DataOutputStream out = new DataOutputStream(outputStream);
+                out.writeInt(MAGIC);
+                out.writeByte(VERSION);
+                out.writeInt(recordCount);
+                out.writeInt(columns.size());
+                for (Map.Entry<String, Map<String, RoaringBitmap>> column : columns.entrySet()) {
+                    out.writeUTF(column.getKey());
+                    out.writeInt(column.getValue().size());
+                    for (Map.Entry<String, RoaringBitmap> value : column.getValue().entrySet()) {
+                        out.writeUTF(value.getKey());
+                        value.getValue().runOptimize();
+                        value.getValue().serialize(out);
+                    }
+                }
+                out.flush();
+            }
+        }
+    }
+}
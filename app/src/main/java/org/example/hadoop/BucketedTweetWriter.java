@@ -0,0 +1,122 @@
+package org.example.hadoop;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hive.common.util.Murmur3;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.example.model.Tweet;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes tweets as Parquet bucket files for a table that is
+ * {@code CLUSTERED BY (user_id) SORTED BY (tweet_timestamp) INTO N BUCKETS}.
+ *
+ * Rows are assigned to buckets with Hive's bucketing hash (version 2, Murmur3 over the
+ * UTF-8 bytes of user_id) and each bucket file is sorted by tweet_timestamp. Files are
+ * named {@code 000000_0 .. 00000N_0} as Hive names them, and every bucket gets a file,
+ * even an empty one, so Hive and Spark can rely on the bucket layout for bucket map
+ * joins, sort-merge joins and bucket pruning.
+ *
+ * A partition is always written as a whole; its tweets are buffered in memory while the
+ * buckets are sorted.
+ */
+public class BucketedTweetWriter {
+    private static final Comparator<Tweet> BY_TIMESTAMP =
+        Comparator.comparing(Tweet::getTimestamp, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final FileSystem fileSystem;
+    private final int numBuckets;
+
+    public BucketedTweetWriter(FileSystem fileSystem, int numBuckets) {
+        if (numBuckets <= 0) {
+            throw new IllegalArgumentException("Number of buckets must be positive");
+        }
+        this.fileSystem = fileSystem;
+        this.numBuckets = numBuckets;
+    }
+
+    /**
+     * Bucket of a user_id, identical to Hive's {@code ObjectInspectorUtils.getBucketNumber}
+     * for a single STRING bucketing column with bucketing_version 2
+     */
+    public static int bucketFor(String userId, int numBuckets) {
+        int hash = 0;
+        if (userId != null) {
+            byte[] bytes = userId.getBytes(StandardCharsets.UTF_8);
+            hash = Murmur3.hash32(bytes, bytes.length);
+        }
+        return (hash & Integer.MAX_VALUE) % numBuckets;
+    }
+
+    public static String bucketFileName(int bucket) {
+        return String.format("%06d_0", bucket);
+    }
+
+    /**
+     * Split tweets by hourly partition and write each one under
+     * {@code tablePath/year=/month=/day=/hour=}, replacing existing bucket files
+     */
+    public Map<HourPartition, Path> write(String tablePath, Iterable<Tweet> tweets) throws IOException {
+        Map<HourPartition, List<Tweet>> byPartition = new LinkedHashMap<>();
+        for (Tweet tweet : tweets) {
+            byPartition.computeIfAbsent(HourPartition.ofEpochSecond(tweet.getTimestamp()), key -> new ArrayList<>()).add(tweet);
+        }
+
+        Map<HourPartition, Path> directories = new LinkedHashMap<>();
+        for (var entry : byPartition.entrySet()) {
+            Path directory = new Path(tablePath, entry.getKey().hiveRelativePath());
+            writePartition(directory, entry.getValue());
+            directories.put(entry.getKey(), directory);
+        }
+        return directories;
+    }
+
+    /**
+     * Write the complete contents of one partition directory as bucket files
+     */
+    public List<Path> writePartition(Path directory, Collection<Tweet> tweets) throws IOException {
+        List<List<Tweet>> buckets = new ArrayList<>(numBuckets);
+        for (int i = 0; i < numBuckets; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        for (Tweet tweet : tweets) {
+            buckets.get(bucketFor(tweet.getUserId(), numBuckets)).add(tweet);
+        }
+
+        List<Path> files = new ArrayList<>(numBuckets);
+        for (int bucket = 0; bucket < numBuckets; bucket++) {
+            List<Tweet> rows = buckets.get(bucket);
+            rows.sort(BY_TIMESTAMP);
+            files.add(writeBucket(directory, bucket, rows));
+        }
+        System.out.println("Successfully wrote " + tweets.size() + " tweets into " + numBuckets + " buckets under " + directory);
+        return files;
+    }
+
+    private Path writeBucket(Path directory, int bucket, List<Tweet> rows) throws IOException {
+        String name = bucketFileName(bucket);
+        Path inProgress = new Path(directory, "_" + name + ".inprogress");
+        Path target = new Path(directory, name);
+
+        try (ParquetWriter<Tweet> writer = TweetParquetWriter.open(fileSystem.getConf(), fileSystem.makeQualified(inProgress))) {
+            for (Tweet tweet : rows) {
+                writer.write(tweet);
+            }
+        }
+        if (fileSystem.exists(target)) {
+            fileSystem.delete(target, false);
+        }
+        if (!fileSystem.rename(inProgress, target)) {
+            throw new IOException("Failed to commit " + inProgress + " to " + target);
+        }
+        return target;
+    }
+}
@@ -0,0 +1,112 @@
+package org.example.hadoop;
+
+import com.google.common.hash.Hashing;
+import org.apache.hadoop.io.WritableUtils;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Count-Min sketch of string frequencies. Estimates never undercount, and overcount by at
+ * most {@link #errorBound()} with probability {@link #confidence()}. Sketches of the same
+ * dimensions merge by adding their counters, so hours combine into any time range.
+ */
+public class CountMinSketch {
+    private final int depth;
+    private final int width;
+    private final long[] counters;
+    private long total;
+
+    public CountMinSketch(int depth, int width) {
+        if (depth <= 0 || width <= 0) {
+            throw new IllegalArgumentException("Depth and width must be positive");
+        }
+        this.depth = depth;
+        this.width = width;
+        this.counters = new long[depth * width];
+    }
+
+    /**
+     * Dimensions for an overcount of at most epsilon times the total with probability 1 - delta
+     */
+    public static CountMinSketch withError(double epsilon, double delta) {
+        return new CountMinSketch((int) Math.ceil(Math.log(1 / delta)), (int) Math.ceil(Math.E / epsilon));
+    }
+
+    public void add(String item, long count) {
+        long hash = Hashing.murmur3_128().hashString(item, StandardCharsets.UTF_8).asLong();
+        for (int row = 0; row < depth; row++) {
+            counters[row * width + column(hash, row)] += count;
+        }
+        total += count;
+    }
+
+    public long estimate(String item) {
+        long hash = Hashing.murmur3_128().hashString(item, StandardCharsets.UTF_8).asLong();
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[row * width + column(hash, row)]);
+        }
+        return estimate;
+    }
+
+    /**
+     * Sum of all counts added
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Largest overcount of any estimate, e / width of the total, at {@link #confidence()}
+     */
+    public long errorBound() {
+        return (long) Math.ceil(Math.E / width * total);
+    }
+
+    public double confidence() {
+        return 1 - Math.exp(-depth);
+    }
+
+    public void merge(CountMinSketch other) {
+        if (other.depth != depth || other.width != width) {
+            throw new IllegalArgumentException("Cannot merge a " + other.depth + "x" + other.width
+                + " sketch into a " + depth + "x" + width + " sketch");
+        }
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] += other.counters[i];
+        }
+        total += other.total;
+    }
+
+    /**
+     * Counters are variable-length encoded, so the many empty cells of a small hour take a byte each
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(depth);
+        out.writeInt(width);
+        WritableUtils.writeVLong(out, total);
+        for (long counter : counters) {
+            WritableUtils.writeVLong(out, counter);
+        }
+    }
+
+    public static CountMinSketch read(DataInput in) throws IOException {
+        CountMinSketch sketch = new CountMinSketch(in.readInt(), in.readInt());
+        sketch.total = WritableUtils.readVLong(in);
+        for (int i = 0; i < sketch.counters.length; i++) {
+            sketch.counters[i] = WritableUtils.readVLong(in);
+        }
+        return sketch;
+    }
+
+    /**
+     * Row hash derived from one 64-bit hash, as Guava's bloom filters do
+     */
+    private int column(long hash, int row) {
+        int combined = (int) hash + (row + 1) * (int) (hash >>> 32);
+        return (combined & Integer.MAX_VALUE) % width;
+    }
+}
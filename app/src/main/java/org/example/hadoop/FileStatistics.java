@@ -0,0 +1,194 @@
+package org.example.hadoop;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.example.model.Tweet;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Per-file statistics of a tweets data file, stored in a {@code .<file>.stats} sidecar:
+ * min/max of timestamp, like_count and retweet_count, and bloom filters on
+ * user_id, tweet_id and hashtags. Used to skip files that cannot match a query.
+ */
+public class FileStatistics {
+    public static final String SIDECAR_SUFFIX = "stats";
+    public static final double BLOOM_FALSE_POSITIVE_RATE = 0.01;
+
+    private static final int MAGIC = 0x54535441; // "TSTA"
+    private static final byte VERSION = 1;
+
+    private final long recordCount;
+    private final long minTimestamp;
+    private final long maxTimestamp;
+    private final int minLikeCount;
+    private final int maxLikeCount;
+    private final int minRetweetCount;
+    private final int maxRetweetCount;
+    private final BloomFilter<CharSequence> userIds;
+    private final BloomFilter<CharSequence> tweetIds;
+    private final BloomFilter<CharSequence> hashtags;
+
+    private FileStatistics(long recordCount, long minTimestamp, long maxTimestamp,
+                           int minLikeCount, int maxLikeCount, int minRetweetCount, int maxRetweetCount,
+                           BloomFilter<CharSequence> userIds, BloomFilter<CharSequence> tweetIds,
+                           BloomFilter<CharSequence> hashtags) {
+        this.recordCount = recordCount;
+        this.minTimestamp = minTimestamp;
+        this.maxTimestamp = maxTimestamp;
+        this.minLikeCount = minLikeCount;
+        this.maxLikeCount = maxLikeCount;
+        this.minRetweetCount = minRetweetCount;
+        this.maxRetweetCount = maxRetweetCount;
+        this.userIds = userIds;
+        this.tweetIds = tweetIds;
+        this.hashtags = hashtags;
+    }
+
+    /**
+     * Sidecar builder to register with {@link HDFSWriter#addSidecar}
+     */
+    public static SidecarWriter sidecar() {
+        return new Builder();
+    }
+
+    /**
+     * Load the statistics of a data file, or null if none were written
+     */
+    public static FileStatistics readFor(FileSystem fileSystem, Path dataFile) throws IOException {
+        Path sidecar = Sidecars.pathFor(dataFile, SIDECAR_SUFFIX);
+        if (!fileSystem.exists(sidecar)) {
+            return null;
+        }
+        try (FSDataInputStream inputStream = fileSystem.open(sidecar)) {
+            DataInputStream in = new DataInputStream(inputStream);
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a statistics sidecar: " + sidecar);
+            }
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported statistics version " + version + " in " + sidecar);
+            }
+            return new FileStatistics(in.readLong(), in.readLong(), in.readLong(),
+                in.readInt(), in.readInt(), in.readInt(), in.readInt(),
+                readBloomFilter(in), readBloomFilter(in), readBloomFilter(in));
+        }
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    public long getMinTimestamp() {
+        return minTimestamp;
+    }
+
+    public long getMaxTimestamp() {
+        return maxTimestamp;
+    }
+
+    public int getMinLikeCount() {
+        return minLikeCount;
+    }
+
+    public int getMaxLikeCount() {
+        return maxLikeCount;
+    }
+
+    public int getMinRetweetCount() {
+        return minRetweetCount;
+    }
+
+    public int getMaxRetweetCount() {
+        return maxRetweetCount;
+    }
+
+    public boolean overlapsTimeRange(long from, long to) {
+        return from <= maxTimestamp && to >= minTimestamp;
+    }
+
+    public boolean mightContainUser(String userId) {
+        return userIds.mightContain(userId);
+    }
+
+    public boolean mightContainTweet(String tweetId) {
+        return tweetIds.mightContain(tweetId);
+    }
+
+    public boolean mightContainHashtag(String hashtag) {
+        return hashtags.mightContain(hashtag);
+    }
+
+    private static BloomFilter<CharSequence> readBloomFilter(DataInputStream in) throws IOException {
+        return BloomFilter.readFrom(in, Funnels.stringFunnel(StandardCharsets.UTF_8));
+    }
+
+    private static BloomFilter<CharSequence> bloomFilterOf(Set<String> values) {
+        BloomFilter<CharSequence> bloomFilter = BloomFilter.create(
+            Funnels.stringFunnel(StandardCharsets.UTF_8), Math.max(values.size(), 1), BLOOM_FALSE_POSITIVE_RATE);
+        values.forEach(bloomFilter::put);
+        return bloomFilter;
+    }
+
+    private static class Builder implements SidecarWriter {
+        private long recordCount;
+        private long minTimestamp = Long.MAX_VALUE;
+        private long maxTimestamp = Long.MIN_VALUE;
+        private int minLikeCount = Integer.MAX_VALUE;
+        private int maxLikeCount = Integer.MIN_VALUE;
+        private int minRetweetCount = Integer.MAX_VALUE;
+        private int maxRetweetCount = Integer.MIN_VALUE;
+        private final Set<String> userIds = new HashSet<>();
+        private final Set<String> tweetIds = new HashSet<>();
+        private final Set<String> hashtags = new HashSet<>();
+
+        @Override
+        public void add(Object record, long offset, int length) {
+            if (!(record instanceof Tweet tweet)) {
+                return;
+            }
+            recordCount++;
+            minTimestamp = Math.min(minTimestamp, tweet.getTimestamp());
+            maxTimestamp = Math.max(maxTimestamp, tweet.getTimestamp());
+            minLikeCount = Math.min(minLikeCount, tweet.getLikeCount());
+            maxLikeCount = Math.max(maxLikeCount, tweet.getLikeCount());
+            minRetweetCount = Math.min(minRetweetCount, tweet.getRetweetCount());
+            maxRetweetCount = Math.max(maxRetweetCount, tweet.getRetweetCount());
+            userIds.add(tweet.getUserId());
+            tweetIds.add(tweet.getTweetId());
+            hashtags.addAll(tweet.getHashtags());
+        }
+
+        @Override
+        public void commit(FileSystem fileSystem, Path dataFile) throws IOException {
+            if (recordCount == 0) {
+                return;
+            }
+            try (FSDataOutputStream outputStream = fileSystem.create(Sidecars.pathFor(dataFile, SIDECAR_SUFFIX), true)) {
+                DataOutputStream out = new DataOutputStream(outputStream);
+                out.writeInt(MAGIC);
+                out.writeByte(VERSION);
+                out.writeLong(recordCount);
+                out.writeLong(minTimestamp);
+                out.writeLong(maxTimestamp);
+                out.writeInt(minLikeCount);
+                out.writeInt(maxLikeCount);
+                out.writeInt(minRetweetCount);
+                out.writeInt(maxRetweetCount);
+                bloomFilterOf(userIds).writeTo(out);
+                bloomFilterOf(tweetIds).writeTo(out);
+                bloomFilterOf(hashtags).writeTo(out);
+                out.flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package org.example.hadoop;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.example.codec.BinaryReader;
+import org.example.codec.Codecs;
+import org.example.codec.JsonCodec;
+import org.example.codec.JsonCodecs;
+import org.example.codec.RecordCodec;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+
+public class HDFSReader {
+    private static final int SCAN_BUFFER_BYTES = 64 * 1024;
+
+    private final FileSystem fileSystem;
+    private final ObjectMapper objectMapper;
+
+    public HDFSReader(FileSystem fileSystem) {
+        this.fileSystem = fileSystem;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    /**
+     * Read all records of a JSON lines file
+     */
+    public <T> List<T> readJsonLines(String hdfsPath, Class<T> type) throws IOException {
+        List<T> results = new ArrayList<>();
+        try (BufferedReader reader = openReader(new Path(hdfsPath), 0)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    results.add(JsonCodecs.fromString(line, type, objectMapper));
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Scan a JSON lines file for the scanner's fields only, calling the visitor with the scanner
+     * positioned on each non-empty line. No record objects are built and lines are never copied
+     * out of the read buffer. Returns the number of lines visited.
+     */
+    public long scanJsonLines(String hdfsPath, JsonLineScanner scanner, Consumer<JsonLineScanner> visitor) throws IOException {
+        return forEachLine(hdfsPath, (buffer, offset, length) ->
+            visitLine(scanner, visitor, buffer, offset, length, hdfsPath));
+    }
+
+    /**
+     * Read the records on the selected lines of a JSON lines file, numbering its non-blank
+     * lines from 0. Unselected lines are only searched for their end, never parsed.
+     */
+    public <T> List<T> readJsonLines(String hdfsPath, Class<T> type, IntPredicate selected) throws IOException {
+        JsonCodec<T> codec = JsonCodecs.find(type);
+        List<T> results = new ArrayList<>();
+        int[] line = {0};
+        forEachLine(hdfsPath, (buffer, offset, length) -> {
+            if (isBlank(buffer, offset, length)) {
+                return false;
+            }
+            if (selected.test(line[0]++)) {
+                results.add(codec != null ? JsonCodecs.fromBytes(codec, buffer, offset, length)
+                    : objectMapper.readValue(buffer, offset, length, type));
+            }
+            return true;
+        });
+        return results;
+    }
+
+    /**
+     * Receives each line of a file in place, without its newline
+     */
+    @FunctionalInterface
+    private interface LineVisitor {
+        /**
+         * Returns whether the line held a record
+         */
+        boolean visit(byte[] buffer, int offset, int length) throws IOException;
+    }
+
+    private long forEachLine(String hdfsPath, LineVisitor visitor) throws IOException {
+        byte[] buffer = new byte[SCAN_BUFFER_BYTES];
+        int lineStart = 0;
+        int searchFrom = 0;
+        int end = 0;
+        long lines = 0;
+        try (FSDataInputStream in = fileSystem.open(new Path(hdfsPath))) {
+            while (true) {
+                int newline = JsonLineScanner.lineEnd(buffer, searchFrom, end);
+                if (newline < end) {
+                    lines += visitor.visit(buffer, lineStart, newline - lineStart) ? 1 : 0;
+                    lineStart = newline + 1;
+                    searchFrom = lineStart;
+                    continue;
+                }
+
+                // Keep the partial line, growing the buffer only for lines longer than it
+                if (lineStart > 0) {
+                    System.arraycopy(buffer, lineStart, buffer, 0, end - lineStart);
+                    end -= lineStart;
+                    lineStart = 0;
+                } else if (end == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                searchFrom = end;
+                int read = in.read(buffer, end, buffer.length - end);
+                if (read < 0) {
+                    lines += visitor.visit(buffer, lineStart, end - lineStart) ? 1 : 0;
+                    return lines;
+                }
+                end += read;
+            }
+        }
+    }
+
+    private static boolean isBlank(byte[] buffer, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            byte b = buffer[i];
+            if (b != ' ' && b != '\t' && b != '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean visitLine(JsonLineScanner scanner, Consumer<JsonLineScanner> visitor,
+                                     byte[] buffer, int offset, int length, String hdfsPath) throws IOException {
+        try {
+            if (!scanner.scan(buffer, offset, length)) {
+                return false;
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Malformed JSON line in " + hdfsPath, e);
+        }
+        visitor.accept(scanner);
+        return true;
+    }
+
+    /**
+     * Read records whose sort key lies in [from, to] (inclusive) from a file written
+     * with {@link HDFSWriter#writeSorted}. The sparse index sidecar is used to seek
+     * straight to the first candidate line; reading stops at the first key past the range.
+     * Files without an index are scanned completely.
+     */
+    public <T> List<T> readRange(String hdfsPath, SortKey sortKey, Object from, Object to, Class<T> type) throws IOException {
+        Path path = new Path(hdfsPath);
+        String fromKey = sortKey.encode(from);
+        String toKey = sortKey.encode(to);
+
+        SparseIndex index = SparseIndex.readFor(fileSystem, path, objectMapper);
+        boolean sorted = index != null && index.getSortKey() == sortKey;
+        if (sorted && !index.overlaps(fromKey, toKey)) {
+            return new ArrayList<>();
+        }
+
+        List<T> results = new ArrayList<>();
+        long offset = sorted ? index.seekOffset(fromKey) : 0;
+        try (BufferedReader reader = openReader(path, offset)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                JsonNode node = objectMapper.readTree(line);
+                String key = sortKey.extract(node);
+                if (key.compareTo(fromKey) < 0) {
+                    continue;
+                }
+                if (key.compareTo(toKey) > 0) {
+                    if (sorted) {
+                        break;
+                    }
+                    continue;
+                }
+                results.add(objectMapper.treeToValue(node, type));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Read all records of a file written with {@link HDFSWriter#writeBinary}
+     */
+    public <T> List<T> readBinary(String hdfsPath, RecordCodec<T> codec) throws IOException {
+        List<T> results = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(fileSystem.open(new Path(hdfsPath))))) {
+            int version = Codecs.readFileHeader(in, codec);
+            byte[] buffer = new byte[256];
+            while (true) {
+                int length = readVarInt(in);
+                if (length < 0) {
+                    break;
+                }
+                if (length > buffer.length) {
+                    buffer = new byte[Math.max(length, buffer.length * 2)];
+                }
+                in.readFully(buffer, 0, length);
+                try {
+                    results.add(codec.decode(new BinaryReader(buffer, 0, length), version));
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Corrupt record " + results.size() + " in " + hdfsPath, e);
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Varint record length, or -1 at the end of the file
+     */
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                if (shift == 0) {
+                    return -1;
+                }
+                throw new EOFException("Truncated record length");
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed record length");
+    }
+
+    private BufferedReader openReader(Path path, long offset) throws IOException {
+        FSDataInputStream inputStream = fileSystem.open(path);
+        if (offset > 0) {
+            inputStream.seek(offset);
+        }
+        return new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+    }
+}
@@ -2,18 +2,46 @@ package org.example.hadoop;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileContext;
+import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Options;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.fs.FSDataOutputStream;
+import org.example.codec.BinaryWriter;
+import org.example.codec.Codecs;
+import org.example.codec.JsonCodecs;
+import org.example.codec.RecordCodec;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 
+/**
+ * Writes datasets to HDFS as JSON lines, or in the compact binary format of {@link Codecs}.
+ *
+ * Instances are thread-safe: every write call uses its own output stream, and
+ * partitioned file names include this writer's ID and a sequence number so
+ * concurrent calls never collide. For many producers appending continuously,
+ * use {@link #openPartitionedWriter}, which keeps striped files open per partition.
+ */
 public class HDFSWriter {
     private final FileSystem fileSystem;
     private final ObjectMapper objectMapper;
+    private final List<Supplier<? extends SidecarWriter>> sidecarFactories = new CopyOnWriteArrayList<>();
+    private final List<PartitionCommitListener> commitListeners = new CopyOnWriteArrayList<>();
+    private final String writerId = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong fileSequence = new AtomicLong();
+    private volatile long sortMemoryBudgetBytes = SortedJsonLinesWriter.DEFAULT_MEMORY_BUDGET_BYTES;
 
     public HDFSWriter(FileSystem fileSystem) {
         this.fileSystem = fileSystem;
@@ -39,35 +67,236 @@ public class HDFSWriter {
             fileSystem.mkdirs(parent);
         }
 
+        List<SidecarWriter> sidecars = newSidecars();
         try (FSDataOutputStream outputStream = fileSystem.create(path, true)) {
             for (T object : objects) {
-                String json = objectMapper.writeValueAsString(object);
-                outputStream.writeBytes(json);
-                outputStream.writeBytes("\n");
+                byte[] json = JsonCodecs.toBytes(object, objectMapper);
+                long offset = outputStream.getPos();
+                outputStream.write(json);
+                outputStream.write('\n');
+                for (SidecarWriter sidecar : sidecars) {
+                    sidecar.add(object, offset, json.length);
+                }
             }
             outputStream.hflush();
         }
+        commitSidecars(sidecars, path);
 
         System.out.println("Successfully wrote " + objects.size() + " objects to " + hdfsPath);
     }
 
+    /**
+     * Write a list of objects to HDFS in the compact binary format of {@link Codecs}: a file
+     * header, then each record prefixed with its varint length. Read back with
+     * {@link HDFSReader#readBinary}.
+     *
+     * No sidecars are built: their readers resolve offsets and row numbers in JSON lines. Give
+     * binary files a name other than {@code *.json} so the JSON lines readers skip them.
+     */
+    public <T> void writeBinary(List<T> objects, String hdfsPath, RecordCodec<T> codec) throws IOException {
+        Path path = new Path(hdfsPath);
+        BinaryWriter record = new BinaryWriter();
+        BinaryWriter length = new BinaryWriter(16);
+        try (FSDataOutputStream outputStream = fileSystem.create(path, true)) {
+            Codecs.writeFileHeader(outputStream, codec);
+            for (T object : objects) {
+                record.reset();
+                codec.encode(object, record);
+                length.reset();
+                length.writeVarLong(record.size());
+                length.writeTo(outputStream);
+                record.writeTo(outputStream);
+            }
+            outputStream.hflush();
+        }
+
+        System.out.println("Successfully wrote " + objects.size() + " binary records to " + hdfsPath);
+    }
+
+    /**
+     * Write a list of objects to HDFS as JSON lines sorted by the given key,
+     * with a sparse index sidecar for range reads (see {@link HDFSReader#readRange})
+     */
+    public <T> SparseIndex writeSorted(List<T> objects, String hdfsPath, SortKey sortKey) throws IOException {
+        return writeSorted(objects.iterator(), hdfsPath, sortKey);
+    }
+
+    /**
+     * Write objects as sorted JSON lines using bounded memory; records beyond the
+     * sort memory budget are spilled to sorted runs on local disk and merged on commit
+     */
+    public <T> SparseIndex writeSorted(Iterator<T> objects, String hdfsPath, SortKey sortKey) throws IOException {
+        Path path = new Path(hdfsPath);
+        List<SidecarWriter> sidecars = newSidecars();
+        SparseIndex index;
+        try (SortedJsonLinesWriter<T> writer = new SortedJsonLinesWriter<>(fileSystem, path, sortKey,
+                objectMapper, sortMemoryBudgetBytes, SortedJsonLinesWriter.DEFAULT_INDEX_INTERVAL, sidecars)) {
+            while (objects.hasNext()) {
+                writer.write(objects.next());
+            }
+            index = writer.commit();
+        }
+        commitSidecars(sidecars, path);
+        return index;
+    }
+
+    /**
+     * Build an extra sidecar (e.g. {@link TweetIdIndex#sidecar()}) for every file written from now on
+     */
+    public void addSidecar(Supplier<? extends SidecarWriter> factory) {
+        sidecarFactories.add(factory);
+    }
+
+    List<SidecarWriter> newSidecars() {
+        List<SidecarWriter> sidecars = new ArrayList<>();
+        for (Supplier<? extends SidecarWriter> factory : sidecarFactories) {
+            sidecars.add(factory.get());
+        }
+        return sidecars;
+    }
+
+    /**
+     * Be told about every partitioned file this writer commits, e.g. to register new partitions
+     */
+    public void addCommitListener(PartitionCommitListener listener) {
+        commitListeners.add(listener);
+    }
+
+    void notifyCommitted(String dataType, HourPartition partition, Path dataFile) {
+        for (PartitionCommitListener listener : commitListeners) {
+            listener.partitionCommitted(dataType, partition, dataFile);
+        }
+    }
+
+    private void commitSidecars(List<SidecarWriter> sidecars, Path dataFile) throws IOException {
+        for (SidecarWriter sidecar : sidecars) {
+            sidecar.commit(fileSystem, dataFile);
+        }
+    }
+
     /**
      * Write objects to partitioned path (year/month/day/hour)
      */
     public <T> void writePartitioned(List<T> objects, String basePath, String dataType) throws IOException {
         LocalDateTime now = LocalDateTime.now();
-        String partitionedPath = String.format("%s/%s/year=%d/month=%02d/day=%02d/hour=%02d/%s_%s.json",
-            basePath,
-            dataType,
-            now.getYear(),
-            now.getMonthValue(),
-            now.getDayOfMonth(),
-            now.getHour(),
+        String path = partitionedPath(basePath, dataType, now);
+        writeAsJsonLines(objects, path);
+        notifyCommitted(dataType, HourPartition.of(now), new Path(path));
+    }
+
+    /**
+     * Write objects to partitioned path (year/month/day/hour), sorted within the file
+     */
+    public <T> void writePartitioned(List<T> objects, String basePath, String dataType, SortKey sortKey) throws IOException {
+        LocalDateTime now = LocalDateTime.now();
+        String path = partitionedPath(basePath, dataType, now);
+        writeSorted(objects, path, sortKey);
+        notifyCommitted(dataType, HourPartition.of(now), new Path(path));
+    }
+
+    /**
+     * Write objects as the partition file with the given name, replacing any file of that name.
+     * The data is synced under a hidden in-progress name and then renamed over the target in one
+     * step, so readers see either the old or the new file, and a caller with deterministic names
+     * (e.g. Kafka offsets) can safely rewrite a file on retry.
+     */
+    public <T> Path replacePartitionFile(List<T> objects, String basePath, String dataType,
+                                         HourPartition partition, String fileName) throws IOException {
+        Path directory = new Path(partition.path(basePath, dataType));
+        Path path = new Path(directory, fileName);
+        Path inProgress = new Path(directory, "_" + fileName + "." + writerId + ".inprogress");
+
+        List<SidecarWriter> sidecars = newSidecars();
+        try (FSDataOutputStream outputStream = fileSystem.create(inProgress, true)) {
+            for (T object : objects) {
+                byte[] json = JsonCodecs.toBytes(object, objectMapper);
+                long offset = outputStream.getPos();
+                outputStream.write(json);
+                outputStream.write('\n');
+                for (SidecarWriter sidecar : sidecars) {
+                    sidecar.add(object, offset, json.length);
+                }
+            }
+            outputStream.hsync();
+        }
+        // FileSystem#rename never replaces a file; FileContext's OVERWRITE swaps it atomically on HDFS
+        FileContext.getFileContext(fileSystem.getUri(), fileSystem.getConf())
+            .rename(inProgress, path, Options.Rename.OVERWRITE);
+        commitSidecars(sidecars, path);
+        notifyCommitted(dataType, partition, path);
+        return path;
+    }
+
+    /**
+     * Delete the data files of a partition whose names match, with their sidecars. Sidecars go
+     * first, so a reader may find a data file without its sidecars but never the reverse.
+     *
+     * @return the names of the deleted data files
+     */
+    public List<String> deletePartitionFiles(String basePath, String dataType, HourPartition partition,
+                                             Predicate<String> fileNames) throws IOException {
+        Path directory = new Path(partition.path(basePath, dataType));
+        List<String> deleted = new ArrayList<>();
+        if (!fileSystem.exists(directory)) {
+            return deleted;
+        }
+        FileStatus[] files = fileSystem.listStatus(directory);
+        for (FileStatus file : files) {
+            String name = file.getPath().getName();
+            if (!file.isFile() || !Sidecars.isDataFile(name) || !fileNames.test(name)) {
+                continue;
+            }
+            for (FileStatus sidecar : files) {
+                if (sidecar.getPath().getName().startsWith("." + name + ".")) {
+                    fileSystem.delete(sidecar.getPath(), false);
+                }
+            }
+            fileSystem.delete(file.getPath(), false);
+            deleted.add(name);
+        }
+        return deleted;
+    }
+
+    /**
+     * Open a shared, thread-safe writer that routes records to hourly partitions by event time
+     * (epoch seconds) and stripes open files across producer threads
+     */
+    public <T> PartitionedStreamWriter<T> openPartitionedWriter(String basePath, String dataType, ToLongFunction<T> eventTime) {
+        return openPartitionedWriter(basePath, dataType, eventTime,
+            Runtime.getRuntime().availableProcessors(), PartitionedStreamWriter.DEFAULT_ROLL_BYTES);
+    }
+
+    public <T> PartitionedStreamWriter<T> openPartitionedWriter(String basePath, String dataType, ToLongFunction<T> eventTime,
+                                                                int stripes, long rollBytes) {
+        return new PartitionedStreamWriter<>(this, fileSystem, objectMapper, basePath, dataType, eventTime, stripes, rollBytes);
+    }
+
+    /**
+     * Unique ID of this writer, embedded in the names of the files it creates
+     */
+    public String getWriterId() {
+        return writerId;
+    }
+
+    /**
+     * Memory used to buffer records before spilling a sorted run
+     */
+    public void setSortMemoryBudgetBytes(long sortMemoryBudgetBytes) {
+        this.sortMemoryBudgetBytes = sortMemoryBudgetBytes;
+    }
+
+    private String partitionedPath(String basePath, String dataType, LocalDateTime now) {
+        return String.format("%s/%s_%s_%s-%d.json",
+            HourPartition.of(now).path(basePath, dataType),
             dataType,
-            now.format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"))
+            now.format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")),
+            writerId,
+            nextFileSequence()
         );
+    }
 
-        writeAsJsonLines(objects, partitionedPath);
+    long nextFileSequence() {
+        return fileSequence.getAndIncrement();
     }
 
     /**
@@ -0,0 +1,105 @@
+package org.example.hadoop;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Most frequent strings of a stream: a {@link CountMinSketch} for the counts plus the
+ * {@code capacity} items with the highest estimates seen so far. Merging unions the
+ * candidates and re-estimates them against the merged sketch, so an item that is frequent
+ * over a time range but never locally dominant can still surface as long as some hour kept it.
+ */
+public class HeavyHitters {
+
+    /**
+     * An item's estimated count; the true count is in [estimate - maxOvercount, estimate]
+     * with the sketch's confidence
+     */
+    public record Item(String item, long estimate, long maxOvercount) {
+    }
+
+    private final CountMinSketch sketch;
+    private final int capacity;
+    private final Map<String, Long> candidates = new HashMap<>();
+
+    public HeavyHitters(CountMinSketch sketch, int capacity) {
+        this.sketch = sketch;
+        this.capacity = capacity;
+    }
+
+    public void add(String item) {
+        sketch.add(item, 1);
+        long estimate = sketch.estimate(item);
+        if (candidates.containsKey(item) || candidates.size() < capacity) {
+            candidates.put(item, estimate);
+            return;
+        }
+        Map.Entry<String, Long> smallest = null;
+        for (Map.Entry<String, Long> candidate : candidates.entrySet()) {
+            if (smallest == null || candidate.getValue() < smallest.getValue()) {
+                smallest = candidate;
+            }
+        }
+        if (estimate > smallest.getValue()) {
+            candidates.remove(smallest.getKey());
+            candidates.put(item, estimate);
+        }
+    }
+
+    public void merge(HeavyHitters other) {
+        sketch.merge(other.sketch);
+        Set<String> items = new HashSet<>(candidates.keySet());
+        items.addAll(other.candidates.keySet());
+        candidates.clear();
+        items.stream()
+            .map(item -> Map.entry(item, sketch.estimate(item)))
+            .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+            .limit(capacity)
+            .forEach(entry -> candidates.put(entry.getKey(), entry.getValue()));
+    }
+
+    /**
+     * The k most frequent items, highest estimate first
+     */
+    public List<Item> top(int k) {
+        long maxOvercount = sketch.errorBound();
+        List<Item> items = new ArrayList<>();
+        for (String item : candidates.keySet()) {
+            items.add(new Item(item, sketch.estimate(item), maxOvercount));
+        }
+        items.sort(Comparator.comparingLong(Item::estimate).reversed().thenComparing(Item::item));
+        return items.subList(0, Math.min(k, items.size()));
+    }
+
+    public CountMinSketch getSketch() {
+        return sketch;
+    }
+
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(capacity);
+        sketch.write(out);
+        out.writeInt(candidates.size());
+        for (Map.Entry<String, Long> candidate : candidates.entrySet()) {
+            out.writeUTF(candidate.getKey());
+            out.writeLong(candidate.getValue());
+        }
+    }
+
+    public static HeavyHitters read(DataInput in) throws IOException {
+        int capacity = in.readInt();
+        HeavyHitters heavyHitters = new HeavyHitters(CountMinSketch.read(in), capacity);
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            heavyHitters.candidates.put(in.readUTF(), in.readLong());
+        }
+        return heavyHitters;
+    }
+}
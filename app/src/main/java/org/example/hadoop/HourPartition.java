@@ -0,0 +1,91 @@
+package org.example.hadoop;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * One hourly partition of the dataset layout ({@code year=/month=/day=/hour=}).
+ */
+public record HourPartition(int year, int month, int day, int hour) {
+
+    public static HourPartition of(LocalDateTime dateTime) {
+        return new HourPartition(dateTime.getYear(), dateTime.getMonthValue(), dateTime.getDayOfMonth(), dateTime.getHour());
+    }
+
+    /**
+     * Partition of an event time given in epoch seconds (UTC)
+     */
+    public static HourPartition ofEpochSecond(long epochSecond) {
+        return of(LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC));
+    }
+
+    /**
+     * Parse a partition name such as {@code year=2024/month=8/day=1/hour=13}, as listed by
+     * {@code SHOW PARTITIONS}; zero-padded values are accepted
+     */
+    public static HourPartition parse(String name) {
+        int year = -1, month = -1, day = -1, hour = -1;
+        for (String part : name.split("/")) {
+            String[] keyValue = part.split("=", 2);
+            if (keyValue.length != 2) {
+                throw new IllegalArgumentException("Not an hourly partition: " + name);
+            }
+            int value = Integer.parseInt(keyValue[1].trim());
+            switch (keyValue[0].trim()) {
+                case "year" -> year = value;
+                case "month" -> month = value;
+                case "day" -> day = value;
+                case "hour" -> hour = value;
+                default -> throw new IllegalArgumentException("Unknown partition column in " + name);
+            }
+        }
+        if (year < 0 || month < 0 || day < 0 || hour < 0) {
+            throw new IllegalArgumentException("Not an hourly partition: " + name);
+        }
+        return new HourPartition(year, month, day, hour);
+    }
+
+    /**
+     * Relative directory, e.g. {@code year=2024/month=08/day=01/hour=13}
+     */
+    public String relativePath() {
+        return String.format("year=%d/month=%02d/day=%02d/hour=%02d", year, month, day, hour);
+    }
+
+    /**
+     * Relative directory as Hive names it for INT partition columns, e.g. {@code year=2024/month=8/day=1/hour=13}
+     */
+    public String hiveRelativePath() {
+        return String.format("year=%d/month=%d/day=%d/hour=%d", year, month, day, hour);
+    }
+
+    /**
+     * Partition spec for HiveQL, e.g. {@code year=2024, month=8, day=1, hour=13}
+     */
+    public String hiveSpec() {
+        return String.format("year=%d, month=%d, day=%d, hour=%d", year, month, day, hour);
+    }
+
+    /**
+     * Directory of this partition for a data type under a base path
+     */
+    public String path(String basePath, String dataType) {
+        return basePath + "/" + dataType + "/" + relativePath();
+    }
+
+    /**
+     * First second of the partition, in epoch seconds (UTC)
+     */
+    public long startEpochSecond() {
+        return LocalDateTime.of(year, month, day, hour, 0).toEpochSecond(ZoneOffset.UTC);
+    }
+
+    public HourPartition plusHours(long hours) {
+        return ofEpochSecond(startEpochSecond() + hours * 3600);
+    }
+
+    @Override
+    public String toString() {
+        return relativePath();
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.hadoop;
+
+import org.example.model.Tweet;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hashtag and mention counts of the tweets written to one hourly partition, collected while
+ * the data is written. Trending queries sum these small per-hour partial aggregates instead of
+ * exploding the arrays of every tweet.
+ *
+ * Every array element is counted, like {@code LATERAL VIEW explode(...)} does. Not thread-safe:
+ * give every writer its own instance and {@link #merge} them per partition.
+ */
+public class HourlyTermCounts {
+    private final Map<String, Long> hashtags = new HashMap<>();
+    private final Map<String, Long> mentions = new HashMap<>();
+
+    public void add(Tweet tweet) {
+        count(hashtags, tweet.getHashtags());
+        count(mentions, tweet.getMentions());
+    }
+
+    /**
+     * Fold another collector of the same partition into this one
+     */
+    public void merge(HourlyTermCounts other) {
+        other.hashtags.forEach((hashtag, count) -> hashtags.merge(hashtag, count, Long::sum));
+        other.mentions.forEach((mention, count) -> mentions.merge(mention, count, Long::sum));
+    }
+
+    public Map<String, Long> getHashtagCounts() {
+        return Collections.unmodifiableMap(hashtags);
+    }
+
+    public Map<String, Long> getMentionCounts() {
+        return Collections.unmodifiableMap(mentions);
+    }
+
+    private static void count(Map<String, Long> counts, List<String> terms) {
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            if (term != null) {
+                counts.merge(term, 1L, Long::sum);
+            }
+        }
+    }
+}
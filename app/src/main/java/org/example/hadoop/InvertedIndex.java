@@ -0,0 +1,401 @@
+package org.example.hadoop;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.example.model.Tweet;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * A segment of the tweet search index: for every term, a compressed (Roaring) posting list of
+ * the documents holding it, plus each document's timestamp for time-range restriction.
+ *
+ * Terms are the lower-cased words of the content and the lower-cased hashtags, the latter
+ * prefixed with '#', so {@code #kafka} finds tagged tweets and {@code kafka} finds the word.
+ * Documents are the tweets of one or more data files of an hour partition, numbered in file
+ * order. A per-file segment is written as a {@code .<file>.postings} sidecar when the file is
+ * committed; {@link #merge} combines the segments of an hour into one, kept in the
+ * {@link #MERGED_NAME} file of the partition directory.
+ */
+public class InvertedIndex {
+    public static final String SIDECAR_SUFFIX = "postings";
+    public static final String MERGED_NAME = ".merged." + SIDECAR_SUFFIX;
+    /** Timestamp of a document whose tweet has none; outside every time range */
+    public static final long NULL_TIMESTAMP = Long.MIN_VALUE;
+
+    private static final int MAGIC = 0x54494e56; // "TINV"
+    private static final byte VERSION = 1;
+
+    private final List<String> files;
+    private final long[] fileLengths;
+    private final int[] docBases;
+    private final long[] timestamps;
+    private final long minTimestamp;
+    private final long maxTimestamp;
+    private final Map<String, RoaringBitmap> postings;
+
+    private InvertedIndex(List<String> files, long[] fileLengths, int[] docBases, long[] timestamps,
+                          Map<String, RoaringBitmap> postings) {
+        this.files = files;
+        this.fileLengths = fileLengths;
+        this.docBases = docBases;
+        this.timestamps = timestamps;
+        this.postings = postings;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (long timestamp : timestamps) {
+            if (timestamp != NULL_TIMESTAMP) {
+                min = Math.min(min, timestamp);
+                max = Math.max(max, timestamp);
+            }
+        }
+        this.minTimestamp = min;
+        this.maxTimestamp = max;
+    }
+
+    /**
+     * Sidecar builder to register with {@link HDFSWriter#addSidecar}
+     */
+    public static SidecarWriter sidecar() {
+        return new Builder();
+    }
+
+    /**
+     * Load the per-file segment of a data file, or null if none was written
+     */
+    public static InvertedIndex readFor(FileSystem fileSystem, Path dataFile) throws IOException {
+        Path sidecar = Sidecars.pathFor(dataFile, SIDECAR_SUFFIX);
+        return fileSystem.exists(sidecar) ? read(fileSystem, sidecar) : null;
+    }
+
+    public static InvertedIndex read(FileSystem fileSystem, Path path) throws IOException {
+        try (FSDataInputStream inputStream = fileSystem.open(path)) {
+            DataInputStream in = new DataInputStream(inputStream);
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not an inverted index segment: " + path);
+            }
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported inverted index version " + version + " in " + path);
+            }
+            int fileCount = in.readInt();
+            List<String> files = new ArrayList<>(fileCount);
+            long[] fileLengths = new long[fileCount];
+            int[] docBases = new int[fileCount + 1];
+            for (int i = 0; i < fileCount; i++) {
+                files.add(in.readUTF());
+                fileLengths[i] = in.readLong();
+                docBases[i + 1] = docBases[i] + in.readInt();
+            }
+            long[] timestamps = new long[docBases[fileCount]];
+            for (int doc = 0; doc < timestamps.length; doc++) {
+                timestamps[doc] = in.readLong();
+            }
+            int termCount = in.readInt();
+            Map<String, RoaringBitmap> postings = new HashMap<>(termCount * 2);
+            for (int i = 0; i < termCount; i++) {
+                String term = in.readUTF();
+                RoaringBitmap docs = new RoaringBitmap();
+                docs.deserialize(in);
+                postings.put(term, docs);
+            }
+            return new InvertedIndex(files, fileLengths, docBases, timestamps, postings);
+        }
+    }
+
+    /**
+     * Write the segment, replacing an existing one through a rename so searches never see a
+     * partial segment
+     */
+    public void write(FileSystem fileSystem, Path path) throws IOException {
+        Path temporary = new Path(path.getParent(), "_" + path.getName() + ".inprogress");
+        try (FSDataOutputStream outputStream = fileSystem.create(temporary, true)) {
+            DataOutputStream out = new DataOutputStream(outputStream);
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(files.size());
+            for (int i = 0; i < files.size(); i++) {
+                out.writeUTF(files.get(i));
+                out.writeLong(fileLengths[i]);
+                out.writeInt(docBases[i + 1] - docBases[i]);
+            }
+            for (long timestamp : timestamps) {
+                out.writeLong(timestamp);
+            }
+            out.writeInt(postings.size());
+            for (Map.Entry<String, RoaringBitmap> term : new TreeMap<>(postings).entrySet()) {
+                out.writeUTF(term.getKey());
+                term.getValue().runOptimize();
+                term.getValue().serialize(out);
+            }
+            out.flush();
+        }
+        fileSystem.delete(path, false);
+        if (!fileSystem.rename(temporary, path)) {
+            throw new IOException("Failed to rename " + temporary + " to " + path);
+        }
+    }
+
+    /**
+     * One segment over the documents of all given segments, in order
+     */
+    public static InvertedIndex merge(List<InvertedIndex> segments) {
+        List<String> files = new ArrayList<>();
+        int fileCount = segments.stream().mapToInt(segment -> segment.files.size()).sum();
+        long[] fileLengths = new long[fileCount];
+        int[] docBases = new int[fileCount + 1];
+        long[] timestamps = new long[segments.stream().mapToInt(InvertedIndex::getDocumentCount).sum()];
+        Map<String, RoaringBitmap> postings = new HashMap<>();
+        int docBase = 0;
+        for (InvertedIndex segment : segments) {
+            for (int i = 0; i < segment.files.size(); i++) {
+                int file = files.size();
+                files.add(segment.files.get(i));
+                fileLengths[file] = segment.fileLengths[i];
+                docBases[file + 1] = docBase + segment.docBases[i + 1];
+            }
+            System.arraycopy(segment.timestamps, 0, timestamps, docBase, segment.timestamps.length);
+            for (Map.Entry<String, RoaringBitmap> term : segment.postings.entrySet()) {
+                RoaringBitmap shifted = RoaringBitmap.addOffset(term.getValue(), docBase);
+                postings.merge(term.getKey(), shifted, (left, right) -> {
+                    left.or(right);
+                    return left;
+                });
+            }
+            docBase += segment.getDocumentCount();
+        }
+        return new InvertedIndex(files, fileLengths, docBases, timestamps, postings);
+    }
+
+    /**
+     * Names of the data files whose tweets this segment covers, in document order
+     */
+    public List<String> getFiles() {
+        return files;
+    }
+
+    /**
+     * Length of a covered data file when it was indexed
+     */
+    public long getFileLength(int file) {
+        return fileLengths[file];
+    }
+
+    public int getDocumentCount() {
+        return timestamps.length;
+    }
+
+    public int getTermCount() {
+        return postings.size();
+    }
+
+    /**
+     * Documents matching the query with from <= timestamp <= to
+     */
+    public RoaringBitmap search(Query query, long from, long to) {
+        if (timestamps.length == 0 || to < minTimestamp || from > maxTimestamp) {
+            return new RoaringBitmap();
+        }
+        RoaringBitmap docs = query.evaluate(this);
+        if (from <= minTimestamp && to >= maxTimestamp) {
+            return docs;
+        }
+        RoaringBitmap inRange = new RoaringBitmap();
+        IntIterator iterator = docs.getIntIterator();
+        while (iterator.hasNext()) {
+            int doc = iterator.next();
+            long timestamp = timestamps[doc];
+            if (timestamp != NULL_TIMESTAMP && timestamp >= from && timestamp <= to) {
+                inRange.add(doc);
+            }
+        }
+        return inRange;
+    }
+
+    public long getTimestamp(int doc) {
+        return timestamps[doc];
+    }
+
+    /**
+     * Index into {@link #getFiles()} of the file holding a document
+     */
+    public int fileOf(int doc) {
+        int index = Arrays.binarySearch(docBases, doc);
+        // Skip files without documents, which share their base with the next file
+        if (index >= 0) {
+            while (index + 1 < docBases.length && docBases[index + 1] == doc) {
+                index++;
+            }
+            return index;
+        }
+        return -index - 2;
+    }
+
+    /**
+     * Row of a document within its data file
+     */
+    public int rowOf(int doc) {
+        return doc - docBases[fileOf(doc)];
+    }
+
+    /**
+     * Distinct terms of a tweet: words of its content and its hashtags
+     */
+    public static Set<String> terms(Tweet tweet) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (tweet.getContent() != null) {
+            String content = tweet.getContent();
+            int start = -1;
+            for (int i = 0; i <= content.length(); i++) {
+                boolean wordChar = i < content.length() && Character.isLetterOrDigit(content.charAt(i));
+                if (wordChar && start < 0) {
+                    start = i;
+                } else if (!wordChar && start >= 0) {
+                    terms.add(content.substring(start, i).toLowerCase(Locale.ROOT));
+                    start = -1;
+                }
+            }
+        }
+        if (tweet.getHashtags() != null) {
+            for (String hashtag : tweet.getHashtags()) {
+                if (hashtag != null && !hashtag.isEmpty()) {
+                    terms.add(normalize(hashtag.startsWith("#") ? hashtag : "#" + hashtag));
+                }
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Term as stored in the index: lower-cased, keeping a leading '#' for hashtags
+     */
+    public static String normalize(String term) {
+        return term.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Documents containing the term, e.g. {@code kafka} or {@code #kafka}
+     */
+    public static Query term(String term) {
+        return new Term(normalize(term));
+    }
+
+    public static Query and(Query... queries) {
+        return new And(List.of(queries));
+    }
+
+    public static Query or(Query... queries) {
+        return new Or(List.of(queries));
+    }
+
+    /**
+     * A boolean combination of terms, evaluated over a segment's posting lists
+     */
+    public sealed interface Query permits Term, And, Or {
+        /**
+         * Matching documents; the result may be a shared posting list and must not be modified
+         */
+        RoaringBitmap evaluate(InvertedIndex segment);
+    }
+
+    private record Term(String term) implements Query {
+        @Override
+        public RoaringBitmap evaluate(InvertedIndex segment) {
+            RoaringBitmap docs = segment.postings.get(term);
+            return docs != null ? docs : new RoaringBitmap();
+        }
+
+        @Override
+        public String toString() {
+            return term;
+        }
+    }
+
+    private record And(List<Query> queries) implements Query {
+        @Override
+        public RoaringBitmap evaluate(InvertedIndex segment) {
+            // Intersect the shortest posting lists first so the result shrinks fastest
+            List<RoaringBitmap> lists = new ArrayList<>(queries.size());
+            for (Query query : queries) {
+                lists.add(query.evaluate(segment));
+            }
+            lists.sort((left, right) -> Long.compare(left.getLongCardinality(), right.getLongCardinality()));
+            RoaringBitmap docs = null;
+            for (RoaringBitmap list : lists) {
+                docs = docs == null ? list : RoaringBitmap.and(docs, list);
+                if (docs.isEmpty()) {
+                    break;
+                }
+            }
+            return docs != null ? docs : new RoaringBitmap();
+        }
+
+        @Override
+        public String toString() {
+            return "(" + String.join(" AND ", queries.stream().map(Query::toString).toList()) + ")";
+        }
+    }
+
+    private record Or(List<Query> queries) implements Query {
+        @Override
+        public RoaringBitmap evaluate(InvertedIndex segment) {
+            List<RoaringBitmap> lists = new ArrayList<>(queries.size());
+            for (Query query : queries) {
+                lists.add(query.evaluate(segment));
+            }
+            return RoaringBitmap.or(lists.iterator());
+        }
+
+        @Override
+        public String toString() {
+            return "(" + String.join(" OR ", queries.stream().map(Query::toString).toList()) + ")";
+        }
+    }
+
+    private static class Builder implements SidecarWriter {
+        private final Map<String, RoaringBitmap> postings = new HashMap<>();
+        private long[] timestamps = new long[1024];
+        private int documents;
+
+        @Override
+        public void add(Object record, long offset, int length) {
+            if (!(record instanceof Tweet tweet)) {
+                return;
+            }
+            int doc = documents++;
+            if (doc == timestamps.length) {
+                timestamps = Arrays.copyOf(timestamps, doc * 2);
+            }
+            timestamps[doc] = tweet.getTimestamp() != null ? tweet.getTimestamp() : NULL_TIMESTAMP;
+            for (String term : terms(tweet)) {
+                postings.computeIfAbsent(term, key -> new RoaringBitmap()).add(doc);
+            }
+        }
+
+        @Override
+        public void commit(FileSystem fileSystem, Path dataFile) throws IOException {
+            if (documents == 0) {
+                return;
+            }
+            long length = fileSystem.getFileStatus(dataFile).getLen();
+            new InvertedIndex(List.of(dataFile.getName()), new long[]{length}, new int[]{0, documents},
+                Arrays.copyOf(timestamps, documents), postings)
+                .write(fileSystem, Sidecars.pathFor(dataFile, SIDECAR_SUFFIX));
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package org.example.hadoop;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds a fixed projection of top-level fields in one JSON lines record without binding it.
+ * {@link #scan} walks the raw UTF-8 bytes once, remembering only where each projected value
+ * starts and ends, and skips every other value (nested objects and arrays included) without
+ * allocating; it stops as soon as all projected fields are found. Values are decoded on demand
+ * by the getters, and only strings and lists allocate.
+ *
+ * Keys are matched on their raw bytes, which is exact for the unescaped keys our writers
+ * produce. An instance is reused line after line and is not thread-safe.
+ */
+public final class JsonLineScanner {
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final long QUOTES = '"' * ONES;
+    private static final long BACKSLASHES = '\\' * ONES;
+    private static final long NEWLINES = '\n' * ONES;
+
+    private final List<String> fields;
+    private final byte[][] keys;
+    private final int[] starts;
+    private final int[] ends;
+    private byte[] buffer;
+    private int limit;
+
+    public JsonLineScanner(List<String> fields) {
+        this.fields = List.copyOf(fields);
+        this.keys = new byte[fields.size()][];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = fields.get(i).getBytes(StandardCharsets.UTF_8);
+        }
+        this.starts = new int[keys.length];
+        this.ends = new int[keys.length];
+    }
+
+    public JsonLineScanner(String... fields) {
+        this(List.of(fields));
+    }
+
+    public List<String> getFields() {
+        return fields;
+    }
+
+    /**
+     * Position of a field in the projection, or -1
+     */
+    public int indexOf(String field) {
+        return fields.indexOf(field);
+    }
+
+    /**
+     * Locate the projected fields in one line. Returns false for a blank line.
+     *
+     * @throws IllegalArgumentException if the line is not a JSON object
+     */
+    public boolean scan(byte[] line, int offset, int length) {
+        buffer = line;
+        limit = offset + length;
+        Arrays.fill(starts, -1);
+
+        int pos = skipWhitespace(offset);
+        if (pos == limit) {
+            return false;
+        }
+        expect(pos, '{');
+        pos = skipWhitespace(pos + 1);
+        if (byteAt(pos) == '}') {
+            return true;
+        }
+        int remaining = keys.length;
+        while (remaining > 0) {
+            expect(pos, '"');
+            int keyEnd = stringEnd(pos + 1);
+            int field = match(pos + 1, keyEnd);
+            pos = skipWhitespace(keyEnd + 1);
+            expect(pos, ':');
+            int valueStart = skipWhitespace(pos + 1);
+            pos = valueEnd(valueStart);
+            if (field >= 0 && starts[field] < 0) {
+                starts[field] = valueStart;
+                ends[field] = pos;
+                remaining--;
+            }
+            pos = skipWhitespace(pos);
+            byte separator = byteAt(pos);
+            if (separator == '}') {
+                break;
+            }
+            expect(pos, ',');
+            pos = skipWhitespace(pos + 1);
+        }
+        return true;
+    }
+
+    public boolean scan(byte[] line) {
+        return scan(line, 0, line.length);
+    }
+
+    /**
+     * Whether the field is in the last scanned line with a non-null value
+     */
+    public boolean isPresent(int field) {
+        return starts[field] >= 0 && !isNullLiteral(field);
+    }
+
+    public long getLong(int field, long missing) {
+        if (!isPresent(field)) {
+            return missing;
+        }
+        int pos = starts[field];
+        int end = ends[field];
+        if (buffer[pos] == '"') {
+            pos++;
+            end--;
+        }
+        boolean negative = buffer[pos] == '-';
+        if (negative) {
+            pos++;
+        }
+        long value = 0;
+        for (int i = pos; i < end; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9) {
+                // Fractions and exponents are rare enough to take the slow path
+                return (long) Double.parseDouble(new String(buffer, starts[field], ends[field] - starts[field],
+                    StandardCharsets.US_ASCII).replace("\"", ""));
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    public int getInt(int field, int missing) {
+        return isPresent(field) ? (int) getLong(field, missing) : missing;
+    }
+
+    public boolean getBoolean(int field) {
+        return isPresent(field) && buffer[starts[field]] == 't';
+    }
+
+    /**
+     * The field's text, or null if it is missing or null
+     */
+    public String getString(int field) {
+        return isPresent(field) ? decode(starts[field], ends[field]) : null;
+    }
+
+    /**
+     * Elements of an array field, or null if it is missing or null
+     */
+    public List<String> getStrings(int field) {
+        if (!isPresent(field)) {
+            return null;
+        }
+        int pos = starts[field];
+        expect(pos, '[');
+        List<String> values = new ArrayList<>();
+        pos = skipWhitespace(pos + 1);
+        while (byteAt(pos) != ']') {
+            int end = valueEnd(pos);
+            values.add(isNull(pos, end) ? null : decode(pos, end));
+            pos = skipWhitespace(end);
+            if (byteAt(pos) == ',') {
+                pos = skipWhitespace(pos + 1);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Hash of the field's raw bytes, to group lines by value without decoding it
+     */
+    public int rawHash(int field) {
+        if (starts[field] < 0) {
+            return 0;
+        }
+        int hash = 1;
+        for (int i = starts[field]; i < ends[field]; i++) {
+            hash = 31 * hash + buffer[i];
+        }
+        return hash;
+    }
+
+    /**
+     * Whether the field's raw bytes (quotes included) equal the given ones
+     */
+    public boolean rawEquals(int field, byte[] raw) {
+        return starts[field] >= 0 && Arrays.equals(buffer, starts[field], ends[field], raw, 0, raw.length);
+    }
+
+    /**
+     * Copy of the field's raw bytes, or null if it is missing
+     */
+    public byte[] rawValue(int field) {
+        return starts[field] < 0 ? null : Arrays.copyOfRange(buffer, starts[field], ends[field]);
+    }
+
+    private boolean isNullLiteral(int field) {
+        return isNull(starts[field], ends[field]);
+    }
+
+    private boolean isNull(int start, int end) {
+        return Arrays.equals(buffer, start, end, NULL, 0, NULL.length);
+    }
+
+    private int match(int start, int end) {
+        int length = end - start;
+        for (int i = 0; i < keys.length; i++) {
+            byte[] key = keys[i];
+            if (key.length == length && Arrays.equals(buffer, start, end, key, 0, length)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private String decode(int start, int end) {
+        if (buffer[start] != '"') {
+            return new String(buffer, start, end - start, StandardCharsets.UTF_8);
+        }
+        int contentEnd = end - 1;
+        int escape = start + 1;
+        while (escape < contentEnd && buffer[escape] != '\\') {
+            escape++;
+        }
+        if (escape == contentEnd) {
+            return new String(buffer, start + 1, contentEnd - start - 1, StandardCharsets.UTF_8);
+        }
+        StringBuilder text = new StringBuilder(contentEnd - start);
+        text.append(new String(buffer, start + 1, escape - start - 1, StandardCharsets.UTF_8));
+        int pos = escape;
+        while (pos < contentEnd) {
+            int next = pos;
+            while (next < contentEnd && buffer[next] != '\\') {
+                next++;
+            }
+            text.append(new String(buffer, pos, next - pos, StandardCharsets.UTF_8));
+            if (next == contentEnd) {
+                break;
+            }
+            byte escaped = buffer[next + 1];
+            switch (escaped) {
+                case 'n' -> text.append('\n');
+                case 't' -> text.append('\t');
+                case 'r' -> text.append('\r');
+                case 'b' -> text.append('\b');
+                case 'f' -> text.append('\f');
+                case 'u' -> {
+                    text.append((char) Integer.parseInt(new String(buffer, next + 2, 4, StandardCharsets.US_ASCII), 16));
+                    next += 4;
+                }
+                default -> text.append((char) escaped);
+            }
+            pos = next + 2;
+        }
+        return text.toString();
+    }
+
+    private int valueEnd(int pos) {
+        byte first = byteAt(pos);
+        if (first == '"') {
+            return stringEnd(pos + 1) + 1;
+        }
+        if (first == '{' || first == '[') {
+            int depth = 0;
+            while (true) {
+                byte b = byteAt(pos);
+                if (b == '"') {
+                    pos = stringEnd(pos + 1);
+                } else if (b == '{' || b == '[') {
+                    depth++;
+                } else if ((b == '}' || b == ']') && --depth == 0) {
+                    return pos + 1;
+                }
+                pos++;
+            }
+        }
+        while (pos < limit) {
+            byte b = buffer[pos];
+            if (b == ',' || b == '}' || b == ']' || b == ' ' || b == '\t' || b == '\r' || b == '\n') {
+                break;
+            }
+            pos++;
+        }
+        return pos;
+    }
+
+    /**
+     * Position of the quote closing a string whose content starts at pos. Long strings such as
+     * tweet content are skipped eight bytes at a time, testing a whole word for quotes and
+     * backslashes at once.
+     */
+    private int stringEnd(int pos) {
+        byte[] bytes = buffer;
+        int end = limit;
+        while (true) {
+            while (pos + Long.BYTES <= end) {
+                long word = (long) LONGS.get(bytes, pos);
+                long quotes = word ^ QUOTES;
+                long backslashes = word ^ BACKSLASHES;
+                long hits = ((quotes - ONES) & ~quotes | (backslashes - ONES) & ~backslashes) & HIGH_BITS;
+                if (hits != 0) {
+                    pos += Long.numberOfTrailingZeros(hits) >>> 3;
+                    break;
+                }
+                pos += Long.BYTES;
+            }
+            if (pos >= end) {
+                throw new IllegalArgumentException("Truncated JSON line");
+            }
+            byte b = bytes[pos];
+            if (b == '"') {
+                return pos;
+            }
+            pos += b == '\\' ? 2 : 1;
+        }
+    }
+
+    /**
+     * Position of the first newline in [from, to), or to if there is none
+     */
+    static int lineEnd(byte[] bytes, int from, int to) {
+        int pos = from;
+        while (pos + Long.BYTES <= to) {
+            long newlines = (long) LONGS.get(bytes, pos) ^ NEWLINES;
+            long hits = (newlines - ONES) & ~newlines & HIGH_BITS;
+            if (hits != 0) {
+                return pos + (Long.numberOfTrailingZeros(hits) >>> 3);
+            }
+            pos += Long.BYTES;
+        }
+        while (pos < to && bytes[pos] != '\n') {
+            pos++;
+        }
+        return pos;
+    }
+
+    private int skipWhitespace(int pos) {
+        while (pos < limit) {
+            byte b = buffer[pos];
+            if (b != ' ' && b != '\t' && b != '\r' && b != '\n') {
+                break;
+            }
+            pos++;
+        }
+        return pos;
+    }
+
+    private byte byteAt(int pos) {
+        if (pos >= limit) {
+            throw new IllegalArgumentException("Truncated JSON line");
+        }
+        return buffer[pos];
+    }
+
+    private void expect(int pos, char expected) {
+        if (byteAt(pos) != expected) {
+            throw new IllegalArgumentException("Expected '" + expected + "' at column " + pos + " of JSON line");
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.hadoop;
+
+import org.apache.hadoop.fs.Path;
+
+/**
+ * Notified by {@link HDFSWriter} whenever a data file becomes visible in an hourly partition
+ */
+@FunctionalInterface
+public interface PartitionCommitListener {
+
+    /**
+     * Called after the file has been renamed into place and its sidecars written
+     */
+    void partitionCommitted(String dataType, HourPartition partition, Path dataFile);
+}
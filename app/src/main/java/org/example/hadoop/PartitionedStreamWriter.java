@@ -0,0 +1,243 @@
+package org.example.hadoop;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.example.codec.JsonCodecs;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToLongFunction;
+
+/**
+ * Long-lived, thread-safe writer that routes records to hourly partition files.
+ *
+ * Open files are striped by (partition, stripe): each producer thread is pinned to
+ * one of N stripes, so threads writing to the same partition append to different
+ * files and only contend when they share a stripe. Serialization happens outside
+ * any lock. File names embed the writer ID, stripe and a sequence number, so they
+ * are unique even when many files are opened in the same second.
+ *
+ * Files are written under a hidden in-progress name and renamed into place on
+ * commit, so readers never see partial files. A file is committed when it reaches
+ * the roll size, on {@link #flush()} and on {@link #close()}.
+ *
+ * A failed append leaves the writer failed: the broken file keeps its in-progress
+ * name with every record acknowledged before the failure, so it can be recovered,
+ * and every later write, flush and close throws. Flush and close still commit the
+ * other open files before throwing.
+ */
+public class PartitionedStreamWriter<T> implements Closeable {
+    public static final long DEFAULT_ROLL_BYTES = 128L * 1024 * 1024;
+
+    private static final DateTimeFormatter FILE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+    private static final String IN_PROGRESS_PREFIX = "_";
+    private static final String IN_PROGRESS_SUFFIX = ".inprogress";
+
+    private final HDFSWriter hdfsWriter;
+    private final FileSystem fileSystem;
+    private final ObjectMapper objectMapper;
+    private final String basePath;
+    private final String dataType;
+    private final ToLongFunction<T> eventTime;
+    private final long rollBytes;
+    private final String writerId;
+
+    private final Map<StripeKey, OpenFile> openFiles = new ConcurrentHashMap<>();
+    private final AtomicInteger nextStripe = new AtomicInteger();
+    private final ThreadLocal<Integer> threadStripe;
+    // Records whose write() returned normally, including those of a file left behind by a failure
+    private final AtomicLong recordsWritten = new AtomicLong();
+    private final AtomicReference<IOException> failure = new AtomicReference<>();
+    // Writers share the read lock; close() takes the write lock so no write can slip in behind its flush
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private boolean closed;
+
+    private record StripeKey(HourPartition partition, int stripe) {
+    }
+
+    PartitionedStreamWriter(HDFSWriter hdfsWriter, FileSystem fileSystem, ObjectMapper objectMapper,
+                            String basePath, String dataType, ToLongFunction<T> eventTime, int stripes, long rollBytes) {
+        if (stripes <= 0 || rollBytes <= 0) {
+            throw new IllegalArgumentException("Stripes and roll size must be positive");
+        }
+        this.hdfsWriter = hdfsWriter;
+        this.fileSystem = fileSystem;
+        this.objectMapper = objectMapper;
+        this.basePath = basePath;
+        this.dataType = dataType;
+        this.eventTime = eventTime;
+        this.rollBytes = rollBytes;
+        this.writerId = hdfsWriter.getWriterId();
+        this.threadStripe = ThreadLocal.withInitial(() -> Math.floorMod(nextStripe.getAndIncrement(), stripes));
+    }
+
+    /**
+     * Append one record to the file of its partition and the caller's stripe
+     */
+    public void write(T record) throws IOException {
+        byte[] json = JsonCodecs.toBytes(record, objectMapper);
+        StripeKey key = new StripeKey(HourPartition.ofEpochSecond(eventTime.applyAsLong(record)), threadStripe.get());
+
+        closeLock.readLock().lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Writer for " + basePath + "/" + dataType + " is closed");
+            }
+            while (true) {
+                checkNotFailed();
+                OpenFile file = openFiles.computeIfAbsent(key, OpenFile::new);
+                synchronized (file) {
+                    if (file.committed) {
+                        // Rolled or flushed by another thread after we looked it up
+                        openFiles.remove(key, file);
+                        continue;
+                    }
+                    try {
+                        file.append(record, json);
+                    } catch (IOException e) {
+                        openFiles.remove(key, file);
+                        failure.compareAndSet(null, e);
+                        file.fail();
+                        throw e;
+                    }
+                    if (file.bytes >= rollBytes) {
+                        openFiles.remove(key, file);
+                        file.commit();
+                    }
+                }
+                recordsWritten.incrementAndGet();
+                return;
+            }
+        } finally {
+            closeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Commit all open files so that everything written so far becomes visible
+     *
+     * @throws IOException if an earlier append failed, after committing the remaining files
+     */
+    public void flush() throws IOException {
+        for (var entry : openFiles.entrySet()) {
+            OpenFile file = entry.getValue();
+            synchronized (file) {
+                openFiles.remove(entry.getKey(), file);
+                file.commit();
+            }
+        }
+        checkNotFailed();
+    }
+
+    private void checkNotFailed() throws IOException {
+        IOException cause = failure.get();
+        if (cause != null) {
+            throw new IOException("Writer for " + basePath + "/" + dataType + " failed", cause);
+        }
+    }
+
+    public long getRecordsWritten() {
+        return recordsWritten.get();
+    }
+
+    public int getOpenFileCount() {
+        return openFiles.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeLock.writeLock().lock();
+        try {
+            closed = true;
+            flush();
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+    }
+
+    private class OpenFile {
+        private final StripeKey key;
+        private final List<SidecarWriter> sidecars;
+        private Path finalPath;
+        private Path inProgressPath;
+        private FSDataOutputStream outputStream;
+        private long bytes;
+        private boolean committed;
+
+        OpenFile(StripeKey key) {
+            this.key = key;
+            this.sidecars = hdfsWriter.newSidecars();
+        }
+
+        void append(T record, byte[] json) throws IOException {
+            if (outputStream == null) {
+                open();
+            }
+            long offset = outputStream.getPos();
+            outputStream.write(json);
+            outputStream.write('\n');
+            bytes += json.length + 1;
+            for (SidecarWriter sidecar : sidecars) {
+                sidecar.add(record, offset, json.length);
+            }
+        }
+
+        void open() throws IOException {
+            String name = String.format("%s_%s_%s-%d-%d.json", dataType,
+                LocalDateTime.now().format(FILE_TIME_FORMAT), writerId, key.stripe(), hdfsWriter.nextFileSequence());
+            Path directory = new Path(key.partition().path(basePath, dataType));
+            finalPath = new Path(directory, name);
+            inProgressPath = new Path(directory, IN_PROGRESS_PREFIX + name + IN_PROGRESS_SUFFIX);
+            // overwrite=false: a name collision is a bug and must not silently replace data
+            outputStream = fileSystem.create(inProgressPath, false);
+        }
+
+        void commit() throws IOException {
+            if (committed) {
+                return;
+            }
+            committed = true;
+            if (outputStream == null) {
+                return;
+            }
+            outputStream.hsync();
+            outputStream.close();
+            if (!fileSystem.rename(inProgressPath, finalPath)) {
+                throw new IOException("Failed to commit " + inProgressPath + " to " + finalPath);
+            }
+            for (SidecarWriter sidecar : sidecars) {
+                sidecar.commit(fileSystem, finalPath);
+            }
+            hdfsWriter.notifyCommitted(dataType, key.partition(), finalPath);
+        }
+
+        /**
+         * Close a file whose append failed without committing it; its acknowledged
+         * records stay in the in-progress file, which may end in a partial line
+         */
+        void fail() {
+            committed = true;
+            if (outputStream == null) {
+                return;
+            }
+            try {
+                outputStream.close();
+            } catch (IOException e) {
+                // The stream is already broken; whatever reached the file stays there
+            }
+            System.err.println("⚠️ Warning: Append failed, records written so far are kept in " + inProgressPath);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package org.example.hadoop;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import java.io.IOException;
+
+/**
+ * Builds an auxiliary structure (index, statistics, ...) for one data file while
+ * {@link HDFSWriter} writes it. A fresh instance is created for every file; records
+ * are passed in file order together with the byte range of their line, and
+ * {@link #commit} runs once the data file has been flushed and closed.
+ */
+public interface SidecarWriter {
+
+    void add(Object record, long offset, int length);
+
+    void commit(FileSystem fileSystem, Path dataFile) throws IOException;
+}
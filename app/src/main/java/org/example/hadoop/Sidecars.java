@@ -0,0 +1,59 @@
+package org.example.hadoop;
+
+import org.apache.hadoop.fs.Path;
+
+/**
+ * Naming rules for auxiliary files written next to data files.
+ *
+ * Sidecars start with '.' so Hive, Spark and FileInputFormat treat them as
+ * hidden and never read them as table data.
+ */
+public final class Sidecars {
+
+    private Sidecars() {
+    }
+
+    /**
+     * Path of a per-file sidecar, e.g. {@code .tweets_20240101_120000.json.idx}
+     */
+    public static Path pathFor(Path dataFile, String suffix) {
+        return new Path(dataFile.getParent(), "." + dataFile.getName() + "." + suffix);
+    }
+
+    /**
+     * Whether a file name is a per-file sidecar with the given suffix
+     */
+    public static boolean isSidecar(String fileName, String suffix) {
+        return fileName.startsWith(".") && fileName.endsWith("." + suffix);
+    }
+
+    /**
+     * Data file a per-file sidecar belongs to; inverse of {@link #pathFor}
+     */
+    public static Path dataFileFor(Path sidecar, String suffix) {
+        String name = sidecar.getName();
+        return new Path(sidecar.getParent(), name.substring(1, name.length() - suffix.length() - 1));
+    }
+
+    /**
+     * Whether a file name denotes data rather than a sidecar or marker file
+     */
+    public static boolean isDataFile(String fileName) {
+        return !fileName.startsWith(".") && !fileName.startsWith("_");
+    }
+
+    /**
+     * Whether a file name denotes a JSON lines data file, as written by {@link HDFSWriter}
+     */
+    public static boolean isJsonLinesFile(String fileName) {
+        return isDataFile(fileName) && fileName.endsWith(".json");
+    }
+
+    /**
+     * Whether a file name denotes a Parquet data file: {@code *.parquet} as written by the backfill,
+     * or an extension-less part file such as Hive's {@code 000000_0}
+     */
+    public static boolean isParquetFile(String fileName) {
+        return isDataFile(fileName) && (fileName.endsWith(".parquet") || fileName.indexOf('.') < 0);
+    }
+}
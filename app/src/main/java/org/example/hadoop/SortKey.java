@@ -0,0 +1,69 @@
+package org.example.hadoop;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Keys that records can be sorted by within a single data file.
+ *
+ * Keys are encoded as strings whose natural ordering matches the ordering of
+ * the underlying value, so sorted runs, the sparse index and range reads can
+ * all compare keys the same way.
+ */
+public enum SortKey {
+    TIMESTAMP("timestamp"),
+    USER_ID("user_id");
+
+    private static final int TIMESTAMP_WIDTH = 19;
+
+    private final String fieldName;
+
+    SortKey(String fieldName) {
+        this.fieldName = fieldName;
+    }
+
+    /**
+     * JSON field name the key is read from
+     */
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    /**
+     * Extract the encoded key from a serialized record
+     */
+    public String extract(JsonNode record) {
+        JsonNode value = record.get(fieldName);
+        if (value == null || value.isNull()) {
+            throw new IllegalArgumentException("Record has no '" + fieldName + "' field to sort on");
+        }
+        return this == TIMESTAMP ? encode(value.asLong()) : encode(value.asText());
+    }
+
+    /**
+     * Extract the encoded key from a serialized record's bytes, using a scanner
+     * whose projection is just {@link #getFieldName()}
+     */
+    public String extract(JsonLineScanner scanner, byte[] json) {
+        scanner.scan(json);
+        if (!scanner.isPresent(0)) {
+            throw new IllegalArgumentException("Record has no '" + fieldName + "' field to sort on");
+        }
+        return this == TIMESTAMP ? encode(scanner.getLong(0, 0)) : encode(scanner.getString(0));
+    }
+
+    /**
+     * Encode a key value (e.g. a range bound) so it compares like extracted keys
+     */
+    public String encode(Object value) {
+        if (this == USER_ID) {
+            return value.toString();
+        }
+
+        long timestamp = value instanceof Number number ? number.longValue() : Long.parseLong(value.toString());
+        if (timestamp < 0) {
+            throw new IllegalArgumentException("Timestamp sort keys must not be negative: " + timestamp);
+        }
+        String digits = Long.toString(timestamp);
+        return "0".repeat(TIMESTAMP_WIDTH - digits.length()) + digits;
+    }
+}
@@ -0,0 +1,238 @@
+package org.example.hadoop;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Writes one JSON lines file sorted by a {@link SortKey}, plus its {@link SparseIndex} sidecar.
+ *
+ * Records are buffered up to a memory budget; when the budget is exceeded the
+ * buffer is sorted and spilled to a local run file. On commit the runs are
+ * k-way merged into the target file. Records with equal keys keep arrival order.
+ * Sidecars see records in final file order, decoded back from their JSON form.
+ */
+public class SortedJsonLinesWriter<T> implements Closeable {
+    public static final long DEFAULT_MEMORY_BUDGET_BYTES = 64L * 1024 * 1024;
+    public static final int DEFAULT_INDEX_INTERVAL = 256;
+
+    // Rough per-entry cost of the buffer: entry object, array headers, list slot
+    private static final int ENTRY_OVERHEAD_BYTES = 64;
+
+    private final FileSystem fileSystem;
+    private final Path path;
+    private final SortKey sortKey;
+    private final ObjectMapper objectMapper;
+    private final long memoryBudgetBytes;
+    private final int indexInterval;
+    private final List<SidecarWriter> sidecars;
+    private final JsonLineScanner keyScanner;
+
+    private final List<BufferedRecord> buffer = new ArrayList<>();
+    private final List<File> runs = new ArrayList<>();
+    private long bufferedBytes;
+    private boolean committed;
+    private Class<?> recordType;
+
+    private record BufferedRecord(String key, byte[] json) {
+    }
+
+    public SortedJsonLinesWriter(FileSystem fileSystem, Path path, SortKey sortKey, ObjectMapper objectMapper) {
+        this(fileSystem, path, sortKey, objectMapper, DEFAULT_MEMORY_BUDGET_BYTES, DEFAULT_INDEX_INTERVAL, List.of());
+    }
+
+    public SortedJsonLinesWriter(FileSystem fileSystem, Path path, SortKey sortKey, ObjectMapper objectMapper,
+                                 long memoryBudgetBytes, int indexInterval, List<SidecarWriter> sidecars) {
+        if (memoryBudgetBytes <= 0 || indexInterval <= 0) {
+            throw new IllegalArgumentException("Memory budget and index interval must be positive");
+        }
+        this.fileSystem = fileSystem;
+        this.path = path;
+        this.sortKey = sortKey;
+        this.objectMapper = objectMapper;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.indexInterval = indexInterval;
+        this.sidecars = sidecars;
+        this.keyScanner = new JsonLineScanner(sortKey.getFieldName());
+    }
+
+    public void write(T record) throws IOException {
+        if (committed) {
+            throw new IllegalStateException("Writer for " + path + " is already committed");
+        }
+        if (recordType == null) {
+            recordType = record.getClass();
+        }
+        byte[] json = objectMapper.writeValueAsBytes(record);
+        String key = sortKey.extract(keyScanner, json);
+
+        buffer.add(new BufferedRecord(key, json));
+        bufferedBytes += json.length + 2L * key.length() + ENTRY_OVERHEAD_BYTES;
+        if (bufferedBytes >= memoryBudgetBytes) {
+            spill();
+        }
+    }
+
+    /**
+     * Merge all buffered and spilled records into the target file and write the index sidecar
+     */
+    public SparseIndex commit() throws IOException {
+        if (committed) {
+            throw new IllegalStateException("Writer for " + path + " is already committed");
+        }
+        committed = true;
+
+        Path parent = path.getParent();
+        if (parent != null && !fileSystem.exists(parent)) {
+            fileSystem.mkdirs(parent);
+        }
+
+        SparseIndex index = new SparseIndex(sortKey);
+        int spilledRuns;
+        try (FSDataOutputStream outputStream = fileSystem.create(path, true)) {
+            if (runs.isEmpty()) {
+                buffer.sort(Comparator.comparing(BufferedRecord::key));
+                for (BufferedRecord record : buffer) {
+                    writeRecord(outputStream, index, record);
+                }
+                buffer.clear();
+            } else {
+                spill();
+                mergeRuns(outputStream, index);
+            }
+            spilledRuns = runs.size();
+            outputStream.hflush();
+        } finally {
+            deleteRuns();
+        }
+
+        index.writeTo(fileSystem, path, objectMapper);
+        System.out.println("Successfully wrote " + index.getRecordCount() + " records sorted by "
+            + sortKey.getFieldName() + " to " + path + " (" + spilledRuns + " spilled runs)");
+        return index;
+    }
+
+    @Override
+    public void close() {
+        deleteRuns();
+        buffer.clear();
+    }
+
+    private void writeRecord(FSDataOutputStream outputStream, SparseIndex index, BufferedRecord record) throws IOException {
+        long offset = outputStream.getPos();
+        index.add(record.key(), offset, indexInterval);
+        outputStream.write(record.json());
+        outputStream.write('\n');
+        if (!sidecars.isEmpty()) {
+            Object decoded = objectMapper.readValue(record.json(), recordType);
+            for (SidecarWriter sidecar : sidecars) {
+                sidecar.add(decoded, offset, record.json().length);
+            }
+        }
+    }
+
+    private void spill() throws IOException {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        buffer.sort(Comparator.comparing(BufferedRecord::key));
+
+        // Runs are removed by commit() or close(), not deleteOnExit, so long-lived writers don't leak registry entries
+        File run = File.createTempFile("sorted-run-", ".bin");
+        runs.add(run);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(run)))) {
+            for (BufferedRecord record : buffer) {
+                out.writeUTF(record.key());
+                out.writeInt(record.json().length);
+                out.write(record.json());
+            }
+        }
+
+        buffer.clear();
+        bufferedBytes = 0;
+    }
+
+    private void mergeRuns(FSDataOutputStream outputStream, SparseIndex index) throws IOException {
+        // Ties are broken by run number so equal keys keep arrival order across runs
+        PriorityQueue<RunReader> queue = new PriorityQueue<>(
+            Comparator.comparing((RunReader reader) -> reader.current.key()).thenComparingInt(reader -> reader.runNumber));
+
+        List<RunReader> readers = new ArrayList<>();
+        try {
+            for (int i = 0; i < runs.size(); i++) {
+                RunReader reader = new RunReader(runs.get(i), i);
+                readers.add(reader);
+                if (reader.advance()) {
+                    queue.add(reader);
+                }
+            }
+
+            while (!queue.isEmpty()) {
+                RunReader reader = queue.poll();
+                writeRecord(outputStream, index, reader.current);
+                if (reader.advance()) {
+                    queue.add(reader);
+                }
+            }
+        } finally {
+            for (RunReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    private void deleteRuns() {
+        for (File run : runs) {
+            if (run.exists() && !run.delete()) {
+                System.err.println("⚠️ Warning: Could not delete sort run " + run);
+            }
+        }
+        runs.clear();
+    }
+
+    private static class RunReader implements Closeable {
+        private final DataInputStream in;
+        private final int runNumber;
+        private BufferedRecord current;
+
+        RunReader(File run, int runNumber) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(run)));
+            this.runNumber = runNumber;
+        }
+
+        boolean advance() throws IOException {
+            String key;
+            try {
+                key = in.readUTF();
+            } catch (EOFException e) {
+                current = null;
+                return false;
+            }
+            byte[] json = new byte[in.readInt()];
+            in.readFully(json);
+            current = new BufferedRecord(key, json);
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
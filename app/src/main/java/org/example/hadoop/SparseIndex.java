@@ -0,0 +1,125 @@
+package org.example.hadoop;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sparse index over a file sorted by {@link SortKey}.
+ *
+ * Every n-th record contributes an entry mapping its key to the byte offset
+ * of its line, so a reader can seek close to any key without scanning the
+ * file from the start.
+ */
+@Data
+@NoArgsConstructor
+public class SparseIndex {
+    public static final String SIDECAR_SUFFIX = "idx";
+
+    @JsonProperty("sort_key")
+    private SortKey sortKey;
+
+    @JsonProperty("record_count")
+    private long recordCount;
+
+    @JsonProperty("min_key")
+    private String minKey;
+
+    @JsonProperty("max_key")
+    private String maxKey;
+
+    @JsonProperty("entries")
+    private List<Entry> entries = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    public static class Entry {
+        @JsonProperty("key")
+        private String key;
+
+        @JsonProperty("offset")
+        private long offset;
+
+        public Entry(String key, long offset) {
+            this.key = key;
+            this.offset = offset;
+        }
+    }
+
+    public SparseIndex(SortKey sortKey) {
+        this.sortKey = sortKey;
+    }
+
+    /**
+     * Track a record written at the given offset; every record passes through here
+     */
+    void add(String key, long offset, int indexInterval) {
+        if (recordCount % indexInterval == 0) {
+            entries.add(new Entry(key, offset));
+        }
+        if (minKey == null) {
+            minKey = key;
+        }
+        maxKey = key;
+        recordCount++;
+    }
+
+    /**
+     * Whether any record in the file can fall into [fromKey, toKey]
+     */
+    public boolean overlaps(String fromKey, String toKey) {
+        return recordCount > 0 && fromKey.compareTo(maxKey) <= 0 && toKey.compareTo(minKey) >= 0;
+    }
+
+    /**
+     * Byte offset to start reading from so that no record with key >= fromKey is missed.
+     * Uses the last entry strictly below fromKey, since equal keys may start before
+     * an entry that carries the same key.
+     */
+    public long seekOffset(String fromKey) {
+        int low = 0;
+        int high = entries.size() - 1;
+        long offset = 0;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            Entry entry = entries.get(mid);
+            if (entry.getKey().compareTo(fromKey) < 0) {
+                offset = entry.getOffset();
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return offset;
+    }
+
+    public void writeTo(FileSystem fileSystem, Path dataFile, ObjectMapper objectMapper) throws IOException {
+        try (FSDataOutputStream outputStream = fileSystem.create(Sidecars.pathFor(dataFile, SIDECAR_SUFFIX), true)) {
+            objectMapper.writeValue((OutputStream) outputStream, this);
+        }
+    }
+
+    /**
+     * Load the index for a data file, or null if the file was not written sorted
+     */
+    public static SparseIndex readFor(FileSystem fileSystem, Path dataFile, ObjectMapper objectMapper) throws IOException {
+        Path sidecar = Sidecars.pathFor(dataFile, SIDECAR_SUFFIX);
+        if (!fileSystem.exists(sidecar)) {
+            return null;
+        }
+        try (FSDataInputStream inputStream = fileSystem.open(sidecar)) {
+            return objectMapper.readValue((InputStream) inputStream, SparseIndex.class);
+        }
+    }
+}
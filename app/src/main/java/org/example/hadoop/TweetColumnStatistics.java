@@ -0,0 +1,193 @@
+package org.example.hadoop;
+
+import org.apache.hadoop.hive.common.ndv.hll.HyperLogLog;
+import org.example.model.Tweet;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Table and column statistics of the tweets written to one partition, collected while
+ * the data is written so they can be pushed to the metastore without another scan.
+ *
+ * Covers the row count, raw data size and, per scalar column, null count, min/max or
+ * length, and an NDV estimate from Hive's own HyperLogLog. Array columns are skipped,
+ * as Hive keeps no column statistics for them. Not thread-safe: give every writer its
+ * own instance and {@link #merge} them per partition.
+ */
+public class TweetColumnStatistics {
+    static final int HLL_REGISTER_BITS = 12;
+
+    private static final Map<String, Function<Tweet, String>> STRING_COLUMNS = new LinkedHashMap<>();
+    private static final Map<String, Function<Tweet, Long>> LONG_COLUMNS = new LinkedHashMap<>();
+
+    static {
+        STRING_COLUMNS.put("tweet_id", Tweet::getTweetId);
+        STRING_COLUMNS.put("user_id", Tweet::getUserId);
+        STRING_COLUMNS.put("username", Tweet::getUsername);
+        STRING_COLUMNS.put("content", Tweet::getContent);
+        STRING_COLUMNS.put("celebrity_category", Tweet::getCelebrityCategory);
+        LONG_COLUMNS.put("tweet_timestamp", Tweet::getTimestamp);
+        LONG_COLUMNS.put("like_count", tweet -> (long) tweet.getLikeCount());
+        LONG_COLUMNS.put("retweet_count", tweet -> (long) tweet.getRetweetCount());
+        LONG_COLUMNS.put("reply_count", tweet -> (long) tweet.getReplyCount());
+    }
+
+    private final Map<String, StringColumn> stringColumns = new LinkedHashMap<>();
+    private final Map<String, LongColumn> longColumns = new LinkedHashMap<>();
+    private long rowCount;
+    private long rawDataSize;
+    private long celebrityTrues;
+    private long celebrityFalses;
+
+    public TweetColumnStatistics() {
+        STRING_COLUMNS.keySet().forEach(name -> stringColumns.put(name, new StringColumn()));
+        LONG_COLUMNS.keySet().forEach(name -> longColumns.put(name, new LongColumn()));
+    }
+
+    public void add(Tweet tweet) {
+        rowCount++;
+        long size = 1 + 4 * Long.BYTES;
+        for (var entry : STRING_COLUMNS.entrySet()) {
+            String value = entry.getValue().apply(tweet);
+            stringColumns.get(entry.getKey()).add(value);
+            size += value == null ? 0 : value.length();
+        }
+        for (var entry : LONG_COLUMNS.entrySet()) {
+            longColumns.get(entry.getKey()).add(entry.getValue().apply(tweet));
+        }
+        if (tweet.isCelebrity()) {
+            celebrityTrues++;
+        } else {
+            celebrityFalses++;
+        }
+        rawDataSize += size;
+    }
+
+    /**
+     * Fold another collector of the same partition into this one
+     */
+    public void merge(TweetColumnStatistics other) {
+        rowCount += other.rowCount;
+        rawDataSize += other.rawDataSize;
+        celebrityTrues += other.celebrityTrues;
+        celebrityFalses += other.celebrityFalses;
+        stringColumns.forEach((name, column) -> column.merge(other.stringColumns.get(name)));
+        longColumns.forEach((name, column) -> column.merge(other.longColumns.get(name)));
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Estimated number of distinct values of a scalar column
+     */
+    public long distinctValues(String column) {
+        if (stringColumns.containsKey(column)) {
+            return stringColumns.get(column).ndv.count();
+        }
+        if (longColumns.containsKey(column)) {
+            return longColumns.get(column).ndv.count();
+        }
+        if ("is_celebrity".equals(column)) {
+            return (celebrityTrues > 0 ? 1 : 0) + (celebrityFalses > 0 ? 1 : 0);
+        }
+        throw new IllegalArgumentException("No statistics for column " + column);
+    }
+
+    /**
+     * Basic statistics for {@code ALTER TABLE ... PARTITION (...) UPDATE STATISTICS SET (...)}
+     */
+    public Map<String, String> tableStatistics() {
+        Map<String, String> stats = new LinkedHashMap<>();
+        stats.put("numRows", Long.toString(rowCount));
+        stats.put("rawDataSize", Long.toString(rawDataSize));
+        return stats;
+    }
+
+    /**
+     * Per-column statistics for {@code ALTER TABLE ... PARTITION (...) UPDATE STATISTICS FOR COLUMN c SET (...)}
+     */
+    public Map<String, Map<String, String>> columnStatistics() {
+        Map<String, Map<String, String>> stats = new LinkedHashMap<>();
+        longColumns.forEach((name, column) -> {
+            Map<String, String> values = new LinkedHashMap<>();
+            values.put("numDVs", Long.toString(column.ndv.count()));
+            values.put("numNulls", Long.toString(column.nulls));
+            if (column.min <= column.max) {
+                values.put("lowValue", Long.toString(column.min));
+                values.put("highValue", Long.toString(column.max));
+            }
+            stats.put(name, values);
+        });
+        stringColumns.forEach((name, column) -> {
+            long nonNull = rowCount - column.nulls;
+            Map<String, String> values = new LinkedHashMap<>();
+            values.put("numDVs", Long.toString(column.ndv.count()));
+            values.put("numNulls", Long.toString(column.nulls));
+            values.put("avgColLen", Double.toString(nonNull == 0 ? 0 : (double) column.totalLength / nonNull));
+            values.put("maxColLen", Long.toString(column.maxLength));
+            stats.put(name, values);
+        });
+        Map<String, String> celebrity = new LinkedHashMap<>();
+        celebrity.put("numTrues", Long.toString(celebrityTrues));
+        celebrity.put("numFalses", Long.toString(celebrityFalses));
+        celebrity.put("numNulls", "0");
+        stats.put("is_celebrity", celebrity);
+        return stats;
+    }
+
+    private static HyperLogLog newSketch() {
+        return HyperLogLog.builder().setNumRegisterIndexBits(HLL_REGISTER_BITS).build();
+    }
+
+    private static class StringColumn {
+        final HyperLogLog ndv = newSketch();
+        long nulls;
+        long totalLength;
+        long maxLength;
+
+        void add(String value) {
+            if (value == null) {
+                nulls++;
+                return;
+            }
+            ndv.addString(value);
+            totalLength += value.length();
+            maxLength = Math.max(maxLength, value.length());
+        }
+
+        void merge(StringColumn other) {
+            ndv.merge(other.ndv);
+            nulls += other.nulls;
+            totalLength += other.totalLength;
+            maxLength = Math.max(maxLength, other.maxLength);
+        }
+    }
+
+    private static class LongColumn {
+        final HyperLogLog ndv = newSketch();
+        long nulls;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+
+        void add(Long value) {
+            if (value == null) {
+                nulls++;
+                return;
+            }
+            ndv.addLong(value);
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        void merge(LongColumn other) {
+            ndv.merge(other.ndv);
+            nulls += other.nulls;
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package org.example.hadoop;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.example.model.Tweet;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable point-lookup index from tweet_id to the byte range of the tweet in one data file.
+ *
+ * Layout of the {@code .<file>.keys} sidecar: magic, version, entry count, a bloom
+ * filter over all ids, then the (tweet_id, offset, length) entries sorted by id.
+ * Opening an index only reads the header and bloom filter; entries are loaded on
+ * the first lookup that passes the bloom filter.
+ */
+public class TweetIdIndex {
+    public static final String SIDECAR_SUFFIX = "keys";
+    public static final double BLOOM_FALSE_POSITIVE_RATE = 0.01;
+
+    private static final int MAGIC = 0x54494458; // "TIDX"
+    private static final byte VERSION = 1;
+
+    private final Path dataFile;
+    private final Path keyFile;
+    private final int entryCount;
+    private final BloomFilter<CharSequence> bloomFilter;
+    private final long entriesOffset;
+
+    private volatile String[] tweetIds;
+    private volatile long[] offsets;
+    private volatile int[] lengths;
+
+    /**
+     * Byte range of a tweet in a data file
+     */
+    public record Location(Path dataFile, long offset, int length) {
+    }
+
+    private TweetIdIndex(Path dataFile, Path keyFile, int entryCount, BloomFilter<CharSequence> bloomFilter, long entriesOffset) {
+        this.dataFile = dataFile;
+        this.keyFile = keyFile;
+        this.entryCount = entryCount;
+        this.bloomFilter = bloomFilter;
+        this.entriesOffset = entriesOffset;
+    }
+
+    /**
+     * Sidecar builder to register with {@link HDFSWriter#addSidecar}
+     */
+    public static SidecarWriter sidecar() {
+        return new Builder();
+    }
+
+    /**
+     * Open a key file, reading only its header and bloom filter
+     */
+    public static TweetIdIndex open(FileSystem fileSystem, Path keyFile) throws IOException {
+        try (FSDataInputStream in = fileSystem.open(keyFile)) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a tweet id index: " + keyFile);
+            }
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported tweet id index version " + version + " in " + keyFile);
+            }
+            int entryCount = in.readInt();
+            BloomFilter<CharSequence> bloomFilter = BloomFilter.readFrom(in, Funnels.stringFunnel(StandardCharsets.UTF_8));
+            return new TweetIdIndex(Sidecars.dataFileFor(keyFile, SIDECAR_SUFFIX), keyFile, entryCount, bloomFilter, in.getPos());
+        }
+    }
+
+    public Path getDataFile() {
+        return dataFile;
+    }
+
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    public boolean mightContain(String tweetId) {
+        return bloomFilter.mightContain(tweetId);
+    }
+
+    /**
+     * Find a tweet in this file, or null if it is not indexed here
+     */
+    public Location find(FileSystem fileSystem, String tweetId) throws IOException {
+        if (!mightContain(tweetId)) {
+            return null;
+        }
+        loadEntries(fileSystem);
+        int position = Arrays.binarySearch(tweetIds, tweetId);
+        return position >= 0 ? new Location(dataFile, offsets[position], lengths[position]) : null;
+    }
+
+    private synchronized void loadEntries(FileSystem fileSystem) throws IOException {
+        if (tweetIds != null) {
+            return;
+        }
+        String[] ids = new String[entryCount];
+        long[] entryOffsets = new long[entryCount];
+        int[] entryLengths = new int[entryCount];
+        try (FSDataInputStream in = fileSystem.open(keyFile)) {
+            in.seek(entriesOffset);
+            for (int i = 0; i < entryCount; i++) {
+                ids[i] = in.readUTF();
+                entryOffsets[i] = in.readLong();
+                entryLengths[i] = in.readInt();
+            }
+        }
+        offsets = entryOffsets;
+        lengths = entryLengths;
+        tweetIds = ids;
+    }
+
+    private static class Builder implements SidecarWriter {
+        private final List<String> ids = new ArrayList<>();
+        private final List<long[]> ranges = new ArrayList<>();
+
+        @Override
+        public void add(Object record, long offset, int length) {
+            if (record instanceof Tweet tweet) {
+                ids.add(tweet.getTweetId());
+                ranges.add(new long[]{offset, length});
+            }
+        }
+
+        @Override
+        public void commit(FileSystem fileSystem, Path dataFile) throws IOException {
+            if (ids.isEmpty()) {
+                return;
+            }
+            Integer[] order = new Integer[ids.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparing(ids::get));
+
+            BloomFilter<CharSequence> bloomFilter = BloomFilter.create(
+                Funnels.stringFunnel(StandardCharsets.UTF_8), ids.size(), BLOOM_FALSE_POSITIVE_RATE);
+            ids.forEach(bloomFilter::put);
+
+            try (FSDataOutputStream outputStream = fileSystem.create(Sidecars.pathFor(dataFile, SIDECAR_SUFFIX), true)) {
+                DataOutputStream out = new DataOutputStream(outputStream);
+                out.writeInt(MAGIC);
+                out.writeByte(VERSION);
+                out.writeInt(ids.size());
+                bloomFilter.writeTo(out);
+                for (int i : order) {
+                    out.writeUTF(ids.get(i));
+                    out.writeLong(ranges.get(i)[0]);
+                    out.writeInt((int) ranges.get(i)[1]);
+                }
+                out.flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package org.example.hadoop;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
+import org.example.codec.JsonCodecs;
+import org.example.model.Tweet;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fetches tweets by tweet_id straight from the data files, using the
+ * {@link TweetIdIndex} sidecars written by {@link HDFSWriter}.
+ *
+ * Bloom filters rule out most files without touching their key lists, and
+ * multi-gets coalesce nearby byte ranges of the same file into one positioned read.
+ */
+public class TweetLookup {
+    public static final long DEFAULT_COALESCE_GAP_BYTES = 64 * 1024;
+
+    private final FileSystem fileSystem;
+    private final Path basePath;
+    private final long coalesceGapBytes;
+    private final Map<Path, CachedIndex> indexes = new ConcurrentHashMap<>();
+    private final AtomicLong rangeReads = new AtomicLong();
+    private volatile boolean loaded;
+
+    // A key file rewritten in place (same name, new layout) is told apart by its length and mtime
+    private record CachedIndex(TweetIdIndex index, long modificationTime, long length) {
+        boolean matches(FileStatus status) {
+            return status.getModificationTime() == modificationTime && status.getLen() == length;
+        }
+    }
+
+    public TweetLookup(FileSystem fileSystem, String basePath) {
+        this(fileSystem, basePath, DEFAULT_COALESCE_GAP_BYTES);
+    }
+
+    public TweetLookup(FileSystem fileSystem, String basePath, long coalesceGapBytes) {
+        this.fileSystem = fileSystem;
+        this.basePath = new Path(basePath);
+        this.coalesceGapBytes = coalesceGapBytes;
+    }
+
+    /**
+     * Pick up key files committed or rewritten since the last refresh and drop removed ones.
+     * Returns the number of indexed data files.
+     */
+    public synchronized int refresh() throws IOException {
+        Set<Path> seen = new HashSet<>();
+        if (fileSystem.exists(basePath)) {
+            RemoteIterator<LocatedFileStatus> files = fileSystem.listFiles(basePath, true);
+            while (files.hasNext()) {
+                LocatedFileStatus status = files.next();
+                Path keyFile = status.getPath();
+                if (!Sidecars.isSidecar(keyFile.getName(), TweetIdIndex.SIDECAR_SUFFIX)) {
+                    continue;
+                }
+                seen.add(keyFile);
+                CachedIndex cached = indexes.get(keyFile);
+                if (cached == null || !cached.matches(status)) {
+                    indexes.put(keyFile, new CachedIndex(TweetIdIndex.open(fileSystem, keyFile),
+                        status.getModificationTime(), status.getLen()));
+                }
+            }
+        }
+        indexes.keySet().retainAll(seen);
+        loaded = true;
+        return indexes.size();
+    }
+
+    public Optional<Tweet> getTweetById(String tweetId) throws IOException {
+        return Optional.ofNullable(getTweetsByIds(List.of(tweetId)).get(tweetId));
+    }
+
+    /**
+     * Fetch several tweets at once; ids that are not found are absent from the result
+     */
+    public Map<String, Tweet> getTweetsByIds(Collection<String> tweetIds) throws IOException {
+        if (!loaded) {
+            refresh();
+        }
+
+        // Walk each index once with the ids still unresolved, so found ids stop being probed
+        Set<String> remaining = new HashSet<>(tweetIds);
+        Map<Path, List<TweetIdIndex.Location>> locationsByFile = new LinkedHashMap<>();
+        for (CachedIndex cached : indexes.values()) {
+            if (remaining.isEmpty()) {
+                break;
+            }
+            Iterator<String> ids = remaining.iterator();
+            while (ids.hasNext()) {
+                TweetIdIndex.Location location = cached.index().find(fileSystem, ids.next());
+                if (location != null) {
+                    locationsByFile.computeIfAbsent(location.dataFile(), file -> new ArrayList<>()).add(location);
+                    ids.remove();
+                }
+            }
+        }
+
+        Map<String, Tweet> results = new LinkedHashMap<>();
+        for (var entry : locationsByFile.entrySet()) {
+            readCoalesced(entry.getKey(), entry.getValue(), results);
+        }
+        return results;
+    }
+
+    /**
+     * Number of positioned reads issued against data files so far
+     */
+    public long getRangeReadCount() {
+        return rangeReads.get();
+    }
+
+    private void readCoalesced(Path dataFile, List<TweetIdIndex.Location> locations, Map<String, Tweet> results) throws IOException {
+        locations.sort(Comparator.comparingLong(TweetIdIndex.Location::offset));
+
+        try (FSDataInputStream in = fileSystem.open(dataFile)) {
+            int start = 0;
+            while (start < locations.size()) {
+                long rangeStart = locations.get(start).offset();
+                long rangeEnd = rangeStart + locations.get(start).length();
+                int end = start + 1;
+                while (end < locations.size() && locations.get(end).offset() - rangeEnd <= coalesceGapBytes) {
+                    rangeEnd = Math.max(rangeEnd, locations.get(end).offset() + locations.get(end).length());
+                    end++;
+                }
+
+                byte[] buffer = new byte[(int) (rangeEnd - rangeStart)];
+                in.readFully(rangeStart, buffer);
+                rangeReads.incrementAndGet();
+
+                for (int i = start; i < end; i++) {
+                    TweetIdIndex.Location location = locations.get(i);
+                    Tweet tweet = JsonCodecs.fromBytes(JsonCodecs.TWEET, buffer, (int) (location.offset() - rangeStart), location.length());
+                    results.put(tweet.getTweetId(), tweet);
+                }
+                start = end;
+            }
+        }
+    }
+}
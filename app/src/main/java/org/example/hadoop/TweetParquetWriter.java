@@ -0,0 +1,157 @@
+package org.example.hadoop;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.example.model.Tweet;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Writes {@link Tweet}s as Parquet files with the column layout of the Hive
+ * {@code tweets} / {@code tweets_partitioned} tables. Records are pushed straight
+ * into the Parquet record consumer, without an intermediate row object.
+ */
+public final class TweetParquetWriter {
+
+    public static final MessageType SCHEMA = MessageTypeParser.parseMessageType("""
+        message tweet {
+          optional binary tweet_id (UTF8);
+          optional binary user_id (UTF8);
+          optional binary username (UTF8);
+          optional binary content (UTF8);
+          optional int64 tweet_timestamp;
+          optional int32 like_count;
+          optional int32 retweet_count;
+          optional int32 reply_count;
+          optional boolean is_celebrity;
+          optional binary celebrity_category (UTF8);
+          optional group hashtags (LIST) {
+            repeated group list {
+              optional binary element (UTF8);
+            }
+          }
+          optional group mentions (LIST) {
+            repeated group list {
+              optional binary element (UTF8);
+            }
+          }
+        }
+        """);
+
+    private TweetParquetWriter() {
+    }
+
+    /**
+     * Open a Snappy-compressed writer; an existing file at the path is replaced
+     */
+    public static ParquetWriter<Tweet> open(Configuration conf, Path path) throws IOException {
+        return new Builder(path)
+            .withConf(conf)
+            .withCompressionCodec(CompressionCodecName.SNAPPY)
+            .withWriteMode(ParquetFileWriter.Mode.OVERWRITE)
+            .build();
+    }
+
+    public static class Builder extends ParquetWriter.Builder<Tweet, Builder> {
+
+        public Builder(Path path) {
+            super(path);
+        }
+
+        @Override
+        protected Builder self() {
+            return this;
+        }
+
+        @Override
+        protected WriteSupport<Tweet> getWriteSupport(Configuration conf) {
+            return new TweetWriteSupport();
+        }
+    }
+
+    private static class TweetWriteSupport extends WriteSupport<Tweet> {
+        private RecordConsumer consumer;
+
+        @Override
+        public WriteContext init(Configuration configuration) {
+            return new WriteContext(SCHEMA, new HashMap<>());
+        }
+
+        @Override
+        public void prepareForWrite(RecordConsumer recordConsumer) {
+            this.consumer = recordConsumer;
+        }
+
+        @Override
+        public void write(Tweet tweet) {
+            consumer.startMessage();
+            writeString("tweet_id", 0, tweet.getTweetId());
+            writeString("user_id", 1, tweet.getUserId());
+            writeString("username", 2, tweet.getUsername());
+            writeString("content", 3, tweet.getContent());
+            if (tweet.getTimestamp() != null) {
+                consumer.startField("tweet_timestamp", 4);
+                consumer.addLong(tweet.getTimestamp());
+                consumer.endField("tweet_timestamp", 4);
+            }
+            writeInt("like_count", 5, tweet.getLikeCount());
+            writeInt("retweet_count", 6, tweet.getRetweetCount());
+            writeInt("reply_count", 7, tweet.getReplyCount());
+            consumer.startField("is_celebrity", 8);
+            consumer.addBoolean(tweet.isCelebrity());
+            consumer.endField("is_celebrity", 8);
+            writeString("celebrity_category", 9, tweet.getCelebrityCategory());
+            writeStringList("hashtags", 10, tweet.getHashtags());
+            writeStringList("mentions", 11, tweet.getMentions());
+            consumer.endMessage();
+        }
+
+        private void writeString(String field, int index, String value) {
+            if (value == null) {
+                return;
+            }
+            consumer.startField(field, index);
+            consumer.addBinary(Binary.fromString(value));
+            consumer.endField(field, index);
+        }
+
+        private void writeInt(String field, int index, int value) {
+            consumer.startField(field, index);
+            consumer.addInteger(value);
+            consumer.endField(field, index);
+        }
+
+        private void writeStringList(String field, int index, List<String> values) {
+            if (values == null) {
+                return;
+            }
+            consumer.startField(field, index);
+            consumer.startGroup();
+            if (!values.isEmpty()) {
+                consumer.startField("list", 0);
+                for (String value : values) {
+                    consumer.startGroup();
+                    if (value != null) {
+                        consumer.startField("element", 0);
+                        consumer.addBinary(Binary.fromString(value));
+                        consumer.endField("element", 0);
+                    }
+                    consumer.endGroup();
+                }
+                consumer.endField("list", 0);
+            }
+            consumer.endGroup();
+            consumer.endField(field, index);
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package org.example.hadoop;
+
+import org.apache.datasketches.kll.KllDoublesSketch;
+import org.apache.datasketches.memory.Memory;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.common.ndv.hll.HyperLogLog;
+import org.apache.hadoop.hive.common.ndv.hll.HyperLogLogUtils;
+import org.example.model.Tweet;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Mergeable sketches of a data file's tweets, stored in a {@code .<file>.sketch} sidecar:
+ * per celebrity category the exact tweet count, like/retweet sums and max likes, a
+ * HyperLogLog of distinct users and a KLL sketch of like_count; over all tweets a KLL sketch
+ * of like_count; and Count-Min heavy hitters of hashtags and mentions.
+ *
+ * All parts merge, so the sketches of any set of files or hours combine into one that answers
+ * approximate dashboard queries with error bounds. Not thread-safe.
+ */
+public class TweetSketches {
+    public static final String SIDECAR_SUFFIX = "sketch";
+    /** Overcount of hashtag and mention estimates, as a fraction of all occurrences */
+    public static final double TERM_EPSILON = 0.002;
+    public static final double TERM_DELTA = 0.01;
+    public static final int TERM_CAPACITY = 200;
+    public static final int KLL_K = 200;
+
+    private static final int MAGIC = 0x54534b54; // "TSKT"
+    private static final byte VERSION = 1;
+
+    /**
+     * Sketches of the tweets of one celebrity category
+     */
+    public static class CategorySketch {
+        private long tweets;
+        private long likeSum;
+        private long retweetSum;
+        private int maxLikes = Integer.MIN_VALUE;
+        private final HyperLogLog users;
+        private final KllDoublesSketch likes;
+
+        CategorySketch() {
+            this(newHyperLogLog(), KllDoublesSketch.newHeapInstance(KLL_K));
+        }
+
+        private CategorySketch(HyperLogLog users, KllDoublesSketch likes) {
+            this.users = users;
+            this.likes = likes;
+        }
+
+        void add(Tweet tweet) {
+            tweets++;
+            likeSum += tweet.getLikeCount();
+            retweetSum += tweet.getRetweetCount();
+            maxLikes = Math.max(maxLikes, tweet.getLikeCount());
+            users.addString(tweet.getUserId());
+            likes.update(tweet.getLikeCount());
+        }
+
+        void merge(CategorySketch other) {
+            tweets += other.tweets;
+            likeSum += other.likeSum;
+            retweetSum += other.retweetSum;
+            maxLikes = Math.max(maxLikes, other.maxLikes);
+            users.merge(other.users);
+            likes.merge(other.likes);
+        }
+
+        public long getTweets() {
+            return tweets;
+        }
+
+        public long getLikeSum() {
+            return likeSum;
+        }
+
+        public long getRetweetSum() {
+            return retweetSum;
+        }
+
+        public int getMaxLikes() {
+            return maxLikes;
+        }
+
+        public HyperLogLog getUsers() {
+            return users;
+        }
+
+        public KllDoublesSketch getLikes() {
+            return likes;
+        }
+
+        void write(DataOutput out) throws IOException {
+            out.writeLong(tweets);
+            out.writeLong(likeSum);
+            out.writeLong(retweetSum);
+            out.writeInt(maxLikes);
+            writeBytes(out, users.serialize());
+            writeBytes(out, likes.toByteArray());
+        }
+
+        static CategorySketch read(DataInput in) throws IOException {
+            long tweets = in.readLong();
+            long likeSum = in.readLong();
+            long retweetSum = in.readLong();
+            int maxLikes = in.readInt();
+            CategorySketch sketch = new CategorySketch(HyperLogLogUtils.deserializeHLL(readBytes(in)), readKll(in));
+            sketch.tweets = tweets;
+            sketch.likeSum = likeSum;
+            sketch.retweetSum = retweetSum;
+            sketch.maxLikes = maxLikes;
+            return sketch;
+        }
+    }
+
+    private long tweets;
+    private final Map<String, CategorySketch> categories = new TreeMap<>();
+    private final KllDoublesSketch likes;
+    private final HeavyHitters hashtags;
+    private final HeavyHitters mentions;
+
+    public TweetSketches() {
+        this(KllDoublesSketch.newHeapInstance(KLL_K), newHeavyHitters(), newHeavyHitters());
+    }
+
+    private TweetSketches(KllDoublesSketch likes, HeavyHitters hashtags, HeavyHitters mentions) {
+        this.likes = likes;
+        this.hashtags = hashtags;
+        this.mentions = mentions;
+    }
+
+    /**
+     * Sidecar builder to register with {@link HDFSWriter#addSidecar}
+     */
+    public static SidecarWriter sidecar() {
+        TweetSketches sketches = new TweetSketches();
+        return new SidecarWriter() {
+            @Override
+            public void add(Object record, long offset, int length) {
+                if (record instanceof Tweet tweet) {
+                    sketches.add(tweet);
+                }
+            }
+
+            @Override
+            public void commit(FileSystem fileSystem, Path dataFile) throws IOException {
+                if (sketches.getTweets() > 0) {
+                    sketches.writeFor(fileSystem, dataFile);
+                }
+            }
+        };
+    }
+
+    public void add(Tweet tweet) {
+        tweets++;
+        likes.update(tweet.getLikeCount());
+        if (tweet.isCelebrity() && tweet.getCelebrityCategory() != null) {
+            categories.computeIfAbsent(tweet.getCelebrityCategory(), category -> new CategorySketch()).add(tweet);
+        }
+        if (tweet.getHashtags() != null) {
+            tweet.getHashtags().forEach(hashtags::add);
+        }
+        if (tweet.getMentions() != null) {
+            tweet.getMentions().forEach(mentions::add);
+        }
+    }
+
+    /**
+     * Fold the sketches of other files or hours into these
+     */
+    public void merge(TweetSketches other) {
+        tweets += other.tweets;
+        likes.merge(other.likes);
+        other.categories.forEach((category, sketch) ->
+            categories.computeIfAbsent(category, name -> new CategorySketch()).merge(sketch));
+        hashtags.merge(other.hashtags);
+        mentions.merge(other.mentions);
+    }
+
+    public long getTweets() {
+        return tweets;
+    }
+
+    public Map<String, CategorySketch> getCategories() {
+        return Collections.unmodifiableMap(categories);
+    }
+
+    public KllDoublesSketch getLikes() {
+        return likes;
+    }
+
+    public HeavyHitters getHashtags() {
+        return hashtags;
+    }
+
+    public HeavyHitters getMentions() {
+        return mentions;
+    }
+
+    /**
+     * Write these sketches as the sidecar of a data file, replacing any previous one
+     */
+    public void writeFor(FileSystem fileSystem, Path dataFile) throws IOException {
+        try (FSDataOutputStream outputStream = fileSystem.create(Sidecars.pathFor(dataFile, SIDECAR_SUFFIX), true)) {
+            DataOutputStream out = new DataOutputStream(outputStream);
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(tweets);
+            writeBytes(out, likes.toByteArray());
+            hashtags.write(out);
+            mentions.write(out);
+            out.writeInt(categories.size());
+            for (Map.Entry<String, CategorySketch> category : categories.entrySet()) {
+                out.writeUTF(category.getKey());
+                category.getValue().write(out);
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * Load the sketches of a data file, or null if none were written
+     */
+    public static TweetSketches readFor(FileSystem fileSystem, Path dataFile) throws IOException {
+        return read(fileSystem, Sidecars.pathFor(dataFile, SIDECAR_SUFFIX));
+    }
+
+    /**
+     * Load a sketch sidecar, or null if it does not exist
+     */
+    public static TweetSketches read(FileSystem fileSystem, Path sidecar) throws IOException {
+        if (!fileSystem.exists(sidecar)) {
+            return null;
+        }
+        try (FSDataInputStream inputStream = fileSystem.open(sidecar)) {
+            DataInputStream in = new DataInputStream(inputStream);
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a sketch sidecar: " + sidecar);
+            }
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported sketch version " + version + " in " + sidecar);
+            }
+            long tweets = in.readLong();
+            TweetSketches sketches = new TweetSketches(readKll(in), HeavyHitters.read(in), HeavyHitters.read(in));
+            sketches.tweets = tweets;
+            int categoryCount = in.readInt();
+            for (int i = 0; i < categoryCount; i++) {
+                sketches.categories.put(in.readUTF(), CategorySketch.read(in));
+            }
+            return sketches;
+        }
+    }
+
+    private static HyperLogLog newHyperLogLog() {
+        return HyperLogLog.builder().setNumRegisterIndexBits(TweetColumnStatistics.HLL_REGISTER_BITS).build();
+    }
+
+    private static HeavyHitters newHeavyHitters() {
+        return new HeavyHitters(CountMinSketch.withError(TERM_EPSILON, TERM_DELTA), TERM_CAPACITY);
+    }
+
+    private static KllDoublesSketch readKll(DataInput in) throws IOException {
+        return KllDoublesSketch.heapify(Memory.wrap(readBytes(in)));
+    }
+
+    private static void writeBytes(DataOutput out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,196 @@
+package org.example.service;
+
+import org.apache.datasketches.kll.KllDoublesSketch;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.example.hadoop.HeavyHitters;
+import org.example.hadoop.HourPartition;
+import org.example.hadoop.Sidecars;
+import org.example.hadoop.TweetSketches;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Approximate dashboard queries answered from the {@link TweetSketches} sidecars of hourly
+ * partitions instead of scanning tweets. Reads both the {@link org.example.hadoop.HDFSWriter}
+ * and the tweets_partitioned directory layouts.
+ *
+ * The sidecars of an hour are merged once and cached until the partition's files change, so
+ * a query over any time range merges one small sketch per hour. Every answer carries its
+ * error bound, and counts the data files it could not see because they have no sketch.
+ */
+public class ApproximateAnalyticsService {
+    private final FileSystem fileSystem;
+    private final Path basePath;
+    private final Map<Path, CachedHour> hourCache = new ConcurrentHashMap<>();
+
+    /**
+     * Rows of an approximate answer and what they were computed from
+     */
+    public record ApproximateResult<T>(List<T> rows, int hoursMerged, int filesWithoutSketches, double millis) {
+    }
+
+    /**
+     * Engagement of one celebrity category. Counts, averages and max are exact; distinct users are
+     * within the relative standard error, and the like percentiles within the rank error
+     */
+    public record CategoryEstimate(String category, long tweetCount, double avgLikes, double avgRetweets, int maxLikes,
+                                   long distinctUsers, double distinctUsersRelativeError,
+                                   double medianLikes, double p90Likes, double p99Likes, double likesRankError) {
+    }
+
+    /**
+     * like_count at a rank; the true rank of the value is within rankError of the requested one
+     */
+    public record Percentile(double rank, double likes, double rankError) {
+    }
+
+    private record CachedHour(long fingerprint, TweetSketches sketches, int filesWithoutSketches) {
+    }
+
+    private record Merged(TweetSketches sketches, int hours, int filesWithoutSketches, long startNanos) {
+        <T> ApproximateResult<T> result(List<T> rows) {
+            ApproximateResult<T> result = new ApproximateResult<>(rows, hours, filesWithoutSketches,
+                (System.nanoTime() - startNanos) / 1e6);
+            System.out.printf("⚡ Approximate answer from %d hours in %.1f ms (%d files without sketches)%n",
+                result.hoursMerged(), result.millis(), result.filesWithoutSketches());
+            return result;
+        }
+    }
+
+    public ApproximateAnalyticsService(FileSystem fileSystem, String basePath) {
+        this.fileSystem = fileSystem;
+        this.basePath = new Path(basePath);
+    }
+
+    /**
+     * Most used hashtags in [from, toExclusive), with Count-Min overcount bounds
+     */
+    public ApproximateResult<HeavyHitters.Item> getTrendingHashtags(int limit, HourPartition from, HourPartition toExclusive)
+            throws IOException {
+        Merged merged = merge(from, toExclusive);
+        return merged.result(merged.sketches().getHashtags().top(limit));
+    }
+
+    /**
+     * Most mentioned users in [from, toExclusive), with Count-Min overcount bounds
+     */
+    public ApproximateResult<HeavyHitters.Item> getMostMentionedUsers(int limit, HourPartition from, HourPartition toExclusive)
+            throws IOException {
+        Merged merged = merge(from, toExclusive);
+        return merged.result(merged.sketches().getMentions().top(limit));
+    }
+
+    /**
+     * Per celebrity category engagement in [from, toExclusive), highest average likes first
+     */
+    public ApproximateResult<CategoryEstimate> getCelebrityEngagementStats(HourPartition from, HourPartition toExclusive)
+            throws IOException {
+        Merged merged = merge(from, toExclusive);
+        List<CategoryEstimate> rows = new ArrayList<>();
+        merged.sketches().getCategories().forEach((category, sketch) -> {
+            KllDoublesSketch likes = sketch.getLikes();
+            rows.add(new CategoryEstimate(category, sketch.getTweets(),
+                (double) sketch.getLikeSum() / sketch.getTweets(), (double) sketch.getRetweetSum() / sketch.getTweets(),
+                sketch.getMaxLikes(), sketch.getUsers().count(), sketch.getUsers().getStandardError(),
+                likes.getQuantile(0.5), likes.getQuantile(0.9), likes.getQuantile(0.99), likes.getNormalizedRankError(false)));
+        });
+        rows.sort(Comparator.comparingDouble(CategoryEstimate::avgLikes).reversed());
+        return merged.result(rows);
+    }
+
+    /**
+     * like_count percentiles of all tweets in [from, toExclusive), e.g. ranks 0.5, 0.9, 0.99
+     */
+    public ApproximateResult<Percentile> getLikePercentiles(HourPartition from, HourPartition toExclusive, double... ranks)
+            throws IOException {
+        Merged merged = merge(from, toExclusive);
+        KllDoublesSketch likes = merged.sketches().getLikes();
+        List<Percentile> rows = new ArrayList<>();
+        if (!likes.isEmpty()) {
+            for (double rank : ranks) {
+                rows.add(new Percentile(rank, likes.getQuantile(rank), likes.getNormalizedRankError(false)));
+            }
+        }
+        return merged.result(rows);
+    }
+
+    private Merged merge(HourPartition from, HourPartition toExclusive) throws IOException {
+        long start = System.nanoTime();
+        TweetSketches sketches = new TweetSketches();
+        int hours = 0;
+        int filesWithoutSketches = 0;
+        FileStatus[] directories = fileSystem.globStatus(new Path(basePath, "year=*/month=*/day=*/hour=*"));
+        for (FileStatus directory : directories == null ? new FileStatus[0] : directories) {
+            HourPartition partition = partitionOf(directory.getPath());
+            if (partition == null || partition.startEpochSecond() < from.startEpochSecond()
+                    || partition.startEpochSecond() >= toExclusive.startEpochSecond()) {
+                continue;
+            }
+            CachedHour hour = load(directory.getPath());
+            sketches.merge(hour.sketches());
+            filesWithoutSketches += hour.filesWithoutSketches();
+            hours++;
+        }
+        return new Merged(sketches, hours, filesWithoutSketches, start);
+    }
+
+    /**
+     * Merged sketches of one partition directory, reloaded only when its listing changes
+     */
+    private CachedHour load(Path directory) throws IOException {
+        FileStatus[] files = fileSystem.listStatus(directory);
+        long fingerprint = files.length;
+        Set<String> names = new HashSet<>();
+        for (FileStatus file : files) {
+            fingerprint = fingerprint * 31 + file.getPath().getName().hashCode();
+            fingerprint = fingerprint * 31 + file.getModificationTime();
+            names.add(file.getPath().getName());
+        }
+        CachedHour cached = hourCache.get(directory);
+        if (cached != null && cached.fingerprint() == fingerprint) {
+            return cached;
+        }
+
+        TweetSketches sketches = new TweetSketches();
+        int filesWithoutSketches = 0;
+        for (FileStatus file : files) {
+            Path dataFile = file.getPath();
+            // Sketches do not depend on the file format, but binary files never get them
+            String name = dataFile.getName();
+            if (!file.isFile() || !(Sidecars.isJsonLinesFile(name) || Sidecars.isParquetFile(name))) {
+                continue;
+            }
+            Path sidecar = Sidecars.pathFor(dataFile, TweetSketches.SIDECAR_SUFFIX);
+            TweetSketches fileSketches = names.contains(sidecar.getName()) ? TweetSketches.read(fileSystem, sidecar) : null;
+            if (fileSketches == null) {
+                filesWithoutSketches++;
+            } else {
+                sketches.merge(fileSketches);
+            }
+        }
+        cached = new CachedHour(fingerprint, sketches, filesWithoutSketches);
+        hourCache.put(directory, cached);
+        return cached;
+    }
+
+    private static HourPartition partitionOf(Path directory) {
+        Path hour = directory;
+        Path day = hour.getParent();
+        Path month = day.getParent();
+        Path year = month.getParent();
+        try {
+            return HourPartition.parse(year.getName() + "/" + month.getName() + "/" + day.getName() + "/" + hour.getName());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package org.example.service;
+
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.example.hadoop.BitmapIndex;
+import org.example.hadoop.HDFSReader;
+import org.example.hadoop.Sidecars;
+import org.example.service.DataSkippingQueryService.QueryResult;
+import org.example.service.DataSkippingQueryService.ScanReport;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process filters over JSON lines files written by {@link org.example.hadoop.HDFSWriter}
+ * with {@link BitmapIndex} sidecars. A predicate is evaluated on each file's bitmaps first:
+ * files with no matching row are never opened, counts come from the bitmaps alone, and only
+ * the matching lines of the remaining files are parsed. Files without an index are read and
+ * filtered record by record.
+ */
+public class BitmapQueryService {
+    private final FileSystem fileSystem;
+    private final Path basePath;
+    private final HDFSReader reader;
+    private final Map<Path, CachedIndex> indexCache = new ConcurrentHashMap<>();
+
+    public record CountResult(long count, ScanReport report) {
+    }
+
+    private record DataFile(Path path, long length, BitmapIndex index) {
+    }
+
+    /**
+     * Index read from a sidecar, valid while the sidecar's own status is unchanged; the data
+     * file is renamed into place before its sidecars are committed, so its status can't tell
+     */
+    private record CachedIndex(long modificationTime, long length, BitmapIndex index) {
+        boolean matches(FileStatus sidecar) {
+            return modificationTime == sidecar.getModificationTime() && length == sidecar.getLen();
+        }
+    }
+
+    public BitmapQueryService(FileSystem fileSystem, String basePath) {
+        this.fileSystem = fileSystem;
+        this.basePath = new Path(basePath);
+        this.reader = new HDFSReader(fileSystem);
+    }
+
+    /**
+     * All records under the base path matching the predicate, in file order
+     */
+    public <T> QueryResult<T> find(Class<T> type, BitmapIndex.Predicate predicate) throws IOException {
+        long start = System.nanoTime();
+        List<T> rows = new ArrayList<>();
+        Counter counter = new Counter();
+        for (DataFile file : listDataFiles()) {
+            if (file.index() == null) {
+                counter.scan(file);
+                for (T record : reader.readJsonLines(file.path().toString(), type)) {
+                    if (predicate.test(BitmapIndex.termsOf(record))) {
+                        rows.add(record);
+                    }
+                }
+                continue;
+            }
+            RoaringBitmap matches = file.index().select(predicate);
+            if (matches.isEmpty()) {
+                counter.skip(file);
+                continue;
+            }
+            counter.scan(file);
+            rows.addAll(reader.readJsonLines(file.path().toString(), type, matches::contains));
+        }
+        return new QueryResult<>(rows, counter.report("find", rows.size(), start));
+    }
+
+    /**
+     * Number of records matching the predicate; indexed files are answered without reading them
+     */
+    public CountResult count(Class<?> type, BitmapIndex.Predicate predicate) throws IOException {
+        long start = System.nanoTime();
+        long count = 0;
+        Counter counter = new Counter();
+        for (DataFile file : listDataFiles()) {
+            if (file.index() != null) {
+                count += file.index().select(predicate).getLongCardinality();
+                counter.skip(file);
+                continue;
+            }
+            counter.scan(file);
+            for (Object record : reader.readJsonLines(file.path().toString(), type)) {
+                if (predicate.test(BitmapIndex.termsOf(record))) {
+                    count++;
+                }
+            }
+        }
+        return new CountResult(count, counter.report("count", count, start));
+    }
+
+    private List<DataFile> listDataFiles() throws IOException {
+        List<DataFile> files = new ArrayList<>();
+        if (fileSystem.exists(basePath)) {
+            collectDataFiles(basePath, files);
+        }
+        return files;
+    }
+
+    /**
+     * Walks directories with plain listings; a recursive listFiles would also fetch block
+     * locations, which costs more than answering a query from the bitmaps
+     */
+    private void collectDataFiles(Path directory, List<DataFile> files) throws IOException {
+        FileStatus[] statuses = fileSystem.listStatus(directory);
+        Map<String, FileStatus> sidecars = new HashMap<>();
+        for (FileStatus status : statuses) {
+            if (Sidecars.isSidecar(status.getPath().getName(), BitmapIndex.SIDECAR_SUFFIX)) {
+                sidecars.put(status.getPath().getName(), status);
+            }
+        }
+        for (FileStatus status : statuses) {
+            if (status.isDirectory()) {
+                collectDataFiles(status.getPath(), files);
+            } else if (Sidecars.isJsonLinesFile(status.getPath().getName())) {
+                FileStatus sidecar = sidecars.get(Sidecars.pathFor(status.getPath(), BitmapIndex.SIDECAR_SUFFIX).getName());
+                files.add(new DataFile(status.getPath(), status.getLen(), indexFor(status.getPath(), sidecar)));
+            }
+        }
+    }
+
+    private BitmapIndex indexFor(Path dataFile, FileStatus sidecar) throws IOException {
+        if (sidecar == null) {
+            // Not committed yet (or never written); looked up again by the next query
+            indexCache.remove(dataFile);
+            return null;
+        }
+        CachedIndex cached = indexCache.get(dataFile);
+        if (cached == null || !cached.matches(sidecar)) {
+            cached = new CachedIndex(sidecar.getModificationTime(), sidecar.getLen(), BitmapIndex.readFor(fileSystem, dataFile));
+            indexCache.put(dataFile, cached);
+        }
+        return cached.index();
+    }
+
+    private static class Counter {
+        private int filesScanned;
+        private int filesSkipped;
+        private long bytesScanned;
+        private long bytesSkipped;
+
+        void scan(DataFile file) {
+            filesScanned++;
+            bytesScanned += file.length();
+        }
+
+        void skip(DataFile file) {
+            filesSkipped++;
+            bytesSkipped += file.length();
+        }
+
+        ScanReport report(String query, long matches, long startNanos) {
+            ScanReport report = new ScanReport(filesScanned, filesSkipped, bytesScanned, bytesSkipped);
+            System.out.printf("🔎 Bitmap %s: %d matches in %.1f ms, %s%n",
+                query, matches, (System.nanoTime() - startNanos) / 1e6, report);
+            return report;
+        }
+    }
+}
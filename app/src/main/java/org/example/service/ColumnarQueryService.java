@@ -0,0 +1,113 @@
+package org.example.service;
+
+import org.example.columnar.GroupAggregates;
+import org.example.columnar.Selection;
+import org.example.columnar.StringDictionary;
+import org.example.columnar.TweetBatch;
+import org.example.columnar.VectorOps;
+import org.example.model.Tweet;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * In-process equivalents of the {@link HiveQueryingService} tweet queries over a
+ * {@link TweetBatch}. Filters and aggregates run on the primitive columns; only the rows of
+ * the answer are turned back into {@link Tweet}s.
+ */
+public class ColumnarQueryService {
+    private static final int LIKES = 0;
+    private static final int RETWEETS = 1;
+
+    private final TweetBatch batch;
+
+    /**
+     * Row of {@link HiveQueryingService#getCelebrityEngagementStats()}
+     */
+    public record CategoryEngagement(String category, long tweetCount, double avgLikes, double avgRetweets, int maxLikes) {
+    }
+
+    /**
+     * Row of {@link HiveQueryingService#getTrendingHashtags(int)} and
+     * {@link HiveQueryingService#getMostMentionedUsers(int)}
+     */
+    public record TagCount(String tag, int count) {
+    }
+
+    public ColumnarQueryService(TweetBatch batch) {
+        this.batch = batch;
+    }
+
+    /**
+     * Celebrity tweets per category with their average likes and retweets and max likes,
+     * highest average likes first
+     */
+    public List<CategoryEngagement> getCelebrityEngagementStats() {
+        Selection celebrities = VectorOps.filterTrue(batch.celebrity(), Selection.all(batch.size()));
+        StringDictionary tags = batch.getTags();
+        int[] categories = batch.categories();
+        GroupAggregates groups = VectorOps.groupBy(categories, VectorOps.cardinality(categories), celebrities,
+            batch.likeCounts(), batch.retweetCounts());
+
+        List<CategoryEngagement> rows = new ArrayList<>();
+        for (int code = StringDictionary.NULL_CODE; code < groups.cardinality(); code++) {
+            if (groups.count(code) > 0) {
+                rows.add(new CategoryEngagement(tags.decode(code), groups.count(code),
+                    groups.average(LIKES, code), groups.average(RETWEETS, code), groups.max(LIKES, code)));
+            }
+        }
+        rows.sort(Comparator.comparingDouble(CategoryEngagement::avgLikes).reversed());
+        return rows;
+    }
+
+    /**
+     * Tweets with like_count > 0, most liked first
+     */
+    public List<Tweet> getMostLikedTweets(int limit) {
+        Selection liked = VectorOps.filterGreaterThan(batch.likeCounts(), 0, Selection.all(batch.size()));
+        return tweets(VectorOps.topK(batch.likeCounts(), liked, limit));
+    }
+
+    /**
+     * Celebrity tweets of one category ranked by like_count + retweet_count
+     */
+    public List<Tweet> getMostPopularCelebrityTweets(String category, int limit) {
+        Selection selection = VectorOps.filterTrue(batch.celebrity(), Selection.all(batch.size()));
+        selection = VectorOps.filterEquals(batch.categories(), batch.getTags().lookup(category), selection);
+        return tweets(VectorOps.topK(VectorOps.add(batch.likeCounts(), batch.retweetCounts()), selection, limit));
+    }
+
+    /**
+     * Most used hashtags, counted per dictionary code without touching the strings
+     */
+    public List<TagCount> getTrendingHashtags(int limit) {
+        return topTags(batch.hashtags(), limit);
+    }
+
+    /**
+     * Most mentioned users, counted per dictionary code without touching the strings
+     */
+    public List<TagCount> getMostMentionedUsers(int limit) {
+        return topTags(batch.mentions(), limit);
+    }
+
+    private List<TagCount> topTags(TweetBatch.ListColumn column, int limit) {
+        StringDictionary tags = batch.getTags();
+        int[] counts = VectorOps.countCodes(column, VectorOps.cardinality(column.codes()), Selection.all(batch.size()));
+        Selection used = VectorOps.filterGreaterThan(counts, 0, Selection.all(counts.length));
+        List<TagCount> rows = new ArrayList<>();
+        for (int code : VectorOps.topK(counts, used, limit)) {
+            rows.add(new TagCount(tags.decode(code), counts[code]));
+        }
+        return rows;
+    }
+
+    private List<Tweet> tweets(int[] rows) {
+        List<Tweet> tweets = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            tweets.add(batch.get(row));
+        }
+        return tweets;
+    }
+}
@@ -11,7 +11,6 @@ import java.util.List;
 import java.util.Random;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.ThreadLocalRandom;
 
 public class DataGenerator {
     private static final Random RANDOM = new Random();
@@ -59,71 +58,85 @@ public class DataGenerator {
     };
 
     public static User generateCelebrity() {
+        return generateCelebrity(RANDOM);
+    }
+
+    /**
+     * Generate a celebrity from the given random source, e.g. a seeded one for reproducible data
+     */
+    public static User generateCelebrity(Random random) {
         var user = new User();
-        user.setUserId("user_" + UUID.randomUUID().toString().substring(0, 8));
+        user.setUserId("user_" + randomId(random));
 
-        String category = CELEBRITY_CATEGORIES[RANDOM.nextInt(CELEBRITY_CATEGORIES.length)];
+        String category = CELEBRITY_CATEGORIES[random.nextInt(CELEBRITY_CATEGORIES.length)];
         user.setCategory(category);
 
         String name = switch (category) {
-            case "tech" -> TECH_CELEBRITIES[RANDOM.nextInt(TECH_CELEBRITIES.length)];
-            case "sports" -> SPORTS_CELEBRITIES[RANDOM.nextInt(SPORTS_CELEBRITIES.length)];
-            case "entertainment" -> ENTERTAINMENT_CELEBRITIES[RANDOM.nextInt(ENTERTAINMENT_CELEBRITIES.length)];
-            default -> "Celebrity " + RANDOM.nextInt(1000);
+            case "tech" -> TECH_CELEBRITIES[random.nextInt(TECH_CELEBRITIES.length)];
+            case "sports" -> SPORTS_CELEBRITIES[random.nextInt(SPORTS_CELEBRITIES.length)];
+            case "entertainment" -> ENTERTAINMENT_CELEBRITIES[random.nextInt(ENTERTAINMENT_CELEBRITIES.length)];
+            default -> "Celebrity " + random.nextInt(1000);
         };
 
         user.setDisplayName(name);
-        user.setUsername(name.toLowerCase().replace(" ", "_") + "_" + RANDOM.nextInt(100));
-        user.setFollowerCount(ThreadLocalRandom.current().nextLong(100_000, 50_000_000)); // Celebrity level
-        user.setFollowingCount(ThreadLocalRandom.current().nextLong(100, 10_000));
-        user.setTweetCount(RANDOM.nextInt(50_000) + 1000);
-        user.setVerified(RANDOM.nextDouble() > 0.3); // 70% verified
+        user.setUsername(name.toLowerCase().replace(" ", "_") + "_" + random.nextInt(100));
+        user.setFollowerCount(random.nextLong(100_000, 50_000_000)); // Celebrity level
+        user.setFollowingCount(random.nextLong(100, 10_000));
+        user.setTweetCount(random.nextInt(50_000) + 1000);
+        user.setVerified(random.nextDouble() > 0.3); // 70% verified
         user.setBio(String.format("%s expert and thought leader in %s", category, category));
 
         return user;
     }
 
     public static Tweet generateTweet(User user) {
+        return generateTweet(user, RANDOM, Instant.now().getEpochSecond());
+    }
+
+    /**
+     * Generate a tweet posted at the given time (epoch seconds) from the given random source
+     */
+    public static Tweet generateTweet(User user, Random random, long timestamp) {
         var tweet = new Tweet();
-        tweet.setTweetId("tweet_" + UUID.randomUUID().toString().substring(0, 8));
+        tweet.setTweetId("tweet_" + randomId(random));
         tweet.setUserId(user.getUserId());
         tweet.setUsername(user.getUsername());
-        tweet.setTimestamp(Instant.now().getEpochSecond());
+        tweet.setTimestamp(timestamp);
 
         // Generate realistic content based on user category
-        String template = TWEET_TEMPLATES[RANDOM.nextInt(TWEET_TEMPLATES.length)];
+        String template = TWEET_TEMPLATES[random.nextInt(TWEET_TEMPLATES.length)];
         String category = user.getCategory() != null ? user.getCategory() : "tech";
         String content = String.format(template,
             category,
             "technology",
             category,
-            randomHashtag());
+            SAMPLE_HASHTAGS[random.nextInt(SAMPLE_HASHTAGS.length)]);
         content = content.substring(0, Math.min(280, content.length()));
 
         tweet.setContent(content);
 
         // Add hashtags and mentions
         List<String> hashtags = List.of(
-            SAMPLE_HASHTAGS[RANDOM.nextInt(SAMPLE_HASHTAGS.length)],
+            SAMPLE_HASHTAGS[random.nextInt(SAMPLE_HASHTAGS.length)],
             "#" + category
         );
         tweet.setHashtags(hashtags);
 
         // Generate random number of mentions (1 to 3)
-        int mentionCount = RANDOM.nextInt(3) + 1;
+        int mentionCount = random.nextInt(3) + 1;
         var mentions = new HashSet<String>();
 
         for (int i = 0; i < mentionCount; i++) {
-            mentions.add(SAMPLE_MENTIONS[RANDOM.nextInt(SAMPLE_MENTIONS.length)]);
+            mentions.add(SAMPLE_MENTIONS[random.nextInt(SAMPLE_MENTIONS.length)]);
         }
         tweet.setMentions(mentions.stream().toList());
 
         // Generate engagement metrics (higher for celebrities)
         boolean isCelebrity = user.isCelebrity();
         int multiplier = isCelebrity ? 10 : 1;
-        tweet.setLikeCount(RANDOM.nextInt(1000 * multiplier));
-        tweet.setRetweetCount(RANDOM.nextInt(500 * multiplier));
-        tweet.setReplyCount(RANDOM.nextInt(100 * multiplier));
+        tweet.setLikeCount(random.nextInt(1000 * multiplier));
+        tweet.setRetweetCount(random.nextInt(500 * multiplier));
+        tweet.setReplyCount(random.nextInt(100 * multiplier));
 
         // Set celebrity fields
         tweet.setCelebrity(isCelebrity);
@@ -151,14 +164,21 @@ public class DataGenerator {
     }
 
     public static User generateRegularUser() {
+        return generateRegularUser(RANDOM);
+    }
+
+    /**
+     * Generate a regular (non-celebrity) user from the given random source
+     */
+    public static User generateRegularUser(Random random) {
         var user = new User();
-        user.setUserId("user_" + UUID.randomUUID().toString().substring(0, 8));
-        user.setUsername("user_" + RANDOM.nextInt(100000));
-        user.setDisplayName("User " + RANDOM.nextInt(10000));
-        user.setFollowerCount(ThreadLocalRandom.current().nextLong(10, 50_000)); // Below celebrity threshold
-        user.setFollowingCount(ThreadLocalRandom.current().nextLong(50, 2000));
-        user.setTweetCount(RANDOM.nextInt(1000) + 10);
-        user.setVerified(RANDOM.nextDouble() > 0.95); // 5% verified
+        user.setUserId("user_" + randomId(random));
+        user.setUsername("user_" + random.nextInt(100000));
+        user.setDisplayName("User " + random.nextInt(10000));
+        user.setFollowerCount(random.nextLong(10, 50_000)); // Below celebrity threshold
+        user.setFollowingCount(random.nextLong(50, 2000));
+        user.setTweetCount(random.nextInt(1000) + 10);
+        user.setVerified(random.nextDouble() > 0.95); // 5% verified
         user.setBio("Just a regular user sharing thoughts");
         user.setCategory("other");
 
@@ -170,8 +190,9 @@ public class DataGenerator {
         return generateTweet(regularUser); // Reuse the main tweet generation logic
     }
 
-    private static String randomHashtag() {
-        return SAMPLE_HASHTAGS[RANDOM.nextInt(SAMPLE_HASHTAGS.length)];
+    // Same shape as the first 8 characters of a random UUID, but reproducible for seeded sources
+    private static String randomId(Random random) {
+        return new UUID(random.nextLong(), random.nextLong()).toString().substring(0, 8);
     }
 
     private static String randomLocation() {
@@ -0,0 +1,207 @@
+package org.example.service;
+
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
+import org.example.hadoop.FileStatistics;
+import org.example.hadoop.HDFSReader;
+import org.example.hadoop.Sidecars;
+import org.example.model.Tweet;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * In-process queries over the JSON lines tweets written by {@link org.example.hadoop.HDFSWriter},
+ * using the {@link FileStatistics} sidecars to skip files that cannot contribute to the result.
+ * Files without statistics are always scanned.
+ */
+public class DataSkippingQueryService {
+    private final FileSystem fileSystem;
+    private final Path basePath;
+    private final HDFSReader reader;
+    private final Map<Path, CachedStatistics> statisticsCache = new ConcurrentHashMap<>();
+
+    /**
+     * How much of the dataset a query had to read
+     */
+    public record ScanReport(int filesScanned, int filesSkipped, long bytesScanned, long bytesSkipped) {
+        @Override
+        public String toString() {
+            return String.format("scanned %d files (%d bytes), skipped %d files (%d bytes)",
+                filesScanned, bytesScanned, filesSkipped, bytesSkipped);
+        }
+    }
+
+    public record QueryResult<T>(List<T> rows, ScanReport report) {
+    }
+
+    private record DataFile(Path path, long length, FileStatistics statistics) {
+    }
+
+    /**
+     * Statistics read from a sidecar, valid while the sidecar's own status is unchanged; the data
+     * file is renamed into place before its sidecars are committed, so its status can't tell
+     */
+    private record CachedStatistics(long modificationTime, long length, FileStatistics statistics) {
+        boolean matches(FileStatus sidecar) {
+            return modificationTime == sidecar.getModificationTime() && length == sidecar.getLen();
+        }
+    }
+
+    public DataSkippingQueryService(FileSystem fileSystem, String basePath) {
+        this.fileSystem = fileSystem;
+        this.basePath = new Path(basePath);
+        this.reader = new HDFSReader(fileSystem);
+    }
+
+    /**
+     * Top-K tweets by like_count (like_count > 0). Files are visited in descending order of
+     * their max like_count, and a file is only read if its max can beat the current K-th value.
+     */
+    public QueryResult<Tweet> getMostLikedTweets(int limit) throws IOException {
+        List<DataFile> files = listDataFiles();
+        files.sort(Comparator.comparingInt((DataFile file) ->
+            file.statistics() == null ? Integer.MAX_VALUE : file.statistics().getMaxLikeCount()).reversed());
+
+        PriorityQueue<Tweet> topK = new PriorityQueue<>(Comparator.comparingInt(Tweet::getLikeCount));
+        ScanCounter counter = new ScanCounter();
+        for (DataFile file : files) {
+            boolean canContribute = limit > 0 && (file.statistics() == null
+                || (file.statistics().getMaxLikeCount() > 0
+                    && (topK.size() < limit || file.statistics().getMaxLikeCount() > topK.peek().getLikeCount())));
+            if (!canContribute) {
+                counter.skip(file);
+                continue;
+            }
+
+            counter.scan(file);
+            for (Tweet tweet : reader.readJsonLines(file.path().toString(), Tweet.class)) {
+                if (tweet.getLikeCount() <= 0) {
+                    continue;
+                }
+                if (topK.size() < limit) {
+                    topK.add(tweet);
+                } else if (tweet.getLikeCount() > topK.peek().getLikeCount()) {
+                    topK.poll();
+                    topK.add(tweet);
+                }
+            }
+        }
+
+        List<Tweet> rows = new ArrayList<>(topK);
+        rows.sort(Comparator.comparingInt(Tweet::getLikeCount).reversed());
+        return counter.result(rows);
+    }
+
+    /**
+     * All tweets posted by one user; files whose user_id bloom filter rules the user out are skipped
+     */
+    public QueryResult<Tweet> getTweetsByUser(String userId) throws IOException {
+        return filter(statistics -> statistics.mightContainUser(userId), tweet -> userId.equals(tweet.getUserId()));
+    }
+
+    /**
+     * All tweets carrying a hashtag; files whose hashtag bloom filter rules it out are skipped
+     */
+    public QueryResult<Tweet> getTweetsWithHashtag(String hashtag) throws IOException {
+        return filter(statistics -> statistics.mightContainHashtag(hashtag), tweet -> tweet.getHashtags().contains(hashtag));
+    }
+
+    /**
+     * All tweets with from <= timestamp <= to; files outside the range are skipped
+     */
+    public QueryResult<Tweet> getTweetsInTimeRange(long from, long to) throws IOException {
+        return filter(statistics -> statistics.overlapsTimeRange(from, to),
+            tweet -> tweet.getTimestamp() >= from && tweet.getTimestamp() <= to);
+    }
+
+    private QueryResult<Tweet> filter(Predicate<FileStatistics> fileMightMatch, Predicate<Tweet> rowMatches) throws IOException {
+        List<Tweet> rows = new ArrayList<>();
+        ScanCounter counter = new ScanCounter();
+        for (DataFile file : listDataFiles()) {
+            if (file.statistics() != null && !fileMightMatch.test(file.statistics())) {
+                counter.skip(file);
+                continue;
+            }
+            counter.scan(file);
+            for (Tweet tweet : reader.readJsonLines(file.path().toString(), Tweet.class)) {
+                if (rowMatches.test(tweet)) {
+                    rows.add(tweet);
+                }
+            }
+        }
+        return counter.result(rows);
+    }
+
+    private List<DataFile> listDataFiles() throws IOException {
+        List<DataFile> files = new ArrayList<>();
+        if (!fileSystem.exists(basePath)) {
+            return files;
+        }
+        List<LocatedFileStatus> dataFiles = new ArrayList<>();
+        Map<Path, LocatedFileStatus> sidecars = new HashMap<>();
+        RemoteIterator<LocatedFileStatus> iterator = fileSystem.listFiles(basePath, true);
+        while (iterator.hasNext()) {
+            LocatedFileStatus status = iterator.next();
+            String name = status.getPath().getName();
+            if (Sidecars.isJsonLinesFile(name)) {
+                dataFiles.add(status);
+            } else if (Sidecars.isSidecar(name, FileStatistics.SIDECAR_SUFFIX)) {
+                sidecars.put(status.getPath(), status);
+            }
+        }
+        for (LocatedFileStatus status : dataFiles) {
+            FileStatus sidecar = sidecars.get(Sidecars.pathFor(status.getPath(), FileStatistics.SIDECAR_SUFFIX));
+            files.add(new DataFile(status.getPath(), status.getLen(), statisticsFor(status.getPath(), sidecar)));
+        }
+        return files;
+    }
+
+    private FileStatistics statisticsFor(Path dataFile, FileStatus sidecar) throws IOException {
+        if (sidecar == null) {
+            // Not committed yet (or never written); looked up again by the next query
+            statisticsCache.remove(dataFile);
+            return null;
+        }
+        CachedStatistics cached = statisticsCache.get(dataFile);
+        if (cached == null || !cached.matches(sidecar)) {
+            cached = new CachedStatistics(sidecar.getModificationTime(), sidecar.getLen(),
+                FileStatistics.readFor(fileSystem, dataFile));
+            statisticsCache.put(dataFile, cached);
+        }
+        return cached.statistics();
+    }
+
+    private static class ScanCounter {
+        private int filesScanned;
+        private int filesSkipped;
+        private long bytesScanned;
+        private long bytesSkipped;
+
+        void scan(DataFile file) {
+            filesScanned++;
+            bytesScanned += file.length();
+        }
+
+        void skip(DataFile file) {
+            filesSkipped++;
+            bytesSkipped += file.length();
+        }
+
+        <T> QueryResult<T> result(List<T> rows) {
+            ScanReport report = new ScanReport(filesScanned, filesSkipped, bytesScanned, bytesSkipped);
+            System.out.println("🔎 Data skipping: " + report);
+            return new QueryResult<>(rows, report);
+        }
+    }
+}
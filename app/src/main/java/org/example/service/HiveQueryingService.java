@@ -1,14 +1,22 @@
 package org.example.service;
 
+import org.example.calcite.CalciteExplainer;
+import org.example.calcite.HourlyRollups;
+import org.example.hadoop.HourPartition;
+import org.example.hadoop.HourlyTermCounts;
+import org.example.hadoop.TweetColumnStatistics;
 import org.example.model.Tweet;
 
 import java.sql.*;
-import java.time.LocalDateTime;
-import java.time.ZoneOffset;
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Stream;
 
+import org.apache.calcite.jdbc.CalciteConnection;
+import org.apache.calcite.schema.SchemaPlus;
+import org.apache.calcite.tools.Frameworks;
 import org.apache.calcite.sql.*;
 import org.apache.calcite.sql.fun.SqlStdOperatorTable;
 import org.apache.calcite.sql.parser.SqlParserPos;
@@ -19,6 +27,20 @@ public class HiveQueryingService {
     private static final String HIVE_JDBC_URL = "jdbc:hive2://localhost:10000/default";
     private static final String HIVE_DRIVER = "org.apache.hive.jdbc.HiveDriver";
 
+    private final MetastoreCache metadataCache = new MetastoreCache(this, MetastoreCache.DEFAULT_REFRESH_INTERVAL);
+    private volatile long insertPartitionBufferBytes = 8L * 1024 * 1024;
+    private volatile long insertTotalBufferBytes = 64L * 1024 * 1024;
+    private volatile int insertParallelism = 4;
+    private volatile boolean maintainTermCounts;
+    private volatile boolean maintainHourlyRollups;
+
+    /**
+     * Cached table schemas and partition lists, kept in sync with DDL issued through this service
+     */
+    public MetastoreCache getMetadataCache() {
+        return metadataCache;
+    }
+
     public Connection getHiveConnection() throws SQLException, ClassNotFoundException {
         Class.forName(HIVE_DRIVER);
         
@@ -107,6 +129,8 @@ public class HiveQueryingService {
 
             stmt.execute(createTableQuery);
             System.out.println("✅ Tweets table created successfully");
+        } finally {
+            metadataCache.invalidate("tweets");
         }
     }
 
@@ -132,6 +156,8 @@ public class HiveQueryingService {
 
             stmt.execute(createTableQuery);
             System.out.println("✅ Users table created successfully");
+        } finally {
+            metadataCache.invalidate("users");
         }
     }
 
@@ -198,6 +224,40 @@ public class HiveQueryingService {
         return executeQuery(query, limit);
     }
 
+    /**
+     * Most used hashtags of tweets_partitioned in [from, toExclusive), summed from the per-hour
+     * counts written on ingest; only the partitions of the window are read
+     */
+    public List<Map<String, Object>> getTrendingHashtags(int limit, HourPartition from, HourPartition toExclusive)
+            throws SQLException, ClassNotFoundException {
+        return executeQuery(trendingTermsSql("hashtag_hourly_counts", "hashtag", "frequency", from, toExclusive), limit);
+    }
+
+    /**
+     * Most mentioned users of tweets_partitioned in [from, toExclusive), summed from the per-hour counts
+     */
+    public List<Map<String, Object>> getMostMentionedUsers(int limit, HourPartition from, HourPartition toExclusive)
+            throws SQLException, ClassNotFoundException {
+        return executeQuery(trendingTermsSql("mention_hourly_counts", "mention", "mention_count", from, toExclusive), limit);
+    }
+
+    static String trendingTermsSql(String table, String term, String count, HourPartition from, HourPartition toExclusive) {
+        // Partition columns only, so Hive prunes to the hours of the window
+        String hourKey = "(year * 1000000 + month * 10000 + day * 100 + hour)";
+        return String.format("""
+            SELECT %s, SUM(%s) AS %s
+            FROM %s
+            WHERE %s >= %d AND %s < %d
+            GROUP BY %s
+            ORDER BY %s DESC
+            LIMIT ?""",
+            term, count, count, table, hourKey, hourKey(from), hourKey, hourKey(toExclusive), term, count);
+    }
+
+    private static long hourKey(HourPartition partition) {
+        return partition.year() * 1_000_000L + partition.month() * 10_000L + partition.day() * 100L + partition.hour();
+    }
+
     public List<Map<String, Object>> getCelebrityEngagementStats() throws SQLException, ClassNotFoundException {
         String query = """
             SELECT 
@@ -247,29 +307,148 @@ public class HiveQueryingService {
 
 
     public void batchInsertTweets(List<Tweet> tweets) throws SQLException, ClassNotFoundException {
-        var partitionedTweets = tweets.stream().collect(Collectors.groupingBy(tweet -> {
-            LocalDateTime dt = LocalDateTime.ofEpochSecond(tweet.getTimestamp(), 0, ZoneOffset.UTC);
-            return String.format("%d/%d/%d/%d", dt.getYear(), dt.getMonthValue(), dt.getDayOfMonth(), dt.getHour());
-        }));
-        
-        System.out.println("📊 Inserting tweets into " + partitionedTweets.size() + " partitions using Calcite");
-        
-        try (var conn = getCalciteConnection()) {
-            for (var entry : partitionedTweets.entrySet()) {
-                var parts = entry.getKey().split("/");
-                int year = Integer.parseInt(parts[0]);
-                int month = Integer.parseInt(parts[1]);
-                int day = Integer.parseInt(parts[2]);
-                int hour = Integer.parseInt(parts[3]);
-                
-                insertTweetsToPartitionWithCalcite(conn, entry.getValue(), year, month, day, hour);
-                System.out.println("✅ Inserted " + entry.getValue().size() + " tweets into partition " + entry.getKey());
+        batchInsertTweets(tweets.stream());
+    }
+
+    /**
+     * Insert a stream of tweets into tweets_partitioned with bounded memory.
+     *
+     * Tweets are buffered per hourly partition up to {@link #setInsertPartitionBufferBytes};
+     * full partitions are inserted concurrently on {@link #setInsertParallelism} workers,
+     * each with its own Calcite connection, while later tweets are still being read.
+     * Batches of one partition are inserted in input order. With {@link #setMaintainTermCounts}
+     * the hashtag and mention counts of the inserted tweets are appended once all are in, and with
+     * {@link #setMaintainHourlyRollups} the rollups of every hour inserted into are recomputed.
+     */
+    public void batchInsertTweets(Stream<Tweet> tweets) throws SQLException, ClassNotFoundException {
+        Queue<Connection> connections = new ConcurrentLinkedQueue<>();
+        Set<HourPartition> partitions = ConcurrentHashMap.newKeySet();
+        Map<HourPartition, HourlyTermCounts> termCounts = new ConcurrentHashMap<>();
+        long start = System.nanoTime();
+
+        try (var loader = new PartitionedBatchLoader<HourPartition, Tweet>(
+                tweet -> HourPartition.ofEpochSecond(tweet.getTimestamp()),
+                HiveQueryingService::estimateBytes,
+                (partition, batch) -> {
+                    Connection conn = connections.poll();
+                    if (conn == null) {
+                        conn = getCalciteConnection();
+                    }
+                    try {
+                        insertTweetsToPartitionWithCalcite(conn, batch,
+                            partition.year(), partition.month(), partition.day(), partition.hour());
+                    } finally {
+                        connections.add(conn);
+                    }
+                    if (partitions.add(partition)) {
+                        // The dynamic-partition INSERT may have created it; let cached partition lists know
+                        metadataCache.partitionsAdded("tweets_partitioned", Set.of(partition));
+                    }
+                    if (maintainTermCounts) {
+                        HourlyTermCounts counts = new HourlyTermCounts();
+                        batch.forEach(counts::add);
+                        termCounts.merge(partition, counts, (current, added) -> {
+                            current.merge(added);
+                            return current;
+                        });
+                    }
+                    System.out.println("✅ Inserted " + batch.size() + " tweets into partition " + partition);
+                },
+                insertPartitionBufferBytes, insertTotalBufferBytes, insertParallelism)) {
+
+            Iterator<Tweet> iterator = tweets.iterator();
+            while (iterator.hasNext()) {
+                loader.add(iterator.next());
+            }
+            loader.finish();
+
+            System.out.printf("🎉 Batch insert completed for %d tweets in %d partitions using Calcite (%d batches, %.1f s, peak buffer %d KB)%n",
+                loader.getRecordsWritten(), partitions.size(), loader.getBatchesWritten(),
+                (System.nanoTime() - start) / 1e9, loader.getPeakBufferedBytes() / 1024);
+            if (maintainTermCounts) {
+                appendTermCounts(termCounts);
+            }
+            if (maintainHourlyRollups && !partitions.isEmpty()) {
+                refreshHourlyRollups(partitions);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Batch insert interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            if (e.getCause() instanceof ClassNotFoundException classNotFound) {
+                throw classNotFound;
+            }
+            throw new SQLException("Batch insert failed", e.getCause());
+        } finally {
+            for (Connection conn : connections) {
+                conn.close();
             }
         }
-        
-        System.out.println("🎉 Batch insert completed for " + tweets.size() + " total tweets using Calcite");
     }
-    
+
+    /**
+     * Bytes buffered per partition before its tweets are inserted
+     */
+    public void setInsertPartitionBufferBytes(long insertPartitionBufferBytes) {
+        this.insertPartitionBufferBytes = insertPartitionBufferBytes;
+    }
+
+    /**
+     * Upper bound on tweets held in memory by batchInsertTweets, buffered and in flight
+     */
+    public void setInsertTotalBufferBytes(long insertTotalBufferBytes) {
+        this.insertTotalBufferBytes = insertTotalBufferBytes;
+    }
+
+    /**
+     * Number of partitions inserted concurrently
+     */
+    public void setInsertParallelism(int insertParallelism) {
+        this.insertParallelism = insertParallelism;
+    }
+
+    /**
+     * Whether batchInsertTweets also appends to the per-hour hashtag and mention counts
+     * (default false); turn on once {@link #createTermCountTables} has run
+     */
+    public void setMaintainTermCounts(boolean maintainTermCounts) {
+        this.maintainTermCounts = maintainTermCounts;
+    }
+
+    /**
+     * Whether Calcite answers matching aggregates over tweets_partitioned from tweet_hourly_rollups
+     * (default false). Turning it on also makes batchInsertTweets refresh the rollups of the hours
+     * it inserts into; only turn it on once {@link #createHourlyRollupTable} has run and every
+     * other loader of tweets_partitioned refreshes the rollups too.
+     */
+    public void setMaintainHourlyRollups(boolean maintainHourlyRollups) {
+        this.maintainHourlyRollups = maintainHourlyRollups;
+    }
+
+    /**
+     * Rough heap footprint of a tweet, used for buffer accounting
+     */
+    static long estimateBytes(Tweet tweet) {
+        long bytes = 128;
+        bytes += 2L * length(tweet.getTweetId()) + 2L * length(tweet.getUserId()) + 2L * length(tweet.getUsername())
+            + 2L * length(tweet.getContent()) + 2L * length(tweet.getCelebrityCategory());
+        for (List<String> values : Arrays.asList(tweet.getHashtags(), tweet.getMentions())) {
+            if (values != null) {
+                for (String value : values) {
+                    bytes += 48 + 2L * length(value);
+                }
+            }
+        }
+        return bytes;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
     private void insertTweetsToPartitionWithCalcite(Connection conn, List<Tweet> tweets, 
                                                    int year, int month, int day, int hour) throws SQLException {
         for (Tweet tweet : tweets) {
@@ -370,6 +549,20 @@ public class HiveQueryingService {
     
     
     public void createPartitionedTweetsTable(String location) throws SQLException, ClassNotFoundException {
+        createPartitionedTweetsTable(location, 0);
+    }
+
+    /**
+     * Create tweets_partitioned bucketed by user_id and sorted by tweet_timestamp, so joins and
+     * aggregations by user can use bucket map joins and sort-merge joins without a shuffle.
+     * Load it with {@link org.example.hadoop.BucketedTweetWriter}; 0 buckets creates a plain partitioned table.
+     */
+    public void createPartitionedTweetsTable(String location, int buckets) throws SQLException, ClassNotFoundException {
+        String bucketing = buckets > 0
+            ? "CLUSTERED BY (user_id) SORTED BY (tweet_timestamp ASC) INTO " + buckets + " BUCKETS\n"
+            : "";
+        String properties = buckets > 0 ? "TBLPROPERTIES ('bucketing_version'='2')" : "";
+
         try (Connection conn = getHiveConnection();
              Statement stmt = conn.createStatement()) {
             
@@ -394,15 +587,299 @@ public class HiveQueryingService {
                     day INT,
                     hour INT
                 )
-                STORED AS PARQUET
+                %sSTORED AS PARQUET
                 LOCATION '%s'
-                """.formatted(location);
+                %s
+                """.formatted(bucketing, location, properties);
             
             stmt.execute(createTableQuery);
             System.out.println("✅ Partitioned tweets table created successfully");
+        } finally {
+            metadataCache.invalidate("tweets_partitioned");
         }
     }
     
+    /**
+     * Create tweets_stream over the JSON lines files that {@link org.example.hadoop.HDFSWriter} writes
+     * under {@code year=/month=/day=/hour=} directories. Columns keep the JSON field names, so the
+     * event time is {@code timestamp}. Register its partitions with a {@link PartitionRegistrar}.
+     */
+    public void createStreamedTweetsTable(String location) throws SQLException, ClassNotFoundException {
+        try (Connection conn = getHiveConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                CREATE EXTERNAL TABLE IF NOT EXISTS tweets_stream (
+                    tweet_id STRING,
+                    user_id STRING,
+                    username STRING,
+                    content STRING,
+                    `timestamp` BIGINT,
+                    hashtags ARRAY<STRING>,
+                    mentions ARRAY<STRING>,
+                    retweet_count INT,
+                    like_count INT,
+                    reply_count INT,
+                    is_celebrity BOOLEAN,
+                    celebrity_category STRING
+                )
+                PARTITIONED BY (year INT, month INT, day INT, hour INT)
+                ROW FORMAT SERDE 'org.apache.hadoop.hive.serde2.JsonSerDe'
+                STORED AS TEXTFILE
+                LOCATION '%s'
+                """.formatted(location));
+            System.out.println("✅ Streamed tweets table created successfully");
+        } finally {
+            metadataCache.invalidate("tweets_stream");
+        }
+    }
+
+    /**
+     * Create tweet_hourly_rollups: per hour, celebrity flag and category, the tweet count and the
+     * sum, min, max and sum of squares of like and retweet counts. With {@link #setMaintainHourlyRollups}
+     * Calcite answers matching aggregates over tweets_partitioned from it; keep it current with
+     * {@link #refreshHourlyRollups}.
+     */
+    public void createHourlyRollupTable(String location) throws SQLException, ClassNotFoundException {
+        StringJoiner columns = new StringJoiner(",\n    ");
+        columns.add("is_celebrity BOOLEAN").add("celebrity_category STRING").add(HourlyRollups.COUNT_COLUMN + " BIGINT");
+        for (String measure : HourlyRollups.MEASURES) {
+            columns.add(HourlyRollups.column(measure, HourlyRollups.SUM) + " BIGINT");
+            columns.add(HourlyRollups.column(measure, HourlyRollups.MIN) + " INT");
+            columns.add(HourlyRollups.column(measure, HourlyRollups.MAX) + " INT");
+            columns.add(HourlyRollups.column(measure, HourlyRollups.SUM_SQUARES) + " BIGINT");
+        }
+
+        try (Connection conn = getHiveConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS %s (
+                    %s
+                )
+                PARTITIONED BY (year INT, month INT, day INT, hour INT)
+                STORED AS PARQUET
+                LOCATION '%s'
+                """.formatted(HourlyRollups.ROLLUP_TABLE, columns, location));
+            System.out.println("✅ Hourly rollup table created successfully");
+        } finally {
+            metadataCache.invalidate(HourlyRollups.ROLLUP_TABLE);
+        }
+    }
+
+    /**
+     * Recompute the rollup rows of just the given hours from tweets_partitioned. Run it for
+     * newly loaded partitions so the rollups never need a full rebuild.
+     */
+    public void refreshHourlyRollups(Collection<HourPartition> partitions) throws SQLException, ClassNotFoundException {
+        List<String> statements = new ArrayList<>();
+        for (HourPartition partition : partitions) {
+            statements.add(hourlyRollupSql(partition));
+        }
+        executeStatements(statements);
+        metadataCache.partitionsAdded(HourlyRollups.ROLLUP_TABLE, Set.copyOf(partitions));
+        System.out.println("📊 Refreshed hourly rollups of " + partitions.size() + " partitions");
+    }
+
+    static String hourlyRollupSql(HourPartition partition) {
+        StringJoiner aggregates = new StringJoiner(", ");
+        aggregates.add("COUNT(*) AS " + HourlyRollups.COUNT_COLUMN);
+        for (String measure : HourlyRollups.MEASURES) {
+            aggregates.add("SUM(" + measure + ") AS " + HourlyRollups.column(measure, HourlyRollups.SUM));
+            aggregates.add("MIN(" + measure + ") AS " + HourlyRollups.column(measure, HourlyRollups.MIN));
+            aggregates.add("MAX(" + measure + ") AS " + HourlyRollups.column(measure, HourlyRollups.MAX));
+            aggregates.add("SUM(CAST(" + measure + " AS BIGINT) * " + measure + ") AS "
+                + HourlyRollups.column(measure, HourlyRollups.SUM_SQUARES));
+        }
+        return String.format("""
+            INSERT OVERWRITE TABLE %s PARTITION (%s)
+            SELECT is_celebrity, celebrity_category, %s
+            FROM %s
+            WHERE %s
+            GROUP BY is_celebrity, celebrity_category""",
+            HourlyRollups.ROLLUP_TABLE, partition.hiveSpec(), aggregates,
+            HourlyRollups.BASE_TABLE, partition.hiveSpec().replace(", ", " AND "));
+    }
+
+    /**
+     * Create hashtag_hourly_counts and mention_hourly_counts: per hour of tweets_partitioned, how
+     * often each hashtag and mention occurs. Filled on ingest through {@link #appendTermCounts}
+     * and {@link #replaceTermCounts}, and read by the windowed trending queries.
+     */
+    public void createTermCountTables(String location) throws SQLException, ClassNotFoundException {
+        try (Connection conn = getHiveConnection();
+             Statement stmt = conn.createStatement()) {
+            for (String[] table : new String[][]{
+                    {"hashtag_hourly_counts", "hashtag", "frequency"},
+                    {"mention_hourly_counts", "mention", "mention_count"}}) {
+                stmt.execute("""
+                    CREATE TABLE IF NOT EXISTS %s (
+                        %s STRING,
+                        %s BIGINT
+                    )
+                    PARTITIONED BY (year INT, month INT, day INT, hour INT)
+                    STORED AS PARQUET
+                    LOCATION '%s/%s'
+                    """.formatted(table[0], table[1], table[2], location, table[0]));
+            }
+            System.out.println("✅ Hashtag and mention count tables created successfully");
+        } finally {
+            metadataCache.invalidate("hashtag_hourly_counts");
+            metadataCache.invalidate("mention_hourly_counts");
+        }
+    }
+
+    /**
+     * Add the counts of newly inserted tweets; hours may receive several sets of counts, which
+     * the trending queries sum up
+     */
+    public void appendTermCounts(Map<HourPartition, HourlyTermCounts> counts) throws SQLException, ClassNotFoundException {
+        List<String> statements = new ArrayList<>();
+        counts.forEach((partition, hourCounts) -> statements.addAll(termCountSql(partition, hourCounts, false)));
+        executeStatements(statements);
+        termCountPartitionsAdded(counts.keySet());
+        System.out.println("#️⃣ Added hashtag and mention counts of " + counts.size() + " partitions");
+    }
+
+    /**
+     * Replace the counts of hours that were rewritten as a whole, so reruns do not count twice
+     */
+    public void replaceTermCounts(Map<HourPartition, HourlyTermCounts> counts) throws SQLException, ClassNotFoundException {
+        List<String> statements = new ArrayList<>();
+        counts.forEach((partition, hourCounts) -> statements.addAll(termCountSql(partition, hourCounts, true)));
+        executeStatements(statements);
+        termCountPartitionsAdded(counts.keySet());
+        System.out.println("#️⃣ Replaced hashtag and mention counts of " + counts.size() + " partitions");
+    }
+
+    private void termCountPartitionsAdded(Set<HourPartition> partitions) {
+        metadataCache.partitionsAdded("hashtag_hourly_counts", partitions);
+        metadataCache.partitionsAdded("mention_hourly_counts", partitions);
+    }
+
+    static List<String> termCountSql(HourPartition partition, HourlyTermCounts counts, boolean replace) {
+        List<String> statements = new ArrayList<>();
+        statements.addAll(termCountSql("hashtag_hourly_counts", partition, counts.getHashtagCounts(), replace));
+        statements.addAll(termCountSql("mention_hourly_counts", partition, counts.getMentionCounts(), replace));
+        return statements;
+    }
+
+    private static List<String> termCountSql(String table, HourPartition partition, Map<String, Long> counts, boolean replace) {
+        List<String> statements = new ArrayList<>();
+        if (replace) {
+            statements.add("ALTER TABLE " + table + " DROP IF EXISTS PARTITION (" + partition.hiveSpec() + ")");
+        }
+        if (!counts.isEmpty()) {
+            StringJoiner rows = new StringJoiner(", ");
+            new TreeMap<>(counts).forEach((term, count) ->
+                rows.add("('" + term.replace("\\", "\\\\").replace("'", "\\'") + "', " + count + ")"));
+            statements.add("INSERT INTO TABLE " + table + " PARTITION (" + partition.hiveSpec() + ") VALUES " + rows);
+        }
+        return statements;
+    }
+
+    /**
+     * Register many partitions with a single metastore round-trip:
+     * ALTER TABLE ... ADD IF NOT EXISTS PARTITION (...) LOCATION '...' PARTITION (...) LOCATION '...'
+     */
+    public void addPartitions(String table, Map<HourPartition, String> locations) throws SQLException, ClassNotFoundException {
+        if (locations.isEmpty()) {
+            return;
+        }
+
+        StringBuilder alterQuery = new StringBuilder("ALTER TABLE ").append(table).append(" ADD IF NOT EXISTS");
+        for (var entry : locations.entrySet()) {
+            alterQuery.append(String.format("%n  PARTITION (%s) LOCATION '%s'",
+                entry.getKey().hiveSpec(), entry.getValue().replace("'", "\\'")));
+        }
+
+        executeStatements(List.of(alterQuery.toString()));
+        metadataCache.partitionsAdded(table, locations.keySet());
+        System.out.println("✅ Registered " + locations.size() + " partitions of " + table + " in one batch");
+    }
+
+    /**
+     * Push statistics collected while writing partitions, so the optimizer gets row counts,
+     * NDVs and min/max without an ANALYZE scan
+     */
+    public void updatePartitionStatistics(String table, Map<HourPartition, TweetColumnStatistics> statistics)
+            throws SQLException, ClassNotFoundException {
+        List<String> statements = new ArrayList<>();
+        for (var entry : statistics.entrySet()) {
+            String partition = "ALTER TABLE " + table + " PARTITION (" + entry.getKey().hiveSpec() + ")";
+            statements.add(partition + " UPDATE STATISTICS SET " + statisticsProperties(entry.getValue().tableStatistics()));
+            for (var column : entry.getValue().columnStatistics().entrySet()) {
+                statements.add(partition + " UPDATE STATISTICS FOR COLUMN " + column.getKey()
+                    + " SET " + statisticsProperties(column.getValue()));
+            }
+        }
+        executeStatements(statements);
+        System.out.println("📈 Updated statistics of " + statistics.size() + " partitions of " + table);
+    }
+
+    /**
+     * Compute basic and column statistics for the given partitions only, for data we did not write ourselves
+     */
+    public void analyzePartitions(String table, Collection<HourPartition> partitions) throws SQLException, ClassNotFoundException {
+        List<String> statements = new ArrayList<>();
+        for (HourPartition partition : partitions) {
+            String analyze = "ANALYZE TABLE " + table + " PARTITION (" + partition.hiveSpec() + ") COMPUTE STATISTICS";
+            statements.add(analyze);
+            statements.add(analyze + " FOR COLUMNS");
+        }
+        executeStatements(statements);
+        System.out.println("📈 Analyzed " + partitions.size() + " partitions of " + table);
+    }
+
+    private static String statisticsProperties(Map<String, String> values) {
+        StringJoiner properties = new StringJoiner(", ", "(", ")");
+        values.forEach((key, value) -> properties.add("'" + key + "'='" + value + "'"));
+        return properties.toString();
+    }
+
+    /**
+     * Columns and partition columns of a table, straight from the metastore;
+     * use {@link #getMetadataCache()} for repeated lookups
+     */
+    public MetastoreCache.TableSchema describeTable(String table) throws SQLException, ClassNotFoundException {
+        List<MetastoreCache.Column> columns = new ArrayList<>();
+        List<MetastoreCache.Column> partitionColumns = new ArrayList<>();
+        boolean inPartitionSection = false;
+        for (Map<String, Object> row : executeQuery("DESCRIBE " + table)) {
+            String name = Objects.toString(row.get("col_name"), "").trim();
+            String type = Objects.toString(row.get("data_type"), "").trim();
+            if (name.startsWith("# Partition Information")) {
+                inPartitionSection = true;
+            } else if (!name.isEmpty() && !name.startsWith("#")) {
+                (inPartitionSection ? partitionColumns : columns).add(new MetastoreCache.Column(name, type));
+            }
+        }
+        // DESCRIBE lists partition columns in both sections
+        columns.removeIf(column -> partitionColumns.stream().anyMatch(p -> p.name().equals(column.name())));
+        return new MetastoreCache.TableSchema(table, columns, partitionColumns);
+    }
+
+    /**
+     * Partition names of a table (e.g. {@code year=2024/month=8/day=1/hour=13}), straight from the metastore
+     */
+    public List<String> showPartitions(String table) throws SQLException, ClassNotFoundException {
+        List<String> names = new ArrayList<>();
+        for (Map<String, Object> row : executeQuery("SHOW PARTITIONS " + table)) {
+            names.add(Objects.toString(row.values().iterator().next()));
+        }
+        return names;
+    }
+
+    void executeStatements(List<String> statements) throws SQLException, ClassNotFoundException {
+        if (statements.isEmpty()) {
+            return;
+        }
+        try (Connection conn = getHiveConnection();
+             Statement stmt = conn.createStatement()) {
+            for (String sql : statements) {
+                stmt.execute(sql);
+            }
+        }
+    }
+
     // Apache Calcite integration methods
     public Connection getCalciteConnection() throws SQLException, ClassNotFoundException {
         Class.forName("org.apache.calcite.jdbc.Driver");
@@ -446,6 +923,9 @@ public class HiveQueryingService {
             try {
                 System.out.println("🔗 Attempting Calcite connection (attempt " + attempt + "/" + maxRetries + ")...");
                 Connection conn = DriverManager.getConnection("jdbc:calcite:", props);
+                // Swap in the shared schema so table metadata isn't re-introspected per connection
+                conn.unwrap(CalciteConnection.class).getRootSchema()
+                    .add("hive", metadataCache.calciteSchema(HIVE_JDBC_URL, HIVE_DRIVER, maintainHourlyRollups));
                 System.out.println("✅ Calcite connection successful!");
                 return conn;
                 
@@ -513,7 +993,15 @@ public class HiveQueryingService {
     }
     
     public List<Tweet> getMostLikedTweetsWithCalcite(int limit) throws SQLException, ClassNotFoundException {
-        String sql = String.format("""
+        return queryTweetsWithCalculite(mostLikedTweetsSql(limit));
+    }
+
+    public String explainMostLikedTweetsWithCalcite(int limit) {
+        return explainCalcite(mostLikedTweetsSql(limit));
+    }
+
+    static String mostLikedTweetsSql(int limit) {
+        return String.format("""
             SELECT tweet_id, user_id, username, content, tweet_timestamp,
                    like_count, retweet_count, reply_count, is_celebrity,
                    celebrity_category, hashtags, mentions
@@ -522,12 +1010,17 @@ public class HiveQueryingService {
             ORDER BY like_count DESC
             LIMIT %d
             """, limit);
-        
-        return queryTweetsWithCalculite(sql);
     }
     
     public List<Map<String, Object>> getAdvancedAnalyticsWithCalcite() throws SQLException, ClassNotFoundException {
-        String sql = """
+        return executeCalciteQuery(ADVANCED_ANALYTICS_SQL);
+    }
+
+    public String explainAdvancedAnalyticsWithCalcite() {
+        return explainCalcite(ADVANCED_ANALYTICS_SQL);
+    }
+
+    static final String ADVANCED_ANALYTICS_SQL = """
             SELECT 
                 celebrity_category,
                 COUNT(*) as tweet_count,
@@ -542,25 +1035,46 @@ public class HiveQueryingService {
             HAVING COUNT(*) > 5
             ORDER BY avg_likes DESC
             """;
-        
-        return executeCalciteQuery(sql);
-    }
     
     public List<Map<String, Object>> getTimeBasedAnalytics(int year, int month) throws SQLException, ClassNotFoundException {
-        String sql = String.format("""
+        // Prune from partition metadata: a month without partitions needs no query at all
+        HourPartition monthStart = new HourPartition(year, month, 1, 0);
+        HourPartition nextMonth = month == 12
+            ? new HourPartition(year + 1, 1, 1, 0) : new HourPartition(year, month + 1, 1, 0);
+        if (!metadataCache.hasPartitionsInRange("tweets_partitioned", monthStart.startEpochSecond(), nextMonth.startEpochSecond())) {
+            return new ArrayList<>();
+        }
+        return executeCalciteQuery(timeBasedAnalyticsSql(year, month));
+    }
+
+    public String explainTimeBasedAnalytics(int year, int month) {
+        return explainCalcite(timeBasedAnalyticsSql(year, month));
+    }
+
+    static String timeBasedAnalyticsSql(int year, int month) {
+        return String.format("""
             SELECT 
-                day,
-                hour,
+                `day`,
+                `hour`,
                 COUNT(*) as tweet_count,
                 AVG(like_count) as avg_likes,
                 SUM(CASE WHEN is_celebrity = true THEN 1 ELSE 0 END) as celebrity_tweets
             FROM hive.tweets_partitioned
-            WHERE year = %d AND month = %d
-            GROUP BY day, hour
-            ORDER BY day, hour
+            WHERE `year` = %d AND `month` = %d
+            GROUP BY `day`, `hour`
+            ORDER BY `day`, `hour`
             """, year, month);
-        
-        return executeCalciteQuery(sql);
+    }
+
+    /**
+     * Calcite's physical plan for a query over the Hive schema. When everything is pushed down,
+     * the plan is a single JdbcToEnumerableConverter over Jdbc* operators and only the final
+     * result crosses the JDBC boundary.
+     */
+    public String explainCalcite(String sql) {
+        SchemaPlus rootSchema = Frameworks.createRootSchema(true);
+        rootSchema.add("hive", metadataCache.calciteSchema(HIVE_JDBC_URL, HIVE_DRIVER, maintainHourlyRollups));
+        return CalciteExplainer.explain(rootSchema, sql);
     }
     
     private List<Map<String, Object>> executeCalciteQuery(String sql) throws SQLException, ClassNotFoundException {
@@ -590,6 +1104,7 @@ public class HiveQueryingService {
     // Hybrid approach: Use both JDBC and Calcite
     public void performCompleteAnalysis() throws SQLException, ClassNotFoundException {
         System.out.println("🔍 Starting comprehensive tweet analysis...");
+        metadataCache.warmUp();
         
         // Use traditional JDBC for simple queries
         var mostLiked = getMostLikedTweets(10);
@@ -0,0 +1,216 @@
+package org.example.service;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
+import org.example.hadoop.HDFSReader;
+import org.example.hadoop.JsonLineScanner;
+import org.example.hadoop.Sidecars;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Exact aggregations over the JSON lines files under a base path that read only the fields a
+ * query touches. Each line goes through a {@link JsonLineScanner} instead of being bound into
+ * a model object, and rows are grouped on the raw bytes of the group value, so only the first
+ * line of each group decodes a string.
+ */
+public class JsonLinesAnalyticsService {
+    private final FileSystem fileSystem;
+    private final Path basePath;
+    private final HDFSReader reader;
+
+    /**
+     * Rows of one group; sum, min and max are over the rows where the value field is set
+     */
+    public record Aggregate(String group, long rows, long values, long sum, long min, long max) {
+        public double average() {
+            return values == 0 ? 0 : (double) sum / values;
+        }
+    }
+
+    public record AggregateResult(List<Aggregate> rows, int filesScanned, long linesScanned, double millis) {
+    }
+
+    private record Scanned(int files, long lines) {
+    }
+
+    /**
+     * Running totals of one raw group value, found in a HashMap through a probe over the scanner
+     */
+    private static final class Accumulator {
+        private final byte[] raw;
+        private final int hash;
+        private final String group;
+        private long rows;
+        private long values;
+        private long sum;
+        private long min = Long.MAX_VALUE;
+        private long max = Long.MIN_VALUE;
+
+        Accumulator(byte[] raw, String group) {
+            this.raw = raw;
+            this.hash = Arrays.hashCode(raw);
+            this.group = group;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Accumulator accumulator && Arrays.equals(raw, accumulator.raw);
+        }
+    }
+
+    /**
+     * Lookup key matching the group value of the line the scanner is on, without copying it
+     */
+    private static final class Probe {
+        private final JsonLineScanner scanner;
+        private final int field;
+        private int hash;
+
+        Probe(JsonLineScanner scanner, int field) {
+            this.scanner = scanner;
+            this.field = field;
+        }
+
+        Probe reset() {
+            hash = scanner.rawHash(field);
+            return this;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Accumulator accumulator)) {
+                return false;
+            }
+            return accumulator.raw == null ? scanner.rawValue(field) == null : scanner.rawEquals(field, accumulator.raw);
+        }
+    }
+
+    public JsonLinesAnalyticsService(FileSystem fileSystem, String basePath) {
+        this.fileSystem = fileSystem;
+        this.basePath = new Path(basePath);
+        this.reader = new HDFSReader(fileSystem);
+    }
+
+    /**
+     * Tweets, total and average like_count per celebrity_category
+     */
+    public AggregateResult getLikesByCategory() throws IOException {
+        return aggregate("celebrity_category", "like_count");
+    }
+
+    /**
+     * Count rows and sum, min and max a numeric field per value of a group field, largest groups
+     * first. A null groupField puts every row in one group; rows where the group field is
+     * missing or null form the null group.
+     */
+    public AggregateResult aggregate(String groupField, String valueField) throws IOException {
+        long start = System.nanoTime();
+        List<String> fields = groupField == null ? List.of(valueField) : List.of(valueField, groupField);
+        JsonLineScanner scanner = new JsonLineScanner(fields);
+        Probe probe = groupField == null ? null : new Probe(scanner, 1);
+        Map<Object, Accumulator> groups = new HashMap<>();
+        Accumulator all = new Accumulator(null, null);
+
+        Scanned scanned = scanFiles(scanner, line -> {
+            Accumulator accumulator = probe == null ? all : groups.get(probe.reset());
+            if (accumulator == null) {
+                accumulator = new Accumulator(scanner.rawValue(1), scanner.getString(1));
+                groups.put(accumulator, accumulator);
+            }
+            accumulator.rows++;
+            if (scanner.isPresent(0)) {
+                long value = scanner.getLong(0, 0);
+                accumulator.values++;
+                accumulator.sum += value;
+                accumulator.min = Math.min(accumulator.min, value);
+                accumulator.max = Math.max(accumulator.max, value);
+            }
+        });
+
+        List<Aggregate> rows = groupField == null
+            ? (scanned.lines() == 0 ? List.of() : List.of(toAggregate(null, List.of(all))))
+            : mergeByGroup(groups.values());
+        AggregateResult result = new AggregateResult(rows, scanned.files(), scanned.lines(), (System.nanoTime() - start) / 1e6);
+        System.out.printf("🔎 Scanned %d lines in %d files for %s in %.1f ms%n",
+            result.linesScanned(), result.filesScanned(), fields, result.millis());
+        return result;
+    }
+
+    /**
+     * Run a custom aggregation: the visitor sees the scanner positioned on every line of every
+     * JSON lines file. Returns the number of lines scanned.
+     */
+    public long scan(List<String> fields, Consumer<JsonLineScanner> visitor) throws IOException {
+        return scanFiles(new JsonLineScanner(fields), visitor).lines();
+    }
+
+    private Scanned scanFiles(JsonLineScanner scanner, Consumer<JsonLineScanner> visitor) throws IOException {
+        if (!fileSystem.exists(basePath)) {
+            return new Scanned(0, 0);
+        }
+        int files = 0;
+        long lines = 0;
+        RemoteIterator<LocatedFileStatus> iterator = fileSystem.listFiles(basePath, true);
+        while (iterator.hasNext()) {
+            Path path = iterator.next().getPath();
+            if (Sidecars.isDataFile(path.getName()) && path.getName().endsWith(".json")) {
+                lines += reader.scanJsonLines(path.toString(), scanner, visitor);
+                files++;
+            }
+        }
+        return new Scanned(files, lines);
+    }
+
+    /**
+     * The same value may be spelled differently (e.g. escaped) in the raw bytes
+     */
+    private static List<Aggregate> mergeByGroup(Iterable<Accumulator> accumulators) {
+        Map<String, List<Accumulator>> byGroup = new HashMap<>();
+        for (Accumulator accumulator : accumulators) {
+            byGroup.computeIfAbsent(accumulator.group, group -> new ArrayList<>()).add(accumulator);
+        }
+        List<Aggregate> rows = new ArrayList<>();
+        byGroup.forEach((group, parts) -> rows.add(toAggregate(group, parts)));
+        rows.sort(Comparator.comparingLong(Aggregate::rows).reversed()
+            .thenComparing(Aggregate::group, Comparator.nullsLast(Comparator.naturalOrder())));
+        return rows;
+    }
+
+    private static Aggregate toAggregate(String group, List<Accumulator> parts) {
+        long rows = 0;
+        long values = 0;
+        long sum = 0;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (Accumulator part : parts) {
+            rows += part.rows;
+            values += part.values;
+            sum += part.sum;
+            min = Math.min(min, part.min);
+            max = Math.max(max, part.max);
+        }
+        return values == 0
+            ? new Aggregate(group, rows, 0, 0, 0, 0)
+            : new Aggregate(group, rows, values, sum, min, max);
+    }
+}
@@ -0,0 +1,223 @@
+package org.example.service;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.apache.calcite.adapter.jdbc.JdbcSchema;
+import org.apache.calcite.jdbc.CalciteSchema;
+import org.apache.calcite.schema.SchemaPlus;
+import org.example.calcite.HiveDialect;
+import org.example.calcite.HiveJdbcSchemaFactory;
+import org.example.hadoop.HourPartition;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process cache of Hive table schemas and partition lists.
+ *
+ * Entries are loaded from HiveServer2 on first use and refreshed in the background
+ * once they are older than the refresh interval; readers keep getting the cached
+ * value while a refresh is in flight. DDL and partition registration issued through
+ * {@link HiveQueryingService} update or invalidate the affected table right away.
+ *
+ * The cache also holds one Calcite {@link JdbcSchema} shared by all Calcite
+ * connections, so table metadata is introspected once instead of per connection.
+ */
+public class MetastoreCache {
+    public static final Duration DEFAULT_REFRESH_INTERVAL = Duration.ofMinutes(5);
+    public static final List<String> CACHED_TABLES = List.of("tweets", "tweets_partitioned", "users");
+
+    private static final Comparator<HourPartition> PARTITION_ORDER = Comparator.comparingLong(HourPartition::startEpochSecond);
+
+    public record Column(String name, String type) {
+    }
+
+    public record TableSchema(String table, List<Column> columns, List<Column> partitionColumns) {
+        public boolean isPartitioned() {
+            return !partitionColumns.isEmpty();
+        }
+    }
+
+    private final HiveQueryingService hiveService;
+    private final LoadingCache<String, TableSchema> schemas;
+    private final LoadingCache<String, NavigableSet<HourPartition>> partitions;
+    private final AtomicLong metastoreCalls = new AtomicLong();
+    private volatile JdbcSchema calciteSchema;
+    private volatile boolean calciteSchemaUsesRollups;
+
+    public MetastoreCache(HiveQueryingService hiveService, Duration refreshInterval) {
+        this.hiveService = hiveService;
+        ExecutorService refresher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metastore-cache-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.schemas = CacheBuilder.newBuilder()
+            .refreshAfterWrite(refreshInterval.toMillis(), TimeUnit.MILLISECONDS)
+            .build(CacheLoader.asyncReloading(CacheLoader.from(this::loadSchema), refresher));
+        this.partitions = CacheBuilder.newBuilder()
+            .refreshAfterWrite(refreshInterval.toMillis(), TimeUnit.MILLISECONDS)
+            .build(CacheLoader.asyncReloading(CacheLoader.from(this::loadPartitions), refresher));
+    }
+
+    public TableSchema getSchema(String table) throws SQLException {
+        return get(schemas, table);
+    }
+
+    /**
+     * Hourly partitions of a table in time order; empty for unpartitioned tables
+     */
+    public NavigableSet<HourPartition> getPartitions(String table) throws SQLException {
+        return get(partitions, table);
+    }
+
+    /**
+     * Partitions overlapping [fromEpochSecond, toEpochSecond), answered from the cache
+     */
+    public NavigableSet<HourPartition> getPartitionsInRange(String table, long fromEpochSecond, long toEpochSecond)
+            throws SQLException {
+        NavigableSet<HourPartition> result = new TreeSet<>(PARTITION_ORDER);
+        for (HourPartition partition : getPartitions(table)) {
+            long start = partition.startEpochSecond();
+            if (start < toEpochSecond && start + 3600 > fromEpochSecond) {
+                result.add(partition);
+            }
+        }
+        return Collections.unmodifiableNavigableSet(result);
+    }
+
+    /**
+     * Whether any partition overlaps [fromEpochSecond, toEpochSecond). A cached hit is trusted:
+     * if the partition was dropped elsewhere, the caller merely runs a query that finds nothing.
+     * A miss is confirmed with a fresh metastore listing, since the cache may not yet know
+     * partitions added by other processes, so only a range that is really empty is pruned.
+     */
+    public boolean hasPartitionsInRange(String table, long fromEpochSecond, long toEpochSecond) throws SQLException {
+        if (!getPartitionsInRange(table, fromEpochSecond, toEpochSecond).isEmpty()) {
+            return true;
+        }
+        partitions.invalidate(table);
+        return !getPartitionsInRange(table, fromEpochSecond, toEpochSecond).isEmpty();
+    }
+
+    /**
+     * Load all known tables ahead of the first query
+     */
+    public void warmUp() throws SQLException {
+        for (String table : CACHED_TABLES) {
+            if (getSchema(table).isPartitioned()) {
+                getPartitions(table);
+            }
+        }
+    }
+
+    /**
+     * Record partitions we registered ourselves without another metastore round-trip
+     */
+    public void partitionsAdded(String table, Set<HourPartition> added) {
+        partitions.asMap().computeIfPresent(table, (key, current) -> {
+            NavigableSet<HourPartition> merged = new TreeSet<>(current);
+            merged.addAll(added);
+            return Collections.unmodifiableNavigableSet(merged);
+        });
+    }
+
+    /**
+     * Drop everything cached about a table after it was created, dropped or altered
+     */
+    public void invalidate(String table) {
+        schemas.invalidate(table);
+        partitions.invalidate(table);
+        calciteSchema = null;
+    }
+
+    public void invalidateAll() {
+        schemas.invalidateAll();
+        partitions.invalidateAll();
+        calciteSchema = null;
+    }
+
+    /**
+     * Number of metastore lookups made so far, for monitoring cache effectiveness
+     */
+    public long getMetastoreCalls() {
+        return metastoreCalls.get();
+    }
+
+    /**
+     * The shared Calcite schema for Hive; JdbcSchema caches its table list and row types,
+     * so reusing one instance avoids DatabaseMetaData calls on every new connection.
+     * Rebuilt when asked for with a different rollup setting.
+     */
+    JdbcSchema calciteSchema(String jdbcUrl, String driver, boolean useHourlyRollups) {
+        JdbcSchema schema = calciteSchema;
+        if (schema == null || calciteSchemaUsesRollups != useHourlyRollups) {
+            synchronized (this) {
+                schema = calciteSchema;
+                if (schema == null || calciteSchemaUsesRollups != useHourlyRollups) {
+                    SchemaPlus parent = CalciteSchema.createRootSchema(false).plus();
+                    schema = HiveJdbcSchemaFactory.create(parent, "hive", JdbcSchema.dataSource(jdbcUrl, driver, "", ""),
+                        HiveDialect.DEFAULT, null, "default", useHourlyRollups);
+                    calciteSchemaUsesRollups = useHourlyRollups;
+                    calciteSchema = schema;
+                }
+            }
+        }
+        return schema;
+    }
+
+    private TableSchema loadSchema(String table) {
+        metastoreCalls.incrementAndGet();
+        try {
+            return hiveService.describeTable(table);
+        } catch (SQLException | ClassNotFoundException e) {
+            throw new MetastoreException(e);
+        }
+    }
+
+    private NavigableSet<HourPartition> loadPartitions(String table) {
+        NavigableSet<HourPartition> result = new TreeSet<>(PARTITION_ORDER);
+        try {
+            if (getSchema(table).isPartitioned()) {
+                metastoreCalls.incrementAndGet();
+                for (String name : hiveService.showPartitions(table)) {
+                    result.add(HourPartition.parse(name));
+                }
+            }
+        } catch (SQLException | ClassNotFoundException e) {
+            throw new MetastoreException(e);
+        }
+        return Collections.unmodifiableNavigableSet(result);
+    }
+
+    private static <V> V get(LoadingCache<String, V> cache, String table) throws SQLException {
+        try {
+            return cache.get(table);
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            Throwable cause = e.getCause() instanceof MetastoreException ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            throw new SQLException("Failed to load metadata for " + table, cause);
+        }
+    }
+
+    private static class MetastoreException extends RuntimeException {
+        MetastoreException(Exception cause) {
+            super(cause);
+        }
+    }
+}
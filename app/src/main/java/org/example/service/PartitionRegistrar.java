@@ -0,0 +1,200 @@
+package org.example.service;
+
+import org.apache.hadoop.fs.Path;
+import org.example.hadoop.HourPartition;
+import org.example.hadoop.PartitionCommitListener;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registers the partitions an {@link org.example.hadoop.HDFSWriter} commits with a Hive table,
+ * so new data becomes queryable without a directory-walking {@code MSCK REPAIR TABLE}.
+ *
+ * Commits only enqueue the partition and mark its hour dirty; {@link #flush()} sends every
+ * partition not yet registered in one {@code ALTER TABLE ... ADD IF NOT EXISTS PARTITION}
+ * statement and then computes statistics, and optionally hourly rollups, for every registered
+ * hour that received files since the last flush. Streaming writers commit many files per hour,
+ * so later files of an already registered hour still refresh its statistics.
+ * Call {@link #start} to flush on a fixed interval in the background.
+ *
+ * HDFSWriter writes JSON lines, so point the registrar at a JSON table such as the one created by
+ * {@link HiveQueryingService#createStreamedTweetsTable}, not at the Parquet {@code tweets_partitioned}.
+ *
+ * Usage:
+ * <pre>
+ * hiveService.createStreamedTweetsTable(basePath + "/tweets");
+ * PartitionRegistrar registrar = new PartitionRegistrar(hiveService, "tweets_stream", "tweets");
+ * hdfsWriter.addCommitListener(registrar);
+ * registrar.start(5, TimeUnit.SECONDS);
+ * </pre>
+ */
+public class PartitionRegistrar implements PartitionCommitListener, AutoCloseable {
+    private final HiveQueryingService hiveService;
+    private final String table;
+    private final String dataType;
+
+    private final Map<HourPartition, String> pending = new ConcurrentHashMap<>();
+    private final Set<HourPartition> registered = ConcurrentHashMap.newKeySet();
+    private final Set<HourPartition> dirty = ConcurrentHashMap.newKeySet();
+    private volatile boolean analyzeNewPartitions = true;
+    private final Set<HourPartition> staleRollups = ConcurrentHashMap.newKeySet();
+    private volatile boolean refreshRollups;
+    private ScheduledExecutorService scheduler;
+
+    public PartitionRegistrar(HiveQueryingService hiveService, String table, String dataType) {
+        this.hiveService = hiveService;
+        this.table = table;
+        this.dataType = dataType;
+    }
+
+    @Override
+    public void partitionCommitted(String dataType, HourPartition partition, Path dataFile) {
+        if (!this.dataType.equals(dataType)) {
+            return;
+        }
+        if (!registered.contains(partition)) {
+            pending.putIfAbsent(partition, dataFile.getParent().toUri().getPath());
+        }
+        dirty.add(partition);
+    }
+
+    /**
+     * Register all pending partitions in one batch; on failure they stay pending for the next flush.
+     * Then refresh statistics and rollups of every registered hour with new files; rollups that
+     * could not be refreshed are retried on every flush.
+     *
+     * @return number of partitions registered
+     */
+    public synchronized int flush() throws SQLException, ClassNotFoundException {
+        Map<HourPartition, String> batch = new LinkedHashMap<>();
+        for (var entry : pending.entrySet()) {
+            if (!registered.contains(entry.getKey())) {
+                batch.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            hiveService.addPartitions(table, batch);
+            registered.addAll(batch.keySet());
+            batch.keySet().forEach(pending::remove);
+        }
+
+        // Unmark before analyzing: a file committed after this point marks its hour dirty again
+        Set<HourPartition> changed = new LinkedHashSet<>();
+        for (HourPartition partition : Set.copyOf(dirty)) {
+            if (registered.contains(partition)) {
+                dirty.remove(partition);
+                changed.add(partition);
+            }
+        }
+        if (!changed.isEmpty()) {
+            if (refreshRollups) {
+                staleRollups.addAll(changed);
+            }
+            if (analyzeNewPartitions) {
+                // Only the changed partitions are analyzed; missing stats are not worth failing registration over
+                try {
+                    hiveService.analyzePartitions(table, changed);
+                } catch (SQLException e) {
+                    System.err.println("⚠️  Failed to compute statistics for changed partitions of " + table + ": " + e.getMessage());
+                }
+            }
+        }
+
+        if (!staleRollups.isEmpty()) {
+            // Calcite answers from the rollups, so hours missing there must not be forgotten
+            Set<HourPartition> refresh = Set.copyOf(staleRollups);
+            try {
+                hiveService.refreshHourlyRollups(refresh);
+                staleRollups.removeAll(refresh);
+            } catch (SQLException e) {
+                System.err.println("⚠️  Failed to refresh hourly rollups of " + refresh.size() + " partitions of " + table
+                    + ", will retry: " + e.getMessage());
+            }
+        }
+        return batch.size();
+    }
+
+    /**
+     * Whether to run ANALYZE on partitions with new files (default true); turn off when the
+     * writer pushes statistics itself via {@link HiveQueryingService#updatePartitionStatistics}
+     */
+    public void setAnalyzeNewPartitions(boolean analyzeNewPartitions) {
+        this.analyzeNewPartitions = analyzeNewPartitions;
+    }
+
+    /**
+     * Whether to recompute the hourly rollups of partitions with new files (default false);
+     * rollups are built from tweets_partitioned, so only turn this on for a registrar of that table
+     */
+    public void setRefreshRollups(boolean refreshRollups) {
+        this.refreshRollups = refreshRollups;
+    }
+
+    /**
+     * Flush in the background every interval until {@link #close()}
+     */
+    public synchronized void start(long interval, TimeUnit unit) {
+        if (scheduler != null) {
+            throw new IllegalStateException("Partition registrar for " + table + " already started");
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "partition-registrar-" + table);
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (Exception e) {
+                System.err.println("⚠️  Failed to register partitions of " + table + ": " + e.getMessage());
+            }
+        }, interval, interval, unit);
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public Set<HourPartition> getRegisteredPartitions() {
+        return Set.copyOf(registered);
+    }
+
+    /**
+     * Hours with files committed since their statistics were last refreshed
+     */
+    public Set<HourPartition> getDirtyPartitions() {
+        return Set.copyOf(dirty);
+    }
+
+    /**
+     * Registered partitions whose hourly rollups still need to be refreshed
+     */
+    public Set<HourPartition> getStaleRollups() {
+        return Set.copyOf(staleRollups);
+    }
+
+    /**
+     * Stop background flushing and register whatever is still pending
+     */
+    @Override
+    public void close() throws SQLException, ClassNotFoundException {
+        ScheduledExecutorService executor;
+        synchronized (this) {
+            executor = scheduler;
+            scheduler = null;
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        flush();
+    }
+}
@@ -0,0 +1,188 @@
+package org.example.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Groups a stream of records by partition and hands full batches to a sink on a
+ * bounded worker pool.
+ *
+ * Each partition buffers records until it reaches the per-partition byte budget; the
+ * batch is then written in the background while the producer keeps going. Batches of
+ * the same partition are written one after another in input order, different
+ * partitions are written concurrently. Buffered plus in-flight bytes never exceed the
+ * total budget: when it is reached the largest buffer is flushed early and
+ * {@link #add} blocks until a write completes, so heap use is bounded by the budget
+ * rather than by the input size.
+ *
+ * {@link #add} must be called from a single producer thread.
+ */
+public class PartitionedBatchLoader<K, T> implements AutoCloseable {
+
+    @FunctionalInterface
+    public interface BatchSink<K, T> {
+        void write(K partition, List<T> batch) throws Exception;
+    }
+
+    private final Function<T, K> partitioner;
+    private final ToLongFunction<T> sizer;
+    private final BatchSink<K, T> sink;
+    private final long partitionBudgetBytes;
+    private final long totalBudgetBytes;
+    private final ExecutorService executor;
+
+    private final Map<K, Buffer<T>> buffers = new HashMap<>();
+    private final Map<K, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+    private final AtomicLong reservedBytes = new AtomicLong();
+    private final AtomicLong peakReservedBytes = new AtomicLong();
+    private final AtomicLong batchesWritten = new AtomicLong();
+    private final AtomicLong recordsWritten = new AtomicLong();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final Object released = new Object();
+
+    private static class Buffer<T> {
+        final List<T> records = new ArrayList<>();
+        long bytes;
+    }
+
+    public PartitionedBatchLoader(Function<T, K> partitioner, ToLongFunction<T> sizer, BatchSink<K, T> sink,
+                                  long partitionBudgetBytes, long totalBudgetBytes, int workers) {
+        if (partitionBudgetBytes <= 0 || totalBudgetBytes < partitionBudgetBytes || workers <= 0) {
+            throw new IllegalArgumentException("Budgets and workers must be positive, total budget at least one partition budget");
+        }
+        this.partitioner = partitioner;
+        this.sizer = sizer;
+        this.sink = sink;
+        this.partitionBudgetBytes = partitionBudgetBytes;
+        this.totalBudgetBytes = totalBudgetBytes;
+        this.executor = Executors.newFixedThreadPool(workers);
+    }
+
+    /**
+     * Buffer one record, blocking while the memory budget is exhausted
+     *
+     * @throws ExecutionException if an earlier batch failed to write
+     */
+    public void add(T record) throws InterruptedException, ExecutionException {
+        checkFailure();
+        K partition = partitioner.apply(record);
+        long bytes = sizer.applyAsLong(record);
+        Buffer<T> buffer = buffers.computeIfAbsent(partition, key -> new Buffer<>());
+        buffer.records.add(record);
+        buffer.bytes += bytes;
+        peakReservedBytes.accumulateAndGet(reservedBytes.addAndGet(bytes), Math::max);
+
+        if (buffer.bytes >= partitionBudgetBytes) {
+            dispatch(partition);
+        }
+        while (reservedBytes.get() >= totalBudgetBytes) {
+            K largest = largestBuffer();
+            if (largest != null) {
+                dispatch(largest);
+                continue;
+            }
+            synchronized (released) {
+                if (reservedBytes.get() >= totalBudgetBytes && failure.get() == null) {
+                    released.wait(100);
+                }
+            }
+            checkFailure();
+        }
+    }
+
+    /**
+     * Write all remaining buffers and wait for every batch to complete
+     */
+    public void finish() throws InterruptedException, ExecutionException {
+        for (K partition : new ArrayList<>(buffers.keySet())) {
+            dispatch(partition);
+        }
+        for (CompletableFuture<Void> tail : tails.values()) {
+            try {
+                tail.get();
+            } catch (ExecutionException e) {
+                // Reported below with the original cause
+            }
+        }
+        checkFailure();
+    }
+
+    public long getBatchesWritten() {
+        return batchesWritten.get();
+    }
+
+    public long getRecordsWritten() {
+        return recordsWritten.get();
+    }
+
+    /**
+     * Highest number of buffered plus in-flight bytes seen so far
+     */
+    public long getPeakBufferedBytes() {
+        return peakReservedBytes.get();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void dispatch(K partition) {
+        Buffer<T> buffer = buffers.remove(partition);
+        if (buffer == null || buffer.records.isEmpty()) {
+            return;
+        }
+        List<T> batch = buffer.records;
+        long bytes = buffer.bytes;
+        // Chaining on the partition's previous batch keeps per-partition write order
+        tails.compute(partition, (key, tail) -> (tail == null ? CompletableFuture.<Void>completedFuture(null) : tail)
+            .thenRunAsync(() -> write(key, batch, bytes), executor));
+    }
+
+    private void write(K partition, List<T> batch, long bytes) {
+        try {
+            if (failure.get() == null) {
+                sink.write(partition, batch);
+                batchesWritten.incrementAndGet();
+                recordsWritten.addAndGet(batch.size());
+            }
+        } catch (Exception e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            reservedBytes.addAndGet(-bytes);
+            synchronized (released) {
+                released.notifyAll();
+            }
+        }
+    }
+
+    private K largestBuffer() {
+        K largest = null;
+        long largestBytes = 0;
+        for (var entry : buffers.entrySet()) {
+            if (entry.getValue().bytes > largestBytes) {
+                largest = entry.getKey();
+                largestBytes = entry.getValue().bytes;
+            }
+        }
+        return largest;
+    }
+
+    private void checkFailure() throws ExecutionException {
+        Throwable cause = failure.get();
+        if (cause != null) {
+            throw new ExecutionException("Failed to write batch", cause);
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package org.example.service;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileContext;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Options;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.example.hadoop.HourPartition;
+import org.example.hadoop.HourlyTermCounts;
+import org.example.hadoop.TweetColumnStatistics;
+import org.example.hadoop.TweetParquetWriter;
+import org.example.hadoop.TweetSketches;
+import org.example.model.Tweet;
+import org.example.model.User;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Backfills historical tweets straight into the {@code tweets_partitioned} layout as Parquet.
+ *
+ * Every (hour, file) pair is generated by its own task with a random source derived
+ * from the seed, so the output is identical regardless of thread count or scheduling.
+ * All partitions are registered with the metastore in one batch at the end, together with
+ * table and column statistics and the hashtag and mention counts gathered while the files
+ * were written, and the hourly rollups of the new hours are recomputed. Every file also gets
+ * a {@link TweetSketches} sidecar for approximate queries.
+ *
+ * Files are renamed over their predecessors atomically, and part files left in a backfilled
+ * hour by an earlier run with more files per hour are deleted once all new files are in place,
+ * so the data always matches the statistics and term counts registered for it.
+ *
+ * Usage:
+ * <pre>
+ * TweetBackfill --from 2024-08-01T00:00 --to 2024-08-31T00:00 --rate 1400000
+ *               [--curve flat|diurnal] [--seed 42] [--target /user/hive/warehouse/tweets_partitioned]
+ *               [--hdfs hdfs://localhost:9000] [--threads N] [--rows-per-file N] [--no-register] [--no-rollups]
+ *               [--no-term-counts]
+ * </pre>
+ */
+public class TweetBackfill {
+    public static final long DEFAULT_ROWS_PER_FILE = 5_000_000;
+    public static final String DEFAULT_TARGET = "/user/hive/warehouse/tweets_partitioned";
+
+    private static final int REGULAR_USERS = 10_000;
+    private static final int CELEBRITIES = 200;
+    private static final double CELEBRITY_TWEET_RATIO = 0.05;
+    private static final Pattern PART_FILE = Pattern.compile("part-(\\d{5})\\.parquet");
+
+    /**
+     * Shape of the tweet rate over the day; both curves average to the base rate
+     */
+    public enum RateCurve {
+        FLAT,
+        DIURNAL;
+
+        public long tweetsForHour(long tweetsPerHour, HourPartition partition) {
+            if (this == FLAT) {
+                return tweetsPerHour;
+            }
+            // Peaks at 12:00 UTC at 1.5x the base rate, bottoms out at 00:00 UTC at 0.5x
+            double multiplier = 1.0 + 0.5 * Math.sin(2 * Math.PI * (partition.hour() - 6) / 24.0);
+            return Math.round(tweetsPerHour * multiplier);
+        }
+    }
+
+    /**
+     * @param statistics table and column statistics per partition, collected while writing
+     * @param termCounts hashtag and mention counts per partition, collected while writing
+     */
+    public record Result(List<HourPartition> partitions, long rows, int files, double seconds,
+                         Map<HourPartition, TweetColumnStatistics> statistics,
+                         Map<HourPartition, HourlyTermCounts> termCounts) {
+        public double rowsPerSecond() {
+            return seconds > 0 ? rows / seconds : rows;
+        }
+    }
+
+    private record FileTask(HourPartition partition, int fileIndex, long rows) {
+    }
+
+    private final FileSystem fileSystem;
+    private final String targetPath;
+    private final int threads;
+    private final long rowsPerFile;
+
+    public TweetBackfill(FileSystem fileSystem, String targetPath, int threads, long rowsPerFile) {
+        if (threads <= 0 || rowsPerFile <= 0) {
+            throw new IllegalArgumentException("Threads and rows per file must be positive");
+        }
+        this.fileSystem = fileSystem;
+        this.targetPath = targetPath;
+        this.threads = threads;
+        this.rowsPerFile = rowsPerFile;
+    }
+
+    /**
+     * Generate and write all hours in [from, toExclusive)
+     */
+    public Result run(HourPartition from, HourPartition toExclusive, long tweetsPerHour, RateCurve curve, long seed)
+            throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        List<User> regularUsers = new ArrayList<>();
+        List<User> celebrities = new ArrayList<>();
+        Random userRandom = new Random(seed);
+        for (int i = 0; i < REGULAR_USERS; i++) {
+            regularUsers.add(DataGenerator.generateRegularUser(userRandom));
+        }
+        for (int i = 0; i < CELEBRITIES; i++) {
+            celebrities.add(DataGenerator.generateCelebrity(userRandom));
+        }
+
+        List<HourPartition> partitions = new ArrayList<>();
+        List<FileTask> tasks = new ArrayList<>();
+        Map<HourPartition, Integer> filesPerHour = new HashMap<>();
+        for (HourPartition partition = from; partition.startEpochSecond() < toExclusive.startEpochSecond();
+             partition = partition.plusHours(1)) {
+            partitions.add(partition);
+            long remaining = curve.tweetsForHour(tweetsPerHour, partition);
+            int fileIndex = 0;
+            for (; remaining > 0; fileIndex++) {
+                long rows = Math.min(rowsPerFile, remaining);
+                tasks.add(new FileTask(partition, fileIndex, rows));
+                remaining -= rows;
+            }
+            filesPerHour.put(partition, fileIndex);
+        }
+
+        System.out.printf("🚀 Backfilling %d partitions (%d files) into %s with %d threads%n",
+            partitions.size(), tasks.size(), targetPath, threads);
+
+        AtomicLong rowsWritten = new AtomicLong();
+        Map<HourPartition, TweetColumnStatistics> statistics = new ConcurrentHashMap<>();
+        Map<HourPartition, HourlyTermCounts> termCounts = new ConcurrentHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (FileTask task : tasks) {
+                futures.add(executor.submit(() -> {
+                    HourlyTermCounts fileTermCounts = new HourlyTermCounts();
+                    TweetColumnStatistics fileStatistics = writeFile(task, regularUsers, celebrities, seed, fileTermCounts);
+                    statistics.merge(task.partition(), fileStatistics, (current, added) -> {
+                        current.merge(added);
+                        return current;
+                    });
+                    termCounts.merge(task.partition(), fileTermCounts, (current, added) -> {
+                        current.merge(added);
+                        return current;
+                    });
+                    rowsWritten.addAndGet(task.rows());
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IOException("Backfill task failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        for (HourPartition partition : partitions) {
+            deleteStaleParts(partition, filesPerHour.get(partition));
+        }
+
+        Map<HourPartition, TweetColumnStatistics> orderedStatistics = new LinkedHashMap<>();
+        Map<HourPartition, HourlyTermCounts> orderedTermCounts = new LinkedHashMap<>();
+        for (HourPartition partition : partitions) {
+            orderedStatistics.put(partition, statistics.getOrDefault(partition, new TweetColumnStatistics()));
+            orderedTermCounts.put(partition, termCounts.getOrDefault(partition, new HourlyTermCounts()));
+        }
+        Result result = new Result(partitions, rowsWritten.get(), tasks.size(), (System.nanoTime() - start) / 1e9,
+            orderedStatistics, orderedTermCounts);
+        System.out.printf("✅ Backfilled %d rows in %.1f s (%.0f rows/sec)%n",
+            result.rows(), result.seconds(), result.rowsPerSecond());
+        return result;
+    }
+
+    /**
+     * Partition directories written by a run, keyed for {@link HiveQueryingService#addPartitions}
+     */
+    public Map<HourPartition, String> partitionLocations(Result result) {
+        Map<HourPartition, String> locations = new LinkedHashMap<>();
+        for (HourPartition partition : result.partitions()) {
+            locations.put(partition, partitionDirectory(partition).toUri().getPath());
+        }
+        return locations;
+    }
+
+    private Path partitionDirectory(HourPartition partition) {
+        return new Path(targetPath, partition.hiveRelativePath());
+    }
+
+    /**
+     * Delete the part files of an hour from index {@code files} on, with their sidecars first
+     */
+    private void deleteStaleParts(HourPartition partition, int files) throws IOException {
+        Path directory = partitionDirectory(partition);
+        if (!fileSystem.exists(directory)) {
+            return;
+        }
+        FileStatus[] statuses = fileSystem.listStatus(directory);
+        for (FileStatus status : statuses) {
+            String name = status.getPath().getName();
+            Matcher matcher = PART_FILE.matcher(name);
+            if (!status.isFile() || !matcher.matches() || Integer.parseInt(matcher.group(1)) < files) {
+                continue;
+            }
+            for (FileStatus sidecar : statuses) {
+                if (sidecar.getPath().getName().startsWith("." + name + ".")) {
+                    fileSystem.delete(sidecar.getPath(), false);
+                }
+            }
+            fileSystem.delete(status.getPath(), false);
+            System.out.println("🗑️ Removed stale " + status.getPath());
+        }
+    }
+
+    private TweetColumnStatistics writeFile(FileTask task, List<User> regularUsers, List<User> celebrities, long seed,
+                                            HourlyTermCounts termCounts) throws IOException {
+        HourPartition partition = task.partition();
+        long hourStart = partition.startEpochSecond();
+        Random random = new Random(seed * 1_000_003L + hourStart * 1_009L + task.fileIndex());
+        String idPrefix = "tweet_" + Long.toString(hourStart, 36) + "_" + task.fileIndex() + "_";
+
+        Path directory = partitionDirectory(partition);
+        String name = String.format("part-%05d.parquet", task.fileIndex());
+        Path inProgress = new Path(directory, "_" + name + ".inprogress");
+        Path target = new Path(directory, name);
+        TweetColumnStatistics statistics = new TweetColumnStatistics();
+        TweetSketches sketches = new TweetSketches();
+
+        try (ParquetWriter<Tweet> writer = TweetParquetWriter.open(fileSystem.getConf(), fileSystem.makeQualified(inProgress))) {
+            for (long i = 0; i < task.rows(); i++) {
+                List<User> pool = random.nextDouble() < CELEBRITY_TWEET_RATIO ? celebrities : regularUsers;
+                User user = pool.get(random.nextInt(pool.size()));
+                Tweet tweet = DataGenerator.generateTweet(user, random, hourStart + random.nextInt(3600));
+                tweet.setTweetId(idPrefix + i); // unique across the whole backfill
+                writer.write(tweet);
+                statistics.add(tweet);
+                termCounts.add(tweet);
+                sketches.add(tweet);
+            }
+        }
+
+        // FileSystem#rename never replaces a file; FileContext's OVERWRITE swaps it atomically on HDFS
+        FileContext.getFileContext(fileSystem.getUri(), fileSystem.getConf())
+            .rename(inProgress, target, Options.Rename.OVERWRITE);
+        sketches.writeFor(fileSystem, target);
+        return statistics;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LocalDateTime from = null;
+        LocalDateTime to = null;
+        long rate = 0;
+        RateCurve curve = RateCurve.FLAT;
+        long seed = 42;
+        String target = DEFAULT_TARGET;
+        String hdfsUri = "hdfs://localhost:9000";
+        int threads = Runtime.getRuntime().availableProcessors();
+        long rowsPerFile = DEFAULT_ROWS_PER_FILE;
+        boolean register = true;
+        boolean rollups = true;
+        boolean termCounts = true;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--from" -> from = LocalDateTime.parse(args[++i]);
+                case "--to" -> to = LocalDateTime.parse(args[++i]);
+                case "--rate" -> rate = Long.parseLong(args[++i]);
+                case "--curve" -> curve = RateCurve.valueOf(args[++i].toUpperCase());
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                case "--target" -> target = args[++i];
+                case "--hdfs" -> hdfsUri = args[++i];
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--rows-per-file" -> rowsPerFile = Long.parseLong(args[++i]);
+                case "--no-register" -> register = false;
+                case "--no-rollups" -> rollups = false;
+                case "--no-term-counts" -> termCounts = false;
+                default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+        if (from == null || to == null || rate <= 0) {
+            System.err.println("Usage: TweetBackfill --from 2024-08-01T00:00 --to 2024-08-31T00:00 --rate <tweets per hour>"
+                + " [--curve flat|diurnal] [--seed N] [--target PATH] [--hdfs URI] [--threads N]"
+                + " [--rows-per-file N] [--no-register] [--no-rollups] [--no-term-counts]");
+            System.exit(1);
+        }
+
+        Configuration conf = new Configuration();
+        conf.set("fs.defaultFS", hdfsUri);
+        conf.set("dfs.client.use.datanode.hostname", "false");
+        try (FileSystem fileSystem = FileSystem.get(conf)) {
+            TweetBackfill backfill = new TweetBackfill(fileSystem, target, threads, rowsPerFile);
+            Result result = backfill.run(HourPartition.of(from), HourPartition.of(to), rate, curve, seed);
+            if (register) {
+                HiveQueryingService hiveService = new HiveQueryingService();
+                hiveService.addPartitions("tweets_partitioned", backfill.partitionLocations(result));
+                hiveService.updatePartitionStatistics("tweets_partitioned", result.statistics());
+                if (rollups) {
+                    hiveService.refreshHourlyRollups(result.statistics().keySet());
+                }
+                if (termCounts) {
+                    hiveService.replaceTermCounts(result.termCounts());
+                }
+            }
+        }
+    }
+}
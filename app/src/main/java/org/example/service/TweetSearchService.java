@@ -0,0 +1,288 @@
+package org.example.service;
+
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.example.hadoop.HDFSReader;
+import org.example.hadoop.HourPartition;
+import org.example.hadoop.InvertedIndex;
+import org.example.hadoop.Sidecars;
+import org.example.model.Tweet;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full-text search over the content and hashtags of tweets in hourly partitions, answered from
+ * their {@link InvertedIndex} segments: only the hours overlapping the time range are looked at,
+ * hits come from the posting lists, and only the tweets returned are read from the data files.
+ *
+ * Every data file gets a per-file segment when it is written. {@link #mergeSegments()}, or the
+ * background merger started with {@link #start}, combines the segments of an hour into one
+ * merged segment, so a search reads one segment per hour. A merged segment whose files have
+ * changed since is ignored in favour of the per-file segments until the next merge. Data files
+ * without a segment are counted, not searched.
+ */
+public class TweetSearchService implements Closeable {
+    private final FileSystem fileSystem;
+    private final Path basePath;
+    private final HDFSReader reader;
+    private final Map<Path, CachedHour> hourCache = new ConcurrentHashMap<>();
+    private final Object mergeLock = new Object();
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * The most recent matching tweets, newest first, and how many tweets matched in total
+     */
+    public record SearchResult(List<Tweet> tweets, long hits, int hoursSearched, int segmentsSearched,
+                               int filesWithoutIndex, double millis) {
+    }
+
+    private record Segment(Path directory, InvertedIndex index) {
+    }
+
+    private record CachedHour(long fingerprint, List<Segment> segments, int filesWithoutIndex) {
+    }
+
+    private record Hit(Segment segment, int doc, long timestamp) {
+    }
+
+    public TweetSearchService(FileSystem fileSystem, String basePath) {
+        this.fileSystem = fileSystem;
+        this.basePath = new Path(basePath);
+        this.reader = new HDFSReader(fileSystem);
+    }
+
+    /**
+     * Up to limit tweets matching the query with fromEpochSecond <= timestamp < toEpochSecond,
+     * newest first
+     */
+    public SearchResult search(InvertedIndex.Query query, long fromEpochSecond, long toEpochSecond, int limit)
+            throws IOException {
+        long start = System.nanoTime();
+        PriorityQueue<Hit> newest = new PriorityQueue<>(Comparator.comparingLong(Hit::timestamp));
+        long hits = 0;
+        int hours = 0;
+        int segments = 0;
+        int filesWithoutIndex = 0;
+        for (FileStatus directory : hourDirectories(fromEpochSecond, toEpochSecond)) {
+            CachedHour hour = load(directory.getPath());
+            hours++;
+            filesWithoutIndex += hour.filesWithoutIndex();
+            for (Segment segment : hour.segments()) {
+                segments++;
+                RoaringBitmap docs = segment.index().search(query, fromEpochSecond, toEpochSecond - 1);
+                hits += docs.getLongCardinality();
+                if (limit <= 0) {
+                    continue;
+                }
+                IntIterator iterator = docs.getIntIterator();
+                while (iterator.hasNext()) {
+                    int doc = iterator.next();
+                    long timestamp = segment.index().getTimestamp(doc);
+                    if (newest.size() < limit) {
+                        newest.add(new Hit(segment, doc, timestamp));
+                    } else if (timestamp > newest.peek().timestamp()) {
+                        newest.poll();
+                        newest.add(new Hit(segment, doc, timestamp));
+                    }
+                }
+            }
+        }
+
+        List<Tweet> tweets = fetch(newest);
+        tweets.sort(Comparator.comparing(Tweet::getTimestamp).reversed());
+        double millis = (System.nanoTime() - start) / 1e6;
+        System.out.printf("🔎 Search %s: %d hits in %d hours (%d segments) in %.1f ms%s%n", query, hits, hours,
+            segments, millis, filesWithoutIndex > 0 ? ", " + filesWithoutIndex + " files without an index" : "");
+        return new SearchResult(tweets, hits, hours, segments, filesWithoutIndex, millis);
+    }
+
+    /**
+     * Number of tweets matching the query in the time range, from the posting lists alone
+     */
+    public long count(InvertedIndex.Query query, long fromEpochSecond, long toEpochSecond) throws IOException {
+        return search(query, fromEpochSecond, toEpochSecond, 0).hits();
+    }
+
+    /**
+     * Merge the segments of every hour that has more than one, or has segments not yet in its
+     * merged segment. Returns the number of hours merged.
+     */
+    public int mergeSegments() throws IOException {
+        synchronized (mergeLock) {
+            return mergeHours();
+        }
+    }
+
+    private int mergeHours() throws IOException {
+        int merged = 0;
+        for (FileStatus directory : hourDirectories(Long.MIN_VALUE, Long.MAX_VALUE)) {
+            CachedHour hour = load(directory.getPath());
+            if (hour.segments().size() < 2) {
+                continue;
+            }
+            long start = System.nanoTime();
+            List<InvertedIndex> segments = hour.segments().stream().map(Segment::index).toList();
+            InvertedIndex index = InvertedIndex.merge(segments);
+            index.write(fileSystem, new Path(directory.getPath(), InvertedIndex.MERGED_NAME));
+            System.out.printf("🗜️  Merged %d index segments of %s (%d tweets, %d terms) in %.1f ms%n",
+                segments.size(), directory.getPath().getName(), index.getDocumentCount(), index.getTermCount(),
+                (System.nanoTime() - start) / 1e6);
+            merged++;
+        }
+        return merged;
+    }
+
+    /**
+     * Merge segments in the background every interval until {@link #close()}
+     */
+    public synchronized void start(long interval, TimeUnit unit) {
+        if (scheduler != null) {
+            throw new IllegalStateException("Segment merging for " + basePath + " already started");
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "index-merger-" + basePath.getName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                mergeSegments();
+            } catch (Exception e) {
+                System.err.println("⚠️  Failed to merge index segments under " + basePath + ": " + e.getMessage());
+            }
+        }, interval, interval, unit);
+    }
+
+    /**
+     * Stop background merging
+     */
+    @Override
+    public void close() {
+        ScheduledExecutorService executor;
+        synchronized (this) {
+            executor = scheduler;
+            scheduler = null;
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Read the tweets of the given hits, one pass over each file holding any
+     */
+    private List<Tweet> fetch(Iterable<Hit> hits) throws IOException {
+        Map<Path, RoaringBitmap> rowsByFile = new LinkedHashMap<>();
+        for (Hit hit : hits) {
+            InvertedIndex index = hit.segment().index();
+            Path dataFile = new Path(hit.segment().directory(), index.getFiles().get(index.fileOf(hit.doc())));
+            rowsByFile.computeIfAbsent(dataFile, key -> new RoaringBitmap()).add(index.rowOf(hit.doc()));
+        }
+        List<Tweet> tweets = new ArrayList<>();
+        for (Map.Entry<Path, RoaringBitmap> file : rowsByFile.entrySet()) {
+            tweets.addAll(reader.readJsonLines(file.getKey().toString(), Tweet.class, file.getValue()::contains));
+        }
+        return tweets;
+    }
+
+    private List<FileStatus> hourDirectories(long fromEpochSecond, long toEpochSecond) throws IOException {
+        List<FileStatus> hours = new ArrayList<>();
+        FileStatus[] directories = fileSystem.globStatus(new Path(basePath, "year=*/month=*/day=*/hour=*"));
+        for (FileStatus directory : directories == null ? new FileStatus[0] : directories) {
+            HourPartition partition = partitionOf(directory.getPath());
+            if (partition != null && partition.startEpochSecond() < toEpochSecond
+                    && partition.plusHours(1).startEpochSecond() > fromEpochSecond) {
+                hours.add(directory);
+            }
+        }
+        return hours;
+    }
+
+    /**
+     * Segments of one partition directory, reloaded only when its listing changes: the merged
+     * segment if it still matches its files, plus the per-file segments of files it does not cover
+     */
+    private CachedHour load(Path directory) throws IOException {
+        FileStatus[] files = fileSystem.listStatus(directory);
+        long fingerprint = files.length;
+        Map<String, FileStatus> byName = new HashMap<>();
+        for (FileStatus file : files) {
+            fingerprint = fingerprint * 31 + file.getPath().getName().hashCode();
+            fingerprint = fingerprint * 31 + file.getModificationTime();
+            byName.put(file.getPath().getName(), file);
+        }
+        CachedHour cached = hourCache.get(directory);
+        if (cached != null && cached.fingerprint() == fingerprint) {
+            return cached;
+        }
+
+        List<Segment> segments = new ArrayList<>();
+        Set<String> covered = new HashSet<>();
+        if (byName.containsKey(InvertedIndex.MERGED_NAME)) {
+            InvertedIndex index = InvertedIndex.read(fileSystem, new Path(directory, InvertedIndex.MERGED_NAME));
+            if (matchesFiles(index, byName)) {
+                segments.add(new Segment(directory, index));
+                covered.addAll(index.getFiles());
+            }
+        }
+        int filesWithoutIndex = 0;
+        for (FileStatus file : files) {
+            Path dataFile = file.getPath();
+            if (!file.isFile() || !Sidecars.isJsonLinesFile(dataFile.getName()) || covered.contains(dataFile.getName())) {
+                continue;
+            }
+            Path sidecar = Sidecars.pathFor(dataFile, InvertedIndex.SIDECAR_SUFFIX);
+            InvertedIndex index = byName.containsKey(sidecar.getName()) ? InvertedIndex.read(fileSystem, sidecar) : null;
+            if (index != null && matchesFiles(index, byName)) {
+                segments.add(new Segment(directory, index));
+            } else {
+                filesWithoutIndex++;
+            }
+        }
+        cached = new CachedHour(fingerprint, segments, filesWithoutIndex);
+        hourCache.put(directory, cached);
+        return cached;
+    }
+
+    /**
+     * Whether every file a segment covers still exists with the length it was indexed at
+     */
+    private static boolean matchesFiles(InvertedIndex index, Map<String, FileStatus> byName) {
+        for (int file = 0; file < index.getFiles().size(); file++) {
+            FileStatus status = byName.get(index.getFiles().get(file));
+            if (status == null || status.getLen() != index.getFileLength(file)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static HourPartition partitionOf(Path directory) {
+        Path hour = directory;
+        Path day = hour.getParent();
+        Path month = day.getParent();
+        Path year = month.getParent();
+        try {
+            return HourPartition.parse(year.getName() + "/" + month.getName() + "/" + day.getName() + "/" + hour.getName());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.streaming;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+import org.example.codec.Codecs;
+import org.example.codec.RecordCodec;
+
+/**
+ * Kafka serde writing values in the compact binary layout of {@link Codecs}, a drop-in for
+ * {@link JsonSerde}. Every value carries its layout version, so consumers can be upgraded
+ * before producers.
+ */
+public class BinarySerde<T> implements Serde<T> {
+    private final RecordCodec<T> codec;
+
+    public BinarySerde(RecordCodec<T> codec) {
+        this.codec = codec;
+    }
+
+    public BinarySerde(Class<T> type) {
+        this(Codecs.forType(type));
+    }
+
+    @Override
+    public Serializer<T> serializer() {
+        return (topic, value) -> value == null ? null : Codecs.encode(codec, value);
+    }
+
+    @Override
+    public Deserializer<T> deserializer() {
+        return (topic, bytes) -> {
+            if (bytes == null) {
+                return null;
+            }
+            try {
+                return Codecs.decode(codec, bytes);
+            } catch (IllegalArgumentException e) {
+                throw new SerializationException("Cannot decode " + codec.type().getSimpleName() + " from " + topic, e);
+            }
+        };
+    }
+}
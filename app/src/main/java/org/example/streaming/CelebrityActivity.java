@@ -0,0 +1,36 @@
+package org.example.streaming;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Events involving one celebrity in one window, counted by event type
+ */
+@Data
+@NoArgsConstructor
+public class CelebrityActivity {
+    @JsonProperty("celebrity_id")
+    private String celebrityId;
+
+    @JsonProperty("window_start")
+    private long windowStart;
+
+    @JsonProperty("window_end")
+    private long windowEnd;
+
+    @JsonProperty("counts")
+    private Map<String, Long> counts = new TreeMap<>();
+
+    @JsonProperty("total")
+    private long total;
+
+    public CelebrityActivity add(String eventType) {
+        counts.merge(eventType, 1L, Long::sum);
+        total++;
+        return this;
+    }
+}
@@ -0,0 +1,159 @@
+package org.example.streaming;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.Topology;
+import org.apache.kafka.streams.errors.LogAndContinueExceptionHandler;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.Grouped;
+import org.apache.kafka.streams.kstream.Materialized;
+import org.apache.kafka.streams.kstream.Produced;
+import org.apache.kafka.streams.kstream.Suppressed;
+import org.apache.kafka.streams.kstream.TimeWindows;
+import org.apache.kafka.streams.processor.TimestampExtractor;
+import org.apache.kafka.streams.state.Stores;
+import org.example.model.Event;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kafka Streams application counting the events of the celebrity-activity topic that involve a
+ * celebrity, per celebrity and event type in tumbling event-time windows. Events without an
+ * event type are dropped.
+ *
+ * Counts are kept in a persistent RocksDB window store behind the record cache, so repeated
+ * updates to a window are collapsed before they reach the changelog. Suppression holds each
+ * window until it closes, so celebrity-activity-counts receives one final
+ * {@link CelebrityActivity} per celebrity and window instead of an update per event.
+ */
+public class CelebrityActivityAggregator {
+    public static final String SOURCE_TOPIC = "celebrity-activity";
+    public static final String OUTPUT_TOPIC = "celebrity-activity-counts";
+    public static final String STORE = "celebrity-activity-store";
+    public static final String SOURCE = "celebrity-activity-source";
+    public static final String APPLICATION_ID = "celebrity-activity-aggregator";
+    public static final Duration DEFAULT_WINDOW = Duration.ofMinutes(1);
+    public static final Duration DEFAULT_GRACE = Duration.ofSeconds(30);
+    public static final long CACHE_BYTES = 16L * 1024 * 1024;
+    public static final long SUPPRESSION_BUFFER_BYTES = 64L * 1024 * 1024;
+
+    private static final JsonSerde<Event> EVENT_SERDE = new JsonSerde<>(Event.class);
+    private static final JsonSerde<CelebrityActivity> ACTIVITY_SERDE = new JsonSerde<>(CelebrityActivity.class);
+
+    /**
+     * Event time is the event's timestamp in epoch seconds, or the record's if it has none
+     */
+    static final TimestampExtractor EVENT_TIME = (ConsumerRecord<Object, Object> record, long partitionTime) ->
+        record.value() instanceof Event event && event.getTimestamp() != null
+            ? event.getTimestamp() * 1000 : record.timestamp();
+
+    private CelebrityActivityAggregator() {
+    }
+
+    public static Topology topology(Duration window, Duration grace) {
+        StreamsBuilder builder = new StreamsBuilder();
+        builder.stream(SOURCE_TOPIC, Consumed.with(Serdes.String(), EVENT_SERDE)
+                .withTimestampExtractor(EVENT_TIME).withName(SOURCE))
+            // Events without a type can't be counted per type and would fail the aggregation
+            .filter((key, event) -> event != null && event.isCelebrityInvolved() && event.getCelebrityId() != null
+                && event.getEventType() != null)
+            .groupBy((key, event) -> event.getCelebrityId(), Grouped.with("by-celebrity", Serdes.String(), EVENT_SERDE))
+            .windowedBy(TimeWindows.ofSizeAndGrace(window, grace))
+            .aggregate(CelebrityActivity::new, (celebrityId, event, activity) -> activity.add(event.getEventType()),
+                Materialized.<String, CelebrityActivity>as(
+                        Stores.persistentTimestampedWindowStore(STORE, window.plus(grace), window, false))
+                    .withKeySerde(Serdes.String())
+                    .withValueSerde(ACTIVITY_SERDE)
+                    .withCachingEnabled())
+            .suppress(Suppressed.untilWindowCloses(Suppressed.BufferConfig.maxBytes(SUPPRESSION_BUFFER_BYTES)
+                .shutDownWhenFull()).withName("final-counts"))
+            .toStream()
+            .map((windowed, activity) -> {
+                activity.setCelebrityId(windowed.key());
+                activity.setWindowStart(windowed.window().start());
+                activity.setWindowEnd(windowed.window().end());
+                return KeyValue.pair(windowed.key(), activity);
+            })
+            .to(OUTPUT_TOPIC, Produced.with(Serdes.String(), ACTIVITY_SERDE));
+        return builder.build();
+    }
+
+    public static Properties config(String bootstrapServers, int threads, String stateDir) {
+        Properties props = new Properties();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, APPLICATION_ID);
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(StreamsConfig.NUM_STREAM_THREADS_CONFIG, threads);
+        props.put(StreamsConfig.STATE_DIR_CONFIG, stateDir);
+        props.put(StreamsConfig.STATESTORE_CACHE_MAX_BYTES_CONFIG, CACHE_BYTES);
+        props.put(StreamsConfig.COMMIT_INTERVAL_MS_CONFIG, 10_000);
+        props.put(StreamsConfig.DEFAULT_DESERIALIZATION_EXCEPTION_HANDLER_CLASS_CONFIG,
+            LogAndContinueExceptionHandler.class);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        return props;
+    }
+
+    /**
+     * Events read from the source topic per second by each stream thread, summing the source
+     * node's rate over the tasks the thread runs
+     */
+    public static Map<String, Double> eventsPerSecondByThread(Map<MetricName, ? extends Metric> metrics) {
+        Map<String, Double> rates = new TreeMap<>();
+        metrics.forEach((name, metric) -> {
+            if ("stream-processor-node-metrics".equals(name.group()) && "process-rate".equals(name.name())
+                    && SOURCE.equals(name.tags().get("processor-node-id"))
+                    && metric.metricValue() instanceof Double rate && !rate.isNaN()) {
+                rates.merge(name.tags().get("thread-id"), rate, Double::sum);
+            }
+        });
+        return rates;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String bootstrapServers = "localhost:9092";
+        int threads = 3;
+        String stateDir = "/tmp/kafka-streams";
+        Duration window = DEFAULT_WINDOW;
+        Duration grace = DEFAULT_GRACE;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--bootstrap" -> bootstrapServers = args[++i];
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--state-dir" -> stateDir = args[++i];
+                case "--window" -> window = Duration.parse(args[++i]);
+                case "--grace" -> grace = Duration.parse(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        KafkaStreams streams = new KafkaStreams(topology(window, grace), config(bootstrapServers, threads, stateDir));
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        reporter.scheduleAtFixedRate(() -> eventsPerSecondByThread(streams.metrics()).forEach((thread, rate) ->
+            System.out.printf("📈 %s: %.0f events/sec%n", thread, rate)), 10, 10, TimeUnit.SECONDS);
+
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            reporter.shutdownNow();
+            streams.close(Duration.ofSeconds(30));
+            stopped.countDown();
+        }));
+        System.out.printf("🚀 Aggregating %s into %s with %d threads and %s windows%n",
+            SOURCE_TOPIC, OUTPUT_TOPIC, threads, window);
+        streams.start();
+        stopped.await();
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.streaming;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+import org.example.codec.JsonCodecs;
+
+import java.io.IOException;
+
+/**
+ * Kafka serde writing values as the same JSON the HDFS files hold. Malformed records fail
+ * with a {@link SerializationException}, for the deserialization exception handler to skip.
+ */
+public class JsonSerde<T> implements Serde<T> {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final Class<T> type;
+
+    public JsonSerde(Class<T> type) {
+        this.type = type;
+    }
+
+    @Override
+    public Serializer<T> serializer() {
+        return (topic, value) -> {
+            if (value == null) {
+                return null;
+            }
+            try {
+                return JsonCodecs.toBytes(value, OBJECT_MAPPER);
+            } catch (IOException e) {
+                throw new SerializationException("Cannot serialize " + type.getSimpleName() + " for " + topic, e);
+            }
+        };
+    }
+
+    @Override
+    public Deserializer<T> deserializer() {
+        return (topic, bytes) -> {
+            if (bytes == null) {
+                return null;
+            }
+            try {
+                return JsonCodecs.fromBytes(bytes, type, OBJECT_MAPPER);
+            } catch (IOException e) {
+                throw new SerializationException("Cannot deserialize " + type.getSimpleName() + " from " + topic, e);
+            }
+        };
+    }
+}
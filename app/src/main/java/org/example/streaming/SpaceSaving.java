@@ -0,0 +1,147 @@
+package org.example.streaming;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Space-Saving summary of the most frequent strings of a stream in at most {@code capacity}
+ * counters. When all counters are taken, a new item replaces the smallest one and inherits its
+ * count as error, so counts never undercount and overcount by at most {@link Item#error()}.
+ *
+ * Summaries merge as mergeable summaries do: an item missing from one side is charged that
+ * side's {@link #getFloor()}, and the largest {@code capacity} combined counts are kept.
+ * Not thread-safe.
+ */
+public class SpaceSaving {
+
+    /**
+     * An item's counted occurrences; the true count is in [count - error, count]
+     */
+    public record Item(String item, long count, long error) {
+    }
+
+    private static final Comparator<Counter> ORDER =
+        Comparator.comparingLong((Counter counter) -> counter.count).thenComparing(counter -> counter.item);
+
+    private static final class Counter {
+        private final String item;
+        private long count;
+        private long error;
+
+        private Counter(String item, long count, long error) {
+            this.item = item;
+            this.count = count;
+            this.error = error;
+        }
+    }
+
+    private final int capacity;
+    private final Map<String, Counter> counters = new HashMap<>();
+    private final TreeSet<Counter> byCount = new TreeSet<>(ORDER);
+    private long total;
+    private long floor;
+
+    public SpaceSaving(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    public void add(String item) {
+        add(item, 1);
+    }
+
+    public void add(String item, long count) {
+        total += count;
+        Counter counter = counters.get(item);
+        if (counter != null) {
+            byCount.remove(counter);
+            counter.count += count;
+            byCount.add(counter);
+            return;
+        }
+        long inherited = 0;
+        if (counters.size() >= capacity) {
+            Counter smallest = byCount.pollFirst();
+            counters.remove(smallest.item);
+            floor = Math.max(floor, smallest.count);
+            inherited = floor;
+        }
+        counter = new Counter(item, inherited + count, inherited);
+        counters.put(item, counter);
+        byCount.add(counter);
+    }
+
+    /**
+     * Combine summaries into one of the given capacity
+     */
+    public static SpaceSaving merge(List<SpaceSaving> summaries, int capacity) {
+        Map<String, long[]> combined = new HashMap<>();
+        long floorSum = summaries.stream().mapToLong(SpaceSaving::getFloor).sum();
+        long total = summaries.stream().mapToLong(SpaceSaving::getTotal).sum();
+        for (SpaceSaving summary : summaries) {
+            for (Counter counter : summary.counters.values()) {
+                long[] countAndError = combined.computeIfAbsent(counter.item, item -> new long[]{floorSum, floorSum});
+                countAndError[0] += counter.count - summary.floor;
+                countAndError[1] += counter.error - summary.floor;
+            }
+        }
+
+        SpaceSaving merged = new SpaceSaving(capacity);
+        merged.total = total;
+        merged.floor = floorSum;
+        combined.entrySet().stream()
+            .sorted(Comparator.comparingLong((Map.Entry<String, long[]> entry) -> entry.getValue()[0]).reversed())
+            .forEachOrdered(entry -> {
+                if (merged.counters.size() < capacity) {
+                    Counter counter = new Counter(entry.getKey(), entry.getValue()[0], entry.getValue()[1]);
+                    merged.counters.put(counter.item, counter);
+                    merged.byCount.add(counter);
+                } else {
+                    merged.floor = Math.max(merged.floor, entry.getValue()[0]);
+                }
+            });
+        return merged;
+    }
+
+    /**
+     * The k most frequent items, highest count first
+     */
+    public List<Item> top(int k) {
+        List<Item> items = new ArrayList<>(Math.min(k, counters.size()));
+        for (Counter counter : byCount.descendingSet()) {
+            if (items.size() == k) {
+                break;
+            }
+            items.add(new Item(counter.item, counter.count, counter.error));
+        }
+        return items;
+    }
+
+    /**
+     * Largest possible count of an item that is not monitored
+     */
+    public long getFloor() {
+        return floor;
+    }
+
+    /**
+     * Sum of all counts added
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    public int size() {
+        return counters.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
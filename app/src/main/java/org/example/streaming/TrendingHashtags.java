@@ -0,0 +1,186 @@
+package org.example.streaming;
+
+import org.example.model.Tweet;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * In-process trending hashtags over sliding windows of the last minute, 5 minutes and hour,
+ * fed directly with tweets as they are generated or consumed, e.g.
+ * {@code tweets.parallelStream().forEach(trending)}.
+ *
+ * Producers count into one of several striped {@link SpaceSaving} summaries of the open time
+ * bucket, so threads rarely contend for the same lock. When the clock passes the end of the
+ * bucket, the stripes are sealed into one summary and every window's top items are merged
+ * from the sealed buckets it covers. Queries only read the last merged snapshot, so they never
+ * wait for producers and lag the stream by at most one bucket.
+ *
+ * Memory is bounded by the capacity times the number of stripes and buckets in an hour,
+ * however many distinct hashtags there are.
+ */
+public class TrendingHashtags implements Consumer<Tweet> {
+    public static final Duration DEFAULT_BUCKET = Duration.ofSeconds(10);
+    public static final int DEFAULT_CAPACITY = 1000;
+
+    /**
+     * Sliding windows that top items are kept for
+     */
+    public enum Window {
+        ONE_MINUTE(Duration.ofMinutes(1)),
+        FIVE_MINUTES(Duration.ofMinutes(5)),
+        ONE_HOUR(Duration.ofHours(1));
+
+        private final Duration length;
+
+        Window(Duration length) {
+            this.length = length;
+        }
+
+        public Duration getLength() {
+            return length;
+        }
+    }
+
+    /**
+     * Top items of a window over the sealed buckets [fromMillis, toMillis)
+     */
+    public record Snapshot(List<SpaceSaving.Item> items, long total, long fromMillis, long toMillis) {
+        public List<SpaceSaving.Item> top(int k) {
+            return items.subList(0, Math.min(k, items.size()));
+        }
+    }
+
+    private record Sealed(long bucket, SpaceSaving summary) {
+    }
+
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private SpaceSaving summary;
+    }
+
+    private final Clock clock;
+    private final long bucketMillis;
+    private final int capacity;
+    private final Stripe[] stripes;
+    private final Sealed[] sealed;
+    private final ReentrantLock rotation = new ReentrantLock();
+    private volatile long openBucket;
+    private volatile Map<Window, Snapshot> snapshots;
+
+    public TrendingHashtags() {
+        this(Clock.systemUTC(), DEFAULT_BUCKET, DEFAULT_CAPACITY, Runtime.getRuntime().availableProcessors());
+    }
+
+    public TrendingHashtags(Clock clock, Duration bucket, int capacity, int stripeCount) {
+        this.bucketMillis = bucket.toMillis();
+        for (Window window : Window.values()) {
+            if (bucketMillis <= 0 || window.getLength().toMillis() % bucketMillis != 0) {
+                throw new IllegalArgumentException("Bucket " + bucket + " must divide every window");
+            }
+        }
+        this.clock = clock;
+        this.capacity = capacity;
+        this.stripes = new Stripe[Math.max(1, stripeCount)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+            stripes[i].summary = new SpaceSaving(capacity);
+        }
+        this.sealed = new Sealed[(int) (Window.ONE_HOUR.getLength().toMillis() / bucketMillis)];
+        this.openBucket = clock.millis() / bucketMillis;
+        this.snapshots = snapshotsOf(openBucket);
+    }
+
+    @Override
+    public void accept(Tweet tweet) {
+        add(tweet);
+    }
+
+    public void add(Tweet tweet) {
+        if (tweet.getHashtags() == null || tweet.getHashtags().isEmpty()) {
+            return;
+        }
+        advance();
+        Stripe stripe = stripes[(int) (Thread.currentThread().getId() % stripes.length)];
+        if (!stripe.lock.tryLock()) {
+            stripe = stripes[(int) ((Thread.currentThread().getId() + 1) % stripes.length)];
+            stripe.lock.lock();
+        }
+        try {
+            for (String hashtag : tweet.getHashtags()) {
+                stripe.summary.add(hashtag);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * The k hashtags trending most in a window, highest count first
+     */
+    public List<SpaceSaving.Item> top(Window window, int k) {
+        return snapshot(window).top(k);
+    }
+
+    public Snapshot snapshot(Window window) {
+        advance();
+        return snapshots.get(window);
+    }
+
+    /**
+     * Seal the open bucket once the clock has passed its end; one thread rotates while the
+     * others carry on counting into the next bucket
+     */
+    private void advance() {
+        long now = clock.millis() / bucketMillis;
+        if (now <= openBucket || !rotation.tryLock()) {
+            return;
+        }
+        try {
+            long closing = openBucket;
+            if (now <= closing) {
+                return;
+            }
+            openBucket = now;
+            List<SpaceSaving> parts = new ArrayList<>(stripes.length);
+            for (Stripe stripe : stripes) {
+                stripe.lock.lock();
+                try {
+                    parts.add(stripe.summary);
+                    stripe.summary = new SpaceSaving(capacity);
+                } finally {
+                    stripe.lock.unlock();
+                }
+            }
+            // Tweets counted after the clock moved on still land in the closing bucket
+            sealed[(int) (closing % sealed.length)] = new Sealed(closing, SpaceSaving.merge(parts, capacity));
+            snapshots = snapshotsOf(now);
+        } finally {
+            rotation.unlock();
+        }
+    }
+
+    private Map<Window, Snapshot> snapshotsOf(long open) {
+        Map<Window, Snapshot> result = new EnumMap<>(Window.class);
+        for (Window window : Window.values()) {
+            long buckets = window.getLength().toMillis() / bucketMillis;
+            List<SpaceSaving> covered = new ArrayList<>();
+            for (long bucket = open - buckets; bucket < open; bucket++) {
+                Sealed slot = sealed[(int) Math.floorMod(bucket, (long) sealed.length)];
+                if (slot != null && slot.bucket() == bucket) {
+                    covered.add(slot.summary());
+                }
+            }
+            SpaceSaving merged = SpaceSaving.merge(covered, capacity);
+            result.put(window, new Snapshot(List.copyOf(merged.top(capacity)), merged.getTotal(),
+                (open - buckets) * bucketMillis, open * bucketMillis));
+        }
+        return result;
+    }
+}
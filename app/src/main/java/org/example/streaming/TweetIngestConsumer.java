@@ -0,0 +1,363 @@
+package org.example.streaming;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.example.codec.JsonCodecs;
+import org.example.columnar.GlobalDictionary;
+import org.example.hadoop.BitmapIndex;
+import org.example.hadoop.HDFSWriter;
+import org.example.hadoop.HourPartition;
+import org.example.hadoop.InvertedIndex;
+import org.example.hadoop.TweetSketches;
+import org.example.model.Tweet;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Moves tweets from Kafka into the hourly partition layout {@link HDFSWriter} produces.
+ *
+ * Records are polled in large batches, decoded and buffered per Kafka partition and event
+ * hour. When the buffer reaches the batch size or age limit, every buffered group is written
+ * as its own file, and only then are the offsets committed, so delivery is at-least-once.
+ *
+ * Files are named by topic, Kafka partition and the first and last offset they hold. A batch
+ * replayed after a crash or rebalance starts at the committed offset but may end elsewhere, or
+ * group hours differently; each flush therefore also deletes the files of the hours it writes
+ * whose offset range overlaps its own, which can only be leftovers of an uncommitted flush whose
+ * records are being written again. Scale out by starting more consumers in the same group; at most one of
+ * them may run with --persist-dictionary, which saves the strings interned while decoding to
+ * the dataset's {@link GlobalDictionary} before offsets are committed. Not thread-safe; call
+ * {@link #shutdown()} from another thread to stop {@link #run()}.
+ */
+public class TweetIngestConsumer implements AutoCloseable {
+    public static final String DEFAULT_TOPIC = "tweets";
+    public static final String DEFAULT_GROUP = "tweets-hdfs-ingest";
+    public static final String DATA_TYPE = "tweets";
+    public static final long DEFAULT_MAX_BATCH_BYTES = 64L * 1024 * 1024;
+    public static final Duration DEFAULT_MAX_BATCH_LATENCY = Duration.ofSeconds(30);
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+    private static final Pattern OFFSET_RANGE = Pattern.compile("(\\d{20})-(\\d{20})\\.json");
+
+    private final Consumer<String, byte[]> consumer;
+    private final HDFSWriter hdfsWriter;
+    private final String basePath;
+    private final long maxBatchBytes;
+    private final long maxBatchLatencyMillis;
+    private final Clock clock;
+
+    private final Map<TopicPartition, Map<HourPartition, Batch>> buffer = new HashMap<>();
+    private final Map<TopicPartition, Long> firstOffsets = new HashMap<>();
+    private final Map<TopicPartition, Long> nextOffsets = new HashMap<>();
+    private long bufferedBytes;
+    private long batchStartMillis = -1;
+    private long recordsWritten;
+    private long recordsSkipped;
+    private long filesWritten;
+
+    private static final class Batch {
+        private final long firstOffset;
+        private long lastOffset;
+        private final List<Tweet> tweets = new ArrayList<>();
+
+        private Batch(long firstOffset) {
+            this.firstOffset = firstOffset;
+        }
+    }
+
+    public TweetIngestConsumer(Consumer<String, byte[]> consumer, HDFSWriter hdfsWriter, String basePath,
+                               long maxBatchBytes, Duration maxBatchLatency, Clock clock) {
+        if (maxBatchBytes <= 0 || maxBatchLatency.isNegative() || maxBatchLatency.isZero()) {
+            throw new IllegalArgumentException("Batch size and latency must be positive");
+        }
+        this.consumer = consumer;
+        this.hdfsWriter = hdfsWriter;
+        this.basePath = basePath;
+        this.maxBatchBytes = maxBatchBytes;
+        this.maxBatchLatencyMillis = maxBatchLatency.toMillis();
+        this.clock = clock;
+    }
+
+    /**
+     * Consumer settings for large fetches and manual offset commits
+     */
+    public static Properties config(String bootstrapServers, String groupId, long maxBatchBytes) {
+        Properties props = new Properties();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 10_000);
+        props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, 1024 * 1024);
+        props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, 500);
+        props.put(ConsumerConfig.FETCH_MAX_BYTES_CONFIG, (int) Math.min(Integer.MAX_VALUE, Math.max(maxBatchBytes, 1024 * 1024)));
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        return props;
+    }
+
+    public void subscribe(String topic) {
+        consumer.subscribe(List.of(topic), new ConsumerRebalanceListener() {
+            @Override
+            public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+                // Hand over only what is on HDFS; the next owner resumes from the committed offsets
+                try {
+                    flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+            }
+
+            @Override
+            public void onPartitionsLost(Collection<TopicPartition> partitions) {
+                // Another member may already own these; drop the buffer and let it replay
+                discard(partitions);
+            }
+        });
+    }
+
+    /**
+     * Poll and write until {@link #shutdown()} is called, then flush what is buffered
+     */
+    public void run() throws IOException {
+        try {
+            while (true) {
+                pollOnce();
+            }
+        } catch (WakeupException e) {
+            // shutdown() was called
+        }
+        flush();
+    }
+
+    /**
+     * Poll one batch of records, and write the buffer out if it is full or old enough
+     */
+    public void pollOnce() throws IOException {
+        ConsumerRecords<String, byte[]> records = consumer.poll(POLL_TIMEOUT);
+        for (ConsumerRecord<String, byte[]> record : records) {
+            add(record);
+        }
+        if (bufferedBytes >= maxBatchBytes
+                || (batchStartMillis >= 0 && clock.millis() - batchStartMillis >= maxBatchLatencyMillis)) {
+            flush();
+        }
+    }
+
+    /**
+     * Write every buffered group to its partition file, then commit the offsets they cover
+     */
+    public void flush() throws IOException {
+        if (nextOffsets.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        long records = 0;
+        int files = 0;
+        for (Map.Entry<TopicPartition, Map<HourPartition, Batch>> partition : buffer.entrySet()) {
+            TopicPartition topicPartition = partition.getKey();
+            long flushFirst = firstOffsets.get(topicPartition);
+            long flushLast = nextOffsets.get(topicPartition) - 1;
+            for (Map.Entry<HourPartition, Batch> hour : partition.getValue().entrySet()) {
+                Batch batch = hour.getValue();
+                String name = fileName(topicPartition, batch.firstOffset, batch.lastOffset);
+                hdfsWriter.replacePartitionFile(batch.tweets, basePath, DATA_TYPE, hour.getKey(), name);
+                // Leftovers of an uncommitted flush with other boundaries; their records are in this flush or a later one
+                hdfsWriter.deletePartitionFiles(basePath, DATA_TYPE, hour.getKey(), other -> !other.equals(name)
+                    && overlaps(topicPartition, other, flushFirst, flushLast));
+                records += batch.tweets.size();
+                files++;
+            }
+        }
+
+        // Codes of the new files' strings must be durable before their offsets are
+        GlobalDictionary.save();
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        nextOffsets.forEach((topicPartition, offset) -> offsets.put(topicPartition, new OffsetAndMetadata(offset)));
+        consumer.commitSync(offsets);
+
+        recordsWritten += records;
+        filesWritten += files;
+        System.out.printf("📥 Wrote %d tweets to %d files and committed %d partitions in %.1f ms%n",
+            records, files, offsets.size(), (System.nanoTime() - start) / 1e6);
+        buffer.clear();
+        firstOffsets.clear();
+        nextOffsets.clear();
+        bufferedBytes = 0;
+        batchStartMillis = -1;
+    }
+
+    /**
+     * Stop {@link #run()} from another thread
+     */
+    public void shutdown() {
+        consumer.wakeup();
+    }
+
+    /**
+     * Name of the file holding the records of one hour of a Kafka partition between two offsets, inclusive
+     */
+    public static String fileName(TopicPartition topicPartition, long firstOffset, long lastOffset) {
+        return String.format("%s%020d-%020d.json", fileNamePrefix(topicPartition), firstOffset, lastOffset);
+    }
+
+    private static String fileNamePrefix(TopicPartition topicPartition) {
+        return String.format("%s_%s-%d-", DATA_TYPE, topicPartition.topic(), topicPartition.partition());
+    }
+
+    /**
+     * Whether a file of the given Kafka partition holds offsets within [first, last]
+     */
+    static boolean overlaps(TopicPartition topicPartition, String fileName, long first, long last) {
+        String prefix = fileNamePrefix(topicPartition);
+        Matcher range = OFFSET_RANGE.matcher(fileName);
+        if (!fileName.startsWith(prefix) || !range.region(prefix.length(), fileName.length()).matches()) {
+            return false;
+        }
+        return Long.parseLong(range.group(1)) <= last && Long.parseLong(range.group(2)) >= first;
+    }
+
+    public long getRecordsWritten() {
+        return recordsWritten;
+    }
+
+    public long getRecordsSkipped() {
+        return recordsSkipped;
+    }
+
+    public long getFilesWritten() {
+        return filesWritten;
+    }
+
+    @Override
+    public void close() {
+        consumer.close();
+    }
+
+    private void add(ConsumerRecord<String, byte[]> record) {
+        TopicPartition topicPartition = new TopicPartition(record.topic(), record.partition());
+        firstOffsets.putIfAbsent(topicPartition, record.offset());
+        nextOffsets.put(topicPartition, record.offset() + 1);
+        if (batchStartMillis < 0) {
+            batchStartMillis = clock.millis();
+        }
+        Tweet tweet = decode(record);
+        if (tweet == null) {
+            recordsSkipped++;
+            return;
+        }
+        Batch batch = buffer.computeIfAbsent(topicPartition, partition -> new HashMap<>())
+            .computeIfAbsent(HourPartition.ofEpochSecond(tweet.getTimestamp()), hour -> new Batch(record.offset()));
+        batch.tweets.add(tweet);
+        batch.lastOffset = record.offset();
+        bufferedBytes += record.value().length;
+    }
+
+    private static Tweet decode(ConsumerRecord<String, byte[]> record) {
+        if (record.value() == null) {
+            return null;
+        }
+        try {
+            Tweet tweet = JsonCodecs.fromBytes(JsonCodecs.TWEET, record.value());
+            return tweet.getTimestamp() == null ? null : tweet;
+        } catch (IOException e) {
+            System.err.printf("⚠️ Skipping undecodable record at %s-%d@%d: %s%n",
+                record.topic(), record.partition(), record.offset(), e.getMessage());
+            return null;
+        }
+    }
+
+    private void discard(Collection<TopicPartition> partitions) {
+        for (TopicPartition partition : partitions) {
+            buffer.remove(partition);
+            firstOffsets.remove(partition);
+            nextOffsets.remove(partition);
+        }
+        if (nextOffsets.isEmpty()) {
+            bufferedBytes = 0;
+            batchStartMillis = -1;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String bootstrapServers = "localhost:9092";
+        String groupId = DEFAULT_GROUP;
+        String topic = DEFAULT_TOPIC;
+        String hdfsUri = "hdfs://localhost:9000";
+        String target = "/data";
+        long maxBatchBytes = DEFAULT_MAX_BATCH_BYTES;
+        Duration maxBatchLatency = DEFAULT_MAX_BATCH_LATENCY;
+        boolean persistDictionary = false;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--bootstrap" -> bootstrapServers = args[++i];
+                case "--group" -> groupId = args[++i];
+                case "--topic" -> topic = args[++i];
+                case "--hdfs" -> hdfsUri = args[++i];
+                case "--target" -> target = args[++i];
+                case "--max-batch-bytes" -> maxBatchBytes = Long.parseLong(args[++i]);
+                case "--max-batch-latency" -> maxBatchLatency = Duration.parse(args[++i]);
+                case "--persist-dictionary" -> persistDictionary = true;
+                default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        Configuration conf = new Configuration();
+        conf.set("fs.defaultFS", hdfsUri);
+        FileSystem fileSystem = FileSystem.get(conf);
+        if (persistDictionary) {
+            GlobalDictionary.open(fileSystem, target);
+        }
+        HDFSWriter hdfsWriter = new HDFSWriter(fileSystem);
+        hdfsWriter.addSidecar(TweetSketches::sidecar);
+        hdfsWriter.addSidecar(BitmapIndex::sidecar);
+        hdfsWriter.addSidecar(InvertedIndex::sidecar);
+        TweetIngestConsumer ingest = new TweetIngestConsumer(
+            new KafkaConsumer<>(config(bootstrapServers, groupId, maxBatchBytes)),
+            hdfsWriter, target, maxBatchBytes, maxBatchLatency, Clock.systemUTC());
+        Thread main = Thread.currentThread();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            ingest.shutdown();
+            try {
+                main.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+
+        System.out.printf("🚀 Ingesting %s into %s/%s as group %s%n", topic, target, DATA_TYPE, groupId);
+        try (ingest) {
+            ingest.subscribe(topic);
+            ingest.run();
+        } finally {
+            hdfsWriter.close();
+        }
+    }
+}
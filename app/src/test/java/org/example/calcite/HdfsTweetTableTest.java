@@ -0,0 +1,167 @@
+package org.example.calcite;
+
+import org.apache.calcite.jdbc.JavaTypeFactoryImpl;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.rel.type.RelDataTypeFactory;
+import org.apache.calcite.rex.RexBuilder;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.schema.SchemaPlus;
+import org.apache.calcite.sql.fun.SqlStdOperatorTable;
+import org.apache.calcite.sql.type.SqlTypeName;
+import org.apache.calcite.tools.Frameworks;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.example.hadoop.BucketedTweetWriter;
+import org.example.hadoop.HDFSWriter;
+import org.example.hadoop.HourPartition;
+import org.example.model.Tweet;
+import org.example.model.User;
+import org.example.service.DataGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HdfsTweetTableTest {
+
+    private static final HourPartition HOUR_0 = new HourPartition(2024, 8, 1, 0);
+    private static final int LIKE_COUNT = 5;
+    private static final int HOUR = 15;
+
+    @TempDir
+    File tempDir;
+
+    private FileSystem fileSystem;
+    private final RelDataTypeFactory typeFactory = new JavaTypeFactoryImpl();
+    private final RexBuilder rexBuilder = new RexBuilder(typeFactory);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        fileSystem = FileSystem.getLocal(new Configuration());
+    }
+
+    @Test
+    void testPartitionFiltersPruneDirectoriesBeforeReading() throws Exception {
+        String base = tempDir.getAbsolutePath() + "/data";
+        HDFSWriter writer = new HDFSWriter(fileSystem);
+        List<Tweet> hour0 = generateTweets(HOUR_0, 50, 1);
+        List<Tweet> hour1 = generateTweets(HOUR_0.plusHours(1), 30, 2);
+        writer.writeAsJsonLines(hour0, HOUR_0.path(base, "tweets") + "/tweets_0.json");
+        writer.writeAsJsonLines(hour1, HOUR_0.plusHours(1).path(base, "tweets") + "/tweets_1.json");
+        // Any attempt to read the pruned partition fails the query
+        try (FSDataOutputStream out = fileSystem.create(new Path(HOUR_0.plusHours(2).path(base, "tweets") + "/broken.json"))) {
+            out.write("not json\n".getBytes(StandardCharsets.UTF_8));
+        }
+
+        HdfsTweetTable table = new HdfsTweetTable(fileSystem, new Path(base, "tweets"));
+        RexNode hourIsOne = rexBuilder.makeCall(SqlStdOperatorTable.EQUALS, column(HOUR), literal(1));
+        RexNode popular = rexBuilder.makeCall(SqlStdOperatorTable.GREATER_THAN, column(LIKE_COUNT), literal(10));
+        List<RexNode> filters = new ArrayList<>(List.of(hourIsOne, popular));
+
+        List<Object[]> rows = scan(table, filters, new int[]{0, LIKE_COUNT, HOUR});
+        assertEquals(List.of(popular), filters, "Partition filter handled by the table, the rest left to Calcite");
+        assertEquals(hour1.stream().map(Tweet::getTweetId).toList(), rows.stream().map(row -> row[0]).toList());
+        for (int i = 0; i < rows.size(); i++) {
+            assertEquals(hour1.get(i).getLikeCount(), rows.get(i)[1]);
+            assertEquals(1, rows.get(i)[2]);
+        }
+
+        // Literal on the left, range over two partitions
+        filters = new ArrayList<>(List.of(rexBuilder.makeCall(SqlStdOperatorTable.GREATER_THAN, literal(2), column(HOUR))));
+        assertEquals(80, scan(table, filters, new int[]{HOUR}).size());
+        assertTrue(filters.isEmpty());
+    }
+
+    @Test
+    void testParquetReadsOnlyProjectedColumns() throws Exception {
+        String tablePath = tempDir.getAbsolutePath() + "/tweets_partitioned";
+        List<Tweet> tweets = new ArrayList<>(generateTweets(HOUR_0, 200, 3));
+        tweets.addAll(generateTweets(HOUR_0.plusHours(5), 100, 4));
+        new BucketedTweetWriter(fileSystem, 4).write(tablePath, tweets);
+
+        HdfsTweetTable table = new HdfsTweetTable(fileSystem, new Path(tablePath));
+        List<Object[]> rows = scan(table, new ArrayList<>(), new int[]{LIKE_COUNT, 10});
+        assertEquals(300, rows.size());
+        assertEquals(tweets.stream().mapToLong(Tweet::getLikeCount).sum(),
+            rows.stream().mapToLong(row -> (Integer) row[0]).sum());
+        assertEquals(tweets.stream().mapToLong(tweet -> tweet.getHashtags().size()).sum(),
+            rows.stream().mapToLong(row -> ((List<?>) row[1]).size()).sum());
+
+        // Only partition columns: counted from the Parquet footers
+        List<Object[]> hours = scan(table, new ArrayList<>(), new int[]{HOUR});
+        assertEquals(200, hours.stream().filter(row -> row[0].equals(0)).count());
+        assertEquals(100, hours.stream().filter(row -> row[0].equals(5)).count());
+    }
+
+    @Test
+    void testEnumeratorResetRereadsAllFiles() throws Exception {
+        String base = tempDir.getAbsolutePath() + "/data";
+        HDFSWriter writer = new HDFSWriter(fileSystem);
+        writer.writeAsJsonLines(generateTweets(HOUR_0, 20, 5), HOUR_0.path(base, "tweets") + "/tweets_0.json");
+        writer.writeAsJsonLines(generateTweets(HOUR_0.plusHours(1), 10, 6), HOUR_0.plusHours(1).path(base, "tweets") + "/tweets_1.json");
+
+        HdfsTweetTable table = new HdfsTweetTable(fileSystem, new Path(base, "tweets"));
+        try (Enumerator<Object[]> enumerator = table.scan(null, new ArrayList<>(), new int[]{0}).enumerator()) {
+            for (int i = 0; i < 25; i++) {
+                assertTrue(enumerator.moveNext());
+            }
+            enumerator.reset();
+            int count = 0;
+            while (enumerator.moveNext()) {
+                count++;
+            }
+            assertEquals(30, count);
+        }
+    }
+
+    @Test
+    void testPlannerPushesFiltersAndProjectionIntoScan() {
+        SchemaPlus root = Frameworks.createRootSchema(true);
+        root.add("hdfs", HdfsSchemaFactory.INSTANCE.create(root, "hdfs", Map.of(
+            "fsUri", "file:///",
+            "tables", Map.of("tweets", tempDir.getAbsolutePath() + "/data/tweets"))));
+
+        String plan = CalciteExplainer.explain(root,
+            "SELECT tweet_id, like_count FROM hdfs.tweets WHERE `year` = 2024 AND `hour` = 1 AND like_count > 10");
+        assertTrue(plan.contains("BindableTableScan(table=[[hdfs, tweets]]"), plan);
+        assertTrue(plan.contains("filters=["), "Filters offered to the table: " + plan);
+        assertTrue(plan.contains("projects=[[0, 5]]"), "Only the needed columns are read: " + plan);
+    }
+
+    private List<Tweet> generateTweets(HourPartition partition, int count, long seed) {
+        Random random = new Random(seed);
+        User user = DataGenerator.generateRegularUser(random);
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tweets.add(DataGenerator.generateTweet(user, random, partition.startEpochSecond() + i));
+        }
+        return tweets;
+    }
+
+    private static List<Object[]> scan(HdfsTweetTable table, List<RexNode> filters, int[] projects) {
+        Enumerable<Object[]> rows = table.scan(null, filters, projects);
+        return rows.toList();
+    }
+
+    private RexNode column(int index) {
+        RelDataType rowType = new HdfsTweetTable(fileSystem, new Path(tempDir.getAbsolutePath())).getRowType(typeFactory);
+        return rexBuilder.makeInputRef(rowType.getFieldList().get(index).getType(), index);
+    }
+
+    private RexNode literal(int value) {
+        return rexBuilder.makeExactLiteral(BigDecimal.valueOf(value), typeFactory.createSqlType(SqlTypeName.INTEGER));
+    }
+}
@@ -0,0 +1,142 @@
+package org.example.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.kafka.common.errors.SerializationException;
+import org.example.hadoop.HDFSReader;
+import org.example.hadoop.HDFSWriter;
+import org.example.hadoop.Sidecars;
+import org.example.hadoop.TweetIdIndex;
+import org.example.model.Event;
+import org.example.model.Tweet;
+import org.example.model.User;
+import org.example.service.DataGenerator;
+import org.example.streaming.BinarySerde;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CodecsTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    void testRecordsRoundTripAndShrinkVersusJson() throws Exception {
+        Random random = new Random(21);
+        List<Tweet> tweets = new ArrayList<>();
+        List<User> users = new ArrayList<>();
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            User user = i % 10 == 0 ? DataGenerator.generateCelebrity(random) : DataGenerator.generateRegularUser(random);
+            users.add(user);
+            tweets.add(DataGenerator.generateTweet(user, random, 1_722_470_400L + i));
+            events.add(DataGenerator.generateEvent(user.getUserId(), "tweet_" + i, user.isCelebrity(),
+                user.isCelebrity() ? user.getUserId() : null));
+        }
+        // Missing optional fields and values outside the dictionaries survive too
+        Tweet sparse = new Tweet();
+        sparse.setCelebrityCategory("gaming");
+        tweets.add(sparse);
+        Event custom = events.get(0);
+        custom.setEventType("bookmark");
+
+        double tweetRatio = assertRoundTrip(Codecs.TWEET, tweets);
+        double userRatio = assertRoundTrip(Codecs.USER, users);
+        double eventRatio = assertRoundTrip(Codecs.EVENT, events);
+        System.out.printf("📦 Binary records are %.1fx (tweets), %.1fx (users), %.1fx (events) smaller than JSON%n",
+            tweetRatio, userRatio, eventRatio);
+        assertTrue(tweetRatio >= 2 && userRatio >= 2 && eventRatio >= 2);
+    }
+
+    @Test
+    void testKafkaSerdeAndHdfsFilesCarryTheirLayout() throws Exception {
+        Tweet tweet = DataGenerator.generateTweet(DataGenerator.generateCelebrity(new Random(1)), new Random(2), 1_722_470_400L);
+        BinarySerde<Tweet> serde = new BinarySerde<>(Tweet.class);
+        byte[] bytes = serde.serializer().serialize("tweets", tweet);
+        assertEquals(Codecs.TWEET.typeId() << 4 | Codecs.TWEET.version(), bytes[0]);
+        assertEquals(tweet, serde.deserializer().deserialize("tweets", bytes));
+        assertThrows(SerializationException.class,
+            () -> new BinarySerde<>(Event.class).deserializer().deserialize("tweets", bytes));
+        assertThrows(SerializationException.class,
+            () -> serde.deserializer().deserialize("tweets", Arrays.copyOf(bytes, bytes.length / 2)));
+
+        FileSystem fileSystem = FileSystem.getLocal(new Configuration());
+        String path = tempDir.getAbsolutePath() + "/tweets.bin";
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            tweets.add(DataGenerator.generateRegularTweet());
+        }
+        HDFSWriter writer = new HDFSWriter(fileSystem);
+        writer.addSidecar(TweetIdIndex::sidecar);
+        writer.writeBinary(tweets, path, Codecs.TWEET);
+        HDFSReader reader = new HDFSReader(fileSystem);
+        assertEquals(tweets, reader.readBinary(path, Codecs.TWEET));
+        assertThrows(IOException.class, () -> reader.readBinary(path, Codecs.USER));
+        assertFalse(fileSystem.exists(Sidecars.pathFor(new Path(path), TweetIdIndex.SIDECAR_SUFFIX)),
+            "Sidecars address JSON lines, so binary files get none");
+    }
+
+    @Test
+    void testCorruptLengthsAreRejected() {
+        BinaryWriter writer = new BinaryWriter();
+        writer.writeVarLong(-5); // ten bytes that decode to a negative length
+        writer.writeString("#tag");
+        assertThrows(IllegalArgumentException.class, () -> new BinaryReader(writer.toByteArray()).readString());
+
+        writer.reset();
+        writer.writeVarLong(Integer.MAX_VALUE);
+        writer.writeString("#tag");
+        assertThrows(IllegalArgumentException.class, () -> TweetCodec.readStrings(new BinaryReader(writer.toByteArray())));
+    }
+
+    @Test
+    void testEncodesAndDecodesFasterThanObjectMapper() throws Exception {
+        Random random = new Random(8);
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            tweets.add(DataGenerator.generateTweet(DataGenerator.generateRegularUser(random), random, 1_722_470_400L + i));
+        }
+        double json = 0;
+        double binary = 0;
+        // Later rounds run JIT-compiled; keep the best of each
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            for (Tweet tweet : tweets) {
+                OBJECT_MAPPER.readValue(OBJECT_MAPPER.writeValueAsBytes(tweet), Tweet.class);
+            }
+            json = Math.max(json, tweets.size() / ((System.nanoTime() - start) / 1e9));
+            start = System.nanoTime();
+            for (Tweet tweet : tweets) {
+                Codecs.decode(Codecs.TWEET, Codecs.encode(Codecs.TWEET, tweet));
+            }
+            binary = Math.max(binary, tweets.size() / ((System.nanoTime() - start) / 1e9));
+        }
+        System.out.printf("⚡ Round trips/sec: %.0f binary vs %.0f JSON (%.1fx)%n", binary, json, binary / json);
+        assertTrue(binary > json, "Binary codec should beat ObjectMapper");
+    }
+
+    private static <T> double assertRoundTrip(RecordCodec<T> codec, List<T> records) throws Exception {
+        long jsonBytes = 0;
+        long binaryBytes = 0;
+        for (T record : records) {
+            byte[] bytes = Codecs.encode(codec, record);
+            assertEquals(record, Codecs.decode(codec, bytes));
+            binaryBytes += bytes.length;
+            jsonBytes += OBJECT_MAPPER.writeValueAsBytes(record).length;
+        }
+        return (double) jsonBytes / binaryBytes;
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.codec;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.model.Celebrity;
+import org.example.model.Event;
+import org.example.model.Tweet;
+import org.example.model.User;
+import org.example.service.DataGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonCodecsTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Test
+    void testWritesTheSameBytesAsObjectMapperAndReadsThemBack() throws Exception {
+        Random random = new Random(45);
+        for (int i = 0; i < 200; i++) {
+            User user = i % 10 == 0 ? DataGenerator.generateCelebrity(random) : DataGenerator.generateRegularUser(random);
+            Tweet tweet = DataGenerator.generateTweet(user, random, 1_722_470_400L + i);
+            Event event = DataGenerator.generateEvent(user.getUserId(), tweet.getTweetId(), user.isCelebrity(),
+                user.isCelebrity() ? user.getUserId() : null);
+            assertSameAsDatabind(JsonCodecs.USER, user);
+            assertSameAsDatabind(JsonCodecs.TWEET, tweet);
+            assertSameAsDatabind(JsonCodecs.EVENT, event);
+        }
+        Celebrity celebrity = new Celebrity();
+        celebrity.setCelebrityId("celeb_1");
+        celebrity.setName("Ada \"the\" Coder");
+        celebrity.setUsername("ada");
+        celebrity.setCategory("tech");
+        celebrity.setFollowerCount(2_500_000L);
+        celebrity.setFollowingCount(12L);
+        celebrity.setBio("Line one\nline two ✨");
+        assertSameAsDatabind(JsonCodecs.CELEBRITY, celebrity);
+
+        // Unset fields are written as nulls, which databind then refuses for the @NonNull fields
+        assertSameBytesAsDatabind(JsonCodecs.TWEET, new Tweet());
+        assertSameBytesAsDatabind(JsonCodecs.USER, new User());
+        assertSameBytesAsDatabind(JsonCodecs.EVENT, new Event());
+        assertSameBytesAsDatabind(JsonCodecs.CELEBRITY, new Celebrity());
+    }
+
+    @Test
+    void testReadsFieldsInAnyOrderAndSkipsUnknownOnes() throws Exception {
+        String json = "{\"hashtags\":[\"#a\",\"#b\"],\"extra\":{\"nested\":[1,{\"x\":2}]},\"like_count\":7,"
+            + "\"tweet_id\":\"t1\",\"timestamp\":1722470400,\"is_celebrity\":true}";
+        Tweet tweet = JsonCodecs.fromString(JsonCodecs.TWEET, json);
+        assertEquals("t1", tweet.getTweetId());
+        assertEquals(List.of("#a", "#b"), tweet.getHashtags());
+        assertEquals(7, tweet.getLikeCount());
+        assertEquals(1_722_470_400L, tweet.getTimestamp());
+        assertTrue(tweet.isCelebrity());
+        assertNull(tweet.getMentions());
+        assertEquals(OBJECT_MAPPER.readerFor(Tweet.class)
+            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES).readValue(json), tweet);
+
+        // Types without a codec go through databind
+        assertArrayEquals(OBJECT_MAPPER.writeValueAsBytes(List.of(1, 2)), JsonCodecs.toBytes(List.of(1, 2), OBJECT_MAPPER));
+        assertThrows(IOException.class, () -> JsonCodecs.fromString(JsonCodecs.EVENT, "[]"));
+        assertThrows(IOException.class, () -> JsonCodecs.fromString(JsonCodecs.EVENT, "{\"event_id\":"));
+    }
+
+    private static <T> void assertSameAsDatabind(JsonCodec<T> codec, T value) throws IOException {
+        byte[] bytes = assertSameBytesAsDatabind(codec, value);
+        assertEquals(OBJECT_MAPPER.readValue(bytes, codec.type()), JsonCodecs.fromBytes(codec, bytes));
+    }
+
+    private static <T> byte[] assertSameBytesAsDatabind(JsonCodec<T> codec, T value) throws IOException {
+        byte[] bytes = JsonCodecs.toBytes(codec, value);
+        assertEquals(OBJECT_MAPPER.writeValueAsString(value), new String(bytes, StandardCharsets.UTF_8));
+        assertEquals(value, JsonCodecs.fromBytes(codec, bytes));
+        return bytes;
+    }
+}
@@ -0,0 +1,138 @@
+package org.example.columnar;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.example.codec.Codecs;
+import org.example.codec.JsonCodecs;
+import org.example.model.Tweet;
+import org.example.service.DataGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GlobalDictionaryTest {
+
+    @TempDir
+    File tempDir;
+
+    private FileSystem fileSystem;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Configuration conf = new Configuration();
+        conf.set("fs.defaultFS", "file:///");
+        fileSystem = FileSystem.get(conf);
+        GlobalDictionary.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        GlobalDictionary.reset();
+    }
+
+    @Test
+    void testConcurrentEncodersAgreeOnDenseCodes() throws Exception {
+        StringDictionary dictionary = new StringDictionary();
+        int threads = 8;
+        int values = 5_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<int[]>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int seed = t;
+            results.add(executor.submit(() -> {
+                // Each thread walks the values in its own order, racing to add them
+                List<Integer> order = new ArrayList<>(IntStream.range(0, values).boxed().toList());
+                Collections.shuffle(order, new Random(seed));
+                int[] codes = new int[values];
+                for (int value : order) {
+                    codes[value] = dictionary.encode("#tag" + value);
+                    assertEquals("#tag" + value, dictionary.decode(codes[value]));
+                }
+                return codes;
+            }));
+        }
+        int[] first = results.get(0).get();
+        for (Future<int[]> result : results) {
+            assertArrayEquals(first, result.get());
+        }
+        executor.shutdown();
+
+        assertEquals(values, dictionary.size());
+        boolean[] seen = new boolean[values];
+        for (int code : first) {
+            assertFalse(seen[code], "codes are unique");
+            seen[code] = true;
+        }
+        assertEquals(StringDictionary.NULL_CODE, dictionary.encode(null));
+        assertEquals(StringDictionary.UNKNOWN_CODE, dictionary.lookup("#never"));
+        assertThrows(IndexOutOfBoundsException.class, () -> dictionary.decode(values));
+    }
+
+    @Test
+    void testDecodersInternRepeatedStrings() throws IOException {
+        Tweet tweet = DataGenerator.generateTweet(DataGenerator.generateCelebrity(new Random(48)), new Random(48), 1_722_470_400L);
+        tweet.setHashtags(new ArrayList<>(List.of("#bigdata", "#hadoop")));
+
+        Tweet fromJson = JsonCodecs.fromBytes(JsonCodecs.TWEET, JsonCodecs.toBytes(JsonCodecs.TWEET, tweet));
+        Tweet fromBinary = Codecs.decode(Codecs.TWEET, Codecs.encode(Codecs.TWEET, tweet));
+        assertEquals(tweet, fromJson);
+        assertEquals(tweet, fromBinary);
+        assertSame(fromJson.getUsername(), fromBinary.getUsername());
+        assertSame(fromJson.getCelebrityCategory(), fromBinary.getCelebrityCategory());
+        for (int i = 0; i < tweet.getHashtags().size(); i++) {
+            assertSame(fromJson.getHashtags().get(i), fromBinary.getHashtags().get(i));
+        }
+        assertSame(GlobalDictionary.intern(new String("#bigdata")), fromJson.getHashtags().get(0));
+        for (int i = 0; i < tweet.getMentions().size(); i++) {
+            assertSame(fromJson.getMentions().get(i), fromBinary.getMentions().get(i));
+        }
+        assertNotSame(fromJson.getContent(), fromBinary.getContent(), "free text is not interned");
+    }
+
+    @Test
+    void testCodesStayStableAcrossRuns() throws IOException {
+        String basePath = tempDir.getAbsolutePath() + "/data";
+        StringDictionary first = GlobalDictionary.open(fileSystem, basePath);
+        assertEquals(0, first.size());
+        int ironman = first.encode("@ironman");
+        int bigdata = first.encode("#bigdata");
+        GlobalDictionary.save();
+        assertTrue(fileSystem.exists(new Path(basePath, GlobalDictionary.FILE_NAME)));
+
+        // A later run appends after the saved codes
+        GlobalDictionary.reset();
+        StringDictionary second = GlobalDictionary.open(fileSystem, basePath);
+        assertEquals(ironman, second.lookup("@ironman"));
+        assertEquals(bigdata, second.lookup("#bigdata"));
+        int sports = second.encode("sports");
+        assertEquals(2, sports);
+        GlobalDictionary.save();
+
+        GlobalDictionary.reset();
+        StringDictionary third = GlobalDictionary.open(fileSystem, basePath);
+        assertEquals(3, third.size());
+        assertEquals("#bigdata", third.decode(bigdata));
+        assertEquals("sports", third.decode(sports));
+
+        // Saving without an opened dataset or new values writes nothing
+        GlobalDictionary.reset();
+        GlobalDictionary.get().encode("#unsaved");
+        GlobalDictionary.save();
+        assertEquals(3, StringDictionary.load(fileSystem, new Path(basePath, GlobalDictionary.FILE_NAME)).size());
+    }
+}
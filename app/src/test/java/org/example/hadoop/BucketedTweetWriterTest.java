@@ -0,0 +1,104 @@
+package org.example.hadoop;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.exec.Utilities;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorUtils;
+import org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.hadoop.ParquetReader;
+import org.apache.parquet.hadoop.example.GroupReadSupport;
+import org.example.model.Tweet;
+import org.example.service.DataGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BucketedTweetWriterTest {
+
+    private static final int BUCKETS = 8;
+    private static final long BASE_TIMESTAMP = 1_722_470_400L; // 2024-08-01T00:00Z
+    private static final ObjectInspector[] USER_ID_INSPECTOR = {PrimitiveObjectInspectorFactory.javaStringObjectInspector};
+
+    @TempDir
+    File tempDir;
+
+    private FileSystem fileSystem;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        fileSystem = FileSystem.getLocal(new Configuration());
+    }
+
+    @Test
+    void testBucketHashMatchesHive() {
+        for (int i = 0; i < 1000; i++) {
+            String userId = DataGenerator.generateRegularUser().getUserId();
+            int hiveBucket = ObjectInspectorUtils.getBucketNumber(new Object[]{userId}, USER_ID_INSPECTOR, BUCKETS);
+            assertEquals(hiveBucket, BucketedTweetWriter.bucketFor(userId, BUCKETS), "Bucket of " + userId);
+        }
+        assertEquals(ObjectInspectorUtils.getBucketNumber(new Object[]{"héllo wörld"}, USER_ID_INSPECTOR, 31),
+            BucketedTweetWriter.bucketFor("héllo wörld", 31), "Non-ASCII ids hash over UTF-8 bytes");
+    }
+
+    @Test
+    void testFilesSatisfyHiveBucketPruning() throws Exception {
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            Tweet tweet = DataGenerator.generateRegularTweet();
+            tweet.setTimestamp(BASE_TIMESTAMP + (i * 7919L) % 7200);
+            tweets.add(tweet);
+        }
+
+        String table = tempDir.getAbsolutePath() + "/tweets_partitioned";
+        Map<HourPartition, Path> directories = new BucketedTweetWriter(fileSystem, BUCKETS).write(table, tweets);
+        assertEquals(2, directories.size());
+
+        int total = 0;
+        for (Path directory : directories.values()) {
+            assertTrue(directory.toString().contains("year=2024/month=8/day=1/hour="));
+            FileStatus[] files = fileSystem.listStatus(directory);
+            assertEquals(BUCKETS, files.length, "One file per bucket, even when empty");
+            Arrays.sort(files);
+
+            for (FileStatus file : files) {
+                // Hive derives the bucket of a file from its name when pruning
+                int bucket = Utilities.getBucketIdFromFile(file.getPath().getName());
+                long previousTimestamp = Long.MIN_VALUE;
+                for (Group row : readAll(file.getPath())) {
+                    String userId = row.getString("user_id", 0);
+                    assertEquals(bucket, ObjectInspectorUtils.getBucketNumber(new Object[]{userId}, USER_ID_INSPECTOR, BUCKETS),
+                        "Row of " + userId + " in the wrong bucket file " + file.getPath().getName());
+                    long timestamp = row.getLong("tweet_timestamp", 0);
+                    assertTrue(timestamp >= previousTimestamp, "Bucket sorted by tweet_timestamp");
+                    previousTimestamp = timestamp;
+                    total++;
+                }
+            }
+        }
+        assertEquals(tweets.size(), total);
+    }
+
+    private List<Group> readAll(Path path) throws IOException {
+        List<Group> rows = new ArrayList<>();
+        try (ParquetReader<Group> reader = ParquetReader.builder(new GroupReadSupport(), path).withConf(fileSystem.getConf()).build()) {
+            Group row;
+            while ((row = reader.read()) != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+}
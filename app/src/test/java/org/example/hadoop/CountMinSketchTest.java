@@ -0,0 +1,69 @@
+package org.example.hadoop;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountMinSketchTest {
+
+    @Test
+    void testEstimatesStayWithinBoundAfterMergeAndSerialization() throws Exception {
+        Random random = new Random(3);
+        Map<String, Long> exact = new HashMap<>();
+        CountMinSketch first = CountMinSketch.withError(0.01, 0.01);
+        CountMinSketch second = CountMinSketch.withError(0.01, 0.01);
+        for (int i = 0; i < 20_000; i++) {
+            // Zipf-like: low item numbers are far more frequent
+            String item = "item" + (int) Math.pow(random.nextDouble(), 3) * 1000;
+            exact.merge(item, 1L, Long::sum);
+            (i % 2 == 0 ? first : second).add(item, 1);
+        }
+        first.merge(second);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        first.write(new DataOutputStream(bytes));
+        CountMinSketch sketch = CountMinSketch.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(20_000, sketch.getTotal());
+        long bound = sketch.errorBound();
+        assertTrue(bound <= Math.ceil(0.01 * 20_000));
+        for (var entry : exact.entrySet()) {
+            long estimate = sketch.estimate(entry.getKey());
+            assertTrue(estimate >= entry.getValue(), "Never undercounts " + entry.getKey());
+            assertTrue(estimate - entry.getValue() <= bound, "Overcount of " + entry.getKey() + " within bound");
+        }
+        assertEquals(0, sketch.estimate("never added"), bound);
+    }
+
+    @Test
+    void testHeavyHittersSurviveMergingHoursWhereTheyWereNotDominant() {
+        HeavyHitters merged = new HeavyHitters(CountMinSketch.withError(0.01, 0.01), 3);
+        for (int hour = 0; hour < 6; hour++) {
+            HeavyHitters hourly = new HeavyHitters(CountMinSketch.withError(0.01, 0.01), 3);
+            // "#steady" is second every hour; each hour has its own burst
+            for (int i = 0; i < 50; i++) {
+                hourly.add("#burst" + hour);
+            }
+            for (int i = 0; i < 30; i++) {
+                hourly.add("#steady");
+            }
+            for (int i = 0; i < 10; i++) {
+                hourly.add("#noise" + (i % 5));
+            }
+            merged.merge(hourly);
+        }
+
+        HeavyHitters.Item top = merged.top(1).get(0);
+        assertEquals("#steady", top.item());
+        assertTrue(top.estimate() >= 180 && top.estimate() - top.maxOvercount() <= 180);
+        assertEquals(3, merged.top(10).size(), "Never more candidates than the capacity");
+    }
+}
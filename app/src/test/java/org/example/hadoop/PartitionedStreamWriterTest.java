@@ -0,0 +1,252 @@
+package org.example.hadoop;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.FilterFileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
+import org.apache.hadoop.fs.Syncable;
+import org.apache.hadoop.fs.permission.FsPermission;
+import org.apache.hadoop.util.Progressable;
+import org.example.model.Tweet;
+import org.example.service.DataGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionedStreamWriterTest {
+
+    private static final long BASE_TIMESTAMP = 1_700_000_000L;
+
+    @TempDir
+    File tempDir;
+
+    private FileSystem fileSystem;
+    private String basePath;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        fileSystem = FileSystem.getLocal(new Configuration());
+        basePath = tempDir.getAbsolutePath() + "/data";
+    }
+
+    @Test
+    void testConcurrentProducersWriteEveryRecordExactlyOnce() throws Exception {
+        int threads = 8;
+        int perThread = 2000;
+        HDFSWriter hdfsWriter = new HDFSWriter(fileSystem);
+        Set<String> expectedIds = ConcurrentHashMap.newKeySet();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        try (PartitionedStreamWriter<Tweet> writer =
+                 hdfsWriter.openPartitionedWriter(basePath, "tweets", Tweet::getTimestamp, 4, 64 * 1024)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        Tweet tweet = DataGenerator.generateRegularTweet();
+                        tweet.setTimestamp(BASE_TIMESTAMP + (i % 3) * 3600L);
+                        expectedIds.add(tweet.getTweetId());
+                        writer.write(tweet);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            assertEquals(threads * perThread, writer.getRecordsWritten());
+        } finally {
+            executor.shutdown();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Wrote %d tweets from %d threads at %.0f records/sec%n",
+            threads * perThread, threads, threads * perThread / seconds);
+
+        List<Path> dataFiles = listFiles(basePath + "/tweets");
+        assertTrue(dataFiles.size() > 3, "Files should be rolled and striped");
+        assertTrue(dataFiles.stream().noneMatch(p -> p.getName().endsWith(".inprogress")), "All files committed");
+
+        HDFSReader reader = new HDFSReader(fileSystem);
+        Set<String> writtenIds = new HashSet<>();
+        int total = 0;
+        for (Path file : dataFiles) {
+            for (Tweet tweet : reader.readJsonLines(file.toString(), Tweet.class)) {
+                writtenIds.add(tweet.getTweetId());
+                total++;
+                String partition = HourPartition.ofEpochSecond(tweet.getTimestamp()).relativePath();
+                assertTrue(file.getParent().toString().endsWith(partition), "Tweet routed to its event-time partition");
+            }
+        }
+        assertEquals(threads * perThread, total);
+        assertEquals(expectedIds, writtenIds);
+    }
+
+    @Test
+    void testConcurrentPartitionedWritesDoNotCollide() throws Exception {
+        HDFSWriter hdfsWriter = new HDFSWriter(fileSystem);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                futures.add(executor.submit(() -> {
+                    hdfsWriter.writePartitioned(List.of(DataGenerator.generateRegularTweet()), basePath, "tweets");
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(20, listFiles(basePath + "/tweets").size());
+    }
+
+    @Test
+    void testWritesRacingCloseAreCommittedOrRejected() throws Exception {
+        HDFSWriter hdfsWriter = new HDFSWriter(fileSystem);
+        PartitionedStreamWriter<Tweet> writer =
+            hdfsWriter.openPartitionedWriter(basePath, "tweets", Tweet::getTimestamp, 4, 64 * 1024);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; ; i++) {
+                        Tweet tweet = DataGenerator.generateRegularTweet();
+                        tweet.setTimestamp(BASE_TIMESTAMP + (i % 3) * 3600L);
+                        try {
+                            writer.write(tweet);
+                        } catch (IllegalStateException closed) {
+                            return null;
+                        }
+                    }
+                }));
+            }
+            Thread.sleep(200);
+            writer.close();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        HDFSReader reader = new HDFSReader(fileSystem);
+        long total = 0;
+        for (Path file : listFiles(basePath + "/tweets")) {
+            assertFalse(file.getName().endsWith(".inprogress"), "Nothing left open after close");
+            total += reader.readJsonLines(file.toString(), Tweet.class).size();
+        }
+        assertEquals(writer.getRecordsWritten(), total, "Every accepted record is committed");
+        assertEquals(0, writer.getOpenFileCount());
+    }
+
+    @Test
+    void testFailedAppendKeepsAcknowledgedRecordsAndFailsTheWriter() throws Exception {
+        AtomicBoolean failWrites = new AtomicBoolean();
+        FileSystem failing = new FilterFileSystem(fileSystem) {
+            @Override
+            public FSDataOutputStream create(Path f, FsPermission permission, boolean overwrite, int bufferSize,
+                                             short replication, long blockSize, Progressable progress) throws IOException {
+                FSDataOutputStream out = super.create(f, permission, overwrite, bufferSize, replication, blockSize, progress);
+                return new FSDataOutputStream(new FailingStream(out, failWrites), null);
+            }
+        };
+        PartitionedStreamWriter<Tweet> writer =
+            new HDFSWriter(failing).openPartitionedWriter(basePath, "tweets", Tweet::getTimestamp, 1, 64 * 1024);
+        for (int i = 0; i < 3; i++) {
+            Tweet tweet = DataGenerator.generateRegularTweet();
+            tweet.setTimestamp(BASE_TIMESTAMP);
+            writer.write(tweet);
+        }
+
+        failWrites.set(true);
+        Tweet tweet = DataGenerator.generateRegularTweet();
+        tweet.setTimestamp(BASE_TIMESTAMP);
+        assertThrows(IOException.class, () -> writer.write(tweet));
+        failWrites.set(false);
+        assertThrows(IOException.class, () -> writer.write(tweet), "The writer stays failed");
+        assertThrows(IOException.class, writer::flush);
+        assertThrows(IOException.class, writer::close);
+        assertEquals(3, writer.getRecordsWritten());
+
+        // The acknowledged records are kept under the in-progress name instead of being deleted
+        List<Path> files = listFiles(basePath + "/tweets");
+        assertEquals(1, files.size());
+        assertTrue(files.get(0).getName().endsWith(".inprogress"));
+        assertEquals(3, new HDFSReader(fileSystem).readJsonLines(files.get(0).toString(), Tweet.class).size());
+    }
+
+    private List<Path> listFiles(String path) throws IOException {
+        List<Path> files = new ArrayList<>();
+        RemoteIterator<LocatedFileStatus> iterator = fileSystem.listFiles(new Path(path), true);
+        while (iterator.hasNext()) {
+            Path file = iterator.next().getPath();
+            if (!file.getName().endsWith(".crc")) {
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Stream that throws on every write while the flag is set
+     */
+    private static class FailingStream extends OutputStream implements Syncable {
+        private final FSDataOutputStream out;
+        private final AtomicBoolean failWrites;
+
+        FailingStream(FSDataOutputStream out, AtomicBoolean failWrites) {
+            this.out = out;
+            this.failWrites = failWrites;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (failWrites.get()) {
+                throw new IOException("Injected write failure");
+            }
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void hflush() throws IOException {
+            out.hflush();
+        }
+
+        @Override
+        public void hsync() throws IOException {
+            out.hsync();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
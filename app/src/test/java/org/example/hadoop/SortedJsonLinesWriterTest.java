@@ -0,0 +1,97 @@
+package org.example.hadoop;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.example.model.Tweet;
+import org.example.service.DataGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SortedJsonLinesWriterTest {
+
+    @TempDir
+    File tempDir;
+
+    private FileSystem fileSystem;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        fileSystem = FileSystem.getLocal(new Configuration());
+    }
+
+    @Test
+    void testSortsAcrossSpilledRunsAndWritesIndex() throws IOException {
+        List<Tweet> tweets = generateTweets(2000, 42);
+        String path = tempDir.getAbsolutePath() + "/tweets/sorted.json";
+
+        HDFSWriter writer = new HDFSWriter(fileSystem);
+        writer.setSortMemoryBudgetBytes(16 * 1024); // force many spilled runs
+        SparseIndex index = writer.writeSorted(tweets, path, SortKey.TIMESTAMP);
+
+        assertEquals(2000, index.getRecordCount());
+        assertEquals(2000 / SortedJsonLinesWriter.DEFAULT_INDEX_INTERVAL + 1, index.getEntries().size());
+        assertTrue(fileSystem.exists(Sidecars.pathFor(new Path(path), SparseIndex.SIDECAR_SUFFIX)));
+
+        List<Tweet> written = new HDFSReader(fileSystem).readJsonLines(path, Tweet.class);
+        assertEquals(2000, written.size());
+        for (int i = 1; i < written.size(); i++) {
+            assertTrue(written.get(i - 1).getTimestamp() <= written.get(i).getTimestamp(), "File should be sorted");
+        }
+    }
+
+    @Test
+    void testReadRangeSeeksToMatchingRecords() throws IOException {
+        List<Tweet> tweets = generateTweets(5000, 7);
+        String path = tempDir.getAbsolutePath() + "/tweets/range.json";
+        new HDFSWriter(fileSystem).writeSorted(tweets, path, SortKey.TIMESTAMP);
+
+        long from = 1_700_001_000L;
+        long to = 1_700_001_300L;
+        List<Tweet> expected = tweets.stream()
+            .filter(t -> t.getTimestamp() >= from && t.getTimestamp() <= to)
+            .sorted(Comparator.comparing(Tweet::getTimestamp))
+            .toList();
+
+        List<Tweet> actual = new HDFSReader(fileSystem).readRange(path, SortKey.TIMESTAMP, from, to, Tweet.class);
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.stream().map(Tweet::getTweetId).sorted().toList(),
+            actual.stream().map(Tweet::getTweetId).sorted().toList());
+
+        assertTrue(new HDFSReader(fileSystem)
+            .readRange(path, SortKey.TIMESTAMP, 1_800_000_000L, 1_800_000_100L, Tweet.class).isEmpty());
+    }
+
+    @Test
+    void testSortByUserId() throws IOException {
+        List<Tweet> tweets = generateTweets(500, 3);
+        String path = tempDir.getAbsolutePath() + "/tweets/by_user.json";
+        new HDFSWriter(fileSystem).writeSorted(tweets, path, SortKey.USER_ID);
+
+        String userId = tweets.get(100).getUserId();
+        List<Tweet> actual = new HDFSReader(fileSystem).readRange(path, SortKey.USER_ID, userId, userId, Tweet.class);
+        assertFalse(actual.isEmpty());
+        assertTrue(actual.stream().allMatch(t -> t.getUserId().equals(userId)));
+    }
+
+    private List<Tweet> generateTweets(int count, long seed) {
+        Random random = new Random(seed);
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Tweet tweet = DataGenerator.generateRegularTweet();
+            tweet.setTimestamp(1_700_000_000L + random.nextInt(3600));
+            tweets.add(tweet);
+        }
+        return tweets;
+    }
+}
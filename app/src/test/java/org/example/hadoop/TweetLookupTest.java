@@ -0,0 +1,100 @@
+package org.example.hadoop;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.example.model.Tweet;
+import org.example.service.DataGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TweetLookupTest {
+
+    @TempDir
+    File tempDir;
+
+    private FileSystem fileSystem;
+    private String basePath;
+    private final List<List<Tweet>> files = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        fileSystem = FileSystem.getLocal(new Configuration());
+        basePath = tempDir.getAbsolutePath() + "/tweets";
+
+        HDFSWriter writer = new HDFSWriter(fileSystem);
+        writer.addSidecar(TweetIdIndex::sidecar);
+        for (int hour = 0; hour < 3; hour++) {
+            List<Tweet> tweets = IntStream.range(0, 200).mapToObj(i -> DataGenerator.generateRegularTweet()).toList();
+            writer.writeAsJsonLines(tweets, basePath + "/year=2024/month=01/day=01/hour=0" + hour + "/tweets.json");
+            files.add(tweets);
+        }
+    }
+
+    @Test
+    void testGetTweetById() throws IOException {
+        TweetLookup lookup = new TweetLookup(fileSystem, basePath);
+        assertEquals(3, lookup.refresh());
+
+        Tweet expected = files.get(1).get(57);
+        Tweet actual = lookup.getTweetById(expected.getTweetId()).orElseThrow();
+        assertEquals(expected, actual);
+
+        assertTrue(lookup.getTweetById("tweet_missing").isEmpty());
+    }
+
+    @Test
+    void testMultiGetCoalescesAdjacentReads() throws IOException {
+        TweetLookup lookup = new TweetLookup(fileSystem, basePath);
+
+        List<String> ids = new ArrayList<>();
+        for (int i = 10; i < 20; i++) {
+            ids.add(files.get(0).get(i).getTweetId());
+            ids.add(files.get(2).get(i).getTweetId());
+        }
+
+        Map<String, Tweet> results = lookup.getTweetsByIds(ids);
+        assertEquals(ids.size(), results.size());
+        for (String id : ids) {
+            assertEquals(id, results.get(id).getTweetId());
+        }
+        assertEquals(2, lookup.getRangeReadCount(), "One coalesced read per data file");
+    }
+
+    @Test
+    void testSortedWritesAreIndexed() throws IOException {
+        HDFSWriter writer = new HDFSWriter(fileSystem);
+        writer.addSidecar(TweetIdIndex::sidecar);
+        List<Tweet> tweets = IntStream.range(0, 50).mapToObj(i -> DataGenerator.generateRegularTweet()).toList();
+        writer.writeSorted(tweets, basePath + "/year=2024/month=01/day=01/hour=05/sorted.json", SortKey.USER_ID);
+
+        TweetLookup lookup = new TweetLookup(fileSystem, basePath);
+        assertEquals(4, lookup.refresh());
+        assertEquals(tweets.get(7), lookup.getTweetById(tweets.get(7).getTweetId()).orElseThrow());
+    }
+
+    @Test
+    void testRefreshReloadsRewrittenKeyFile() throws IOException {
+        TweetLookup lookup = new TweetLookup(fileSystem, basePath);
+        assertEquals(3, lookup.refresh());
+        lookup.getTweetById(files.get(1).get(0).getTweetId()).orElseThrow();
+
+        HDFSWriter writer = new HDFSWriter(fileSystem);
+        writer.addSidecar(TweetIdIndex::sidecar);
+        List<Tweet> rewritten = IntStream.range(0, 120).mapToObj(i -> DataGenerator.generateRegularTweet()).toList();
+        writer.writeAsJsonLines(rewritten, basePath + "/year=2024/month=01/day=01/hour=01/tweets.json");
+
+        assertEquals(3, lookup.refresh());
+        assertEquals(rewritten.get(99), lookup.getTweetById(rewritten.get(99).getTweetId()).orElseThrow());
+        assertTrue(lookup.getTweetById(files.get(1).get(0).getTweetId()).isEmpty());
+    }
+}
@@ -0,0 +1,150 @@
+package org.example.service;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.example.hadoop.HDFSWriter;
+import org.example.hadoop.HeavyHitters;
+import org.example.hadoop.HourPartition;
+import org.example.hadoop.Sidecars;
+import org.example.hadoop.TweetSketches;
+import org.example.model.Tweet;
+import org.example.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApproximateAnalyticsServiceTest {
+
+    private static final HourPartition FIRST_HOUR = new HourPartition(2024, 8, 1, 0);
+    private static final int HOURS = 24;
+
+    @TempDir
+    File tempDir;
+
+    private FileSystem fileSystem;
+    private String basePath;
+    private ApproximateAnalyticsService service;
+    private final Map<HourPartition, List<Tweet>> tweetsByHour = new HashMap<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        fileSystem = FileSystem.getLocal(new Configuration());
+        basePath = tempDir.getAbsolutePath() + "/tweets";
+
+        Random random = new Random(11);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            users.add(i % 3 == 0 ? DataGenerator.generateCelebrity(random) : DataGenerator.generateRegularUser(random));
+        }
+        HDFSWriter writer = new HDFSWriter(fileSystem);
+        writer.addSidecar(TweetSketches::sidecar);
+        for (int h = 0; h < HOURS; h++) {
+            HourPartition hour = FIRST_HOUR.plusHours(h);
+            List<Tweet> tweets = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                tweets.add(DataGenerator.generateTweet(users.get(random.nextInt(users.size())), random,
+                    hour.startEpochSecond() + random.nextInt(3600)));
+            }
+            writer.writeAsJsonLines(tweets, basePath + "/" + hour.relativePath() + "/tweets.json");
+            tweetsByHour.put(hour, tweets);
+        }
+        service = new ApproximateAnalyticsService(fileSystem, basePath);
+    }
+
+    @Test
+    void testTrendingHashtagsAreWithinCountMinBounds() throws Exception {
+        HourPartition from = FIRST_HOUR.plusHours(2);
+        HourPartition to = FIRST_HOUR.plusHours(14);
+        Map<String, Long> exact = tweetsIn(from, to).stream().flatMap(tweet -> tweet.getHashtags().stream())
+            .collect(Collectors.groupingBy(hashtag -> hashtag, Collectors.counting()));
+
+        var result = service.getTrendingHashtags(5, from, to);
+        assertEquals(12, result.hoursMerged());
+        assertEquals(0, result.filesWithoutSketches());
+        for (HeavyHitters.Item item : result.rows()) {
+            long trueCount = exact.get(item.item());
+            assertTrue(item.estimate() >= trueCount, "Count-Min never undercounts: " + item);
+            assertTrue(item.estimate() - item.maxOvercount() <= trueCount, "Overcount within bound: " + item);
+        }
+        // "#other" of all regular users' tweets dominates
+        String exactTop = exact.entrySet().stream().max(Map.Entry.comparingByValue()).orElseThrow().getKey();
+        assertEquals(exactTop, result.rows().get(0).item());
+        assertEquals(5, result.rows().size());
+    }
+
+    @Test
+    void testCelebrityEngagementStatsMatchExactValuesWithinErrorBounds() throws Exception {
+        HourPartition to = FIRST_HOUR.plusHours(HOURS);
+        Map<String, List<Tweet>> exact = tweetsIn(FIRST_HOUR, to).stream().filter(Tweet::isCelebrity)
+            .collect(Collectors.groupingBy(Tweet::getCelebrityCategory));
+
+        var result = service.getCelebrityEngagementStats(FIRST_HOUR, to);
+        assertEquals(exact.size(), result.rows().size());
+        for (var estimate : result.rows()) {
+            List<Tweet> tweets = exact.get(estimate.category());
+            assertEquals(tweets.size(), estimate.tweetCount());
+            assertEquals(tweets.stream().mapToInt(Tweet::getLikeCount).average().orElseThrow(), estimate.avgLikes(), 1e-9);
+            assertEquals(tweets.stream().mapToInt(Tweet::getLikeCount).max().orElseThrow(), estimate.maxLikes());
+
+            long users = tweets.stream().map(Tweet::getUserId).distinct().count();
+            assertEquals(users, estimate.distinctUsers(), Math.max(1, 3 * estimate.distinctUsersRelativeError() * users));
+
+            List<Integer> likes = tweets.stream().map(Tweet::getLikeCount).sorted().toList();
+            double below = likes.stream().filter(like -> like < estimate.medianLikes()).count() / (double) likes.size();
+            double atOrBelow = likes.stream().filter(like -> like <= estimate.medianLikes()).count() / (double) likes.size();
+            assertTrue(below <= 0.5 + estimate.likesRankError() && atOrBelow >= 0.5 - estimate.likesRankError(),
+                "Median within rank error: " + estimate);
+        }
+        for (int i = 1; i < result.rows().size(); i++) {
+            assertTrue(result.rows().get(i - 1).avgLikes() >= result.rows().get(i).avgLikes());
+        }
+    }
+
+    @Test
+    void testSidecarsAreSmallAndUnsketchedFilesAreReported() throws Exception {
+        HourPartition hour = FIRST_HOUR.plusHours(5);
+        Path dataFile = new Path(basePath + "/" + hour.relativePath() + "/tweets.json");
+        long sidecarBytes = fileSystem.getFileStatus(Sidecars.pathFor(dataFile, TweetSketches.SIDECAR_SUFFIX)).getLen();
+        assertTrue(sidecarBytes < 64 * 1024, "Sketch sidecar of " + sidecarBytes + " bytes");
+
+        var before = service.getLikePercentiles(hour, hour.plusHours(1), 0.5, 0.99);
+        assertEquals(0, before.filesWithoutSketches());
+        assertEquals(2, before.rows().size());
+
+        // A file written without sketches is picked up as soon as the partition changes
+        try (FSDataOutputStream out = fileSystem.create(new Path(dataFile.getParent(), "raw.json"))) {
+            out.write("{}\n".getBytes(StandardCharsets.UTF_8));
+        }
+        assertEquals(1, service.getLikePercentiles(hour, hour.plusHours(1), 0.5).filesWithoutSketches());
+
+        // Backfilled Parquet partitions carry sketches too
+        String target = tempDir.getAbsolutePath() + "/tweets_partitioned";
+        new TweetBackfill(fileSystem, target, 2, 300).run(FIRST_HOUR, FIRST_HOUR.plusHours(2), 500, TweetBackfill.RateCurve.FLAT, 3);
+        var backfilled = new ApproximateAnalyticsService(fileSystem, target)
+            .getLikePercentiles(FIRST_HOUR, FIRST_HOUR.plusHours(24), 0.5);
+        assertEquals(2, backfilled.hoursMerged());
+        assertEquals(0, backfilled.filesWithoutSketches());
+        assertEquals(1, backfilled.rows().size());
+    }
+
+    private List<Tweet> tweetsIn(HourPartition from, HourPartition toExclusive) {
+        List<Tweet> tweets = new ArrayList<>();
+        for (HourPartition hour = from; hour.startEpochSecond() < toExclusive.startEpochSecond(); hour = hour.plusHours(1)) {
+            tweets.addAll(tweetsByHour.get(hour));
+        }
+        return tweets;
+    }
+}
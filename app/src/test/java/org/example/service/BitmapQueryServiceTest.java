@@ -0,0 +1,187 @@
+package org.example.service;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.example.hadoop.BitmapIndex;
+import org.example.hadoop.HDFSReader;
+import org.example.hadoop.HDFSWriter;
+import org.example.hadoop.Sidecars;
+import org.example.model.Event;
+import org.example.model.Tweet;
+import org.example.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import static org.example.hadoop.BitmapIndex.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitmapQueryServiceTest {
+
+    @TempDir
+    File tempDir;
+
+    private FileSystem fileSystem;
+    private HDFSWriter writer;
+    private String basePath;
+    private final List<Tweet> allTweets = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        fileSystem = FileSystem.getLocal(new Configuration());
+        basePath = tempDir.getAbsolutePath() + "/tweets";
+        writer = new HDFSWriter(fileSystem);
+        writer.addSidecar(BitmapIndex::sidecar);
+
+        Random random = new Random(49);
+        for (int hour = 0; hour < 10; hour++) {
+            List<Tweet> tweets = new ArrayList<>();
+            for (int i = 0; i < 2_000; i++) {
+                User user = random.nextInt(10) == 0 ? DataGenerator.generateCelebrity(random) : DataGenerator.generateRegularUser(random);
+                tweets.add(DataGenerator.generateTweet(user, random, 1_700_000_000L + hour * 3600L + i));
+            }
+            // One rare hashtag, only in hour 7
+            if (hour == 7) {
+                tweets.get(1234).setHashtags(List.of("#rare", "#bigdata"));
+            }
+            writer.writeAsJsonLines(tweets, String.format("%s/year=2024/month=01/day=01/hour=%02d/tweets.json", basePath, hour));
+            allTweets.addAll(tweets);
+        }
+
+        // A file written before the index existed is still answered
+        List<Tweet> legacy = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            legacy.add(DataGenerator.generateTweet(DataGenerator.generateCelebrity(random), random, 1_699_990_000L + i));
+        }
+        new HDFSWriter(fileSystem).writeAsJsonLines(legacy, basePath + "/year=2023/month=12/day=31/hour=23/tweets.json");
+        allTweets.addAll(legacy);
+    }
+
+    @Test
+    void testPredicatesMatchRecordFilters() throws IOException {
+        BitmapQueryService service = new BitmapQueryService(fileSystem, basePath);
+        BitmapIndex.Predicate predicate = and(isTrue(IS_CELEBRITY),
+            or(equalTo(CELEBRITY_CATEGORY, "sports"), equalTo(HASHTAG, "#bigdata")));
+        Predicate<Tweet> expected = tweet -> tweet.isCelebrity()
+            && ("sports".equals(tweet.getCelebrityCategory()) || tweet.getHashtags().contains("#bigdata"));
+
+        var found = service.find(Tweet.class, predicate);
+        assertEquals(filter(expected), sorted(found.rows()));
+        var counted = service.count(Tweet.class, predicate);
+        assertEquals(found.rows().size(), counted.count());
+        assertEquals(1, counted.report().filesScanned(), "only the unindexed file is read to count");
+
+        Predicate<Tweet> regularNonSports = tweet -> !tweet.isCelebrity() && !"sports".equals(tweet.getCelebrityCategory());
+        BitmapIndex.Predicate negated = and(not(isTrue(IS_CELEBRITY)), not(equalTo(CELEBRITY_CATEGORY, "sports")));
+        assertEquals(filter(regularNonSports), sorted(service.find(Tweet.class, negated).rows()));
+        assertEquals(filter(regularNonSports).size(), service.count(Tweet.class, negated).count());
+    }
+
+    @Test
+    void testFilesWithoutMatchesAreNeverOpened() throws IOException {
+        BitmapQueryService service = new BitmapQueryService(fileSystem, basePath);
+
+        var result = service.find(Tweet.class, equalTo(HASHTAG, "#rare"));
+        assertEquals(1, result.rows().size());
+        assertEquals(List.of("#rare", "#bigdata"), result.rows().get(0).getHashtags());
+        assertEquals(2, result.report().filesScanned(), "the matching file and the unindexed one");
+        assertEquals(9, result.report().filesSkipped());
+
+        BitmapIndex index = BitmapIndex.readFor(fileSystem,
+            new Path(basePath + "/year=2024/month=01/day=01/hour=07/tweets.json"));
+        assertEquals(2_000, index.getRecordCount());
+        assertEquals(1, index.rows(HASHTAG, "#rare").getCardinality());
+        assertTrue(index.values(CELEBRITY_CATEGORY).contains("tech"));
+        assertTrue(index.rows(HASHTAG, "#missing").isEmpty());
+    }
+
+    @Test
+    void testSidecarCommittedAfterTheDataFileIsPickedUp() throws IOException {
+        BitmapQueryService service = new BitmapQueryService(fileSystem, basePath);
+        Path sidecar = Sidecars.pathFor(
+            new Path(basePath + "/year=2024/month=01/day=01/hour=03/tweets.json"), BitmapIndex.SIDECAR_SUFFIX);
+        Path aside = new Path(sidecar.getParent(), "_pending");
+
+        assertTrue(fileSystem.rename(sidecar, aside));
+        assertEquals(3, service.find(Tweet.class, equalTo(HASHTAG, "#rare")).report().filesScanned());
+
+        // The data file is unchanged, but its index is read as soon as the sidecar appears
+        assertTrue(fileSystem.rename(aside, sidecar));
+        assertEquals(2, service.find(Tweet.class, equalTo(HASHTAG, "#rare")).report().filesScanned());
+    }
+
+    @Test
+    void testUsersAndEventsAreIndexed() throws IOException {
+        Random random = new Random(490);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            users.add(i % 5 == 0 ? DataGenerator.generateCelebrity(random) : DataGenerator.generateRegularUser(random));
+        }
+        writer.writeAsJsonLines(users, tempDir.getAbsolutePath() + "/users/users.json");
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            events.add(DataGenerator.generateEvent("user_" + i, "tweet_" + i, i % 3 == 0, i % 3 == 0 ? "celebrity_" + i : null));
+        }
+        writer.writeAsJsonLines(events, tempDir.getAbsolutePath() + "/events/events.json");
+
+        BitmapQueryService userService = new BitmapQueryService(fileSystem, tempDir.getAbsolutePath() + "/users");
+        List<User> verifiedRegular = userService.find(User.class, and(isTrue(VERIFIED), not(isTrue(IS_CELEBRITY)))).rows();
+        assertEquals(users.stream().filter(user -> user.isVerified() && !user.isCelebrity()).toList(), verifiedRegular);
+
+        BitmapQueryService eventService = new BitmapQueryService(fileSystem, tempDir.getAbsolutePath() + "/events");
+        BitmapIndex.Predicate likesOrFollows = and(or(equalTo(EVENT_TYPE, "like"), equalTo(EVENT_TYPE, "follow")), isTrue(IS_CELEBRITY));
+        assertEquals(events.stream().filter(event -> event.isCelebrityInvolved()
+                && (event.getEventType().equals("like") || event.getEventType().equals("follow"))).toList(),
+            eventService.find(Event.class, likesOrFollows).rows());
+        assertTrue(fileSystem.exists(Sidecars.pathFor(new Path(tempDir.getAbsolutePath() + "/events/events.json"), SIDECAR_SUFFIX)));
+    }
+
+    @Test
+    void testBitmapCountBeatsFilteringRecords() throws IOException {
+        BitmapQueryService service = new BitmapQueryService(fileSystem, basePath);
+        HDFSReader reader = new HDFSReader(fileSystem);
+        BitmapIndex.Predicate predicate = and(isTrue(IS_CELEBRITY), equalTo(HASHTAG, "#kafka"));
+        List<String> files = new ArrayList<>();
+        for (int hour = 0; hour < 10; hour++) {
+            files.add(String.format("%s/year=2024/month=01/day=01/hour=%02d/tweets.json", basePath, hour));
+        }
+
+        double filtered = Double.MAX_VALUE;
+        double indexed = Double.MAX_VALUE;
+        // Later rounds run JIT-compiled; keep the best of each
+        for (int round = 0; round < 10; round++) {
+            long start = System.nanoTime();
+            long expected = 0;
+            for (String file : files) {
+                expected += reader.readJsonLines(file, Tweet.class).stream()
+                    .filter(tweet -> tweet.isCelebrity() && tweet.getHashtags().contains("#kafka")).count();
+            }
+            filtered = Math.min(filtered, (System.nanoTime() - start) / 1e6);
+
+            start = System.nanoTime();
+            long count = service.count(Tweet.class, predicate).count();
+            indexed = Math.min(indexed, (System.nanoTime() - start) / 1e6);
+            // The unindexed file holds celebrity tweets too
+            assertTrue(count >= expected);
+        }
+        System.out.printf("⚡ Count in %.2f ms from bitmaps vs %.2f ms filtering records (%.0fx)%n",
+            indexed, filtered, filtered / indexed);
+        assertTrue(indexed < filtered, "Bitmap counts should beat reading and filtering records");
+    }
+
+    private List<Tweet> filter(Predicate<Tweet> predicate) {
+        return sorted(allTweets.stream().filter(predicate).toList());
+    }
+
+    private static List<Tweet> sorted(List<Tweet> tweets) {
+        return tweets.stream().sorted((a, b) -> a.getTweetId().compareTo(b.getTweetId())).toList();
+    }
+}
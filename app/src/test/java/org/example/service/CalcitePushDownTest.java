@@ -0,0 +1,84 @@
+package org.example.service;
+
+import org.apache.calcite.adapter.jdbc.JdbcSchema;
+import org.apache.calcite.schema.SchemaPlus;
+import org.apache.calcite.tools.Frameworks;
+import org.example.calcite.CalciteExplainer;
+import org.example.calcite.HiveJdbcSchemaFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Plans the Calcite query methods of {@link HiveQueryingService} against an embedded Derby
+ * database that stands in for HiveServer2's metadata, using the Hive dialect and rules.
+ */
+class CalcitePushDownTest {
+
+    private static final String DERBY_URL = "jdbc:derby:memory:calcite_push_down";
+
+    private static SchemaPlus root;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        try (Connection derby = DriverManager.getConnection(DERBY_URL + ";create=true");
+             Statement stmt = derby.createStatement()) {
+            stmt.execute("CREATE SCHEMA \"default\"");
+            stmt.execute("""
+                CREATE TABLE "default"."tweets_partitioned" (
+                    "tweet_id" VARCHAR(64), "user_id" VARCHAR(64), "username" VARCHAR(64), "content" VARCHAR(280),
+                    "tweet_timestamp" BIGINT, "like_count" INT, "retweet_count" INT, "reply_count" INT,
+                    "is_celebrity" BOOLEAN, "celebrity_category" VARCHAR(64),
+                    "hashtags" VARCHAR(1024), "mentions" VARCHAR(1024),
+                    "year" INT, "month" INT, "day" INT, "hour" INT)
+                """);
+        }
+
+        root = Frameworks.createRootSchema(true);
+        DataSource dataSource = JdbcSchema.dataSource(DERBY_URL, "org.apache.derby.jdbc.EmbeddedDriver", "", "");
+        root.add("hive", HiveJdbcSchemaFactory.create(root, "hive", dataSource, null, "default"));
+    }
+
+    @Test
+    void testAdvancedAnalyticsRunsEntirelyInHive() {
+        String plan = CalciteExplainer.explain(root, HiveQueryingService.ADVANCED_ANALYTICS_SQL);
+        assertFullyPushedDown(plan);
+        assertTrue(plan.contains("JdbcAggregate"), plan);
+        assertTrue(plan.contains("STDDEV_POP"), "STDDEV_POP evaluated by Hive, not rewritten in the JVM: " + plan);
+    }
+
+    @Test
+    void testTimeBasedAnalyticsRunsEntirelyInHive() {
+        String plan = CalciteExplainer.explain(root, HiveQueryingService.timeBasedAnalyticsSql(2024, 8));
+        assertFullyPushedDown(plan);
+        assertTrue(plan.contains("JdbcFilter"), plan);
+        assertTrue(plan.contains("JdbcSort"), plan);
+    }
+
+    @Test
+    void testTopLikedRunsEntirelyInHive() {
+        String plan = CalciteExplainer.explain(root, HiveQueryingService.mostLikedTweetsSql(10));
+        assertFullyPushedDown(plan);
+        assertTrue(plan.contains("fetch=[10]"), "LIMIT pushed down: " + plan);
+    }
+
+    /**
+     * Only the root converter may live outside the JDBC convention; anything else means rows
+     * are pulled into the JVM and processed by Calcite
+     */
+    private static void assertFullyPushedDown(String plan) {
+        List<String> operators = Arrays.stream(plan.split("\n")).map(String::trim).filter(line -> !line.isEmpty()).toList();
+        assertTrue(operators.get(0).startsWith("JdbcToEnumerableConverter"), plan);
+        for (String operator : operators.subList(1, operators.size())) {
+            assertTrue(operator.startsWith("Jdbc"), "Operator not pushed down: " + operator + "\n" + plan);
+        }
+    }
+}
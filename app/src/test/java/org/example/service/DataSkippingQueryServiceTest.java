@@ -0,0 +1,119 @@
+package org.example.service;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.example.hadoop.FileStatistics;
+import org.example.hadoop.HDFSWriter;
+import org.example.hadoop.Sidecars;
+import org.example.model.Tweet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataSkippingQueryServiceTest {
+
+    @TempDir
+    File tempDir;
+
+    private String basePath;
+    private FileSystem fileSystem;
+    private DataSkippingQueryService service;
+    private final List<Tweet> allTweets = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        FileSystem fileSystem = FileSystem.getLocal(new Configuration());
+        basePath = tempDir.getAbsolutePath() + "/tweets";
+
+        HDFSWriter writer = new HDFSWriter(fileSystem);
+        writer.addSidecar(FileStatistics::sidecar);
+        // Ten hourly files; file i holds likes in [100 * i, 100 * i + 99] and timestamps within hour i
+        for (int hour = 0; hour < 10; hour++) {
+            List<Tweet> tweets = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                Tweet tweet = DataGenerator.generateRegularTweet();
+                tweet.setLikeCount(hour * 100 + i);
+                tweet.setTimestamp(1_700_000_000L + hour * 3600L + i);
+                tweets.add(tweet);
+            }
+            writer.writeAsJsonLines(tweets, String.format("%s/year=2024/month=01/day=01/hour=%02d/tweets.json", basePath, hour));
+            allTweets.addAll(tweets);
+        }
+        service = new DataSkippingQueryService(fileSystem, basePath);
+        this.fileSystem = fileSystem;
+    }
+
+    @Test
+    void testTopKReadsOnlyFilesThatCanBeatKthValue() throws IOException {
+        var result = service.getMostLikedTweets(5);
+
+        List<Integer> expected = allTweets.stream().map(Tweet::getLikeCount)
+            .sorted(Comparator.reverseOrder()).limit(5).toList();
+        assertEquals(expected, result.rows().stream().map(Tweet::getLikeCount).toList());
+        assertEquals(1, result.report().filesScanned());
+        assertEquals(9, result.report().filesSkipped());
+        assertTrue(result.report().bytesSkipped() > result.report().bytesScanned());
+    }
+
+    @Test
+    void testUserLookupSkipsFilesByBloomFilter() throws IOException {
+        Tweet target = allTweets.get(342);
+        var result = service.getTweetsByUser(target.getUserId());
+
+        assertEquals(List.of(target), result.rows());
+        assertTrue(result.report().filesSkipped() >= 8, "Bloom filters should rule out almost every file");
+    }
+
+    @Test
+    void testTimeRangeSkipsFilesOutsideRange() throws IOException {
+        long from = 1_700_000_000L + 3 * 3600L + 50;
+        long to = 1_700_000_000L + 4 * 3600L + 10;
+        var result = service.getTweetsInTimeRange(from, to);
+
+        assertEquals(50 + 11, result.rows().size());
+        assertEquals(2, result.report().filesScanned());
+        assertEquals(8, result.report().filesSkipped());
+    }
+
+    @Test
+    void testNonJsonFilesAreNotScanned() throws IOException {
+        String hour = basePath + "/year=2024/month=01/day=01/hour=04";
+        try (var out = fileSystem.create(new Path(hour + "/part-00000.parquet"))) {
+            out.write("PAR1 not json".getBytes(StandardCharsets.UTF_8));
+        }
+        fileSystem.create(new Path(hour + "/_SUCCESS")).close();
+
+        var result = service.getTweetsInTimeRange(1_700_000_000L + 4 * 3600L, 1_700_000_000L + 4 * 3600L + 99);
+        assertEquals(100, result.rows().size());
+        assertEquals(1, result.report().filesScanned());
+    }
+
+    @Test
+    void testSidecarCommittedAfterTheDataFileIsPickedUp() throws IOException {
+        long from = 1_700_000_000L + 3 * 3600L + 50;
+        long to = 1_700_000_000L + 4 * 3600L + 10;
+        Path sidecar = Sidecars.pathFor(
+            new Path(basePath + "/year=2024/month=01/day=01/hour=09/tweets.json"), FileStatistics.SIDECAR_SUFFIX);
+        Path aside = new Path(sidecar.getParent(), "_pending");
+
+        // A query between the data file's rename and its sidecar's commit scans the file...
+        assertTrue(fileSystem.rename(sidecar, aside));
+        assertEquals(3, service.getTweetsInTimeRange(from, to).report().filesScanned());
+
+        // ...and the next query uses the sidecar although the data file did not change
+        assertTrue(fileSystem.rename(aside, sidecar));
+        var result = service.getTweetsInTimeRange(from, to);
+        assertEquals(2, result.report().filesScanned());
+        assertEquals(8, result.report().filesSkipped());
+    }
+}
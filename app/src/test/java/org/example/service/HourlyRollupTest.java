@@ -0,0 +1,217 @@
+package org.example.service;
+
+import org.apache.calcite.adapter.jdbc.JdbcSchema;
+import org.apache.calcite.jdbc.CalciteConnection;
+import org.apache.calcite.schema.SchemaPlus;
+import org.apache.calcite.sql.SqlDialect;
+import org.apache.calcite.sql.SqlDialectFactoryImpl;
+import org.example.calcite.HiveJdbcSchemaFactory;
+import org.example.hadoop.HourPartition;
+import org.example.model.Tweet;
+import org.example.model.User;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the Calcite analytics queries against an embedded Derby database holding both raw
+ * tweets and their hourly rollups, and checks they are answered from the rollups.
+ */
+class HourlyRollupTest {
+
+    private static final String DERBY_URL = "jdbc:derby:memory:hourly_rollups";
+    private static final HourPartition FIRST_HOUR = new HourPartition(2024, 8, 1, 22);
+
+    private static final List<Tweet> tweets = new ArrayList<>();
+    private static Connection calcite;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        Random random = new Random(7);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            users.add(i % 2 == 0 ? DataGenerator.generateCelebrity(random) : DataGenerator.generateRegularUser(random));
+        }
+        // Four hours across a day boundary
+        for (int i = 0; i < 2000; i++) {
+            long timestamp = FIRST_HOUR.startEpochSecond() + random.nextInt(4 * 3600);
+            tweets.add(DataGenerator.generateTweet(users.get(random.nextInt(users.size())), random, timestamp));
+        }
+
+        try (Connection derby = DriverManager.getConnection(DERBY_URL + ";create=true");
+             Statement stmt = derby.createStatement()) {
+            stmt.execute("CREATE SCHEMA \"default\"");
+            stmt.execute("""
+                CREATE TABLE "default"."tweets_partitioned" (
+                    "tweet_id" VARCHAR(64), "user_id" VARCHAR(64), "username" VARCHAR(64),
+                    "like_count" INT, "retweet_count" INT, "reply_count" INT,
+                    "is_celebrity" BOOLEAN, "celebrity_category" VARCHAR(64),
+                    "year" INT, "month" INT, "day" INT, "hour" INT)
+                """);
+            stmt.execute("""
+                CREATE TABLE "default"."tweet_hourly_rollups" (
+                    "is_celebrity" BOOLEAN, "celebrity_category" VARCHAR(64), "tweet_count" BIGINT,
+                    "like_sum" BIGINT, "like_min" INT, "like_max" INT, "like_sum_squares" BIGINT,
+                    "retweet_sum" BIGINT, "retweet_min" INT, "retweet_max" INT, "retweet_sum_squares" BIGINT,
+                    "year" INT, "month" INT, "day" INT, "hour" INT)
+                """);
+            try (PreparedStatement insert = derby.prepareStatement(
+                    "INSERT INTO \"default\".\"tweets_partitioned\" VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+                for (Tweet tweet : tweets) {
+                    HourPartition partition = HourPartition.ofEpochSecond(tweet.getTimestamp());
+                    insert.setString(1, tweet.getTweetId());
+                    insert.setString(2, tweet.getUserId());
+                    insert.setString(3, tweet.getUsername());
+                    insert.setInt(4, tweet.getLikeCount());
+                    insert.setInt(5, tweet.getRetweetCount());
+                    insert.setInt(6, tweet.getReplyCount());
+                    insert.setBoolean(7, tweet.isCelebrity());
+                    insert.setString(8, tweet.getCelebrityCategory());
+                    insert.setInt(9, partition.year());
+                    insert.setInt(10, partition.month());
+                    insert.setInt(11, partition.day());
+                    insert.setInt(12, partition.hour());
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+            // What refreshHourlyRollups computes in Hive, in Derby's SQL
+            stmt.execute("""
+                INSERT INTO "default"."tweet_hourly_rollups"
+                SELECT "is_celebrity", "celebrity_category", COUNT(*),
+                    SUM(CAST("like_count" AS BIGINT)), MIN("like_count"), MAX("like_count"),
+                    SUM(CAST("like_count" AS BIGINT) * "like_count"),
+                    SUM(CAST("retweet_count" AS BIGINT)), MIN("retweet_count"), MAX("retweet_count"),
+                    SUM(CAST("retweet_count" AS BIGINT) * "retweet_count"),
+                    "year", "month", "day", "hour"
+                FROM "default"."tweets_partitioned"
+                GROUP BY "is_celebrity", "celebrity_category", "year", "month", "day", "hour"
+                """);
+        }
+
+        Properties props = new Properties();
+        props.setProperty("lex", "JAVA");
+        props.setProperty("conformance", "LENIENT");
+        calcite = DriverManager.getConnection("jdbc:calcite:", props);
+        SchemaPlus root = calcite.unwrap(CalciteConnection.class).getRootSchema();
+        DataSource dataSource = JdbcSchema.dataSource(DERBY_URL, "org.apache.derby.jdbc.EmbeddedDriver", "", "");
+        SqlDialect dialect = JdbcSchema.createDialect(SqlDialectFactoryImpl.INSTANCE, dataSource);
+        root.add("hive", HiveJdbcSchemaFactory.create(root, "hive", dataSource, dialect, null, "default", true));
+        root.add("hive_raw", HiveJdbcSchemaFactory.create(root, "hive_raw", dataSource, dialect, null, "default"));
+    }
+
+    @AfterAll
+    static void tearDown() throws SQLException {
+        calcite.close();
+    }
+
+    @Test
+    void testAdvancedAnalyticsAnsweredFromRollups() throws Exception {
+        assertReadsRollupsOnly(HiveQueryingService.ADVANCED_ANALYTICS_SQL);
+
+        Map<String, List<Tweet>> byCategory = tweets.stream().filter(Tweet::isCelebrity)
+            .collect(Collectors.groupingBy(Tweet::getCelebrityCategory));
+        List<List<Object>> rows = query(HiveQueryingService.ADVANCED_ANALYTICS_SQL);
+        assertEquals(byCategory.size(), rows.size());
+        for (List<Object> row : rows) {
+            List<Tweet> group = byCategory.get((String) row.get(0));
+            long count = group.size();
+            long likes = group.stream().mapToLong(Tweet::getLikeCount).sum();
+            long retweets = group.stream().mapToLong(Tweet::getRetweetCount).sum();
+            double mean = (double) likes / count;
+            double variance = group.stream().mapToDouble(t -> Math.pow(t.getLikeCount() - mean, 2)).sum() / count;
+
+            assertEquals(count, ((Number) row.get(1)).longValue());
+            assertEquals(likes / count, ((Number) row.get(2)).longValue(), "avg_likes");
+            assertEquals(retweets / count, ((Number) row.get(3)).longValue(), "avg_retweets");
+            assertEquals(group.stream().mapToInt(Tweet::getLikeCount).max().orElseThrow(), ((Number) row.get(4)).intValue());
+            assertEquals(group.stream().mapToInt(Tweet::getLikeCount).min().orElseThrow(), ((Number) row.get(5)).intValue());
+            assertEquals(Math.sqrt(variance), ((Number) row.get(6)).doubleValue(), 1.0, "stddev_likes");
+        }
+    }
+
+    @Test
+    void testTimeBasedAnalyticsAnsweredFromRollups() throws Exception {
+        String sql = HiveQueryingService.timeBasedAnalyticsSql(2024, 8);
+        assertReadsRollupsOnly(sql);
+
+        Map<HourPartition, List<Tweet>> byHour = new TreeMap<>(Comparator.comparingLong(HourPartition::startEpochSecond));
+        for (Tweet tweet : tweets) {
+            byHour.computeIfAbsent(HourPartition.ofEpochSecond(tweet.getTimestamp()), k -> new ArrayList<>()).add(tweet);
+        }
+        List<List<Object>> rows = query(sql);
+        assertEquals(4, rows.size());
+        int i = 0;
+        for (var entry : byHour.entrySet()) {
+            List<Object> row = rows.get(i++);
+            List<Tweet> group = entry.getValue();
+            assertEquals(entry.getKey().day(), ((Number) row.get(0)).intValue());
+            assertEquals(entry.getKey().hour(), ((Number) row.get(1)).intValue());
+            assertEquals(group.size(), ((Number) row.get(2)).intValue());
+            assertEquals(group.stream().mapToLong(Tweet::getLikeCount).sum() / group.size(), ((Number) row.get(3)).longValue());
+            assertEquals(group.stream().filter(Tweet::isCelebrity).count(), ((Number) row.get(4)).longValue());
+        }
+    }
+
+    @Test
+    void testQueriesNeedingRawRowsStayOnBaseTable() throws Exception {
+        String plan = explain("SELECT celebrity_category, AVG(reply_count) FROM hive.tweets_partitioned GROUP BY celebrity_category");
+        assertTrue(plan.contains("tweets_partitioned"), plan);
+        plan = explain("SELECT username, COUNT(*) FROM hive.tweets_partitioned WHERE `hour` = 23 GROUP BY username");
+        assertTrue(plan.contains("tweets_partitioned"), plan);
+    }
+
+    @Test
+    void testRollupsAreNotUsedUnlessEnabled() throws Exception {
+        String plan = explain(HiveQueryingService.ADVANCED_ANALYTICS_SQL.replace("hive.", "hive_raw."));
+        assertTrue(plan.contains("tweets_partitioned"), plan);
+        assertFalse(plan.contains("tweet_hourly_rollups"), plan);
+    }
+
+    private static void assertReadsRollupsOnly(String sql) throws SQLException {
+        String plan = explain(sql);
+        assertTrue(plan.contains("tweet_hourly_rollups"), plan);
+        assertFalse(plan.contains("tweets_partitioned"), plan);
+    }
+
+    private static String explain(String sql) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        for (List<Object> row : query("EXPLAIN PLAN FOR " + sql)) {
+            plan.append(row.get(0));
+        }
+        return plan.toString();
+    }
+
+    private static List<List<Object>> query(String sql) throws SQLException {
+        List<List<Object>> rows = new ArrayList<>();
+        try (Statement stmt = calcite.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            int columns = rs.getMetaData().getColumnCount();
+            while (rs.next()) {
+                List<Object> row = new ArrayList<>();
+                for (int i = 1; i <= columns; i++) {
+                    row.add(rs.getObject(i));
+                }
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+}
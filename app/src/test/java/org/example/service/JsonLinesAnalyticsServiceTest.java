@@ -0,0 +1,152 @@
+package org.example.service;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
+import org.example.hadoop.HDFSReader;
+import org.example.hadoop.HDFSWriter;
+import org.example.hadoop.JsonLineScanner;
+import org.example.model.Tweet;
+import org.example.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonLinesAnalyticsServiceTest {
+
+    @TempDir
+    File tempDir;
+
+    private FileSystem fileSystem;
+    private String basePath;
+    private JsonLinesAnalyticsService service;
+    private final List<Tweet> allTweets = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        fileSystem = FileSystem.getLocal(new Configuration());
+        basePath = tempDir.getAbsolutePath() + "/tweets";
+
+        HDFSWriter writer = new HDFSWriter(fileSystem);
+        Random random = new Random(46);
+        for (int hour = 0; hour < 4; hour++) {
+            List<Tweet> tweets = new ArrayList<>();
+            for (int i = 0; i < 2_500; i++) {
+                User user = i % 5 == 0 ? DataGenerator.generateCelebrity(random) : DataGenerator.generateRegularUser(random);
+                tweets.add(DataGenerator.generateTweet(user, random, 1_722_470_400L + hour * 3600L + i));
+            }
+            writer.writeAsJsonLines(tweets, String.format("%s/year=2024/month=08/day=01/hour=%02d/tweets.json", basePath, hour));
+            allTweets.addAll(tweets);
+        }
+        service = new JsonLinesAnalyticsService(fileSystem, basePath);
+    }
+
+    @Test
+    void testAggregatesMatchFullyBoundTweets() throws IOException {
+        var result = service.getLikesByCategory();
+
+        Map<String, List<Tweet>> expected = new HashMap<>();
+        for (Tweet tweet : allTweets) {
+            expected.computeIfAbsent(tweet.getCelebrityCategory(), category -> new ArrayList<>()).add(tweet);
+        }
+        assertEquals(4, result.filesScanned());
+        assertEquals(allTweets.size(), result.linesScanned());
+        assertEquals(expected.size(), result.rows().size());
+        for (JsonLinesAnalyticsService.Aggregate row : result.rows()) {
+            List<Tweet> tweets = expected.get(row.group());
+            assertEquals(tweets.size(), row.rows(), "rows of " + row.group());
+            assertEquals(tweets.stream().mapToLong(Tweet::getLikeCount).sum(), row.sum());
+            assertEquals(tweets.stream().mapToInt(Tweet::getLikeCount).max().orElseThrow(), row.max());
+            assertEquals(tweets.stream().mapToInt(Tweet::getLikeCount).min().orElseThrow(), row.min());
+        }
+        assertTrue(result.rows().get(0).rows() >= result.rows().get(result.rows().size() - 1).rows());
+
+        var total = service.aggregate(null, "retweet_count");
+        assertEquals(1, total.rows().size());
+        assertEquals(allTweets.stream().mapToLong(Tweet::getRetweetCount).sum(), total.rows().get(0).sum());
+
+        Map<Boolean, Long> byCelebrity = new HashMap<>();
+        service.scan(List.of("is_celebrity"), line -> byCelebrity.merge(line.getBoolean(0), 1L, Long::sum));
+        assertEquals(allTweets.stream().collect(Collectors.groupingBy(Tweet::isCelebrity, Collectors.counting())), byCelebrity);
+    }
+
+    @Test
+    void testScannerHandlesEscapesNestingAndLongLines() throws IOException {
+        String longContent = "x".repeat(200_000);
+        String json = String.join("\n",
+            "{\"celebrity_category\":\"sports\",\"like_count\":3,\"content\":\"a \\\"quoted\\\" {brace]\"}",
+            "",
+            "  { \"extra\" : {\"like_count\": 999, \"list\": [1, [2, \"]\"]]} , \"like_count\" : -4 ,"
+                + " \"celebrity_category\" : \"spo\\u0072ts\" }",
+            "{\"content\":\"" + longContent + "\",\"like_count\":10,\"celebrity_category\":null}",
+            "{\"like_count\":2.0E1}");
+        File file = new File(tempDir, "other/lines.json");
+        assertTrue(file.getParentFile().mkdirs());
+        Files.write(file.toPath(), json.getBytes(StandardCharsets.UTF_8));
+
+        var rows = new JsonLinesAnalyticsService(fileSystem, file.getParent()).getLikesByCategory().rows();
+        assertEquals(List.of(
+            new JsonLinesAnalyticsService.Aggregate("sports", 2, 2, -1, -4, 3),
+            new JsonLinesAnalyticsService.Aggregate(null, 2, 2, 30, 10, 20)), rows);
+
+        JsonLineScanner scanner = new JsonLineScanner("content", "hashtags", "missing");
+        List<String> contents = new ArrayList<>();
+        long lines = new HDFSReader(fileSystem).scanJsonLines(file.getPath(), scanner, line -> {
+            contents.add(line.getString(0));
+            assertFalse(line.isPresent(2));
+        });
+        assertEquals(4, lines);
+        assertEquals("a \"quoted\" {brace]", contents.get(0));
+        assertEquals(longContent, contents.get(2));
+
+        assertTrue(scanner.scan("{\"hashtags\":[\"#a\", null,\"#\\u00e9\"]}".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(Arrays.asList("#a", null, "#é"), scanner.getStrings(1));
+        assertThrows(IllegalArgumentException.class, () -> scanner.scan("[1]".getBytes(StandardCharsets.UTF_8)));
+        assertThrows(IllegalArgumentException.class, () -> scanner.scan("{\"content\":\"open".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void testProjectionScanBeatsFullBinding() throws IOException {
+        HDFSReader reader = new HDFSReader(fileSystem);
+        double bound = 0;
+        double scanned = 0;
+        // Later rounds run JIT-compiled; keep the best of each
+        for (int round = 0; round < 30; round++) {
+            long start = System.nanoTime();
+            Map<String, Long> likes = new HashMap<>();
+            RemoteIterator<LocatedFileStatus> files = fileSystem.listFiles(new Path(basePath), true);
+            while (files.hasNext()) {
+                Path path = files.next().getPath();
+                if (!path.getName().endsWith(".json")) {
+                    continue;
+                }
+                for (Tweet tweet : reader.readJsonLines(path.toString(), Tweet.class)) {
+                    likes.merge(String.valueOf(tweet.getCelebrityCategory()), (long) tweet.getLikeCount(), Long::sum);
+                }
+            }
+            bound = Math.max(bound, allTweets.size() / ((System.nanoTime() - start) / 1e9));
+
+            start = System.nanoTime();
+            service.getLikesByCategory();
+            scanned = Math.max(scanned, allTweets.size() / ((System.nanoTime() - start) / 1e9));
+        }
+        System.out.printf("⚡ Lines/sec: %.0f projection scan vs %.0f full binding (%.1fx)%n", scanned, bound, scanned / bound);
+        assertTrue(scanned > bound, "Projection scan should beat binding every tweet");
+    }
+}
@@ -0,0 +1,143 @@
+package org.example.service;
+
+import org.example.hadoop.HourPartition;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetastoreCacheTest {
+
+    private static final HourPartition HOUR_0 = new HourPartition(2024, 8, 1, 0);
+    private static final HourPartition HOUR_1 = new HourPartition(2024, 8, 1, 1);
+
+    @Test
+    void testLookupsHitTheMetastoreOnce() throws Exception {
+        FakeMetastore hive = new FakeMetastore();
+        MetastoreCache cache = hive.getMetadataCache();
+
+        for (int i = 0; i < 10; i++) {
+            MetastoreCache.TableSchema schema = cache.getSchema("tweets_partitioned");
+            assertEquals(List.of("year", "month", "day", "hour"),
+                schema.partitionColumns().stream().map(MetastoreCache.Column::name).toList());
+            assertEquals(2, schema.columns().size(), "Partition columns are not repeated as data columns");
+            assertEquals(List.of(HOUR_0), List.copyOf(cache.getPartitions("tweets_partitioned")));
+        }
+        assertFalse(cache.getSchema("users").isPartitioned());
+        assertTrue(cache.getPartitions("users").isEmpty());
+
+        assertEquals(1, hive.describeCalls("tweets_partitioned"));
+        assertEquals(1, hive.showPartitionsCalls);
+        assertEquals(3, cache.getMetastoreCalls());
+    }
+
+    @Test
+    void testOwnPartitionRegistrationUpdatesCacheWithoutReload() throws Exception {
+        FakeMetastore hive = new FakeMetastore();
+        MetastoreCache cache = hive.getMetadataCache();
+        cache.getPartitions("tweets_partitioned");
+
+        hive.addPartitions("tweets_partitioned", Map.of(HOUR_1, "/data/tweets/year=2024/month=08/day=01/hour=01"));
+
+        assertEquals(List.of(HOUR_0, HOUR_1), List.copyOf(cache.getPartitions("tweets_partitioned")));
+        assertEquals(1, hive.showPartitionsCalls);
+        assertTrue(hive.statements.get(0).startsWith("ALTER TABLE tweets_partitioned ADD IF NOT EXISTS"));
+
+        long from = HOUR_1.startEpochSecond() + 60;
+        assertEquals(List.of(HOUR_1), List.copyOf(cache.getPartitionsInRange("tweets_partitioned", from, from + 60)));
+        long august = LocalDateTime.of(2024, 9, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+        assertTrue(cache.getPartitionsInRange("tweets_partitioned", august, august + 3600).isEmpty());
+    }
+
+    @Test
+    void testEmptyRangeIsConfirmedBeforePruning() throws Exception {
+        FakeMetastore hive = new FakeMetastore();
+        MetastoreCache cache = hive.getMetadataCache();
+        long hour0 = HOUR_0.startEpochSecond();
+        long hour1 = HOUR_1.startEpochSecond();
+
+        assertTrue(cache.hasPartitionsInRange("tweets_partitioned", hour0, hour0 + 3600));
+        assertEquals(1, hive.showPartitionsCalls, "A cached hit needs no metastore call");
+
+        // Another process registered hour 1 since the list was cached
+        hive.partitionNames.add(HOUR_1.hiveRelativePath());
+        assertTrue(cache.hasPartitionsInRange("tweets_partitioned", hour1, hour1 + 3600));
+        assertEquals(2, hive.showPartitionsCalls);
+
+        assertFalse(cache.hasPartitionsInRange("tweets_partitioned", hour1 + 3600, hour1 + 7200));
+        assertEquals(3, hive.showPartitionsCalls);
+    }
+
+    @Test
+    void testInvalidateAndBackgroundRefresh() throws Exception {
+        FakeMetastore hive = new FakeMetastore();
+        MetastoreCache cache = new MetastoreCache(hive, Duration.ofMillis(50));
+        cache.getPartitions("tweets_partitioned");
+
+        hive.partitionNames.add(HOUR_1.hiveRelativePath());
+        Thread.sleep(100);
+        // The first read after the interval triggers an async refresh and still sees the old list
+        cache.getPartitions("tweets_partitioned");
+        long deadline = System.currentTimeMillis() + 5000;
+        while (cache.getPartitions("tweets_partitioned").size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, cache.getPartitions("tweets_partitioned").size());
+
+        int before = hive.describeCalls("tweets_partitioned");
+        cache.invalidate("tweets_partitioned");
+        cache.getSchema("tweets_partitioned");
+        assertEquals(before + 1, hive.describeCalls("tweets_partitioned"));
+    }
+
+    @Test
+    void testMetastoreErrorsSurfaceAsSqlException() {
+        FakeMetastore hive = new FakeMetastore();
+        SQLException e = assertThrows(SQLException.class, () -> hive.getMetadataCache().getSchema("missing"));
+        assertEquals("Table not found: missing", e.getMessage());
+    }
+
+    private static class FakeMetastore extends HiveQueryingService {
+        final List<String> describedTables = new CopyOnWriteArrayList<>();
+        final List<String> partitionNames = new CopyOnWriteArrayList<>(List.of(HOUR_0.hiveRelativePath()));
+        final List<String> statements = new ArrayList<>();
+        volatile int showPartitionsCalls;
+
+        int describeCalls(String table) {
+            return (int) describedTables.stream().filter(table::equals).count();
+        }
+
+        @Override
+        public MetastoreCache.TableSchema describeTable(String table) throws SQLException {
+            describedTables.add(table);
+            List<MetastoreCache.Column> columns = List.of(
+                new MetastoreCache.Column("tweet_id", "string"), new MetastoreCache.Column("like_count", "int"));
+            return switch (table) {
+                case "tweets_partitioned" -> new MetastoreCache.TableSchema(table, columns, List.of(
+                    new MetastoreCache.Column("year", "int"), new MetastoreCache.Column("month", "int"),
+                    new MetastoreCache.Column("day", "int"), new MetastoreCache.Column("hour", "int")));
+                case "tweets", "users" -> new MetastoreCache.TableSchema(table, columns, List.of());
+                default -> throw new SQLException("Table not found: " + table);
+            };
+        }
+
+        @Override
+        public List<String> showPartitions(String table) {
+            showPartitionsCalls++;
+            return List.copyOf(partitionNames);
+        }
+
+        @Override
+        void executeStatements(List<String> sql) {
+            statements.addAll(sql);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package org.example.service;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.example.hadoop.HDFSWriter;
+import org.example.hadoop.HourPartition;
+import org.example.hadoop.PartitionedStreamWriter;
+import org.example.model.Tweet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionRegistrarTest {
+
+    private static final long BASE_TIMESTAMP = 1_700_000_000L;
+
+    @TempDir
+    File tempDir;
+
+    private HDFSWriter hdfsWriter;
+    private String basePath;
+    private RecordingHiveService hiveService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        hdfsWriter = new HDFSWriter(FileSystem.getLocal(new Configuration()));
+        basePath = tempDir.getAbsolutePath() + "/data";
+        hiveService = new RecordingHiveService();
+    }
+
+    @Test
+    void testCommittedPartitionsAreRegisteredInOneBatch() throws Exception {
+        PartitionRegistrar registrar = new PartitionRegistrar(hiveService, "tweets_partitioned", "tweets");
+        hdfsWriter.addCommitListener(registrar);
+
+        try (PartitionedStreamWriter<Tweet> writer =
+                 hdfsWriter.openPartitionedWriter(basePath, "tweets", Tweet::getTimestamp, 2, 1024)) {
+            for (int i = 0; i < 300; i++) {
+                Tweet tweet = DataGenerator.generateRegularTweet();
+                tweet.setTimestamp(BASE_TIMESTAMP + (i % 3) * 3600L);
+                writer.write(tweet);
+            }
+        }
+        hdfsWriter.writePartitioned(List.of(DataGenerator.generateRegularUser()), basePath, "users");
+
+        assertEquals(3, registrar.getPendingCount(), "Other data types are ignored");
+        assertEquals(3, registrar.flush());
+        assertEquals(1, hiveService.batches.size());
+        assertEquals(hiveService.batches.get(0).keySet(), Set.copyOf(hiveService.analyzed),
+            "Statistics computed for exactly the new partitions");
+
+        Map<HourPartition, String> batch = hiveService.batches.get(0);
+        HourPartition first = HourPartition.ofEpochSecond(BASE_TIMESTAMP);
+        assertEquals(basePath + "/tweets/" + first.relativePath(), batch.get(first));
+
+        // Already registered partitions never go to the metastore again
+        hdfsWriter.writePartitioned(List.of(DataGenerator.generateRegularTweet()), basePath, "tweets");
+        registrar.flush();
+        int before = hiveService.batches.size();
+        try (PartitionedStreamWriter<Tweet> writer =
+                 hdfsWriter.openPartitionedWriter(basePath, "tweets", Tweet::getTimestamp, 1, 1024)) {
+            Tweet tweet = DataGenerator.generateRegularTweet();
+            tweet.setTimestamp(BASE_TIMESTAMP);
+            writer.write(tweet);
+        }
+        assertEquals(0, registrar.flush());
+        assertEquals(before, hiveService.batches.size());
+    }
+
+    @Test
+    void testLaterFilesOfRegisteredHourRefreshStatisticsAndRollups() throws Exception {
+        PartitionRegistrar registrar = new PartitionRegistrar(hiveService, "tweets_partitioned", "tweets");
+        registrar.setRefreshRollups(true);
+        hdfsWriter.addCommitListener(registrar);
+        Tweet tweet = DataGenerator.generateRegularTweet();
+        tweet.setTimestamp(BASE_TIMESTAMP);
+
+        try (PartitionedStreamWriter<Tweet> writer =
+                 hdfsWriter.openPartitionedWriter(basePath, "tweets", Tweet::getTimestamp, 1, 1024)) {
+            writer.write(tweet);
+        }
+        assertEquals(1, registrar.flush());
+        assertEquals(1, hiveService.analyzed.size());
+        assertEquals(1, hiveService.rollupStatements.size());
+
+        try (PartitionedStreamWriter<Tweet> writer =
+                 hdfsWriter.openPartitionedWriter(basePath, "tweets", Tweet::getTimestamp, 1, 1024)) {
+            writer.write(tweet);
+        }
+        assertEquals(Set.of(HourPartition.ofEpochSecond(BASE_TIMESTAMP)), registrar.getDirtyPartitions());
+        assertEquals(0, registrar.flush(), "Nothing new to register");
+        assertEquals(List.of(HourPartition.ofEpochSecond(BASE_TIMESTAMP), HourPartition.ofEpochSecond(BASE_TIMESTAMP)),
+            hiveService.analyzed, "Second file of the hour is analyzed again");
+        assertEquals(2, hiveService.rollupStatements.size());
+        assertTrue(registrar.getDirtyPartitions().isEmpty());
+
+        assertEquals(0, registrar.flush());
+        assertEquals(2, hiveService.analyzed.size(), "Clean hours are not analyzed again");
+    }
+
+    @Test
+    void testFailedBatchStaysPendingAndBackgroundFlushRetries() throws Exception {
+        hiveService.failuresLeft = 1;
+        try (PartitionRegistrar registrar = new PartitionRegistrar(hiveService, "tweets_partitioned", "tweets")) {
+            hdfsWriter.addCommitListener(registrar);
+            hdfsWriter.writePartitioned(List.of(DataGenerator.generateRegularTweet()), basePath, "tweets");
+
+            assertThrows(SQLException.class, registrar::flush);
+            assertEquals(1, registrar.getPendingCount());
+
+            registrar.start(20, TimeUnit.MILLISECONDS);
+            long deadline = System.currentTimeMillis() + 5000;
+            while (registrar.getPendingCount() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, registrar.getPendingCount());
+            assertEquals(1, registrar.getRegisteredPartitions().size());
+        }
+    }
+
+    @Test
+    void testFailedRollupRefreshIsRetriedOnNextFlush() throws Exception {
+        hiveService.rollupFailuresLeft = 1;
+        PartitionRegistrar registrar = new PartitionRegistrar(hiveService, "tweets_partitioned", "tweets");
+        registrar.setRefreshRollups(true);
+        hdfsWriter.addCommitListener(registrar);
+        hdfsWriter.writePartitioned(List.of(DataGenerator.generateRegularTweet()), basePath, "tweets");
+
+        assertEquals(1, registrar.flush(), "Registration stands even if the rollup refresh fails");
+        assertEquals(1, registrar.getStaleRollups().size());
+        assertTrue(hiveService.rollupStatements.isEmpty());
+
+        assertEquals(0, registrar.flush());
+        assertTrue(registrar.getStaleRollups().isEmpty());
+        assertEquals(1, hiveService.rollupStatements.size());
+        HourPartition partition = registrar.getRegisteredPartitions().iterator().next();
+        String sql = hiveService.rollupStatements.get(0);
+        assertTrue(sql.startsWith("INSERT OVERWRITE TABLE tweet_hourly_rollups PARTITION (" + partition.hiveSpec() + ")"), sql);
+        assertTrue(sql.contains("WHERE " + partition.hiveSpec().replace(", ", " AND ")), sql);
+    }
+
+    private static class RecordingHiveService extends HiveQueryingService {
+        final List<Map<HourPartition, String>> batches = new CopyOnWriteArrayList<>();
+        final List<HourPartition> analyzed = new CopyOnWriteArrayList<>();
+        final List<String> rollupStatements = new CopyOnWriteArrayList<>();
+        volatile int failuresLeft;
+        volatile int rollupFailuresLeft;
+
+        @Override
+        public void addPartitions(String table, Map<HourPartition, String> locations) throws SQLException {
+            if (failuresLeft > 0) {
+                failuresLeft--;
+                throw new SQLException("metastore unavailable");
+            }
+            batches.add(Map.copyOf(locations));
+        }
+
+        @Override
+        public void analyzePartitions(String table, Collection<HourPartition> partitions) {
+            analyzed.addAll(partitions);
+        }
+
+        @Override
+        void executeStatements(List<String> sql) throws SQLException {
+            if (rollupFailuresLeft > 0) {
+                rollupFailuresLeft--;
+                throw new SQLException("HiveServer2 unavailable");
+            }
+            rollupStatements.addAll(sql);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionedBatchLoaderTest {
+
+    private record Row(int partition, int sequence) {
+    }
+
+    @Test
+    void testPreservesPerPartitionOrderWithBoundedMemory() throws Exception {
+        int partitions = 8;
+        int rows = 20_000;
+        long rowBytes = 100;
+        long totalBudget = 50 * rowBytes;
+        Map<Integer, List<Integer>> written = new ConcurrentHashMap<>();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        try (var loader = new PartitionedBatchLoader<Integer, Row>(Row::partition, row -> rowBytes, (partition, batch) -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(1);
+            List<Integer> sequences = written.computeIfAbsent(partition, key -> new ArrayList<>());
+            synchronized (sequences) {
+                batch.forEach(row -> sequences.add(row.sequence()));
+            }
+            inFlight.decrementAndGet();
+        }, 10 * rowBytes, totalBudget, 4)) {
+            for (int i = 0; i < rows; i++) {
+                loader.add(new Row(i % partitions, i));
+            }
+            loader.finish();
+
+            assertEquals(rows, loader.getRecordsWritten());
+            assertTrue(loader.getPeakBufferedBytes() <= totalBudget + rowBytes,
+                "Peak " + loader.getPeakBufferedBytes() + " exceeds budget " + totalBudget);
+        }
+
+        assertEquals(partitions, written.size());
+        for (var entry : written.entrySet()) {
+            List<Integer> sequences = entry.getValue();
+            assertEquals(rows / partitions, sequences.size());
+            for (int i = 1; i < sequences.size(); i++) {
+                assertTrue(sequences.get(i - 1) < sequences.get(i), "Partition " + entry.getKey() + " out of order");
+            }
+        }
+        assertTrue(maxInFlight.get() > 1, "Partitions should be written concurrently");
+        assertTrue(maxInFlight.get() <= 4, "Never more writers than workers");
+    }
+
+    @Test
+    void testSinkFailureIsReported() {
+        try (var loader = new PartitionedBatchLoader<Integer, Row>(Row::partition, row -> 1, (partition, batch) -> {
+            if (partition == 1) {
+                throw new IllegalStateException("boom");
+            }
+        }, 5, 20, 2)) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> {
+                for (int i = 0; i < 1000; i++) {
+                    loader.add(new Row(i % 3, i));
+                }
+                loader.finish();
+            });
+            assertEquals("boom", e.getCause().getMessage());
+        }
+    }
+}
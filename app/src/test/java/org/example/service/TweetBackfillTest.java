@@ -0,0 +1,186 @@
+package org.example.service;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetReader;
+import org.apache.parquet.hadoop.example.GroupReadSupport;
+import org.apache.parquet.hadoop.util.HadoopInputFile;
+import org.example.calcite.HdfsTweetTable;
+import org.example.hadoop.HourPartition;
+import org.example.hadoop.HourlyTermCounts;
+import org.example.hadoop.Sidecars;
+import org.example.hadoop.TweetColumnStatistics;
+import org.example.hadoop.TweetSketches;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TweetBackfillTest {
+
+    private static final HourPartition FROM = HourPartition.of(LocalDateTime.of(2024, 8, 1, 0, 0));
+    private static final HourPartition TO = HourPartition.of(LocalDateTime.of(2024, 8, 1, 3, 0));
+
+    @TempDir
+    File tempDir;
+
+    private FileSystem fileSystem;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        fileSystem = FileSystem.getLocal(new Configuration());
+    }
+
+    @Test
+    void testWritesParquetIntoHivePartitionLayout() throws Exception {
+        String target = tempDir.getAbsolutePath() + "/tweets_partitioned";
+        TweetBackfill backfill = new TweetBackfill(fileSystem, target, 4, 700);
+        TweetBackfill.Result result = backfill.run(FROM, TO, 1000, TweetBackfill.RateCurve.FLAT, 42);
+
+        assertEquals(3, result.partitions().size());
+        assertEquals(3000, result.rows());
+        assertEquals(6, result.files(), "1000 rows per hour split into files of at most 700 rows");
+
+        Path hour2 = new Path(target, "year=2024/month=8/day=1/hour=2");
+        long rows = 0;
+        for (FileStatus status : fileSystem.listStatus(hour2)) {
+            if (Sidecars.isSidecar(status.getPath().getName(), TweetSketches.SIDECAR_SUFFIX)) {
+                continue;
+            }
+            assertTrue(status.getPath().getName().matches("part-\\d{5}\\.parquet"), "Only committed data files");
+            try (ParquetFileReader reader = ParquetFileReader.open(HadoopInputFile.fromPath(status.getPath(), fileSystem.getConf()))) {
+                rows += reader.getRecordCount();
+            }
+        }
+        assertEquals(1000, rows);
+
+        List<Group> records = readAll(new Path(hour2, "part-00000.parquet"));
+        long hourStart = HourPartition.of(LocalDateTime.of(2024, 8, 1, 2, 0)).startEpochSecond();
+        for (Group record : records) {
+            long timestamp = record.getLong("tweet_timestamp", 0);
+            assertTrue(timestamp >= hourStart && timestamp < hourStart + 3600, "Timestamp inside its partition hour");
+        }
+
+        TweetColumnStatistics statistics = result.statistics().get(HourPartition.of(LocalDateTime.of(2024, 8, 1, 2, 0)));
+        assertEquals(1000, statistics.getRowCount());
+        assertEquals("1000", statistics.tableStatistics().get("numRows"));
+        assertEquals(1000, statistics.distinctValues("tweet_id"), 50, "HLL estimate of unique tweet ids");
+        Map<String, String> timestampStats = statistics.columnStatistics().get("tweet_timestamp");
+        assertTrue(Long.parseLong(timestampStats.get("lowValue")) >= hourStart);
+        assertTrue(Long.parseLong(timestampStats.get("highValue")) < hourStart + 3600);
+
+        Map<HourPartition, String> locations = backfill.partitionLocations(result);
+        assertEquals(3, locations.size());
+        assertTrue(locations.get(FROM).endsWith("/tweets_partitioned/year=2024/month=8/day=1/hour=0"));
+    }
+
+    @Test
+    void testSameSeedProducesSameData() throws Exception {
+        String first = tempDir.getAbsolutePath() + "/first";
+        String second = tempDir.getAbsolutePath() + "/second";
+        new TweetBackfill(fileSystem, first, 1, 1000).run(FROM, TO, 200, TweetBackfill.RateCurve.DIURNAL, 7);
+        new TweetBackfill(fileSystem, second, 3, 1000).run(FROM, TO, 200, TweetBackfill.RateCurve.DIURNAL, 7);
+
+        String file = "year=2024/month=8/day=1/hour=1/part-00000.parquet";
+        List<Group> a = readAll(new Path(first, file));
+        List<Group> b = readAll(new Path(second, file));
+        assertEquals(a.size(), b.size());
+        for (int i = 0; i < a.size(); i++) {
+            assertEquals(a.get(i).toString(), b.get(i).toString());
+        }
+    }
+
+    @Test
+    void testRerunWithFewerFilesReplacesTheHour() throws Exception {
+        String target = tempDir.getAbsolutePath() + "/tweets_partitioned";
+        new TweetBackfill(fileSystem, target, 2, 300).run(FROM, TO, 1000, TweetBackfill.RateCurve.FLAT, 42);
+        new TweetBackfill(fileSystem, target, 2, 1000).run(FROM, TO, 1000, TweetBackfill.RateCurve.FLAT, 42);
+
+        Path hour1 = new Path(target, "year=2024/month=8/day=1/hour=1");
+        List<String> names = new ArrayList<>();
+        long rows = 0;
+        for (FileStatus status : fileSystem.listStatus(hour1)) {
+            names.add(status.getPath().getName());
+            if (Sidecars.isDataFile(status.getPath().getName())) {
+                try (ParquetFileReader reader = ParquetFileReader.open(HadoopInputFile.fromPath(status.getPath(), fileSystem.getConf()))) {
+                    rows += reader.getRecordCount();
+                }
+            }
+        }
+        assertEquals(1000, rows, "Parts of the first run are not counted twice");
+        assertEquals(2, names.size(), "One part file and its sketch sidecar: " + names);
+    }
+
+    @Test
+    void testStatisticsArePushedWithoutAScan() throws Exception {
+        String target = tempDir.getAbsolutePath() + "/tweets_partitioned";
+        TweetBackfill.Result result = new TweetBackfill(fileSystem, target, 2, 1000)
+            .run(FROM, FROM.plusHours(1), 100, TweetBackfill.RateCurve.FLAT, 1);
+
+        List<String> statements = new ArrayList<>();
+        HiveQueryingService hiveService = new HiveQueryingService() {
+            @Override
+            void executeStatements(List<String> sql) {
+                statements.addAll(sql);
+            }
+        };
+        hiveService.updatePartitionStatistics("tweets_partitioned", result.statistics());
+
+        String partition = "ALTER TABLE tweets_partitioned PARTITION (year=2024, month=8, day=1, hour=0)";
+        assertTrue(statements.contains(partition + " UPDATE STATISTICS SET ('numRows'='100', 'rawDataSize'='"
+            + result.statistics().get(FROM).tableStatistics().get("rawDataSize") + "')"));
+        assertTrue(statements.stream().anyMatch(sql -> sql.startsWith(partition + " UPDATE STATISTICS FOR COLUMN like_count SET ('numDVs'=")));
+        assertTrue(statements.stream().anyMatch(sql -> sql.startsWith(partition + " UPDATE STATISTICS FOR COLUMN is_celebrity SET ('numTrues'=")));
+        assertTrue(statements.stream().noneMatch(sql -> sql.contains("hashtags")), "No column stats for arrays");
+    }
+
+    @Test
+    void testHashtagAndMentionCountsMatchWrittenTweets() throws Exception {
+        String target = tempDir.getAbsolutePath() + "/tweets_partitioned";
+        TweetBackfill.Result result = new TweetBackfill(fileSystem, target, 3, 150)
+            .run(FROM, FROM.plusHours(2), 400, TweetBackfill.RateCurve.FLAT, 5);
+
+        Map<String, Long> hashtags = new HashMap<>();
+        Map<String, Long> mentions = new HashMap<>();
+        HdfsTweetTable table = new HdfsTweetTable(fileSystem, new Path(target, "year=2024/month=8/day=1/hour=1"));
+        for (Object[] row : table.scan(null, new ArrayList<>(), new int[]{10, 11})) {
+            ((List<?>) row[0]).forEach(hashtag -> hashtags.merge((String) hashtag, 1L, Long::sum));
+            ((List<?>) row[1]).forEach(mention -> mentions.merge((String) mention, 1L, Long::sum));
+        }
+        HourlyTermCounts counts = result.termCounts().get(FROM.plusHours(1));
+        assertEquals(hashtags, counts.getHashtagCounts());
+        assertEquals(mentions, counts.getMentionCounts());
+
+        // Rerunning a backfill replaces the counts of its hours instead of adding to them
+        List<String> statements = HiveQueryingService.termCountSql(FROM.plusHours(1), counts, true);
+        String partition = "PARTITION (year=2024, month=8, day=1, hour=1)";
+        assertEquals("ALTER TABLE hashtag_hourly_counts DROP IF EXISTS " + partition, statements.get(0));
+        assertTrue(statements.get(1).startsWith("INSERT INTO TABLE hashtag_hourly_counts " + partition + " VALUES ('"), statements.get(1));
+        assertEquals("ALTER TABLE mention_hourly_counts DROP IF EXISTS " + partition, statements.get(2));
+        assertEquals(4, statements.size());
+    }
+
+    private List<Group> readAll(Path path) throws IOException {
+        List<Group> records = new ArrayList<>();
+        try (ParquetReader<Group> reader = ParquetReader.builder(new GroupReadSupport(), path).withConf(fileSystem.getConf()).build()) {
+            Group record;
+            while ((record = reader.read()) != null) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+}
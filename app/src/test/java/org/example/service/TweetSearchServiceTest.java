@@ -0,0 +1,215 @@
+package org.example.service;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.example.hadoop.HDFSReader;
+import org.example.hadoop.HDFSWriter;
+import org.example.hadoop.InvertedIndex;
+import org.example.model.Tweet;
+import org.example.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.example.hadoop.InvertedIndex.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TweetSearchServiceTest {
+    private static final long START = 1_704_067_200L; // 2024-01-01T00:00:00Z
+
+    @TempDir
+    File tempDir;
+
+    private FileSystem fileSystem;
+    private HDFSWriter writer;
+    private String basePath;
+    private final List<Tweet> indexedTweets = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        fileSystem = FileSystem.getLocal(new Configuration());
+        basePath = tempDir.getAbsolutePath() + "/tweets";
+        writer = new HDFSWriter(fileSystem);
+        writer.addSidecar(InvertedIndex::sidecar);
+
+        Random random = new Random(50);
+        for (int hour = 0; hour < 10; hour++) {
+            for (int file = 0; file < 4; file++) {
+                List<Tweet> tweets = generate(random, START + hour * 3600L + file * 500L, 500);
+                // One rare word, in two hours only
+                if ((hour == 3 && file == 2) || (hour == 8 && file == 0)) {
+                    tweets.get(123).setContent("Spotted a Zeppelin over the datacenter #tech");
+                }
+                writer.writeAsJsonLines(tweets, pathOf(hour, "tweets-" + file + ".json"));
+                indexedTweets.addAll(tweets);
+            }
+        }
+
+        // A file written before the index existed is counted but not searched
+        new HDFSWriter(fileSystem).writeAsJsonLines(generate(random, START + 9 * 3600L + 3000, 100),
+            pathOf(9, "legacy.json"));
+    }
+
+    @Test
+    void testQueriesMatchContentAndHashtagFilters() throws IOException {
+        TweetSearchService service = new TweetSearchService(fileSystem, basePath);
+        assertMatches(service, term("#Kafka"), tweet -> hasTag(tweet, "#kafka"));
+        assertMatches(service, and(term("#kafka"), term("#sports")),
+            tweet -> hasTag(tweet, "#kafka") && hasTag(tweet, "#sports"));
+        assertMatches(service, or(term("zeppelin"), and(term("momentum"), term("#ai"))),
+            tweet -> hasWord(tweet, "zeppelin") || (hasWord(tweet, "momentum") && hasTag(tweet, "#ai")));
+        assertEquals(0, service.count(term("#missing"), START, START + 36_000));
+
+        TweetSearchService.SearchResult rare = service.search(term("zeppelin"), START, START + 36_000, 10);
+        assertEquals(2, rare.hits());
+        assertEquals(1, rare.filesWithoutIndex());
+        assertTrue(rare.tweets().get(0).getTimestamp() > rare.tweets().get(1).getTimestamp(), "newest first");
+        assertTrue(rare.tweets().get(0).getContent().contains("Zeppelin"));
+    }
+
+    @Test
+    void testSearchesAreRestrictedToTheTimeRange() throws IOException {
+        TweetSearchService service = new TweetSearchService(fileSystem, basePath);
+        long from = START + 2 * 3600 + 1800;
+        long to = START + 5 * 3600 + 600;
+        Predicate<Tweet> kafkaInRange = tweet -> hasTag(tweet, "#kafka")
+            && tweet.getTimestamp() >= from && tweet.getTimestamp() < to;
+
+        TweetSearchService.SearchResult result = service.search(term("#kafka"), from, to, 5);
+        assertEquals(indexedTweets.stream().filter(kafkaInRange).count(), result.hits());
+        assertEquals(4, result.hoursSearched(), "hours 2 to 5");
+        List<Tweet> newest = indexedTweets.stream().filter(kafkaInRange)
+            .sorted((a, b) -> Long.compare(b.getTimestamp(), a.getTimestamp())).limit(5).toList();
+        assertEquals(ids(newest), ids(result.tweets()));
+    }
+
+    @Test
+    void testMergedSegmentsAnswerTheSameAndFollowChanges() throws Exception {
+        TweetSearchService service = new TweetSearchService(fileSystem, basePath);
+        InvertedIndex.Query query = or(term("zeppelin"), and(term("#kafka"), term("#sports")));
+        TweetSearchService.SearchResult before = service.search(query, START, START + 36_000, 10_000);
+        assertEquals(40, before.segmentsSearched());
+
+        assertEquals(10, service.mergeSegments());
+        assertEquals(0, service.mergeSegments(), "nothing left to merge");
+        TweetSearchService.SearchResult merged = service.search(query, START, START + 36_000, 10_000);
+        assertEquals(10, merged.segmentsSearched());
+        assertEquals(before.hits(), merged.hits());
+        assertEquals(sortedIds(before.tweets()), sortedIds(merged.tweets()));
+
+        // A new file gets searched through its own segment until the next merge
+        List<Tweet> added = generate(new Random(500), START + 4 * 3600L + 2500, 200);
+        added.get(0).setContent("Another zeppelin sighting");
+        writer.writeAsJsonLines(added, pathOf(4, "tweets-4.json"));
+        // A rewritten file makes the merged segment of its hour stale
+        List<Tweet> rewritten = generate(new Random(501), START + 5 * 3600L, 300);
+        rewritten.get(0).setContent("Zeppelin again");
+        writer.writeAsJsonLines(rewritten, pathOf(5, "tweets-0.json"));
+        indexedTweets.removeIf(tweet -> tweet.getTimestamp() >= START + 5 * 3600L && tweet.getTimestamp() < START + 5 * 3600L + 500);
+        indexedTweets.addAll(added);
+        indexedTweets.addAll(rewritten);
+
+        TweetSearchService.SearchResult changed = service.search(query, START, START + 36_000, 10_000);
+        assertEquals(10 + 1 + 3, changed.segmentsSearched(), "hour 4 adds a segment, hour 5 falls back to its 4 files");
+        Predicate<Tweet> expected = tweet -> hasWord(tweet, "zeppelin") || (hasTag(tweet, "#kafka") && hasTag(tweet, "#sports"));
+        assertEquals(sortedIds(indexedTweets.stream().filter(expected).toList()), sortedIds(changed.tweets()));
+
+        // The background merger folds both hours back into one segment each
+        service.start(10, TimeUnit.MILLISECONDS);
+        try {
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (service.search(query, START, START + 36_000, 0).segmentsSearched() > 10
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+        } finally {
+            service.close();
+        }
+        TweetSearchService.SearchResult remerged = service.search(query, START, START + 36_000, 10_000);
+        assertEquals(10, remerged.segmentsSearched());
+        assertEquals(sortedIds(changed.tweets()), sortedIds(remerged.tweets()));
+    }
+
+    @Test
+    void testSearchTakesMillisecondsInsteadOfAScan() throws IOException {
+        TweetSearchService service = new TweetSearchService(fileSystem, basePath);
+        service.mergeSegments();
+        HDFSReader reader = new HDFSReader(fileSystem);
+        InvertedIndex.Query query = and(term("#spark"), or(term("announcement"), term("momentum")));
+        Predicate<Tweet> expected = tweet -> hasTag(tweet, "#spark")
+            && (hasWord(tweet, "announcement") || hasWord(tweet, "momentum"));
+
+        double scanned = Double.MAX_VALUE;
+        double searched = Double.MAX_VALUE;
+        // Later rounds run JIT-compiled; keep the best of each
+        for (int round = 0; round < 10; round++) {
+            long start = System.nanoTime();
+            long count = 0;
+            for (int hour = 0; hour < 10; hour++) {
+                for (int file = 0; file < 4; file++) {
+                    count += reader.readJsonLines(pathOf(hour, "tweets-" + file + ".json"), Tweet.class).stream()
+                        .filter(expected).count();
+                }
+            }
+            scanned = Math.min(scanned, (System.nanoTime() - start) / 1e6);
+
+            start = System.nanoTime();
+            TweetSearchService.SearchResult result = service.search(query, START, START + 36_000, 20);
+            searched = Math.min(searched, (System.nanoTime() - start) / 1e6);
+            assertEquals(count, result.hits());
+            assertEquals(20, result.tweets().size());
+        }
+        System.out.printf("⚡ Search in %.2f ms from the inverted index vs %.2f ms scanning tweets (%.0fx)%n",
+            searched, scanned, scanned / searched);
+        assertTrue(searched < scanned, "Index searches should beat scanning every tweet");
+    }
+
+    private void assertMatches(TweetSearchService service, InvertedIndex.Query query, Predicate<Tweet> expected)
+            throws IOException {
+        List<Tweet> matching = indexedTweets.stream().filter(expected).toList();
+        TweetSearchService.SearchResult result = service.search(query, START, START + 36_000, Integer.MAX_VALUE);
+        assertEquals(matching.size(), result.hits(), query.toString());
+        assertEquals(sortedIds(matching), sortedIds(result.tweets()), query.toString());
+        assertEquals(matching.size(), service.count(query, START, START + 36_000));
+    }
+
+    private static List<Tweet> generate(Random random, long firstTimestamp, int count) {
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            User user = random.nextInt(10) == 0 ? DataGenerator.generateCelebrity(random) : DataGenerator.generateRegularUser(random);
+            tweets.add(DataGenerator.generateTweet(user, random, firstTimestamp + i));
+        }
+        return tweets;
+    }
+
+    private String pathOf(int hour, String file) {
+        return String.format("%s/year=2024/month=01/day=01/hour=%02d/%s", basePath, hour, file);
+    }
+
+    private static boolean hasTag(Tweet tweet, String hashtag) {
+        return tweet.getHashtags().stream().anyMatch(tag -> tag.equalsIgnoreCase(hashtag));
+    }
+
+    private static boolean hasWord(Tweet tweet, String word) {
+        return Arrays.asList(tweet.getContent().toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")).contains(word);
+    }
+
+    private static List<String> ids(List<Tweet> tweets) {
+        return tweets.stream().map(Tweet::getTweetId).toList();
+    }
+
+    private static List<String> sortedIds(List<Tweet> tweets) {
+        return tweets.stream().map(Tweet::getTweetId).sorted().toList();
+    }
+}
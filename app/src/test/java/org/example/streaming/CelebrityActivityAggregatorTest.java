@@ -0,0 +1,121 @@
+package org.example.streaming;
+
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.example.model.Event;
+import org.example.service.DataGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CelebrityActivityAggregatorTest {
+
+    private static final long START = 1_722_470_400L; // 2024-08-01T00:00:00Z, on a minute boundary
+
+    @TempDir
+    File stateDir;
+
+    private TopologyTestDriver driver;
+    private TestInputTopic<String, Event> events;
+    private TestOutputTopic<String, CelebrityActivity> counts;
+
+    @BeforeEach
+    void setUp() {
+        driver = new TopologyTestDriver(
+            CelebrityActivityAggregator.topology(Duration.ofMinutes(1), Duration.ofSeconds(10)),
+            CelebrityActivityAggregator.config("dummy:9092", 1, stateDir.getAbsolutePath()));
+        events = driver.createInputTopic(CelebrityActivityAggregator.SOURCE_TOPIC,
+            Serdes.String().serializer(), new JsonSerde<>(Event.class).serializer());
+        counts = driver.createOutputTopic(CelebrityActivityAggregator.OUTPUT_TOPIC,
+            Serdes.String().deserializer(), new JsonSerde<>(CelebrityActivity.class).deserializer());
+    }
+
+    @AfterEach
+    void tearDown() {
+        driver.close();
+    }
+
+    @Test
+    void testEmitsOneFinalCountPerCelebrityAndWindow() {
+        Random random = new Random(9);
+        Map<String, Map<String, Long>> expected = new HashMap<>();
+        for (int i = 0; i < 2_000; i++) {
+            boolean celebrity = random.nextBoolean();
+            String celebrityId = "celebrity_" + random.nextInt(3);
+            Event event = DataGenerator.generateEvent("user_" + i, "tweet_" + i, celebrity, celebrity ? celebrityId : null);
+            event.setTimestamp(START + random.nextInt(60));
+            if (celebrity) {
+                expected.computeIfAbsent(celebrityId, id -> new HashMap<>()).merge(event.getEventType(), 1L, Long::sum);
+            }
+            events.pipeInput(event.getUserId(), event);
+        }
+        // Malformed records are skipped rather than stopping the application
+        driver.createInputTopic(CelebrityActivityAggregator.SOURCE_TOPIC, Serdes.String().serializer(),
+            Serdes.String().serializer()).pipeInput("broken", "{not json");
+
+        assertTrue(counts.isEmpty(), "Nothing is emitted while the window is open");
+        events.pipeInput("late", celebrityEvent("celebrity_0", START + 65));
+        assertTrue(counts.isEmpty(), "Nothing is emitted within the grace period");
+        events.pipeInput("later", celebrityEvent("celebrity_0", START + 71));
+
+        List<KeyValue<String, CelebrityActivity>> results = counts.readKeyValuesToList();
+        assertEquals(3, results.size());
+        for (KeyValue<String, CelebrityActivity> result : results) {
+            CelebrityActivity activity = result.value;
+            assertEquals(result.key, activity.getCelebrityId());
+            assertEquals(START * 1000, activity.getWindowStart());
+            assertEquals((START + 60) * 1000, activity.getWindowEnd());
+            assertEquals(expected.get(result.key), activity.getCounts());
+            assertEquals(activity.getCounts().values().stream().mapToLong(Long::longValue).sum(), activity.getTotal());
+        }
+        assertNotNull(driver.getTimestampedWindowStore(CelebrityActivityAggregator.STORE));
+    }
+
+    @Test
+    void testEventsWithoutTypeAreDropped() {
+        // The JSON codec leaves a missing event_type unset
+        driver.createInputTopic(CelebrityActivityAggregator.SOURCE_TOPIC, Serdes.String().serializer(),
+            Serdes.String().serializer()).pipeInput("untyped", "{\"event_id\":\"e1\",\"user_id\":\"user_1\","
+                + "\"target_id\":\"tweet_1\",\"timestamp\":" + (START + 1)
+                + ",\"is_celebrity_involved\":true,\"celebrity_id\":\"celebrity_0\"}");
+        Event typed = celebrityEvent("celebrity_0", START + 2);
+        events.pipeInput("typed", typed);
+        events.pipeInput("later", celebrityEvent("celebrity_0", START + 71));
+
+        List<CelebrityActivity> results = counts.readValuesToList();
+        assertEquals(1, results.size());
+        assertEquals(Map.of(typed.getEventType(), 1L), results.get(0).getCounts());
+        assertEquals(1, results.get(0).getTotal());
+    }
+
+    @Test
+    void testReportsThroughputPerStreamThread() {
+        for (int i = 0; i < 500; i++) {
+            events.pipeInput("key", celebrityEvent("celebrity_" + (i % 5), START + i));
+        }
+        Map<String, Double> rates = CelebrityActivityAggregator.eventsPerSecondByThread(driver.metrics());
+        assertEquals(1, rates.size(), "One rate per stream thread: " + rates);
+        assertTrue(rates.values().iterator().next() >= 0);
+        // Windows up to [420 s, 480 s) have closed for all 5 celebrities
+        assertEquals(40, counts.readValuesToList().size());
+    }
+
+    private static Event celebrityEvent(String celebrityId, long timestamp) {
+        Event event = DataGenerator.generateEvent("user_1", "tweet_1", true, celebrityId);
+        event.setTimestamp(timestamp);
+        return event;
+    }
+}
@@ -0,0 +1,173 @@
+package org.example.streaming;
+
+import org.example.model.Tweet;
+import org.example.model.User;
+import org.example.service.DataGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrendingHashtagsTest {
+
+    private static final Duration BUCKET = Duration.ofSeconds(10);
+
+    @Test
+    void testSpaceSavingStaysBoundedAndKeepsHeavyHittersAcrossMerges() {
+        Random random = new Random(5);
+        Map<String, Long> exact = new HashMap<>();
+        List<SpaceSaving> parts = new ArrayList<>();
+        for (int part = 0; part < 4; part++) {
+            SpaceSaving summary = new SpaceSaving(100);
+            for (int i = 0; i < 50_000; i++) {
+                // A few heavy tags in a long tail of one-off tags
+                String item = random.nextInt(10) < 3 ? "#heavy" + random.nextInt(5) : "#tail" + random.nextInt(1_000_000);
+                exact.merge(item, 1L, Long::sum);
+                summary.add(item);
+            }
+            assertEquals(100, summary.size());
+            parts.add(summary);
+        }
+        SpaceSaving merged = SpaceSaving.merge(parts, 100);
+
+        assertEquals(200_000, merged.getTotal());
+        assertTrue(merged.size() <= 100);
+        List<SpaceSaving.Item> top = merged.top(5);
+        for (SpaceSaving.Item item : top) {
+            assertTrue(item.item().startsWith("#heavy"), "Heavy hitter on top: " + item);
+            long trueCount = exact.get(item.item());
+            assertTrue(item.count() >= trueCount && item.count() - item.error() <= trueCount, "Within error: " + item);
+        }
+        assertTrue(merged.getFloor() < top.get(4).count() - top.get(4).error(), "Unmonitored tags cannot outrank the top");
+    }
+
+    @Test
+    void testConcurrentProducersMatchExactCountsWithinError() throws Exception {
+        MutableClock clock = new MutableClock();
+        TrendingHashtags trending = new TrendingHashtags(clock, BUCKET, 200, 4);
+        Map<String, Long> exact = new ConcurrentHashMap<>();
+        AtomicLong total = new AtomicLong();
+
+        ExecutorService producers = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            int seed = thread;
+            futures.add(producers.submit(() -> {
+                Random random = new Random(seed);
+                User user = DataGenerator.generateCelebrity(random);
+                for (int i = 0; i < 5_000; i++) {
+                    Tweet tweet = DataGenerator.generateTweet(user, random, clock.millis() / 1000);
+                    tweet.getHashtags().forEach(hashtag -> exact.merge(hashtag, 1L, Long::sum));
+                    total.addAndGet(tweet.getHashtags().size());
+                    trending.add(tweet);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        producers.shutdown();
+        assertTrue(producers.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertTrue(trending.top(TrendingHashtags.Window.ONE_MINUTE, 5).isEmpty(), "Open bucket is not visible yet");
+        clock.advance(BUCKET);
+
+        TrendingHashtags.Snapshot snapshot = trending.snapshot(TrendingHashtags.Window.ONE_MINUTE);
+        assertEquals(total.get(), snapshot.total());
+        List<SpaceSaving.Item> top = snapshot.top(5);
+        assertEquals(5, top.size());
+        String exactTop = exact.entrySet().stream().max(Map.Entry.comparingByValue()).orElseThrow().getKey();
+        assertEquals(exactTop, top.get(0).item());
+        for (SpaceSaving.Item item : top) {
+            long trueCount = exact.get(item.item());
+            assertTrue(item.count() >= trueCount && item.count() - item.error() <= trueCount, "Within error: " + item);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 10_000; i++) {
+            trending.top(TrendingHashtags.Window.ONE_HOUR, 10);
+        }
+        double micros = (System.nanoTime() - start) / 1e3 / 10_000;
+        assertTrue(micros < 1000, "Top-K query took " + micros + " µs");
+    }
+
+    @Test
+    void testWindowsSlideAndExpire() {
+        MutableClock clock = new MutableClock();
+        TrendingHashtags trending = new TrendingHashtags(clock, BUCKET, 50, 2);
+        for (int i = 0; i < 30; i++) {
+            trending.add(tweetWith("#earlier"));
+        }
+        clock.advance(Duration.ofMinutes(3));
+        for (int i = 0; i < 10; i++) {
+            trending.add(tweetWith("#now"));
+        }
+        clock.advance(BUCKET);
+
+        assertEquals(List.of("#now"), items(trending.top(TrendingHashtags.Window.ONE_MINUTE, 5)));
+        assertEquals(List.of("#earlier", "#now"), items(trending.top(TrendingHashtags.Window.FIVE_MINUTES, 5)));
+
+        clock.advance(Duration.ofMinutes(5));
+        assertTrue(trending.top(TrendingHashtags.Window.FIVE_MINUTES, 5).isEmpty());
+        assertEquals(List.of("#earlier", "#now"), items(trending.top(TrendingHashtags.Window.ONE_HOUR, 5)));
+
+        clock.advance(Duration.ofMinutes(53));
+        assertEquals(List.of("#now"), items(trending.top(TrendingHashtags.Window.ONE_HOUR, 5)));
+        clock.advance(Duration.ofHours(2));
+        assertTrue(trending.top(TrendingHashtags.Window.ONE_HOUR, 5).isEmpty());
+    }
+
+    private static Tweet tweetWith(String hashtag) {
+        Tweet tweet = DataGenerator.generateRegularTweet();
+        tweet.setHashtags(List.of(hashtag));
+        return tweet;
+    }
+
+    private static List<String> items(List<SpaceSaving.Item> items) {
+        return items.stream().map(SpaceSaving.Item::item).toList();
+    }
+
+    private static class MutableClock extends Clock {
+        private final AtomicLong millis = new AtomicLong(Instant.parse("2024-08-01T12:00:00Z").toEpochMilli());
+
+        void advance(Duration duration) {
+            millis.addAndGet(duration.toMillis());
+        }
+
+        @Override
+        public long millis() {
+            return millis.get();
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis());
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
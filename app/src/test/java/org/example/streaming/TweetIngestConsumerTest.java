@@ -0,0 +1,282 @@
+package org.example.streaming;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
+import org.apache.kafka.clients.consumer.CommitFailedException;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.example.hadoop.HDFSWriter;
+import org.example.hadoop.HourPartition;
+import org.example.hadoop.Sidecars;
+import org.example.model.Tweet;
+import org.example.service.DataGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TweetIngestConsumerTest {
+
+    private static final String TOPIC = "tweets";
+    private static final TopicPartition P0 = new TopicPartition(TOPIC, 0);
+    private static final TopicPartition P1 = new TopicPartition(TOPIC, 1);
+    private static final HourPartition HOUR = new HourPartition(2024, 8, 1, 10);
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @TempDir
+    File tempDir;
+
+    private FileSystem fileSystem;
+    private HDFSWriter hdfsWriter;
+    private String basePath;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        fileSystem = FileSystem.getLocal(new Configuration());
+        hdfsWriter = new HDFSWriter(fileSystem);
+        basePath = tempDir.getAbsolutePath();
+    }
+
+    @Test
+    void testWritesHourFilesAndCommitsOffsetsOnlyAfterTheyAreOnHdfs() throws Exception {
+        MockConsumer<String, byte[]> consumer = newConsumer();
+        MutableClock clock = new MutableClock(Instant.parse("2024-08-01T12:00:00Z").toEpochMilli());
+        TweetIngestConsumer ingest = new TweetIngestConsumer(consumer, hdfsWriter, basePath,
+            Long.MAX_VALUE, Duration.ofSeconds(30), clock);
+        ingest.subscribe(TOPIC);
+        consumer.rebalance(List.of(P0, P1));
+
+        // P0 spans two hours, P1 one; P1 also carries a record that is not a tweet
+        for (int i = 0; i < 10; i++) {
+            consumer.addRecord(record(P0, i, tweetAt(HOUR.plusHours(i % 2).startEpochSecond() + i)));
+        }
+        for (int i = 0; i < 5; i++) {
+            consumer.addRecord(record(P1, i, tweetAt(HOUR.startEpochSecond() + 60 * i)));
+        }
+        consumer.addRecord(new ConsumerRecord<>(TOPIC, 1, 5, "broken", "{not json".getBytes(StandardCharsets.UTF_8)));
+
+        ingest.pollOnce();
+        assertTrue(dataFiles().isEmpty(), "Nothing is written before the batch is due");
+        assertTrue(consumer.committed(Set.of(P0, P1)).values().stream().allMatch(offset -> offset == null));
+
+        clock.advance(Duration.ofSeconds(30));
+        ingest.pollOnce();
+        Map<String, List<Tweet>> files = dataFiles();
+        assertEquals(Set.of(
+            HOUR.path(basePath, "tweets") + "/" + TweetIngestConsumer.fileName(P0, 0, 8),
+            HOUR.plusHours(1).path(basePath, "tweets") + "/" + TweetIngestConsumer.fileName(P0, 1, 9),
+            HOUR.path(basePath, "tweets") + "/" + TweetIngestConsumer.fileName(P1, 0, 4)), files.keySet());
+        assertEquals(15, files.values().stream().mapToInt(List::size).sum());
+        assertEquals(new OffsetAndMetadata(10), consumer.committed(Set.of(P0)).get(P0));
+        assertEquals(new OffsetAndMetadata(6), consumer.committed(Set.of(P1)).get(P1), "Skipped records are committed too");
+        assertEquals(15, ingest.getRecordsWritten());
+        assertEquals(1, ingest.getRecordsSkipped());
+
+        // Shutting down flushes what is buffered before the consumer leaves
+        consumer.addRecord(record(P1, 6, tweetAt(HOUR.startEpochSecond())));
+        ingest.pollOnce();
+        ingest.shutdown();
+        ingest.run();
+        assertEquals(new OffsetAndMetadata(7), consumer.committed(Set.of(P1)).get(P1));
+        assertEquals(4, dataFiles().size());
+    }
+
+    @Test
+    void testReplayAfterFailedCommitRewritesTheSameFiles() throws Exception {
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            tweets.add(tweetAt(HOUR.startEpochSecond() + i));
+        }
+
+        // The first member writes offsets 0-11 but dies before its commit goes through
+        MockConsumer<String, byte[]> failing = new MockConsumer<>(OffsetResetStrategy.EARLIEST) {
+            @Override
+            public synchronized void commitSync(Map<TopicPartition, OffsetAndMetadata> offsets) {
+                throw new CommitFailedException();
+            }
+        };
+        TweetIngestConsumer first = new TweetIngestConsumer(failing, hdfsWriter, basePath, 1, Duration.ofHours(1),
+            Clock.systemUTC());
+        first.subscribe(TOPIC);
+        failing.rebalance(List.of(P0));
+        failing.updateBeginningOffsets(Map.of(P0, 0L));
+        for (int i = 0; i < 12; i++) {
+            failing.addRecord(record(P0, i, tweets.get(i)));
+        }
+        assertThrows(CommitFailedException.class, first::pollOnce);
+        assertEquals(1, dataFiles().size());
+
+        // The next member replays from the last committed offset in differently sized batches
+        MockConsumer<String, byte[]> consumer = newConsumer();
+        TweetIngestConsumer second = new TweetIngestConsumer(consumer, hdfsWriter, basePath, 1, Duration.ofHours(1),
+            Clock.systemUTC());
+        second.subscribe(TOPIC);
+        consumer.rebalance(List.of(P0));
+        for (int i = 0; i < 20; i++) {
+            consumer.addRecord(record(P0, i, tweets.get(i)));
+        }
+        second.pollOnce();
+
+        Map<String, List<Tweet>> files = dataFiles();
+        assertEquals(1, files.size(), "Replayed batch replaced the uncommitted file: " + files.keySet());
+        assertEquals(tweets.stream().map(Tweet::getTweetId).toList(),
+            files.values().iterator().next().stream().map(Tweet::getTweetId).toList());
+        assertEquals(new OffsetAndMetadata(20), consumer.committed(Set.of(P0)).get(P0));
+    }
+
+    @Test
+    void testReplayWithOtherBatchBoundariesDoesNotDuplicate() throws Exception {
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            // Two interleaved hours, so each hour file spans offsets of the other
+            tweets.add(tweetAt(HOUR.plusHours(i % 2).startEpochSecond() + i));
+        }
+
+        // One member writes offsets 0-19 as one batch and dies before committing
+        MockConsumer<String, byte[]> failing = new MockConsumer<>(OffsetResetStrategy.EARLIEST) {
+            @Override
+            public synchronized void commitSync(Map<TopicPartition, OffsetAndMetadata> offsets) {
+                throw new CommitFailedException();
+            }
+        };
+        TweetIngestConsumer first = new TweetIngestConsumer(failing, hdfsWriter, basePath, 1, Duration.ofHours(1),
+            Clock.systemUTC());
+        first.subscribe(TOPIC);
+        failing.rebalance(List.of(P0));
+        failing.updateBeginningOffsets(Map.of(P0, 0L));
+        for (int i = 0; i < 20; i++) {
+            failing.addRecord(record(P0, i, tweets.get(i)));
+        }
+        assertThrows(CommitFailedException.class, first::pollOnce);
+        assertEquals(2, dataFiles().size());
+
+        // The next member replays the same offsets in two smaller batches
+        MockConsumer<String, byte[]> consumer = newConsumer();
+        TweetIngestConsumer second = new TweetIngestConsumer(consumer, hdfsWriter, basePath, 1, Duration.ofHours(1),
+            Clock.systemUTC());
+        second.subscribe(TOPIC);
+        consumer.rebalance(List.of(P0));
+        for (int i = 0; i < 7; i++) {
+            consumer.addRecord(record(P0, i, tweets.get(i)));
+        }
+        second.pollOnce();
+        for (int i = 7; i < 20; i++) {
+            consumer.addRecord(record(P0, i, tweets.get(i)));
+        }
+        second.pollOnce();
+
+        List<String> written = dataFiles().values().stream().flatMap(List::stream).map(Tweet::getTweetId).sorted().toList();
+        assertEquals(tweets.stream().map(Tweet::getTweetId).sorted().toList(), written);
+        assertEquals(4, dataFiles().size());
+        assertEquals(new OffsetAndMetadata(20), consumer.committed(Set.of(P0)).get(P0));
+    }
+
+    @Test
+    void testOverlapMatchesOnlyFilesOfTheSameKafkaPartition() {
+        String file = TweetIngestConsumer.fileName(P1, 100, 200);
+        assertTrue(TweetIngestConsumer.overlaps(P1, file, 150, 300));
+        assertTrue(TweetIngestConsumer.overlaps(P1, file, 0, 100));
+        assertFalse(TweetIngestConsumer.overlaps(P1, file, 201, 300));
+        assertFalse(TweetIngestConsumer.overlaps(P0, file, 150, 300));
+        assertFalse(TweetIngestConsumer.overlaps(new TopicPartition(TOPIC, 10), file, 150, 300));
+        assertFalse(TweetIngestConsumer.overlaps(P1, "tweets_20240801_100000_abcd1234-0.json", 0, Long.MAX_VALUE));
+    }
+
+    private MockConsumer<String, byte[]> newConsumer() {
+        MockConsumer<String, byte[]> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        consumer.updateBeginningOffsets(Map.of(P0, 0L, P1, 0L));
+        return consumer;
+    }
+
+    private static ConsumerRecord<String, byte[]> record(TopicPartition partition, long offset, Tweet tweet) throws Exception {
+        return new ConsumerRecord<>(partition.topic(), partition.partition(), offset, tweet.getTweetId(),
+            OBJECT_MAPPER.writeValueAsBytes(tweet));
+    }
+
+    private static Tweet tweetAt(long epochSecond) {
+        Tweet tweet = DataGenerator.generateRegularTweet();
+        tweet.setTimestamp(epochSecond);
+        return tweet;
+    }
+
+    private Map<String, List<Tweet>> dataFiles() throws Exception {
+        Map<String, List<Tweet>> files = new HashMap<>();
+        Path tweets = new Path(basePath, "tweets");
+        if (!fileSystem.exists(tweets)) {
+            return files;
+        }
+        RemoteIterator<LocatedFileStatus> iterator = fileSystem.listFiles(tweets, true);
+        while (iterator.hasNext()) {
+            Path path = iterator.next().getPath();
+            if (!Sidecars.isDataFile(path.getName()) || path.getName().endsWith(".crc")) {
+                continue;
+            }
+            List<Tweet> lines = new ArrayList<>();
+            try (FSDataInputStream in = fileSystem.open(path);
+                 BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lines.add(OBJECT_MAPPER.readValue(line, Tweet.class));
+                }
+            }
+            files.put(Path.getPathWithoutSchemeAndAuthority(path).toString(), lines);
+        }
+        return files;
+    }
+
+    private static class MutableClock extends Clock {
+        private long millis;
+
+        MutableClock(long millis) {
+            this.millis = millis;
+        }
+
+        void advance(Duration duration) {
+            millis += duration.toMillis();
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}